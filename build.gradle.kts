@@ -25,15 +25,62 @@ java {
 	targetCompatibility = JavaVersion.VERSION_11
 }
 
+// Classes which replace their Java 11 version on Java 17 and newer
+val java17: SourceSet by sourceSets.creating {
+	java.setSrcDirs(listOf("src/main/java17"))
+	compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+}
+
+val jmh: SourceSet by sourceSets.creating {
+	compileClasspath += java17.output + sourceSets.main.get().output
+	runtimeClasspath += java17.output + sourceSets.main.get().output + sourceSets.main.get().runtimeClasspath
+}
+
+val java17Compiler = javaToolchains.compilerFor {
+	languageVersion.set(JavaLanguageVersion.of(17))
+}
+
+listOf(java17.compileJavaTaskName, jmh.compileJavaTaskName).forEach { name ->
+	tasks.named<JavaCompile>(name) {
+		javaCompiler.set(java17Compiler)
+		sourceCompatibility = "17"
+		targetCompatibility = "17"
+		options.compilerArgs.addAll(listOf("--add-modules", "jdk.incubator.vector"))
+	}
+}
+
 dependencies {
 	implementation("com.fluxchess.jcpi:jcpi:1.4.1")
 
 	testImplementation(Libs.junitJupiterApi)
 	testRuntimeOnly(Libs.junitJupiterEngine)
 	testImplementation(Libs.assertjCore)
+
+	"jmhImplementation"(Libs.jmhCore)
+	"jmhAnnotationProcessor"(Libs.jmhGeneratorAnnprocess)
+}
+
+tasks.jar {
+	into("META-INF/versions/17") {
+		from(java17.output)
+	}
+	manifest {
+		attributes("Multi-Release" to "true")
+	}
 }
 
 tasks.test {
 	ignoreFailures = ci.buildingOnCi
 	useJUnitPlatform()
 }
+
+tasks.register<JavaExec>("jmh") {
+	description = "Runs the JMH benchmarks."
+	group = "verification"
+	classpath = jmh.runtimeClasspath
+	main = "org.openjdk.jmh.Main"
+	javaLauncher.set(javaToolchains.launcherFor {
+		languageVersion.set(JavaLanguageVersion.of(17))
+	})
+	args = listOfNotNull(project.findProperty("jmh.includes") as String?)
+}
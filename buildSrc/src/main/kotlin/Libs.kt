@@ -21,4 +21,6 @@ object Libs {
 	val junitJupiterApi = "org.junit.jupiter:junit-jupiter-api:5.6.0"
 	val junitJupiterEngine = "org.junit.jupiter:junit-jupiter-engine:5.6.0"
 	val assertjCore = "org.assertj:assertj-core:3.15.0"
+	val jmhCore = "org.openjdk.jmh:jmh-core:1.26"
+	val jmhGeneratorAnnprocess = "org.openjdk.jmh:jmh-generator-annprocess:1.26"
 }
@@ -1 +1,3 @@
 rootProject.name = "flux"
+
+include("trainer")
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+import com.fluxchess.jcpi.models.GenericBoard;
+import com.fluxchess.jcpi.models.IllegalNotationException;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares parsing and writing FENs directly with the route through
+ * GenericBoard. Run with "./gradlew jmh -Pjmh.includes=FenBenchmark".
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FenBenchmark {
+
+	private static final String[] fens = {
+			"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+			"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+			"r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+			"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1"
+	};
+
+	private Position position;
+	private final StringBuilder builder = new StringBuilder();
+	private int index = 0;
+
+	@Setup
+	public void setUp() {
+		position = new Position(fens[0]);
+	}
+
+	private String next() {
+		index = (index + 1) % fens.length;
+		return fens[index];
+	}
+
+	@Benchmark
+	public Position genericBoardParse() throws IllegalNotationException {
+		return new Position(new GenericBoard(next()));
+	}
+
+	@Benchmark
+	public Position fenParse() {
+		position.fromFen(next());
+		return position;
+	}
+
+	@Benchmark
+	public String genericBoardWrite() {
+		return position.getBoard().toString();
+	}
+
+	@Benchmark
+	public int fenWrite() throws IOException {
+		builder.setLength(0);
+		position.toFen(builder);
+		return builder.length();
+	}
+}
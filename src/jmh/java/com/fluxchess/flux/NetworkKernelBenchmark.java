@@ -0,0 +1,92 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the scalar and the vector network kernel on the same weights.
+ * Run with "./gradlew jmh".
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class NetworkKernelBenchmark {
+
+	@Param({"128", "256", "512"})
+	int hiddenSize;
+
+	private short[] featureWeights;
+	private short[] outputWeights;
+	private short[] hidden;
+	private int startOffset;
+	private int endOffset;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(0);
+
+		featureWeights = new short[Network.INPUTS * hiddenSize];
+		for (int i = 0; i < featureWeights.length; i++) {
+			featureWeights[i] = (short) (random.nextInt(65) - 32);
+		}
+		outputWeights = new short[hiddenSize];
+		for (int i = 0; i < outputWeights.length; i++) {
+			outputWeights[i] = (short) (random.nextInt(2 * Network.QB + 1) - Network.QB);
+		}
+		hidden = new short[hiddenSize];
+		for (int i = 0; i < hidden.length; i++) {
+			hidden[i] = (short) random.nextInt(Network.QA);
+		}
+
+		// A knight move from g1 to f3
+		startOffset = Network.getFeature(Color.WHITE, PieceType.KNIGHT, Color.WHITE, Square.g1) * hiddenSize;
+		endOffset = Network.getFeature(Color.WHITE, PieceType.KNIGHT, Color.WHITE, Square.f3) * hiddenSize;
+	}
+
+	@Benchmark
+	public short scalarMove() {
+		ScalarKernel.move(hidden, featureWeights, startOffset, endOffset, hiddenSize);
+		ScalarKernel.move(hidden, featureWeights, endOffset, startOffset, hiddenSize);
+		return hidden[0];
+	}
+
+	@Benchmark
+	public short vectorMove() {
+		VectorKernel.move(hidden, featureWeights, startOffset, endOffset, hiddenSize);
+		VectorKernel.move(hidden, featureWeights, endOffset, startOffset, hiddenSize);
+		return hidden[0];
+	}
+
+	@Benchmark
+	public int scalarDot() {
+		return ScalarKernel.dot(hidden, outputWeights, 0, hiddenSize, Network.QA);
+	}
+
+	@Benchmark
+	public int vectorDot() {
+		return VectorKernel.dot(hidden, outputWeights, 0, hiddenSize, Network.QA);
+	}
+}
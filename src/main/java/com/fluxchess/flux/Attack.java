@@ -71,6 +71,22 @@ final class Attack {
 			0, 0, 0, 0, 0, 0, 0, 0                                    // 248 - 255
 	};
 
+	// Attack map encoding. Every chessman has its own 4 bit attacker counter.
+	static final int ONE_PAWN = 1 << (PieceType.PAWN << 2);
+	static final int ONE_KNIGHT = 1 << (PieceType.KNIGHT << 2);
+	static final int ONE_KING = 1 << (PieceType.KING << 2);
+	static final int ONE_BISHOP = 1 << (PieceType.BISHOP << 2);
+	static final int ONE_ROOK = 1 << (PieceType.ROOK << 2);
+	static final int ONE_QUEEN = 1 << (PieceType.QUEEN << 2);
+	static final int MASK_PAWN = 0xF * ONE_PAWN;
+	static final int MASK_KNIGHT = 0xF * ONE_KNIGHT;
+	static final int MASK_KING = 0xF * ONE_KING;
+	static final int MASK_BISHOP = 0xF * ONE_BISHOP;
+	static final int MASK_ROOK = 0xF * ONE_ROOK;
+	static final int MASK_QUEEN = 0xF * ONE_QUEEN;
+	static final int MASK_MINOR = MASK_KNIGHT | MASK_BISHOP;
+	static final int MASK_SLIDER = MASK_BISHOP | MASK_ROOK | MASK_QUEEN;
+
 	private static final int MAXATTACK = 16;
 
 	/**
@@ -89,4 +105,40 @@ final class Attack {
 	boolean isCheck() {
 		return this.count != 0;
 	}
+
+	/**
+	 * Returns the attack map unit for the chessman.
+	 *
+	 * @param chessman the chessman.
+	 * @return the attack map unit.
+	 */
+	static int valueOf(int chessman) {
+		assert chessman != Piece.NOPIECE;
+
+		return 1 << (chessman << 2);
+	}
+
+	/**
+	 * Returns the number of attackers of the chessman in the attack map value.
+	 *
+	 * @param attackers the attack map value.
+	 * @param chessman  the chessman.
+	 * @return the number of attackers.
+	 */
+	static int getCount(int attackers, int chessman) {
+		assert chessman != Piece.NOPIECE;
+
+		return (attackers >>> (chessman << 2)) & 0xF;
+	}
+
+	/**
+	 * Returns the total number of attackers in the attack map value.
+	 *
+	 * @param attackers the attack map value.
+	 * @return the number of attackers.
+	 */
+	static int getCount(int attackers) {
+		int count = (attackers & 0x0F0F0F0F) + ((attackers >>> 4) & 0x0F0F0F0F);
+		return (count * 0x01010101) >>> 24;
+	}
 }
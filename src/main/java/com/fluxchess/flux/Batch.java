@@ -0,0 +1,188 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scores FENs from a file with the static evaluation or the quiescent
+ * search. Each output line is the input line followed by ';' and the
+ * value for the active color in centipawns, or "error" if the line is not
+ * a valid FEN. The output has the same order as the input.
+ * <p>
+ * Position, Evaluation and Search have static state, so the worker pool is
+ * made of worker JVMs. The lines are handed out round robin and the
+ * results are collected in the same order.
+ */
+final class Batch {
+
+	static final String EVALUATION = "eval";
+	static final String QUIESCENT = "qsearch";
+
+	private final String mode;
+
+	private Position board = null;
+	private Evaluation evaluation = null;
+	private Search search = null;
+
+	Batch(String mode) {
+		if (!mode.equalsIgnoreCase(EVALUATION) && !mode.equalsIgnoreCase(QUIESCENT)) {
+			throw new IllegalArgumentException("Unknown batch mode: " + mode);
+		}
+
+		this.mode = mode.toLowerCase();
+	}
+
+	/**
+	 * Scores all lines of the input file into the output file.
+	 *
+	 * @param input   the input file.
+	 * @param output  the output file.
+	 * @param workers the number of worker JVMs. With one worker the lines are
+	 *                scored in this JVM.
+	 */
+	void run(Path input, Path output, int workers) throws IOException, InterruptedException {
+		assert workers > 0;
+
+		long startTime = System.currentTimeMillis();
+		long count;
+		try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+			 PrintWriter writer = new PrintWriter(Files.newBufferedWriter(output, StandardCharsets.UTF_8))) {
+			if (workers == 1) {
+				count = work(reader, writer);
+			} else {
+				count = distribute(reader, writer, workers);
+			}
+		}
+		long duration = Math.max(1, System.currentTimeMillis() - startTime);
+
+		System.out.format("Scored %d positions in %d ms, %d positions/s%n", count, duration, count * 1000 / duration);
+	}
+
+	private long distribute(BufferedReader reader, PrintWriter writer, int workers) throws IOException, InterruptedException {
+		List<Process> processes = new ArrayList<>();
+		List<PrintWriter> inputs = new ArrayList<>();
+		List<BufferedReader> outputs = new ArrayList<>();
+		for (int i = 0; i < workers; i++) {
+			Process process = new ProcessBuilder(
+					Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+					"-cp", System.getProperty("java.class.path"),
+					Main.class.getName(), "batch-worker", this.mode)
+					.redirectError(ProcessBuilder.Redirect.INHERIT)
+					.start();
+			processes.add(process);
+			inputs.add(new PrintWriter(new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8))));
+			outputs.add(new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8)));
+		}
+
+		// Feed the workers in a separate thread, so a full output pipe of a
+		// worker cannot block us
+		IOException[] feedException = new IOException[1];
+		Thread feeder = new Thread(() -> {
+			try {
+				String line;
+				long number = 0;
+				while ((line = reader.readLine()) != null) {
+					inputs.get((int) (number++ % workers)).println(line);
+				}
+			} catch (IOException e) {
+				feedException[0] = e;
+			} finally {
+				for (PrintWriter input : inputs) {
+					input.close();
+				}
+			}
+		});
+		feeder.start();
+
+		long count = 0;
+		String line;
+		while ((line = outputs.get((int) (count % workers)).readLine()) != null) {
+			writer.println(line);
+			count++;
+		}
+
+		feeder.join();
+		for (Process process : processes) {
+			process.waitFor();
+		}
+		if (feedException[0] != null) {
+			throw feedException[0];
+		}
+
+		return count;
+	}
+
+	/**
+	 * Scores each input line into one output line.
+	 *
+	 * @param reader the input.
+	 * @param writer the output.
+	 * @return the number of lines.
+	 */
+	long work(BufferedReader reader, PrintWriter writer) throws IOException {
+		long count = 0;
+
+		String line;
+		while ((line = reader.readLine()) != null) {
+			writer.print(line);
+			writer.print(';');
+			try {
+				if (this.board == null) {
+					this.board = new Position(line);
+					new See(this.board);
+				} else {
+					this.board.fromFen(line);
+				}
+				writer.println(score());
+			} catch (IllegalArgumentException e) {
+				writer.println("error");
+			}
+			count++;
+		}
+		writer.flush();
+
+		return count;
+	}
+
+	private int score() {
+		if (this.mode.equals(EVALUATION)) {
+			if (this.evaluation == null) {
+				this.evaluation = new Evaluation();
+			}
+			return this.evaluation.evaluate(this.board);
+		} else {
+			if (this.search == null) {
+				this.search = new Search(new SilentProtocol(), this.board, new TranspositionTable(1), new int[Depth.MAX_PLY + 1]);
+			}
+			return this.search.quiescent(this.board);
+		}
+	}
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+/**
+ * Bitboards use one bit for each square. The bit index is the square index
+ * (0 - 63), see Square.toIndex().
+ */
+final class Bitboard {
+
+	// The positions around the king for each square index
+	static final long[] kingZone = new long[64];
+
+	// The positions attacked by a pawn for each color and square index
+	static final long[][] pawnAttacks = new long[Color.ARRAY_DIMENSION][64];
+
+	// The positions in front of a pawn on the same file
+	static final long[][] frontSpan = new long[Color.ARRAY_DIMENSION][64];
+
+	// The positions in front of a pawn on the same and the adjacent files.
+	// The pawn is a passer if there are no enemy pawns on them.
+	static final long[][] passedMask = new long[Color.ARRAY_DIMENSION][64];
+
+	// The positions on the adjacent files. The pawn is isolated if there are
+	// no own pawns on them.
+	static final long[] isolatedMask = new long[64];
+
+	// The positions on the adjacent files at the rank of a pawn or behind it.
+	// The pawn is behind its neighbours if there are no own pawns on them.
+	static final long[][] backwardMask = new long[Color.ARRAY_DIMENSION][64];
+
+	static {
+		for (int position : Square.values) {
+			int index = Square.toIndex(position);
+
+			for (int delta : Square.kingDirections) {
+				int targetPosition = position + delta;
+				if ((targetPosition & 0x88) == 0) {
+					kingZone[index] |= valueOf(targetPosition);
+				}
+			}
+
+			for (int color : Color.values) {
+				int sign = 1;
+				if (color == Color.BLACK) {
+					sign = -1;
+				}
+
+				for (int i = 1; i < Square.pawnDirections.length; i++) {
+					int targetPosition = position + sign * Square.pawnDirections[i];
+					if ((targetPosition & 0x88) == 0) {
+						pawnAttacks[color][index] |= valueOf(targetPosition);
+					}
+				}
+
+				for (int targetPosition = position + sign * 16; (targetPosition & 0x88) == 0; targetPosition += sign * 16) {
+					frontSpan[color][index] |= valueOf(targetPosition);
+				}
+			}
+		}
+
+		for (int position : Square.values) {
+			int index = Square.toIndex(position);
+			int file = Square.getFile(position);
+
+			for (int color : Color.values) {
+				passedMask[color][index] = frontSpan[color][index];
+				if (file > 0) {
+					passedMask[color][index] |= frontSpan[color][index - 1];
+					isolatedMask[index] |= frontSpan[color][index - 1] | valueOf(position - 1);
+					backwardMask[color][index] |= frontSpan[Color.switchColor(color)][index - 1] | valueOf(position - 1);
+				}
+				if (file < 7) {
+					passedMask[color][index] |= frontSpan[color][index + 1];
+					isolatedMask[index] |= frontSpan[color][index + 1] | valueOf(position + 1);
+					backwardMask[color][index] |= frontSpan[Color.switchColor(color)][index + 1] | valueOf(position + 1);
+				}
+			}
+		}
+	}
+
+	private Bitboard() {
+	}
+
+	/**
+	 * Returns the bitboard of the position.
+	 *
+	 * @param position the position.
+	 * @return the bitboard with only the position set.
+	 */
+	static long valueOf(int position) {
+		assert (position & 0x88) == 0;
+
+		return 1L << Square.toIndex(position);
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+import java.util.Arrays;
+
+/**
+ * This table is used to store the capture history. It keeps the history
+ * value of a capture indexed by the moving piece, the end square and the
+ * captured chessman.
+ */
+final class CaptureHistoryTable {
+
+	private static final int TARGET_SIZE = PieceType.MASK + 1;
+
+	private final int[] captureHistoryTable = new int[ContinuationTable.MOVE_SIZE * TARGET_SIZE];
+
+	/**
+	 * Creates a new CaptureHistoryTable.
+	 */
+	CaptureHistoryTable() {
+	}
+
+	private static int getIndex(int move) {
+		assert Move.getTarget(move) != Piece.NOPIECE;
+
+		return ContinuationTable.getIndex(move) * TARGET_SIZE + Move.getTarget(move);
+	}
+
+	/**
+	 * Returns the history value of the capture.
+	 *
+	 * @param move the IntMove.
+	 * @return the history value.
+	 */
+	int get(int move) {
+		return captureHistoryTable[getIndex(move)];
+	}
+
+	/**
+	 * Updates the history value of the capture.
+	 *
+	 * @param move  the IntMove.
+	 * @param bonus the bonus or a negative malus.
+	 */
+	void add(int move, int bonus) {
+		int index = getIndex(move);
+		captureHistoryTable[index] = HistoryTable.update(captureHistoryTable[index], bonus);
+	}
+
+	void clear() {
+		Arrays.fill(captureHistoryTable, 0);
+	}
+}
@@ -34,6 +34,7 @@ final class Configuration {
 	static boolean useExtendedFutilityPruning = true;
 	static boolean useLateMoveReduction = true;
 	static boolean useLateMoveReductionResearch = true;
+	static boolean useProbCut = true;
 	static boolean useDeltaPruning = true;
 	static boolean useMinorPromotionPruning = true;
 
@@ -41,8 +42,16 @@ final class Configuration {
 	static boolean useTranspositionTable = true;
 	static boolean useKillerTable = true;
 	static boolean useHistoryTable = true;
+	static boolean useCounterMoveTable = true;
+	static boolean useContinuationTable = true;
+	static boolean useCaptureHistoryTable = true;
 	static boolean useEvaluationTable = true;
 	static boolean usePawnTable = true;
+	static boolean useMaterialTable = true;
+
+	// Evaluation
+	static boolean useLazyEvaluation = true;
+	static boolean useNetwork = true;
 
 	// Extensions
 	static boolean useSingleReplyExtension = true;
@@ -50,6 +59,10 @@ final class Configuration {
 	static boolean useCheckExtension = true;
 	static boolean usePawnExtension = true;
 	static boolean useMateThreatExtension = true;
+	static boolean useSingularExtension = true;
+
+	// Debugging
+	static boolean debug = false;
 
 	static boolean ponder = true;
 	static final CheckboxOption ponderOption = Options.newPonderOption(ponder);
@@ -70,13 +83,18 @@ final class Configuration {
 	static boolean analyzeMode = false;
 	static final CheckboxOption uciAnalyzeModeOption = Options.newUciAnalyseModeOption(analyzeMode);
 
+	static final String defaultNetworkFile = "<empty>";
+	static String networkFile = defaultNetworkFile;
+	static final StringOption networkFileOption = new StringOption("EvalFile", networkFile);
+
 	static final AbstractOption[] options = new AbstractOption[]{
 			ponderOption,
 			multiPVOption,
 			hashOption,
 			clearHashOption,
 			uciShowRefutationsOption,
-			uciAnalyzeModeOption
+			uciAnalyzeModeOption,
+			networkFileOption
 	};
 
 	private Configuration() {
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+import java.util.Arrays;
+
+/**
+ * This table is used to store the continuation history. It keeps the
+ * history value of a quiet move after a previous move, indexed by the piece
+ * and the end square of both moves. We keep one table for the previous move
+ * and one for the move before.
+ */
+final class ContinuationTable {
+
+	// Index of a move by piece and end square
+	static final int MOVE_SIZE = Piece.PIECE_VALUE_SIZE * 64;
+
+	private final int[] continuationTable = new int[MOVE_SIZE * MOVE_SIZE];
+
+	/**
+	 * Creates a new ContinuationTable.
+	 */
+	ContinuationTable() {
+	}
+
+	/**
+	 * Returns the index of the move by piece and end square.
+	 *
+	 * @param move the IntMove.
+	 * @return the index.
+	 */
+	static int getIndex(int move) {
+		assert move != Move.NOMOVE;
+		assert Move.getChessman(move) != Piece.NOPIECE;
+		assert (Move.getEnd(move) & 0x88) == 0;
+
+		return Move.getChessmanPiece(move) << 6 | Square.toIndex(Move.getEnd(move));
+	}
+
+	/**
+	 * Returns the history value of the move after the previous move.
+	 *
+	 * @param previousMove the previous IntMove or Move.NOMOVE.
+	 * @param move         the IntMove.
+	 * @return the history value.
+	 */
+	int get(int previousMove, int move) {
+		if (previousMove == Move.NOMOVE) {
+			return 0;
+		}
+
+		return continuationTable[getIndex(previousMove) * MOVE_SIZE + getIndex(move)];
+	}
+
+	/**
+	 * Updates the history value of the move after the previous move.
+	 *
+	 * @param previousMove the previous IntMove or Move.NOMOVE.
+	 * @param move         the IntMove.
+	 * @param bonus        the bonus or a negative malus.
+	 */
+	void add(int previousMove, int move, int bonus) {
+		if (previousMove == Move.NOMOVE) {
+			return;
+		}
+
+		int index = getIndex(previousMove) * MOVE_SIZE + getIndex(move);
+		continuationTable[index] = HistoryTable.update(continuationTable[index], bonus);
+	}
+
+	void clear() {
+		Arrays.fill(continuationTable, 0);
+	}
+}
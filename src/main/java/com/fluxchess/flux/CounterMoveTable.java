@@ -0,0 +1,70 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+import java.util.Arrays;
+
+/**
+ * This table is used to store the Counter Moves. It keeps the last quiet
+ * move which caused a cut-off after a previous move, indexed by the piece
+ * and the end square of the previous move.
+ */
+final class CounterMoveTable {
+
+	private final int[] counterMoveTable = new int[ContinuationTable.MOVE_SIZE];
+
+	/**
+	 * Creates a new CounterMoveTable.
+	 */
+	CounterMoveTable() {
+		clear();
+	}
+
+	/**
+	 * Returns the counter move.
+	 *
+	 * @param previousMove the previous IntMove or Move.NOMOVE.
+	 * @return the counter move or Move.NOMOVE.
+	 */
+	int get(int previousMove) {
+		if (previousMove == Move.NOMOVE) {
+			return Move.NOMOVE;
+		}
+
+		return counterMoveTable[ContinuationTable.getIndex(previousMove)];
+	}
+
+	/**
+	 * Sets the counter move.
+	 *
+	 * @param previousMove the previous IntMove or Move.NOMOVE.
+	 * @param move         the new counter move.
+	 */
+	void add(int previousMove, int move) {
+		assert move != Move.NOMOVE;
+
+		if (previousMove != Move.NOMOVE) {
+			counterMoveTable[ContinuationTable.getIndex(previousMove)] = move;
+		}
+	}
+
+	void clear() {
+		Arrays.fill(counterMoveTable, Move.NOMOVE);
+	}
+}
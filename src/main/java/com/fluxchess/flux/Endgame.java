@@ -0,0 +1,454 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+import com.fluxchess.jcpi.models.GenericChessman;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Specialized evaluators for known endgames. They are selected by the
+ * material key. A scoring evaluator replaces the whole evaluation, a
+ * scaling evaluator only adjusts the draw factors.
+ */
+final class Endgame {
+
+	static final int NONE = 0;
+
+	// Scaling evaluators
+	static final int KPKMINOR = 1;
+	static final int OPPOSITEBISHOPS = 2;
+
+	// Scoring evaluators
+	static final int KXK = 3;
+	static final int KBNK = 4;
+	static final int KPK = 5;
+
+	private static final int EVAL_PUSH_TO_EDGE = 10;
+	private static final int EVAL_PUSH_TO_CORNER = 20;
+	private static final int EVAL_PUSH_CLOSE = 10;
+	private static final int EVAL_KPK_WIN = Piece.VALUE_ROOK;
+	private static final int EVAL_KPK_RANK = 10;
+	private static final int OPPOSITEBISHOPS_FACTOR = Evaluation.DRAW_FACTOR / 2;
+	private static final int OPPOSITEBISHOPS_PAWN_FACTOR = Evaluation.DRAW_FACTOR / 4;
+
+	// Our registry. It maps the material key to the endgame and the strong
+	// color.
+	private static final Map<Long, Integer> registry = new HashMap<>();
+
+	// Our KPK bitbase. The strong side is white and the pawn is on the files
+	// a - d.
+	private static final byte KPK_INVALID = 0;
+	private static final byte KPK_UNKNOWN = 1;
+	private static final byte KPK_DRAW = 2;
+	private static final byte KPK_WIN = 4;
+	private static final byte[] kpkBitbase = new byte[4 * 6 * Color.ARRAY_DIMENSION * 64 * 64];
+
+	static {
+		register("KPKN", KPKMINOR);
+		register("KPKB", KPKMINOR);
+		register("KRK", KXK);
+		register("KQK", KXK);
+		register("KBNK", KBNK);
+		register("KPK", KPK);
+
+		initializeKPK();
+	}
+
+	private Endgame() {
+	}
+
+	/**
+	 * Registers the endgame for both colors.
+	 *
+	 * @param signature the material signature of the strong side and the weak
+	 *                  side, e.g. KBNK.
+	 * @param endgame   the endgame.
+	 */
+	private static void register(String signature, int endgame) {
+		int weakSide = signature.indexOf('K', 1);
+		assert signature.charAt(0) == 'K' && weakSide > 0;
+
+		for (int strongColor : Color.values) {
+			int weakColor = Color.switchColor(strongColor);
+			long materialKey = 0;
+			for (int i = 1; i < signature.length(); i++) {
+				if (i != weakSide) {
+					int chessman = Piece.valueOfChessman(GenericChessman.valueOf(signature.charAt(i)));
+					materialKey += MaterialTable.valueOf(chessman, i < weakSide ? strongColor : weakColor);
+				}
+			}
+			registry.put(materialKey, endgame * Color.ARRAY_DIMENSION + strongColor);
+		}
+	}
+
+	/**
+	 * Sets the endgame of the material table entry.
+	 *
+	 * @param entry the material table entry.
+	 */
+	static void probe(MaterialTable.MaterialTableEntry entry) {
+		long materialKey = entry.materialKey;
+
+		Integer value = registry.get(materialKey);
+		if (value != null) {
+			entry.endgame = value / Color.ARRAY_DIMENSION;
+			entry.endgameColor = value % Color.ARRAY_DIMENSION;
+		} else {
+			// Check for a bishop on each side and pawns only
+			boolean oppositeBishops = true;
+			for (int color : Color.values) {
+				if (MaterialTable.getCount(materialKey, PieceType.BISHOP, color) != 1
+						|| MaterialTable.getCount(materialKey, PieceType.KNIGHT, color) != 0
+						|| MaterialTable.getCount(materialKey, PieceType.ROOK, color) != 0
+						|| MaterialTable.getCount(materialKey, PieceType.QUEEN, color) != 0) {
+					oppositeBishops = false;
+					break;
+				}
+			}
+			if (oppositeBishops) {
+				entry.endgame = OPPOSITEBISHOPS;
+				entry.endgameColor = Color.WHITE;
+			}
+		}
+	}
+
+	/**
+	 * Returns whether the endgame replaces the whole evaluation.
+	 *
+	 * @param endgame the endgame.
+	 * @return true if the endgame is a scoring endgame, false otherwise.
+	 */
+	static boolean isScoring(int endgame) {
+		return endgame >= KXK;
+	}
+
+	/**
+	 * Evaluates a scoring endgame.
+	 *
+	 * @param endgame     the endgame.
+	 * @param strongColor the strong color.
+	 * @param myColor     the color to move.
+	 * @return the evaluation value in centipawns from the point of view of
+	 * the color to move.
+	 */
+	static int evaluate(int endgame, int strongColor, int myColor) {
+		assert isScoring(endgame);
+
+		int value;
+		switch (endgame) {
+			case KXK:
+				value = evaluateKXK(strongColor);
+				break;
+			case KBNK:
+				value = evaluateKBNK(strongColor);
+				break;
+			case KPK:
+				value = evaluateKPK(strongColor, myColor);
+				break;
+			default:
+				assert false : endgame;
+				value = Value.DRAW;
+				break;
+		}
+
+		if (strongColor == myColor) {
+			return value;
+		} else {
+			return -value;
+		}
+	}
+
+	/**
+	 * Scales the draw factors with a scaling endgame.
+	 *
+	 * @param endgame     the endgame.
+	 * @param strongColor the strong color.
+	 * @param drawFactor  the draw factors of both colors.
+	 */
+	static void scale(int endgame, int strongColor, int[] drawFactor) {
+		switch (endgame) {
+			case NONE:
+				break;
+			case KPKMINOR:
+				scaleKPKMinor(strongColor, drawFactor);
+				break;
+			case OPPOSITEBISHOPS:
+				scaleOppositeBishops(drawFactor);
+				break;
+			default:
+				assert false : endgame;
+				break;
+		}
+	}
+
+	private static void scaleKPKMinor(int myColor, int[] drawFactor) {
+		assert Position.pawnList[myColor].size == 1;
+
+		int enemyColor = Color.switchColor(myColor);
+		int[] enemyAttackMap = Position.attackMap[enemyColor];
+
+		// Check the promotion path
+		int delta = 16;
+		if (myColor == Color.BLACK) {
+			delta = -16;
+		} else {
+			assert myColor == Color.WHITE;
+		}
+		int end = Position.pawnList[myColor].position[0] + delta;
+		while ((end & 0x88) == 0) {
+			int chessman = Position.board[end];
+			if ((chessman != Piece.NOPIECE && Piece.getColor(chessman) == enemyColor) || (enemyAttackMap[end] & Attack.MASK_MINOR) != 0) {
+				drawFactor[myColor] = 1;
+				break;
+			} else {
+				end += delta;
+			}
+		}
+	}
+
+	private static void scaleOppositeBishops(int[] drawFactor) {
+		assert Position.bishopList[Color.WHITE].size == 1;
+		assert Position.bishopList[Color.BLACK].size == 1;
+
+		int whiteBishop = Position.bishopList[Color.WHITE].position[0];
+		int blackBishop = Position.bishopList[Color.BLACK].position[0];
+		if (getSquareColor(whiteBishop) != getSquareColor(blackBishop)) {
+			int factor = OPPOSITEBISHOPS_FACTOR;
+			if (Math.abs(Position.pawnList[Color.WHITE].size - Position.pawnList[Color.BLACK].size) <= 1) {
+				factor = OPPOSITEBISHOPS_PAWN_FACTOR;
+			}
+			for (int color : Color.values) {
+				drawFactor[color] = Math.min(drawFactor[color], factor);
+			}
+		}
+	}
+
+	private static int evaluateKXK(int myColor) {
+		int enemyColor = Color.switchColor(myColor);
+		int myKing = Position.kingList[myColor].position[0];
+		int enemyKing = Position.kingList[enemyColor].position[0];
+
+		// Drive the enemy king to the edge and follow with our king
+		int value = Position.materialValue[myColor] - Position.materialValue[enemyColor];
+		value += EVAL_PUSH_TO_EDGE * getEdgeDistance(enemyKing);
+		value += EVAL_PUSH_CLOSE * (7 - Square.getDistance(myKing, enemyKing));
+
+		return value;
+	}
+
+	private static int evaluateKBNK(int myColor) {
+		int enemyColor = Color.switchColor(myColor);
+		int myKing = Position.kingList[myColor].position[0];
+		int enemyKing = Position.kingList[enemyColor].position[0];
+		int bishop = Position.bishopList[myColor].position[0];
+
+		// We can only mate in a corner of the bishop's color
+		int cornerDistance;
+		if (getSquareColor(bishop) == getSquareColor(Square.a1)) {
+			cornerDistance = Math.min(Square.getDistance(enemyKing, Square.a1), Square.getDistance(enemyKing, Square.h8));
+		} else {
+			cornerDistance = Math.min(Square.getDistance(enemyKing, Square.a8), Square.getDistance(enemyKing, Square.h1));
+		}
+
+		// Drive the enemy king to the corner and follow with our king
+		int value = Position.materialValue[myColor] - Position.materialValue[enemyColor];
+		value += EVAL_PUSH_TO_CORNER * (7 - cornerDistance);
+		value += EVAL_PUSH_CLOSE * (7 - Square.getDistance(myKing, enemyKing));
+
+		return value;
+	}
+
+	private static int evaluateKPK(int myColor, int activeColor) {
+		int enemyColor = Color.switchColor(myColor);
+		int myKing = Position.kingList[myColor].position[0];
+		int enemyKing = Position.kingList[enemyColor].position[0];
+		int pawn = Position.pawnList[myColor].position[0];
+
+		// Normalize the position, so that white is strong and the pawn is on
+		// the files a - d
+		if (myColor == Color.BLACK) {
+			myKing ^= 0x70;
+			enemyKing ^= 0x70;
+			pawn ^= 0x70;
+			activeColor = Color.switchColor(activeColor);
+		}
+		if (Square.getFile(pawn) > 3) {
+			myKing ^= 0x7;
+			enemyKing ^= 0x7;
+			pawn ^= 0x7;
+		}
+
+		if (kpkBitbase[getKPKIndex(myKing, enemyKing, activeColor, pawn)] == KPK_WIN) {
+			return EVAL_KPK_WIN + EVAL_KPK_RANK * Square.getRank(pawn);
+		} else {
+			return Value.DRAW;
+		}
+	}
+
+	private static void initializeKPK() {
+		// Classify the trivial positions
+		for (int pawnFile = 0; pawnFile < 4; pawnFile++) {
+			for (int pawnRank = 1; pawnRank < 7; pawnRank++) {
+				int pawn = pawnRank * 16 + pawnFile;
+				for (int activeColor : Color.values) {
+					for (int whiteKing : Square.values) {
+						for (int blackKing : Square.values) {
+							kpkBitbase[getKPKIndex(whiteKing, blackKing, activeColor, pawn)] = initializeKPK(whiteKing, blackKing, activeColor, pawn);
+						}
+					}
+				}
+			}
+		}
+
+		// Classify the other positions by looking at their successors
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int pawnFile = 0; pawnFile < 4; pawnFile++) {
+				for (int pawnRank = 1; pawnRank < 7; pawnRank++) {
+					int pawn = pawnRank * 16 + pawnFile;
+					for (int activeColor : Color.values) {
+						for (int whiteKing : Square.values) {
+							for (int blackKing : Square.values) {
+								int index = getKPKIndex(whiteKing, blackKing, activeColor, pawn);
+								if (kpkBitbase[index] == KPK_UNKNOWN) {
+									byte result = classifyKPK(whiteKing, blackKing, activeColor, pawn);
+									if (result != KPK_UNKNOWN) {
+										kpkBitbase[index] = result;
+										changed = true;
+									}
+								}
+							}
+						}
+					}
+				}
+			}
+		}
+
+		// All remaining positions are draws
+		for (int i = 0; i < kpkBitbase.length; i++) {
+			if (kpkBitbase[i] == KPK_UNKNOWN) {
+				kpkBitbase[i] = KPK_DRAW;
+			}
+		}
+	}
+
+	private static byte initializeKPK(int whiteKing, int blackKing, int activeColor, int pawn) {
+		int promotion = pawn + 16;
+
+		if (Square.getDistance(whiteKing, blackKing) <= 1
+				|| whiteKing == pawn
+				|| blackKing == pawn
+				|| (activeColor == Color.WHITE && (blackKing == pawn + 15 || blackKing == pawn + 17))) {
+			// Two chessmen on the same square or a king can be captured
+			return KPK_INVALID;
+		} else if (activeColor == Color.WHITE
+				&& Square.getRank(pawn) == 6
+				&& whiteKing != promotion
+				&& (Square.getDistance(blackKing, promotion) > 1 || Square.getDistance(whiteKing, promotion) == 1)) {
+			// The pawn promotes without getting captured
+			return KPK_WIN;
+		} else if (activeColor == Color.BLACK) {
+			boolean hasMove = false;
+			for (int delta : Square.kingDirections) {
+				int end = blackKing + delta;
+				if ((end & 0x88) == 0
+						&& Square.getDistance(end, whiteKing) > 1
+						&& end != pawn + 15 && end != pawn + 17) {
+					if (end == pawn) {
+						// The king captures the undefended pawn
+						return KPK_DRAW;
+					}
+					hasMove = true;
+				}
+			}
+			if (!hasMove) {
+				// Stalemate
+				return KPK_DRAW;
+			}
+		}
+
+		return KPK_UNKNOWN;
+	}
+
+	private static byte classifyKPK(int whiteKing, int blackKing, int activeColor, int pawn) {
+		int result = KPK_INVALID;
+
+		if (activeColor == Color.WHITE) {
+			for (int delta : Square.kingDirections) {
+				int end = whiteKing + delta;
+				if ((end & 0x88) == 0) {
+					result |= kpkBitbase[getKPKIndex(end, blackKing, Color.BLACK, pawn)];
+				}
+			}
+			if (Square.getRank(pawn) < 6) {
+				// Single push
+				result |= kpkBitbase[getKPKIndex(whiteKing, blackKing, Color.BLACK, pawn + 16)];
+			}
+			if (Square.getRank(pawn) == 1 && pawn + 16 != whiteKing && pawn + 16 != blackKing) {
+				// Double push
+				result |= kpkBitbase[getKPKIndex(whiteKing, blackKing, Color.BLACK, pawn + 32)];
+			}
+
+			if ((result & KPK_WIN) != 0) {
+				return KPK_WIN;
+			} else if ((result & KPK_UNKNOWN) != 0) {
+				return KPK_UNKNOWN;
+			} else {
+				return KPK_DRAW;
+			}
+		} else {
+			for (int delta : Square.kingDirections) {
+				int end = blackKing + delta;
+				if ((end & 0x88) == 0) {
+					result |= kpkBitbase[getKPKIndex(whiteKing, end, Color.WHITE, pawn)];
+				}
+			}
+
+			if ((result & KPK_DRAW) != 0) {
+				return KPK_DRAW;
+			} else if ((result & KPK_UNKNOWN) != 0) {
+				return KPK_UNKNOWN;
+			} else {
+				return KPK_WIN;
+			}
+		}
+	}
+
+	private static int getKPKIndex(int whiteKing, int blackKing, int activeColor, int pawn) {
+		assert Square.getFile(pawn) < 4;
+		assert Square.getRank(pawn) >= 1 && Square.getRank(pawn) <= 6;
+
+		int pawnIndex = Square.getFile(pawn) * 6 + Square.getRank(pawn) - 1;
+		return ((pawnIndex * Color.ARRAY_DIMENSION + activeColor) * 64 + Square.toIndex(blackKing)) * 64 + Square.toIndex(whiteKing);
+	}
+
+	private static int getSquareColor(int position) {
+		return (Square.getFile(position) + Square.getRank(position)) & 1;
+	}
+
+	private static int getEdgeDistance(int position) {
+		// The distance from the center files and ranks (0 - 6)
+		int file = Square.getFile(position);
+		int rank = Square.getRank(position);
+		return Math.max(3 - file, file - 4) + Math.max(3 - rank, rank - 4);
+	}
+}
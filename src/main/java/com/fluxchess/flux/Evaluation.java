@@ -18,58 +18,58 @@
  */
 package com.fluxchess.flux;
 
-import java.util.Arrays;
-
 final class Evaluation {
 
-	// Our evaluation constants
-	private static final int EVAL_PAWN_DOUBLED_OPENING = 10;
-	private static final int EVAL_PAWN_DOUBLED_ENDGAME = 20;
-	private static final int EVAL_PAWN_ISOLATED_OPENING = 10;
-	private static final int EVAL_PAWN_ISOLATED_ENDGAME = 20;
-	private static final int EVAL_PAWN_BACKWARD_OPENING = 15;
-	private static final int EVAL_PAWN_BACKWARD_ENDGAME = 10;
+	// Our evaluation weights. They are not final so the tuner and the match
+	// settings can change them by reflection. Non final fields cost nothing
+	// measurable in search speed.
+	private static int EVAL_PAWN_DOUBLED_OPENING = 10;
+	private static int EVAL_PAWN_DOUBLED_ENDGAME = 20;
+	private static int EVAL_PAWN_ISOLATED_OPENING = 10;
+	private static int EVAL_PAWN_ISOLATED_ENDGAME = 20;
+	private static int EVAL_PAWN_BACKWARD_OPENING = 15;
+	private static int EVAL_PAWN_BACKWARD_ENDGAME = 10;
 	private static final int EVAL_PAWN_PASSER_MAXBONUS = 6 * 6 * 6;
-	private static final int EVAL_PAWN_PASSER_OPENING_MIN = 10;
-	private static final int EVAL_PAWN_PASSER_OPENING_MAX = 70;
-	private static final int EVAL_PAWN_PASSER_ENDGAME_MIN = 20;
-	private static final int EVAL_PAWN_PASSER_ENDGAME_MAX = 140;
-	private static final int EVAL_PAWN_PASSER_FREE = 60;
-	private static final int EVAL_PAWN_PASSER_UNSTOPPABLE = 800;
-	private static final int EVAL_PAWN_MYKING_DISTANCE = 5;
-	private static final int EVAL_PAWN_ENEMYKING_DISTANCE = 20;
-
-	private static final int EVAL_KNIGHT_MOBILITY_BASE = -4;
-	private static final int EVAL_KNIGHT_MOBILITYFACTOR_OPENING = 4;
-	private static final int EVAL_KNIGHT_MOBILITYFACTOR_ENDGAME = 4;
-	private static final int EVAL_KNIGHT_SAFETY = 10;
-
-	private static final int EVAL_BISHOP_MOBILITY_BASE = -6;
-	private static final int EVAL_BISHOP_MOBILITYFACTOR_OPENING = 5;
-	private static final int EVAL_BISHOP_MOBILITYFACTOR_ENDGAME = 5;
-	private static final int EVAL_BISHOP_SAFETY = 10;
-	private static final int EVAL_BISHOP_PAIR = 50;
-
-	private static final int EVAL_ROOK_MOBILITY_BASE = -7;
-	private static final int EVAL_ROOK_MOBILITYFACTOR_OPENING = 2;
-	private static final int EVAL_ROOK_MOBILITYFACTOR_ENDGAME = 4;
-	private static final int EVAL_ROOK_SAFETY = 20;
-	private static final int EVAL_ROOK_OPENFILE = 20;
-	private static final int EVAL_ROOK_NEARKINGFILE = 10;
-	private static final int EVAL_ROOK_SEVENTHRANK_OPENING = 20;
-	private static final int EVAL_ROOK_SEVENTHRANK_ENDGAME = 40;
-	private static final int EVAL_ROOK_SEVENTHRANK_BONUS = 10;
-
-	private static final int EVAL_QUEEN_MOBILITY_BASE = -13;
-	private static final int EVAL_QUEEN_MOBILITYFACTOR_OPENING = 1;
-	private static final int EVAL_QUEEN_MOBILITYFACTOR_ENDGAME = 2;
-	private static final int EVAL_QUEEN_SAFETY = 40;
-	private static final int EVAL_QUEEN_SEVENTHRANK_OPENING = 10;
-	private static final int EVAL_QUEEN_SEVENTHRANK_ENDGAME = 20;
+	private static int EVAL_PAWN_PASSER_OPENING_MIN = 10;
+	private static int EVAL_PAWN_PASSER_OPENING_MAX = 70;
+	private static int EVAL_PAWN_PASSER_ENDGAME_MIN = 20;
+	private static int EVAL_PAWN_PASSER_ENDGAME_MAX = 140;
+	private static int EVAL_PAWN_PASSER_FREE = 60;
+	private static int EVAL_PAWN_PASSER_UNSTOPPABLE = 800;
+	private static int EVAL_PAWN_MYKING_DISTANCE = 5;
+	private static int EVAL_PAWN_ENEMYKING_DISTANCE = 20;
+
+	private static int EVAL_KNIGHT_MOBILITY_BASE = -4;
+	private static int EVAL_KNIGHT_MOBILITYFACTOR_OPENING = 4;
+	private static int EVAL_KNIGHT_MOBILITYFACTOR_ENDGAME = 4;
+	private static int EVAL_KNIGHT_SAFETY = 10;
+
+	private static int EVAL_BISHOP_MOBILITY_BASE = -6;
+	private static int EVAL_BISHOP_MOBILITYFACTOR_OPENING = 5;
+	private static int EVAL_BISHOP_MOBILITYFACTOR_ENDGAME = 5;
+	private static int EVAL_BISHOP_SAFETY = 10;
+	private static int EVAL_BISHOP_PAIR = 50;
+
+	private static int EVAL_ROOK_MOBILITY_BASE = -7;
+	private static int EVAL_ROOK_MOBILITYFACTOR_OPENING = 2;
+	private static int EVAL_ROOK_MOBILITYFACTOR_ENDGAME = 4;
+	private static int EVAL_ROOK_SAFETY = 20;
+	private static int EVAL_ROOK_OPENFILE = 20;
+	private static int EVAL_ROOK_NEARKINGFILE = 10;
+	private static int EVAL_ROOK_SEVENTHRANK_OPENING = 20;
+	private static int EVAL_ROOK_SEVENTHRANK_ENDGAME = 40;
+	private static int EVAL_ROOK_SEVENTHRANK_BONUS = 10;
+
+	private static int EVAL_QUEEN_MOBILITY_BASE = -13;
+	private static int EVAL_QUEEN_MOBILITYFACTOR_OPENING = 1;
+	private static int EVAL_QUEEN_MOBILITYFACTOR_ENDGAME = 2;
+	private static int EVAL_QUEEN_SAFETY = 40;
+	private static int EVAL_QUEEN_SEVENTHRANK_OPENING = 10;
+	private static int EVAL_QUEEN_SEVENTHRANK_ENDGAME = 20;
 
 //	private static final int EVAL_MATERIAL_QUEEN_BONUS = 2 * IntChessman.VALUE_ROOK - IntChessman.VALUE_QUEEN;
 
-	private static final int EVAL_KING_ATTACK = 40;
+	private static int EVAL_KING_ATTACK = 40;
 
 	// Our attack table implementing Idea of Ed Schröder
 	private static final byte[] KING_ATTACK_PATTERN = {
@@ -83,41 +83,43 @@ final class Evaluation {
 	private static final int[] KING_ATTACK_EVAL = {
 			0, 0, 128, 192, 224, 240, 248, 252, 254, 255, 256, 256, 256, 256, 256, 256, 256, 256
 	};
-	private static final byte BIT_PAWN = 1 << 3;
-	private static final byte BIT_MINOR = 1 << 4;
-	private static final byte BIT_ROOK = 1 << 5;
-	private static final byte BIT_QUEEN = 1 << 6;
-	private static final byte BIT_KING = -128;
-	private static final byte MASK_ATTACKERS = 31;
-	private static final byte[][] attackTable = new byte[Color.ARRAY_DIMENSION][Position.BOARDSIZE];
 
-	// Our pawn structure table. 8 + 2 -> 2 Sentinels for each side.
-	private static final byte[][] pawnTable = new byte[Color.ARRAY_DIMENSION][10];
+	// Our mobility table. We sum up the mobility of each chessman.
+	private static final int[][] mobilityTable = new int[Color.ARRAY_DIMENSION][PieceType.VALUES_SIZE];
+
+	// Our pawn table entry of the current evaluation
+	private static PawnTable.PawnTableEntry pawnEntry = null;
 
 	// Our total values
 	private static final int PHASE_INTERVAL = Position.GAMEPHASE_OPENING_VALUE - Position.GAMEPHASE_ENDGAME_VALUE;
-	private static final int TOTAL_OPENING = 0;
-	private static final int TOTAL_ENDGAME = 1;
-	private static final int[][] totalPawn = new int[Color.ARRAY_DIMENSION][2];
-	private static final int[][] totalKnight = new int[Color.ARRAY_DIMENSION][2];
-	private static final int[][] totalBishop = new int[Color.ARRAY_DIMENSION][2];
-	private static final int[][] totalRook = new int[Color.ARRAY_DIMENSION][2];
-	private static final int[][] totalQueen = new int[Color.ARRAY_DIMENSION][2];
-	private static final int[][] totalKing = new int[Color.ARRAY_DIMENSION][2];
-	private static final int[][] totalPawnStructure = new int[Color.ARRAY_DIMENSION][2];
-	private static final int[][] totalPawnPasser = new int[Color.ARRAY_DIMENSION][2];
-	private static final int[][] totalPatterns = new int[Color.ARRAY_DIMENSION][2];
-	private static int totalOpening = 0;
-	private static int totalEndgame = 0;
+	private static final int[] totalPawn = new int[Color.ARRAY_DIMENSION];
+	private static final int[] totalKnight = new int[Color.ARRAY_DIMENSION];
+	private static final int[] totalBishop = new int[Color.ARRAY_DIMENSION];
+	private static final int[] totalRook = new int[Color.ARRAY_DIMENSION];
+	private static final int[] totalQueen = new int[Color.ARRAY_DIMENSION];
+	private static final int[] totalKing = new int[Color.ARRAY_DIMENSION];
+	private static final int[] totalPawnStructure = new int[Color.ARRAY_DIMENSION];
+	private static final int[] totalPawnPasser = new int[Color.ARRAY_DIMENSION];
+	private static final int[] totalPatterns = new int[Color.ARRAY_DIMENSION];
+	private static int totalScore = Score.ZERO;
 	private static int total = 0;
 
+	// Lazy evaluation
+	// Notes: The material and position values are off by more than 350
+	// centipawns in less than 0.1 percent of the positions.
+	private static final int LAZY_MARGIN = 4 * Piece.VALUE_PAWN;
+
 	// Draw values
-	private static final int DRAW_FACTOR = 16;
+	static final int DRAW_FACTOR = 16;
 	private static final int[] drawFactor = new int[Color.ARRAY_DIMENSION];
 
 	// The hash tables
 	private final EvaluationTable evaluationTable = new EvaluationTable(1024 * 1024);
-	private final PawnTable pawnHashtable = new PawnTable(1024 * 1024);
+	final PawnTable pawnHashtable = new PawnTable(64 * 1024);
+	private final MaterialTable materialTable = new MaterialTable(16 * 1024);
+
+	// Whether the last evaluation returned early with a bound
+	boolean lazy = false;
 
 	/**
 	 * Prints the evaluation of the board.
@@ -133,89 +135,42 @@ final class Evaluation {
 				Color.valueOfIntColor(enemyColor).toString(),
 				Color.valueOfIntColor(myColor).toString(),
 				Color.valueOfIntColor(enemyColor).toString());
-		System.out.printf("%20s: Opening %5d (%5d:%5d) Endgame %5d (%5d:%5d)\n", "Total Material",
-				Position.materialValue[myColor] - Position.materialValue[enemyColor],
-				Position.materialValue[myColor],
-				Position.materialValue[enemyColor],
-				Position.materialValue[myColor] - Position.materialValue[enemyColor],
-				Position.materialValue[myColor],
-				Position.materialValue[enemyColor]);
-		System.out.printf("%20s: Opening %5d (%5d:%5d) Endgame %5d (%5d:%5d)\n", "Total Position",
-				Position.positionValueOpening[myColor] - Position.positionValueOpening[enemyColor],
-				Position.positionValueOpening[myColor],
-				Position.positionValueOpening[enemyColor],
-				Position.positionValueEndgame[myColor] - Position.positionValueEndgame[enemyColor],
-				Position.positionValueEndgame[myColor],
-				Position.positionValueEndgame[enemyColor]);
-		System.out.printf("%20s: Opening %5d (%5d:%5d) Endgame %5d (%5d:%5d)\n", "Total Pawn",
-				totalPawn[myColor][TOTAL_OPENING] - totalPawn[enemyColor][TOTAL_OPENING],
-				totalPawn[myColor][TOTAL_OPENING],
-				totalPawn[enemyColor][TOTAL_OPENING],
-				totalPawn[myColor][TOTAL_ENDGAME] - totalPawn[enemyColor][TOTAL_ENDGAME],
-				totalPawn[myColor][TOTAL_ENDGAME],
-				totalPawn[enemyColor][TOTAL_ENDGAME]);
-		System.out.printf("%20s: Opening %5d (%5d:%5d) Endgame %5d (%5d:%5d)\n", "Total Knight",
-				totalKnight[myColor][TOTAL_OPENING] - totalKnight[enemyColor][TOTAL_OPENING],
-				totalKnight[myColor][TOTAL_OPENING],
-				totalKnight[enemyColor][TOTAL_OPENING],
-				totalKnight[myColor][TOTAL_ENDGAME] - totalKnight[enemyColor][TOTAL_ENDGAME],
-				totalKnight[myColor][TOTAL_ENDGAME],
-				totalKnight[enemyColor][TOTAL_ENDGAME]);
-		System.out.printf("%20s: Opening %5d (%5d:%5d) Endgame %5d (%5d:%5d)\n", "Total Bishop",
-				totalBishop[myColor][TOTAL_OPENING] - totalBishop[enemyColor][TOTAL_OPENING],
-				totalBishop[myColor][TOTAL_OPENING],
-				totalBishop[enemyColor][TOTAL_OPENING],
-				totalBishop[myColor][TOTAL_ENDGAME] - totalBishop[enemyColor][TOTAL_ENDGAME],
-				totalBishop[myColor][TOTAL_ENDGAME],
-				totalBishop[enemyColor][TOTAL_ENDGAME]);
-		System.out.printf("%20s: Opening %5d (%5d:%5d) Endgame %5d (%5d:%5d)\n", "Total Rook",
-				totalRook[myColor][TOTAL_OPENING] - totalRook[enemyColor][TOTAL_OPENING],
-				totalRook[myColor][TOTAL_OPENING],
-				totalRook[enemyColor][TOTAL_OPENING],
-				totalRook[myColor][TOTAL_ENDGAME] - totalRook[enemyColor][TOTAL_ENDGAME],
-				totalRook[myColor][TOTAL_ENDGAME],
-				totalRook[enemyColor][TOTAL_ENDGAME]);
-		System.out.printf("%20s: Opening %5d (%5d:%5d) Endgame %5d (%5d:%5d)\n", "Total Queen",
-				totalQueen[myColor][TOTAL_OPENING] - totalQueen[enemyColor][TOTAL_OPENING],
-				totalQueen[myColor][TOTAL_OPENING],
-				totalQueen[enemyColor][TOTAL_OPENING],
-				totalQueen[myColor][TOTAL_ENDGAME] - totalQueen[enemyColor][TOTAL_ENDGAME],
-				totalQueen[myColor][TOTAL_ENDGAME],
-				totalQueen[enemyColor][TOTAL_ENDGAME]);
-		System.out.printf("%20s: Opening %5d (%5d:%5d) Endgame %5d (%5d:%5d)\n", "Total King",
-				totalKing[myColor][TOTAL_OPENING] - totalKing[enemyColor][TOTAL_OPENING],
-				totalKing[myColor][TOTAL_OPENING],
-				totalKing[enemyColor][TOTAL_OPENING],
-				totalKing[myColor][TOTAL_ENDGAME] - totalKing[enemyColor][TOTAL_ENDGAME],
-				totalKing[myColor][TOTAL_ENDGAME],
-				totalKing[enemyColor][TOTAL_ENDGAME]);
-		System.out.printf("%20s: Opening %5d (%5d:%5d) Endgame %5d (%5d:%5d)\n", "Total Pawn Structure",
-				totalPawnStructure[myColor][TOTAL_OPENING] - totalPawnStructure[enemyColor][TOTAL_OPENING],
-				totalPawnStructure[myColor][TOTAL_OPENING],
-				totalPawnStructure[enemyColor][TOTAL_OPENING],
-				totalPawnStructure[myColor][TOTAL_ENDGAME] - totalPawnStructure[enemyColor][TOTAL_ENDGAME],
-				totalPawnStructure[myColor][TOTAL_ENDGAME],
-				totalPawnStructure[enemyColor][TOTAL_ENDGAME]);
-		System.out.printf("%20s: Opening %5d (%5d:%5d) Endgame %5d (%5d:%5d)\n", "Total Pawn Passer",
-				totalPawnPasser[myColor][TOTAL_OPENING] - totalPawnPasser[enemyColor][TOTAL_OPENING],
-				totalPawnPasser[myColor][TOTAL_OPENING],
-				totalPawnPasser[enemyColor][TOTAL_OPENING],
-				totalPawnPasser[myColor][TOTAL_ENDGAME] - totalPawnPasser[enemyColor][TOTAL_ENDGAME],
-				totalPawnPasser[myColor][TOTAL_ENDGAME],
-				totalPawnPasser[enemyColor][TOTAL_ENDGAME]);
-		System.out.printf("%20s: Opening %5d (%5d:%5d) Endgame %5d (%5d:%5d)\n", "Total Patterns",
-				totalPatterns[myColor][TOTAL_OPENING] - totalPatterns[enemyColor][TOTAL_OPENING],
-				totalPatterns[myColor][TOTAL_OPENING],
-				totalPatterns[enemyColor][TOTAL_OPENING],
-				totalPatterns[myColor][TOTAL_ENDGAME] - totalPatterns[enemyColor][TOTAL_ENDGAME],
-				totalPatterns[myColor][TOTAL_ENDGAME],
-				totalPatterns[enemyColor][TOTAL_ENDGAME]);
+		MaterialTable.MaterialTableEntry materialEntry = getMaterialEntry(board);
+		printScore("Total Material", materialEntry.score[myColor], materialEntry.score[enemyColor]);
+		printScore("Total Position", Position.positionValue[myColor], Position.positionValue[enemyColor]);
+		printScore("Total Pawn", totalPawn[myColor], totalPawn[enemyColor]);
+		printScore("Total Knight", totalKnight[myColor], totalKnight[enemyColor]);
+		printScore("Total Bishop", totalBishop[myColor], totalBishop[enemyColor]);
+		printScore("Total Rook", totalRook[myColor], totalRook[enemyColor]);
+		printScore("Total Queen", totalQueen[myColor], totalQueen[enemyColor]);
+		printScore("Total King", totalKing[myColor], totalKing[enemyColor]);
+		printScore("Total Pawn Structure", totalPawnStructure[myColor], totalPawnStructure[enemyColor]);
+		printScore("Total Pawn Passer", totalPawnPasser[myColor], totalPawnPasser[enemyColor]);
+		printScore("Total Patterns", totalPatterns[myColor], totalPatterns[enemyColor]);
 		System.out.printf("%20s: Opening %5d               Endgame %5d\n", "Total",
-				totalOpening,
-				totalEndgame);
+				Score.getOpening(totalScore),
+				Score.getEndgame(totalScore));
 		System.out.printf("%20s: %5d\n", "Total Phase Mix", total);
 	}
 
+	private static void printScore(String name, int myScore, int enemyScore) {
+		System.out.printf("%20s: Opening %5d (%5d:%5d) Endgame %5d (%5d:%5d)\n", name,
+				Score.getOpening(myScore - enemyScore),
+				Score.getOpening(myScore),
+				Score.getOpening(enemyScore),
+				Score.getEndgame(myScore - enemyScore),
+				Score.getEndgame(myScore),
+				Score.getEndgame(enemyScore));
+	}
+
+	/**
+	 * Clears the cached evaluation values. They belong to the active
+	 * evaluator, so we must clear them if the evaluator changes.
+	 */
+	void clear() {
+		this.evaluationTable.clear();
+	}
+
 	/**
 	 * Evaluates the board.
 	 *
@@ -223,8 +178,24 @@ final class Evaluation {
 	 * @return the evaluation value in centipawns.
 	 */
 	int evaluate(Position board) {
+		return evaluate(board, -Value.INFINITY, Value.INFINITY);
+	}
+
+	/**
+	 * Evaluates the board. If the material and position values are outside
+	 * the window by more than LAZY_MARGIN, we skip all other terms and return
+	 * a bound which is still outside the window.
+	 *
+	 * @param board the board.
+	 * @param alpha the alpha value.
+	 * @param beta  the beta value.
+	 * @return the evaluation value in centipawns.
+	 */
+	int evaluate(Position board, int alpha, int beta) {
 		assert board != null;
 
+		this.lazy = false;
+
 		// Check the evaluation table
 		if (Configuration.useEvaluationTable) {
 			EvaluationTable.EvaluationTableEntry entry = this.evaluationTable.get(board.zobristCode);
@@ -235,134 +206,139 @@ final class Evaluation {
 
 		// Initialize
 		for (int color : Color.values) {
-			// Zero our tables
-			Arrays.fill(attackTable[color], (byte) 0);
-			Arrays.fill(pawnTable[color], (byte) 0);
-
 			// Set the total values to zero
-			totalPawn[color][TOTAL_OPENING] = 0;
-			totalPawn[color][TOTAL_ENDGAME] = 0;
-			totalKnight[color][TOTAL_OPENING] = 0;
-			totalKnight[color][TOTAL_ENDGAME] = 0;
-			totalBishop[color][TOTAL_OPENING] = 0;
-			totalBishop[color][TOTAL_ENDGAME] = 0;
-			totalRook[color][TOTAL_OPENING] = 0;
-			totalRook[color][TOTAL_ENDGAME] = 0;
-			totalQueen[color][TOTAL_OPENING] = 0;
-			totalQueen[color][TOTAL_ENDGAME] = 0;
-			totalKing[color][TOTAL_OPENING] = 0;
-			totalKing[color][TOTAL_ENDGAME] = 0;
-			totalPawnStructure[color][TOTAL_OPENING] = 0;
-			totalPawnStructure[color][TOTAL_ENDGAME] = 0;
-			totalPawnPasser[color][TOTAL_OPENING] = 0;
-			totalPawnPasser[color][TOTAL_ENDGAME] = 0;
-			totalPatterns[color][TOTAL_OPENING] = 0;
-			totalPatterns[color][TOTAL_ENDGAME] = 0;
-
-			// Set the draw factor
-			drawFactor[color] = DRAW_FACTOR;
+			totalPawn[color] = Score.ZERO;
+			totalKnight[color] = Score.ZERO;
+			totalBishop[color] = Score.ZERO;
+			totalRook[color] = Score.ZERO;
+			totalQueen[color] = Score.ZERO;
+			totalKing[color] = Score.ZERO;
+			totalPawnStructure[color] = Score.ZERO;
+			totalPawnPasser[color] = Score.ZERO;
+			totalPatterns[color] = Score.ZERO;
 		}
 		int myColor = board.activeColor;
 		int enemyColor = Color.switchColor(myColor);
-		totalOpening = 0;
-		totalEndgame = 0;
+		totalScore = Score.ZERO;
 		total = 0;
 
 		// Evaluate material
-		int myMaterialValue = evaluateMaterial(myColor, enemyColor);
-		int enemyMaterialValue = evaluateMaterial(enemyColor, myColor);
-		totalOpening += myMaterialValue - enemyMaterialValue;
-		totalEndgame += myMaterialValue - enemyMaterialValue;
+		MaterialTable.MaterialTableEntry materialEntry = getMaterialEntry(board);
+		totalScore += materialEntry.score[myColor] - materialEntry.score[enemyColor];
+		int phase = materialEntry.phase;
+
+		// Evaluate draw
+		drawFactor[Color.WHITE] = materialEntry.drawFactor[Color.WHITE];
+		drawFactor[Color.BLACK] = materialEntry.drawFactor[Color.BLACK];
+		if (drawFactor[myColor] == 0 && drawFactor[enemyColor] == 0) {
+			return Value.DRAW;
+		}
+
+		// Evaluate known endgames
+		if (Endgame.isScoring(materialEntry.endgame)) {
+			total = Endgame.evaluate(materialEntry.endgame, materialEntry.endgameColor, myColor);
+			if (Configuration.useEvaluationTable) {
+				this.evaluationTable.put(board.zobristCode, total);
+			}
+			return total;
+		}
+		Endgame.scale(materialEntry.endgame, materialEntry.endgameColor, drawFactor);
+
+		//## BEGIN Network Evaluation
+		if (Configuration.useNetwork && Network.loaded) {
+			return finish(board, Network.evaluate(myColor), myColor, enemyColor);
+		}
+		//## ENDOF Network Evaluation
 
 		// Evaluate position
-		totalOpening += Position.positionValueOpening[myColor] - Position.positionValueOpening[enemyColor];
-		totalEndgame += Position.positionValueEndgame[myColor] - Position.positionValueEndgame[enemyColor];
+		totalScore += Position.positionValue[myColor] - Position.positionValue[enemyColor];
+
+		//## BEGIN Lazy Evaluation
+		// Notes: We cannot use it if a draw factor or an unstoppable passer
+		// might change the value. This needs unscaled draw factors, pieces and
+		// two pawns on each side.
+		if (Configuration.useLazyEvaluation
+				&& drawFactor[myColor] == DRAW_FACTOR
+				&& drawFactor[enemyColor] == DRAW_FACTOR
+				&& Position.materialCount[myColor] > 0
+				&& Position.materialCount[enemyColor] > 0
+				&& Position.pawnList[myColor].size >= 2
+				&& Position.pawnList[enemyColor].size >= 2) {
+			int value = Score.taper(totalScore, phase, PHASE_INTERVAL);
+			if (value - LAZY_MARGIN >= beta) {
+				this.lazy = true;
+				return value - LAZY_MARGIN;
+			} else if (value + LAZY_MARGIN <= alpha) {
+				this.lazy = true;
+				return value + LAZY_MARGIN;
+			}
+		}
+		//## ENDOF Lazy Evaluation
 
 		// Evaluate pawns
-		evaluatePawn(myColor);
-		evaluatePawn(enemyColor);
-		totalOpening += totalPawn[myColor][TOTAL_OPENING] - totalPawn[enemyColor][TOTAL_OPENING];
-		totalEndgame += totalPawn[myColor][TOTAL_ENDGAME] - totalPawn[enemyColor][TOTAL_ENDGAME];
+		pawnEntry = getPawnEntry(board);
+		totalScore += totalPawn[myColor] - totalPawn[enemyColor];
+
+		// Evaluate mobility
+		evaluateMobility(myColor);
+		evaluateMobility(enemyColor);
 
 		// Evaluate knights
 		evaluateKnight(myColor, enemyColor, board);
 		evaluateKnight(enemyColor, myColor, board);
-		totalOpening += totalKnight[myColor][TOTAL_OPENING] - totalKnight[enemyColor][TOTAL_OPENING];
-		totalEndgame += totalKnight[myColor][TOTAL_ENDGAME] - totalKnight[enemyColor][TOTAL_ENDGAME];
+		totalScore += totalKnight[myColor] - totalKnight[enemyColor];
 
 		// Evaluate bishops
 		evaluateBishop(myColor, enemyColor, board);
 		evaluateBishop(enemyColor, myColor, board);
-		totalOpening += totalBishop[myColor][TOTAL_OPENING] - totalBishop[enemyColor][TOTAL_OPENING];
-		totalEndgame += totalBishop[myColor][TOTAL_ENDGAME] - totalBishop[enemyColor][TOTAL_ENDGAME];
+		totalScore += totalBishop[myColor] - totalBishop[enemyColor];
 
 		// Evaluate rooks
 		evaluateRook(myColor, enemyColor, board);
 		evaluateRook(enemyColor, myColor, board);
-		totalOpening += totalRook[myColor][TOTAL_OPENING] - totalRook[enemyColor][TOTAL_OPENING];
-		totalEndgame += totalRook[myColor][TOTAL_ENDGAME] - totalRook[enemyColor][TOTAL_ENDGAME];
+		totalScore += totalRook[myColor] - totalRook[enemyColor];
 
 		// Evaluate queens
 		evaluateQueen(myColor, enemyColor, board);
 		evaluateQueen(enemyColor, myColor, board);
-		totalOpening += totalQueen[myColor][TOTAL_OPENING] - totalQueen[enemyColor][TOTAL_OPENING];
-		totalEndgame += totalQueen[myColor][TOTAL_ENDGAME] - totalQueen[enemyColor][TOTAL_ENDGAME];
+		totalScore += totalQueen[myColor] - totalQueen[enemyColor];
 
 		// Evaluate kings
 		evaluateKing(myColor, enemyColor, board);
 		evaluateKing(enemyColor, myColor, board);
-		totalOpening += totalKing[myColor][TOTAL_OPENING] - totalKing[enemyColor][TOTAL_OPENING];
-		totalEndgame += totalKing[myColor][TOTAL_ENDGAME] - totalKing[enemyColor][TOTAL_ENDGAME];
-
-		// Evaluate draw
-		evaluateDraw(board);
-		if (drawFactor[myColor] == 0 && drawFactor[enemyColor] == 0) {
-			return Value.DRAW;
-		}
+		totalScore += totalKing[myColor] - totalKing[enemyColor];
 
 		// Evaluate the pawn structures
-		long pawnZobristCode = board.pawnZobristCode;
-		int pawnStructureOpening;
-		int pawnStructureEndgame;
-		if (Configuration.usePawnTable && this.pawnHashtable.exists(pawnZobristCode)) {
-			pawnStructureOpening = this.pawnHashtable.getOpening(pawnZobristCode);
-			pawnStructureEndgame = this.pawnHashtable.getEndgame(pawnZobristCode);
-		} else {
-			evaluatePawnStructure(myColor, enemyColor, board);
-			evaluatePawnStructure(enemyColor, myColor, board);
-			pawnStructureOpening = totalPawnStructure[myColor][TOTAL_OPENING] - totalPawnStructure[enemyColor][TOTAL_OPENING];
-			pawnStructureEndgame = totalPawnStructure[myColor][TOTAL_ENDGAME] - totalPawnStructure[enemyColor][TOTAL_ENDGAME];
-			if (Configuration.usePawnTable) {
-				this.pawnHashtable.put(pawnZobristCode, pawnStructureOpening, pawnStructureEndgame);
-			}
-		}
-		totalOpening += pawnStructureOpening;
-		totalEndgame += pawnStructureEndgame;
+		totalPawnStructure[myColor] = pawnEntry.score[myColor];
+		totalPawnStructure[enemyColor] = pawnEntry.score[enemyColor];
+		totalScore += totalPawnStructure[myColor] - totalPawnStructure[enemyColor];
 
 		// Evaluate the pawn passer
 		evaluatePawnPasser(myColor, enemyColor, board);
 		evaluatePawnPasser(enemyColor, myColor, board);
-		totalOpening += totalPawnPasser[myColor][TOTAL_OPENING] - totalPawnPasser[enemyColor][TOTAL_OPENING];
-		totalEndgame += totalPawnPasser[myColor][TOTAL_ENDGAME] - totalPawnPasser[enemyColor][TOTAL_ENDGAME];
+		totalScore += totalPawnPasser[myColor] - totalPawnPasser[enemyColor];
 
 		// Evaluate known patterns
 		evaluatePatterns(myColor, board);
 		evaluatePatterns(enemyColor, board);
-		totalOpening += totalPatterns[myColor][TOTAL_OPENING] - totalPatterns[enemyColor][TOTAL_OPENING];
-		totalEndgame += totalPatterns[myColor][TOTAL_ENDGAME] - totalPatterns[enemyColor][TOTAL_ENDGAME];
+		totalScore += totalPatterns[myColor] - totalPatterns[enemyColor];
 
-		// Create evaluation mix
-		// This allows us to make a smooth transition from the opening to the
-		// ending
-		int phase = (myMaterialValue + enemyMaterialValue) / 2;
-		if (phase > Position.GAMEPHASE_OPENING_VALUE) {
-			phase = PHASE_INTERVAL;
-		} else if (phase < Position.GAMEPHASE_ENDGAME_VALUE) {
-			phase = 0;
-		} else {
-			phase -= Position.GAMEPHASE_ENDGAME_VALUE;
-		}
-		total = (totalOpening * phase + totalEndgame * (PHASE_INTERVAL - phase)) / PHASE_INTERVAL;
+		// Mix the evaluation
+		return finish(board, Score.taper(totalScore, phase, PHASE_INTERVAL), myColor, enemyColor);
+	}
+
+	/**
+	 * Applies the draw factor to the value, stores it in the evaluation
+	 * table and returns it.
+	 *
+	 * @param board      the board.
+	 * @param value      the evaluation value.
+	 * @param myColor    the side to move.
+	 * @param enemyColor the enemy color.
+	 * @return the final evaluation value in centipawns.
+	 */
+	private int finish(Position board, int value, int myColor, int enemyColor) {
+		total = value;
 
 		// Draw factor
 		if (total > Value.DRAW) {
@@ -385,122 +361,169 @@ final class Evaluation {
 		return total;
 	}
 
-	private static int evaluateMaterial(int myColor, int enemyColor) {
-		int myMaterialValue = Position.materialValue[myColor];
+	private MaterialTable.MaterialTableEntry getMaterialEntry(Position board) {
+		assert board != null;
+
+		long materialKey = board.materialKey;
+		MaterialTable.MaterialTableEntry entry = null;
+		if (Configuration.useMaterialTable) {
+			entry = this.materialTable.get(materialKey);
+		}
+		if (entry == null) {
+			entry = this.materialTable.put(materialKey);
+			evaluateMaterial(entry);
+			evaluateDraw(entry);
+			Endgame.probe(entry);
+		}
+
+		return entry;
+	}
 
-		// Correct material value based on Larry Kaufman's paper
-		// TODO: Check this one
-//		myMaterialValue += (Hex88Board.knightList[myColor].size * (Hex88Board.pawnList[myColor].size - 5) * IntChessman.VALUE_PAWN) / 16;
-//		myMaterialValue -= (Hex88Board.rookList[myColor].size * (Hex88Board.pawnList[myColor].size - 5) * IntChessman.VALUE_PAWN) / 8;
+	private PawnTable.PawnTableEntry getPawnEntry(Position board) {
+		assert board != null;
 
-		// Queen + pawn vs. two rooks
-		// TODO: Check this one
-//		if ((Hex88Board.knightList[myColor].size + Hex88Board.bishopList[myColor].size >= 2)
-//				&& (Hex88Board.knightList[enemyColor].size + Hex88Board.bishopList[enemyColor].size >= 2)) {
-//			myMaterialValue += EVAL_MATERIAL_QUEEN_BONUS;
-//		}
+		long pawnZobristCode = board.pawnZobristCode;
+		PawnTable.PawnTableEntry entry = null;
+		if (Configuration.usePawnTable) {
+			entry = this.pawnHashtable.get(pawnZobristCode);
+		}
+		if (entry == null) {
+			entry = this.pawnHashtable.put(pawnZobristCode);
+			evaluatePawn(entry, Color.WHITE);
+			evaluatePawn(entry, Color.BLACK);
+			for (int color : Color.values) {
+				int enemyColor = Color.switchColor(color);
+				evaluatePawnStructure(entry, color, enemyColor);
+				evaluatePawnPassers(entry, color, enemyColor);
+				evaluatePawnShelter(entry, color);
+			}
+		}
 
-		return myMaterialValue;
+		return entry;
 	}
 
-	private static void evaluateDraw(Position board) {
+	private static void evaluateMaterial(MaterialTable.MaterialTableEntry entry) {
+		long materialKey = entry.materialKey;
+
+		int allMaterialValue = 0;
 		for (int myColor : Color.values) {
-			int enemyColor = Color.switchColor(myColor);
-			byte[] enemyAttackTable = attackTable[enemyColor];
+			int myMaterialValue = 0;
+			for (int chessman : PieceType.values) {
+				if (chessman != PieceType.KING) {
+					myMaterialValue += MaterialTable.getCount(materialKey, chessman, myColor) * Piece.getValueFromChessman(chessman);
+				}
+			}
+			allMaterialValue += Piece.VALUE_KING + myMaterialValue;
 
-			assert Position.kingList[myColor].size != 0;
-			assert Position.kingList[enemyColor].size != 0;
+			entry.score[myColor] = Score.valueOf(myMaterialValue, myMaterialValue);
 
-			if (Position.queenList[myColor].size == 0) {
-				if (Position.rookList[myColor].size == 0) {
-					if (Position.bishopList[myColor].size == 0) {
-						if (Position.knightList[myColor].size == 0) {
-							if (Position.pawnList[myColor].size == 0) {
+			// Evaluate bishop pair
+			if (MaterialTable.getCount(materialKey, PieceType.BISHOP, myColor) >= 2) {
+				entry.score[myColor] += Score.valueOf(EVAL_BISHOP_PAIR, EVAL_BISHOP_PAIR);
+			}
+
+			// Correct material value based on Larry Kaufman's paper
+			// TODO: Check this one
+//			myMaterialValue += (Hex88Board.knightList[myColor].size * (Hex88Board.pawnList[myColor].size - 5) * IntChessman.VALUE_PAWN) / 16;
+//			myMaterialValue -= (Hex88Board.rookList[myColor].size * (Hex88Board.pawnList[myColor].size - 5) * IntChessman.VALUE_PAWN) / 8;
+
+			// Queen + pawn vs. two rooks
+			// TODO: Check this one
+//			if ((Hex88Board.knightList[myColor].size + Hex88Board.bishopList[myColor].size >= 2)
+//					&& (Hex88Board.knightList[enemyColor].size + Hex88Board.bishopList[enemyColor].size >= 2)) {
+//				myMaterialValue += EVAL_MATERIAL_QUEEN_BONUS;
+//			}
+		}
+
+		// Create evaluation mix
+		// This allows us to make a smooth transition from the opening to the
+		// ending
+		int phase = allMaterialValue / 2;
+		if (phase > Position.GAMEPHASE_OPENING_VALUE) {
+			phase = PHASE_INTERVAL;
+		} else if (phase < Position.GAMEPHASE_ENDGAME_VALUE) {
+			phase = 0;
+		} else {
+			phase -= Position.GAMEPHASE_ENDGAME_VALUE;
+		}
+		entry.phase = phase;
+	}
+
+	private static void evaluateDraw(MaterialTable.MaterialTableEntry entry) {
+		long materialKey = entry.materialKey;
+
+		for (int myColor : Color.values) {
+			int enemyColor = Color.switchColor(myColor);
+			int myPawns = MaterialTable.getCount(materialKey, PieceType.PAWN, myColor);
+			int myKnights = MaterialTable.getCount(materialKey, PieceType.KNIGHT, myColor);
+			int myBishops = MaterialTable.getCount(materialKey, PieceType.BISHOP, myColor);
+			int myRooks = MaterialTable.getCount(materialKey, PieceType.ROOK, myColor);
+			int myQueens = MaterialTable.getCount(materialKey, PieceType.QUEEN, myColor);
+			int enemyPawns = MaterialTable.getCount(materialKey, PieceType.PAWN, enemyColor);
+			int enemyKnights = MaterialTable.getCount(materialKey, PieceType.KNIGHT, enemyColor);
+			int enemyBishops = MaterialTable.getCount(materialKey, PieceType.BISHOP, enemyColor);
+			int enemyRooks = MaterialTable.getCount(materialKey, PieceType.ROOK, enemyColor);
+			int enemyQueens = MaterialTable.getCount(materialKey, PieceType.QUEEN, enemyColor);
+
+			entry.drawFactor[myColor] = DRAW_FACTOR;
+
+			if (myQueens == 0) {
+				if (myRooks == 0) {
+					if (myBishops == 0) {
+						if (myKnights == 0) {
+							if (myPawns == 0) {
 								// KK*
 
-								assert Position.materialCountAll[myColor] == 0;
-								drawFactor[myColor] = 0;
-							} else if (Position.pawnList[myColor].size == 1) {
+								entry.drawFactor[myColor] = 0;
+							} else if (myPawns == 1) {
 								// KPK*
 
-								if (Position.queenList[enemyColor].size == 0) {
-									if (Position.rookList[enemyColor].size == 0) {
-										if (Position.bishopList[enemyColor].size == 0) {
-											if (Position.knightList[enemyColor].size == 1) {
-												if (Position.pawnList[enemyColor].size == 0) {
+								if (enemyQueens == 0) {
+									if (enemyRooks == 0) {
+										if (enemyBishops == 0) {
+											if (enemyKnights == 1) {
+												if (enemyPawns == 0) {
 													// KPKN
-
-													// Check the promotion path
-													int delta = 16;
-													if (myColor == Color.BLACK) {
-														delta = -16;
-													} else {
-														assert myColor == Color.WHITE;
-													}
-													int end = Position.pawnList[myColor].position[0] + delta;
-													while ((end & 0x88) == 0) {
-														int chessman = Position.board[end];
-														if ((chessman != Piece.NOPIECE && Piece.getColor(chessman) == enemyColor) || (enemyAttackTable[end] & BIT_MINOR) != 0) {
-															drawFactor[myColor] = 1;
-															break;
-														} else {
-															end += delta;
-														}
-													}
+													// Notes: The promotion path is checked by
+													// the endgame evaluator.
 												}
 											}
-										} else if (Position.bishopList[enemyColor].size == 1) {
-											if (Position.knightList[enemyColor].size == 0) {
-												if (Position.pawnList[enemyColor].size == 0) {
+										} else if (enemyBishops == 1) {
+											if (enemyKnights == 0) {
+												if (enemyPawns == 0) {
 													// KPKB
-
-													// Check the promotion path
-													int delta = 16;
-													if (myColor == Color.BLACK) {
-														delta = -16;
-													} else {
-														assert myColor == Color.WHITE;
-													}
-													int end = Position.pawnList[myColor].position[0] + delta;
-													while ((end & 0x88) == 0) {
-														int chessman = Position.board[end];
-														if ((chessman != Piece.NOPIECE && Piece.getColor(chessman) == enemyColor) || (enemyAttackTable[end] & BIT_MINOR) != 0) {
-															drawFactor[myColor] = 1;
-															break;
-														} else {
-															end += delta;
-														}
-													}
+													// Notes: The promotion path is checked by
+													// the endgame evaluator.
 												}
 											}
 										}
 									}
 								}
 							}
-						} else if (Position.knightList[myColor].size == 1) {
-							if (Position.pawnList[myColor].size == 0) {
+						} else if (myKnights == 1) {
+							if (myPawns == 0) {
 								// KNK*
 
-								drawFactor[myColor] = 0;
+								entry.drawFactor[myColor] = 0;
 							}
-						} else if (Position.knightList[myColor].size == 2) {
-							if (Position.pawnList[myColor].size == 0) {
+						} else if (myKnights == 2) {
+							if (myPawns == 0) {
 								// KNNK*
 
-								if (Position.queenList[enemyColor].size == 0) {
-									if (Position.rookList[enemyColor].size == 0) {
-										if (Position.bishopList[enemyColor].size == 0) {
-											if (Position.knightList[enemyColor].size == 0) {
-												if (Position.pawnList[enemyColor].size == 0) {
+								if (enemyQueens == 0) {
+									if (enemyRooks == 0) {
+										if (enemyBishops == 0) {
+											if (enemyKnights == 0) {
+												if (enemyPawns == 0) {
 													// KNNK
 
-													drawFactor[myColor] = 0;
+													entry.drawFactor[myColor] = 0;
 												}
-											} else if (Position.knightList[enemyColor].size == 1) {
-												if (Position.pawnList[enemyColor].size == 0) {
+											} else if (enemyKnights == 1) {
+												if (enemyPawns == 0) {
 													// KNNKN
 
-													drawFactor[myColor] = 0;
+													entry.drawFactor[myColor] = 0;
 												}
 											}
 										}
@@ -508,25 +531,25 @@ final class Evaluation {
 								}
 							}
 						}
-					} else if (Position.bishopList[myColor].size == 1) {
-						if (Position.knightList[myColor].size == 0) {
-							if (Position.pawnList[myColor].size == 0) {
+					} else if (myBishops == 1) {
+						if (myKnights == 0) {
+							if (myPawns == 0) {
 								// KBK*
 
-								drawFactor[myColor] = 0;
+								entry.drawFactor[myColor] = 0;
 							}
-						} else if (Position.knightList[myColor].size == 1) {
-							if (Position.pawnList[myColor].size == 0) {
+						} else if (myKnights == 1) {
+							if (myPawns == 0) {
 								// KBNK*
 
-								if (Position.queenList[enemyColor].size == 0) {
-									if (Position.rookList[enemyColor].size == 0) {
-										if (Position.bishopList[enemyColor].size == 0) {
-											if (Position.knightList[enemyColor].size == 1) {
-												if (Position.pawnList[enemyColor].size == 0) {
+								if (enemyQueens == 0) {
+									if (enemyRooks == 0) {
+										if (enemyBishops == 0) {
+											if (enemyKnights == 1) {
+												if (enemyPawns == 0) {
 													// KBNKN
 
-													drawFactor[myColor] = 1;
+													entry.drawFactor[myColor] = 1;
 												}
 											}
 										}
@@ -534,27 +557,27 @@ final class Evaluation {
 								}
 							}
 						}
-					} else if (Position.bishopList[myColor].size == 2) {
-						if (Position.knightList[myColor].size == 0) {
-							if (Position.pawnList[myColor].size == 0) {
+					} else if (myBishops == 2) {
+						if (myKnights == 0) {
+							if (myPawns == 0) {
 								// KBBK*
 
-								if (Position.queenList[enemyColor].size == 0) {
-									if (Position.rookList[enemyColor].size == 0) {
-										if (Position.bishopList[enemyColor].size == 0) {
-											if (Position.knightList[enemyColor].size == 1) {
-												if (Position.pawnList[enemyColor].size == 0) {
+								if (enemyQueens == 0) {
+									if (enemyRooks == 0) {
+										if (enemyBishops == 0) {
+											if (enemyKnights == 1) {
+												if (enemyPawns == 0) {
 													// KBBKN
 
-													drawFactor[myColor] = 8;
+													entry.drawFactor[myColor] = 8;
 												}
 											}
-										} else if (Position.bishopList[enemyColor].size == 1) {
-											if (Position.knightList[enemyColor].size == 0) {
-												if (Position.pawnList[enemyColor].size == 0) {
+										} else if (enemyBishops == 1) {
+											if (enemyKnights == 0) {
+												if (enemyPawns == 0) {
 													// KBBKB
 
-													drawFactor[myColor] = 2;
+													entry.drawFactor[myColor] = 2;
 												}
 											}
 										}
@@ -563,38 +586,38 @@ final class Evaluation {
 							}
 						}
 					}
-				} else if (Position.rookList[myColor].size == 1) {
-					if (Position.bishopList[myColor].size == 0) {
-						if (Position.knightList[myColor].size == 0) {
-							if (Position.pawnList[myColor].size == 0) {
+				} else if (myRooks == 1) {
+					if (myBishops == 0) {
+						if (myKnights == 0) {
+							if (myPawns == 0) {
 								// KRK*
 
-								if (Position.queenList[enemyColor].size == 0) {
-									if (Position.rookList[enemyColor].size == 0) {
-										if (Position.bishopList[enemyColor].size == 0) {
-											if (Position.knightList[enemyColor].size == 1) {
-												if (Position.pawnList[enemyColor].size == 0) {
+								if (enemyQueens == 0) {
+									if (enemyRooks == 0) {
+										if (enemyBishops == 0) {
+											if (enemyKnights == 1) {
+												if (enemyPawns == 0) {
 													// KRKN
 
-													drawFactor[myColor] = 1;
+													entry.drawFactor[myColor] = 1;
 												}
 											}
-										} else if (Position.bishopList[enemyColor].size == 1) {
-											if (Position.knightList[enemyColor].size == 0) {
-												if (Position.pawnList[enemyColor].size == 0) {
+										} else if (enemyBishops == 1) {
+											if (enemyKnights == 0) {
+												if (enemyPawns == 0) {
 													// KRKB
 
-													drawFactor[myColor] = 1;
+													entry.drawFactor[myColor] = 1;
 												}
 											}
 										}
-									} else if (Position.rookList[enemyColor].size == 1) {
-										if (Position.bishopList[enemyColor].size == 0) {
-											if (Position.knightList[enemyColor].size == 0) {
-												if (Position.pawnList[enemyColor].size == 0) {
+									} else if (enemyRooks == 1) {
+										if (enemyBishops == 0) {
+											if (enemyKnights == 0) {
+												if (enemyPawns == 0) {
 													// KRKR
 
-													drawFactor[myColor] = 0;
+													entry.drawFactor[myColor] = 0;
 												}
 											}
 										}
@@ -604,21 +627,21 @@ final class Evaluation {
 						}
 					}
 				}
-			} else if (Position.queenList[myColor].size == 1) {
-				if (Position.rookList[myColor].size == 0) {
-					if (Position.bishopList[myColor].size == 0) {
-						if (Position.knightList[myColor].size == 0) {
-							if (Position.pawnList[myColor].size == 0) {
+			} else if (myQueens == 1) {
+				if (myRooks == 0) {
+					if (myBishops == 0) {
+						if (myKnights == 0) {
+							if (myPawns == 0) {
 								// KQK*
 
-								if (Position.queenList[enemyColor].size == 1) {
-									if (Position.rookList[enemyColor].size == 0) {
-										if (Position.bishopList[enemyColor].size == 0) {
-											if (Position.knightList[enemyColor].size == 0) {
-												if (Position.pawnList[enemyColor].size == 0) {
+								if (enemyQueens == 1) {
+									if (enemyRooks == 0) {
+										if (enemyBishops == 0) {
+											if (enemyKnights == 0) {
+												if (enemyPawns == 0) {
 													// KQKQ
 
-													drawFactor[myColor] = 0;
+													entry.drawFactor[myColor] = 0;
 												}
 											}
 										}
@@ -632,12 +655,11 @@ final class Evaluation {
 		} // for
 	}
 
-	private static void evaluatePawn(int myColor) {
+	private static void evaluatePawn(PawnTable.PawnTableEntry entry, int myColor) {
 		assert myColor != Color.NOCOLOR;
 
 		// Initialize
-		byte[] myAttackTable = attackTable[myColor];
-		byte[] myPawnTable = pawnTable[myColor];
+		byte[] myPawnTable = entry.pawnTable[myColor];
 		PositionList myPawnList = Position.pawnList[myColor];
 
 		// Evaluate each pawn
@@ -646,25 +668,6 @@ final class Evaluation {
 			int pawnFile = Square.getFile(pawnPosition);
 			int pawnRank = Square.getRank(pawnPosition);
 
-			// Fill attack table
-			for (int j = 1; j < Square.pawnDirections.length; j++) {
-				int delta = Square.pawnDirections[j];
-
-				// Attack Table
-				int targetPosition = pawnPosition;
-				if (myColor == Color.WHITE) {
-					targetPosition += delta;
-				} else {
-					assert myColor == Color.BLACK;
-
-					targetPosition -= delta;
-				}
-				if ((targetPosition & 0x88) == 0) {
-					myAttackTable[targetPosition]++;
-					myAttackTable[targetPosition] |= BIT_PAWN;
-				}
-			}
-
 			// Fill pawn table
 			int tableFile = pawnFile + 1;
 			if (myPawnTable[tableFile] == 0
@@ -673,6 +676,52 @@ final class Evaluation {
 				// Set the rank to the lowest pawn rank
 				myPawnTable[tableFile] = (byte) pawnRank;
 			}
+
+			// Fill pawns and pawn attacks
+			entry.pawns[myColor] |= Bitboard.valueOf(pawnPosition);
+			entry.pawnAttacks[myColor] |= Bitboard.pawnAttacks[myColor][Square.toIndex(pawnPosition)];
+		}
+
+		// Fill open files
+		for (int file = 0; file < 8; file++) {
+			if (myPawnTable[file + 1] == 0) {
+				entry.openFiles[myColor] |= 1 << file;
+			}
+		}
+	}
+
+	private static void evaluateMobility(int myColor) {
+		assert myColor != Color.NOCOLOR;
+
+		// Initialize
+		int[] myAttackMap = Position.attackMap[myColor];
+		int[] myAttackSum = Position.attackSum[myColor];
+		int[] myMobilityTable = mobilityTable[myColor];
+
+		// Take all attacked positions
+		myMobilityTable[PieceType.KNIGHT] = myAttackSum[PieceType.KNIGHT];
+		myMobilityTable[PieceType.BISHOP] = myAttackSum[PieceType.BISHOP];
+		myMobilityTable[PieceType.ROOK] = myAttackSum[PieceType.ROOK];
+		myMobilityTable[PieceType.QUEEN] = myAttackSum[PieceType.QUEEN];
+
+		// Remove the attacks on our own chessmen
+		subtractMobility(myMobilityTable, myAttackMap, Position.pawnList[myColor]);
+		subtractMobility(myMobilityTable, myAttackMap, Position.knightList[myColor]);
+		subtractMobility(myMobilityTable, myAttackMap, Position.bishopList[myColor]);
+		subtractMobility(myMobilityTable, myAttackMap, Position.rookList[myColor]);
+		subtractMobility(myMobilityTable, myAttackMap, Position.queenList[myColor]);
+		subtractMobility(myMobilityTable, myAttackMap, Position.kingList[myColor]);
+	}
+
+	private static void subtractMobility(int[] myMobilityTable, int[] myAttackMap, PositionList myList) {
+		for (int i = 0; i < myList.size; i++) {
+			int attackers = myAttackMap[myList.position[i]];
+			if (attackers != 0) {
+				myMobilityTable[PieceType.KNIGHT] -= Attack.getCount(attackers, PieceType.KNIGHT);
+				myMobilityTable[PieceType.BISHOP] -= Attack.getCount(attackers, PieceType.BISHOP);
+				myMobilityTable[PieceType.ROOK] -= Attack.getCount(attackers, PieceType.ROOK);
+				myMobilityTable[PieceType.QUEEN] -= Attack.getCount(attackers, PieceType.QUEEN);
+			}
 		}
 	}
 
@@ -680,45 +729,25 @@ final class Evaluation {
 		assert myColor != Color.NOCOLOR;
 
 		// Initialize
-		int[] total = totalKnight[myColor];
-		byte[] myAttackTable = attackTable[myColor];
-		byte[] enemyAttackTable = attackTable[enemyColor];
+		int total = Score.ZERO;
+		int[] enemyAttackMap = Position.attackMap[enemyColor];
 		PositionList myKnightList = Position.knightList[myColor];
 
+		// Evaluate mobility
+		int allMobility = myKnightList.size * EVAL_KNIGHT_MOBILITY_BASE + mobilityTable[myColor][PieceType.KNIGHT];
+		total += Score.valueOf(EVAL_KNIGHT_MOBILITYFACTOR_OPENING, EVAL_KNIGHT_MOBILITYFACTOR_ENDGAME) * allMobility;
+
 		// Evaluate each knight
 		for (int i = 0; i < myKnightList.size; i++) {
 			int knightPosition = myKnightList.position[i];
 
-			int allMobility = EVAL_KNIGHT_MOBILITY_BASE;
-
-			// Fill attack table and evaluate mobility
-			for (int delta : Square.knightDirections) {
-				int targetPosition = knightPosition + delta;
-				if ((targetPosition & 0x88) == 0) {
-					myAttackTable[targetPosition]++;
-					myAttackTable[targetPosition] |= BIT_MINOR;
-
-					int target = Position.board[targetPosition];
-					if (target == Piece.NOPIECE) {
-						allMobility++;
-					} else {
-						if (Piece.getColor(target) == enemyColor) {
-							allMobility++;
-						}
-					}
-				}
-			}
-
-			// Evaluate mobility
-			total[TOTAL_OPENING] += EVAL_KNIGHT_MOBILITYFACTOR_OPENING * allMobility;
-			total[TOTAL_ENDGAME] += EVAL_KNIGHT_MOBILITYFACTOR_ENDGAME * allMobility;
-
 			// Evaluate safety
-			if ((enemyAttackTable[knightPosition] & BIT_PAWN) == 0) {
-				total[TOTAL_OPENING] += EVAL_KNIGHT_SAFETY;
-				total[TOTAL_ENDGAME] += EVAL_KNIGHT_SAFETY;
+			if ((enemyAttackMap[knightPosition] & Attack.MASK_PAWN) == 0) {
+				total += Score.valueOf(EVAL_KNIGHT_SAFETY, EVAL_KNIGHT_SAFETY);
 			}
 		}
+
+		totalKnight[myColor] = total;
 	}
 
 	private static void evaluateBishop(int myColor, int enemyColor, Position board) {
@@ -726,53 +755,25 @@ final class Evaluation {
 		assert board != null;
 
 		// Initialize
-		int[] total = totalBishop[myColor];
-		byte[] myAttackTable = attackTable[myColor];
-		byte[] enemyAttackTable = attackTable[enemyColor];
+		int total = Score.ZERO;
+		int[] enemyAttackMap = Position.attackMap[enemyColor];
 		PositionList myBishopList = Position.bishopList[myColor];
 
+		// Evaluate mobility
+		int allMobility = myBishopList.size * EVAL_BISHOP_MOBILITY_BASE + mobilityTable[myColor][PieceType.BISHOP];
+		total += Score.valueOf(EVAL_BISHOP_MOBILITYFACTOR_OPENING, EVAL_BISHOP_MOBILITYFACTOR_ENDGAME) * allMobility;
+
 		// Evaluate each bishop
 		for (int i = 0; i < myBishopList.size; i++) {
 			int bishopPosition = myBishopList.position[i];
 
-			int allMobility = EVAL_BISHOP_MOBILITY_BASE;
-
-			// Fill attack table and evaluate mobility
-			for (int delta : Square.bishopDirections) {
-				int targetPosition = bishopPosition + delta;
-				while ((targetPosition & 0x88) == 0) {
-					myAttackTable[targetPosition]++;
-					myAttackTable[targetPosition] |= BIT_MINOR;
-
-					int target = Position.board[targetPosition];
-					if (target == Piece.NOPIECE) {
-						allMobility++;
-						targetPosition += delta;
-					} else {
-						if (Piece.getColor(target) == enemyColor) {
-							allMobility++;
-						}
-						break;
-					}
-				}
-			}
-
-			// Evaluate mobility
-			total[TOTAL_OPENING] += EVAL_BISHOP_MOBILITYFACTOR_OPENING * allMobility;
-			total[TOTAL_ENDGAME] += EVAL_BISHOP_MOBILITYFACTOR_ENDGAME * allMobility;
-
 			// Evaluate safety
-			if ((enemyAttackTable[bishopPosition] & BIT_PAWN) == 0) {
-				total[TOTAL_OPENING] += EVAL_BISHOP_SAFETY;
-				total[TOTAL_ENDGAME] += EVAL_BISHOP_SAFETY;
+			if ((enemyAttackMap[bishopPosition] & Attack.MASK_PAWN) == 0) {
+				total += Score.valueOf(EVAL_BISHOP_SAFETY, EVAL_BISHOP_SAFETY);
 			}
 		}
 
-		// Evaluate bishop pair
-		if (myBishopList.size >= 2) {
-			total[TOTAL_OPENING] += EVAL_BISHOP_PAIR;
-			total[TOTAL_ENDGAME] += EVAL_BISHOP_PAIR;
-		}
+		totalBishop[myColor] = total;
 	}
 
 	private static void evaluateRook(int myColor, int enemyColor, Position board) {
@@ -780,75 +781,48 @@ final class Evaluation {
 		assert board != null;
 
 		// Initialize
-		int[] total = totalRook[myColor];
-		byte[] myAttackTable = attackTable[myColor];
-		byte[] enemyAttackTable = attackTable[enemyColor];
-		byte[] myPawnTable = pawnTable[myColor];
-		byte[] enemyPawnTable = pawnTable[enemyColor];
+		int total = Score.ZERO;
+		int[] enemyAttackMap = Position.attackMap[enemyColor];
+		byte[] enemyPawnTable = pawnEntry.pawnTable[enemyColor];
 		PositionList myRookList = Position.rookList[myColor];
 
 		int totalRook7th = 0;
 
+		// Evaluate mobility
+		int allMobility = myRookList.size * EVAL_ROOK_MOBILITY_BASE + mobilityTable[myColor][PieceType.ROOK];
+		total += Score.valueOf(EVAL_ROOK_MOBILITYFACTOR_OPENING, EVAL_ROOK_MOBILITYFACTOR_ENDGAME) * allMobility;
+
 		// Evaluate each rook
 		for (int i = 0; i < myRookList.size; i++) {
 			int rookPosition = myRookList.position[i];
 			int rookFile = Square.getFile(rookPosition);
 			int rookRank = Square.getRank(rookPosition);
-			int tableFile = rookFile + 1;
-
-			int allMobility = EVAL_ROOK_MOBILITY_BASE;
-
-			// Fill attack table and evaluate mobility
-			for (int delta : Square.rookDirections) {
-				int targetPosition = rookPosition + delta;
-				while ((targetPosition & 0x88) == 0) {
-					myAttackTable[targetPosition]++;
-					myAttackTable[targetPosition] |= BIT_ROOK;
-
-					int target = Position.board[targetPosition];
-					if (target == Piece.NOPIECE) {
-						allMobility++;
-						targetPosition += delta;
-					} else {
-						if (Piece.getColor(target) == enemyColor) {
-							allMobility++;
-						}
-						break;
-					}
-				}
-			}
-
-			// Evaluate mobility
-			total[TOTAL_OPENING] += EVAL_ROOK_MOBILITYFACTOR_OPENING * allMobility;
-			total[TOTAL_ENDGAME] += EVAL_ROOK_MOBILITYFACTOR_ENDGAME * allMobility;
 
 			// Evaluate safety
-			if ((enemyAttackTable[rookPosition] & BIT_PAWN) == 0
-					&& (enemyAttackTable[rookPosition] & BIT_MINOR) == 0) {
-				total[TOTAL_OPENING] += EVAL_ROOK_SAFETY;
-				total[TOTAL_ENDGAME] += EVAL_ROOK_SAFETY;
+			if ((enemyAttackMap[rookPosition] & Attack.MASK_PAWN) == 0
+					&& (enemyAttackMap[rookPosition] & Attack.MASK_MINOR) == 0) {
+				total += Score.valueOf(EVAL_ROOK_SAFETY, EVAL_ROOK_SAFETY);
 			}
 
 			// Evaluate open file
 			int totalOpenFile = 0;
 			totalOpenFile -= EVAL_ROOK_OPENFILE / 2;
-			if (myPawnTable[tableFile] == 0) {
+			if ((pawnEntry.openFiles[myColor] & (1 << rookFile)) != 0) {
 				totalOpenFile += EVAL_ROOK_OPENFILE / 2;
-				if (enemyPawnTable[tableFile] == 0) {
+				if ((pawnEntry.openFiles[enemyColor] & (1 << rookFile)) != 0) {
 					totalOpenFile += EVAL_ROOK_OPENFILE / 2;
 				}
 				int kingPosition = Position.kingList[enemyColor].position[0];
 				int kingFile = Square.getFile(kingPosition);
 				int delta = Math.abs(kingFile - rookFile);
 				if (delta <= 1) {
-					total[TOTAL_OPENING] += EVAL_ROOK_NEARKINGFILE;
+					total += Score.valueOf(EVAL_ROOK_NEARKINGFILE, 0);
 					if (delta == 0) {
-						total[TOTAL_OPENING] += EVAL_ROOK_NEARKINGFILE;
+						total += Score.valueOf(EVAL_ROOK_NEARKINGFILE, 0);
 					}
 				}
 			}
-			total[TOTAL_OPENING] += totalOpenFile;
-			total[TOTAL_ENDGAME] += totalOpenFile;
+			total += Score.valueOf(totalOpenFile, totalOpenFile);
 
 			// Evaluate 7th rank
 			int seventhRank = 6;
@@ -871,17 +845,17 @@ final class Evaluation {
 				}
 				if (enemyPawnExists || kingRank == eighthRank) {
 					totalRook7th++;
-					total[TOTAL_OPENING] += EVAL_ROOK_SEVENTHRANK_OPENING;
-					total[TOTAL_ENDGAME] += EVAL_ROOK_SEVENTHRANK_ENDGAME;
+					total += Score.valueOf(EVAL_ROOK_SEVENTHRANK_OPENING, EVAL_ROOK_SEVENTHRANK_ENDGAME);
 				}
 			}
 		}
 
 		// Check whether we have both rooks on the 7th rank
 		if (totalRook7th == 2) {
-			total[TOTAL_OPENING] += EVAL_ROOK_SEVENTHRANK_BONUS;
-			total[TOTAL_ENDGAME] += EVAL_ROOK_SEVENTHRANK_BONUS;
+			total += Score.valueOf(EVAL_ROOK_SEVENTHRANK_BONUS, EVAL_ROOK_SEVENTHRANK_BONUS);
 		}
+
+		totalRook[myColor] = total;
 	}
 
 	private static void evaluateQueen(int myColor, int enemyColor, Position board) {
@@ -889,49 +863,25 @@ final class Evaluation {
 		assert board != null;
 
 		// Initialize
-		int[] total = totalQueen[myColor];
-		byte[] myAttackTable = attackTable[myColor];
-		byte[] enemyAttackTable = attackTable[enemyColor];
-		byte[] enemyPawnTable = pawnTable[enemyColor];
+		int total = Score.ZERO;
+		int[] enemyAttackMap = Position.attackMap[enemyColor];
+		byte[] enemyPawnTable = pawnEntry.pawnTable[enemyColor];
 		PositionList myQueenList = Position.queenList[myColor];
 
+		// Evaluate mobility
+		int allMobility = myQueenList.size * EVAL_QUEEN_MOBILITY_BASE + mobilityTable[myColor][PieceType.QUEEN];
+		total += Score.valueOf(EVAL_QUEEN_MOBILITYFACTOR_OPENING, EVAL_QUEEN_MOBILITYFACTOR_ENDGAME) * allMobility;
+
 		// Evaluate the queen
 		for (int i = 0; i < myQueenList.size; i++) {
 			int queenPosition = myQueenList.position[i];
 			int queenRank = Square.getRank(queenPosition);
 
-			int allMobility = EVAL_QUEEN_MOBILITY_BASE;
-
-			// Fill attack table and evaluate mobility
-			for (int delta : Square.queenDirections) {
-				int targetPosition = queenPosition + delta;
-				while ((targetPosition & 0x88) == 0) {
-					myAttackTable[targetPosition]++;
-					myAttackTable[targetPosition] |= BIT_QUEEN;
-
-					int target = Position.board[targetPosition];
-					if (target == Piece.NOPIECE) {
-						allMobility++;
-						targetPosition += delta;
-					} else {
-						if (Piece.getColor(target) == enemyColor) {
-							allMobility++;
-						}
-						break;
-					}
-				}
-			}
-
-			// Evaluate mobility
-			total[TOTAL_OPENING] += EVAL_QUEEN_MOBILITYFACTOR_OPENING * allMobility;
-			total[TOTAL_ENDGAME] += EVAL_QUEEN_MOBILITYFACTOR_ENDGAME * allMobility;
-
 			// Evaluate safety
-			if ((enemyAttackTable[queenPosition] & BIT_PAWN) == 0
-					&& (enemyAttackTable[queenPosition] & BIT_MINOR) == 0
-					&& (enemyAttackTable[queenPosition] & BIT_ROOK) == 0) {
-				total[TOTAL_OPENING] += EVAL_QUEEN_SAFETY;
-				total[TOTAL_ENDGAME] += EVAL_QUEEN_SAFETY;
+			if ((enemyAttackMap[queenPosition] & Attack.MASK_PAWN) == 0
+					&& (enemyAttackMap[queenPosition] & Attack.MASK_MINOR) == 0
+					&& (enemyAttackMap[queenPosition] & Attack.MASK_ROOK) == 0) {
+				total += Score.valueOf(EVAL_QUEEN_SAFETY, EVAL_QUEEN_SAFETY);
 			}
 
 			// Evaluate 7th rank
@@ -954,11 +904,12 @@ final class Evaluation {
 					}
 				}
 				if (enemyPawnExists || kingRank == eighthRank) {
-					total[TOTAL_OPENING] += EVAL_QUEEN_SEVENTHRANK_OPENING;
-					total[TOTAL_ENDGAME] += EVAL_QUEEN_SEVENTHRANK_ENDGAME;
+					total += Score.valueOf(EVAL_QUEEN_SEVENTHRANK_OPENING, EVAL_QUEEN_SEVENTHRANK_ENDGAME);
 				}
 			}
 		}
+
+		totalQueen[myColor] = total;
 	}
 
 	private static void evaluateKing(int myColor, int enemyColor, Position board) {
@@ -966,164 +917,84 @@ final class Evaluation {
 		assert board != null;
 
 		// Initialize
-		int[] total = totalKing[myColor];
-		byte[] myAttackTable = attackTable[myColor];
-		byte[] enemyAttackTable = attackTable[enemyColor];
+		int total = Score.ZERO;
 		PositionList myKingList = Position.kingList[myColor];
 
 		// Evaluate the king
 		assert myKingList.size == 1;
 		int kingPosition = myKingList.position[0];
 
-		// Fill attack table
-		for (int delta : Square.kingDirections) {
-			int targetPosition = kingPosition + delta;
-			if ((targetPosition & 0x88) == 0) {
-				myAttackTable[targetPosition]++;
-				myAttackTable[targetPosition] |= BIT_KING;
-			}
-		}
-
 		// Evaluate king safety
-		int attackedSquare;
-		int attackCount = 0;
-		byte flag = 0;
+		long[] myAttackBoard = Position.attackBoard[myColor];
+		long[] enemyAttackBoard = Position.attackBoard[enemyColor];
+		long kingZone = Bitboard.kingZone[Square.toIndex(kingPosition)];
+		long attackedZone = kingZone & (enemyAttackBoard[PieceType.PAWN]
+				| enemyAttackBoard[PieceType.KNIGHT]
+				| enemyAttackBoard[PieceType.BISHOP]
+				| enemyAttackBoard[PieceType.ROOK]
+				| enemyAttackBoard[PieceType.QUEEN]
+				| enemyAttackBoard[PieceType.KING]);
+
+		// Count the attacked positions. Empty or enemy positions and positions
+		// only defended by our king count more.
+		long myDefense = myAttackBoard[PieceType.PAWN]
+				| myAttackBoard[PieceType.KNIGHT]
+				| myAttackBoard[PieceType.BISHOP]
+				| myAttackBoard[PieceType.ROOK]
+				| myAttackBoard[PieceType.QUEEN];
+		int attackCount = 4 * Long.bitCount(attackedZone)
+				+ 3 * Long.bitCount(attackedZone & ~Position.occupancy[myColor])
+				+ Long.bitCount(attackedZone & ~myDefense);
 
-		int sign = 1;
-		int castlingKingside = Castling.WHITE_KINGSIDE;
-		int castlingQueenside = Castling.WHITE_QUEENSIDE;
-		if (myColor == Color.BLACK) {
-			sign = -1;
-			castlingKingside = Castling.BLACK_KINGSIDE;
-			castlingQueenside = Castling.BLACK_QUEENSIDE;
-		} else {
-			assert myColor == Color.WHITE;
-		}
-		attackedSquare = kingPosition + 1;
-		if ((attackedSquare & 0x88) == 0 && enemyAttackTable[attackedSquare] != 0) {
-			attackCount += 4;
-			flag |= enemyAttackTable[attackedSquare];
-			int chessman = Position.board[attackedSquare];
-			if (chessman == Piece.NOPIECE || Piece.getColor(chessman) == enemyColor) {
-				attackCount += 3;
-			}
-			if (myAttackTable[attackedSquare] == -127) {
-				attackCount += 1;
-			}
-		}
-		attackedSquare = kingPosition - 1;
-		if ((attackedSquare & 0x88) == 0 && enemyAttackTable[attackedSquare] != 0) {
-			attackCount += 4;
-			flag |= enemyAttackTable[attackedSquare];
-			int chessman = Position.board[attackedSquare];
-			if (chessman == Piece.NOPIECE || Piece.getColor(chessman) == enemyColor) {
-				attackCount += 3;
-			}
-			if (myAttackTable[attackedSquare] == -127) {
-				attackCount += 1;
-			}
-		}
-		attackedSquare = kingPosition - sign * 15;
-		if ((attackedSquare & 0x88) == 0 && enemyAttackTable[attackedSquare] != 0) {
-			attackCount += 4;
-			flag |= enemyAttackTable[attackedSquare];
-			int chessman = Position.board[attackedSquare];
-			if (chessman == Piece.NOPIECE || Piece.getColor(chessman) == enemyColor) {
-				attackCount += 3;
-			}
-			if (myAttackTable[attackedSquare] == -127) {
-				attackCount += 1;
-			}
-		}
-		attackedSquare = kingPosition - sign * 16;
-		if ((attackedSquare & 0x88) == 0 && enemyAttackTable[attackedSquare] != 0) {
-			attackCount += 4;
-			flag |= enemyAttackTable[attackedSquare];
-			int chessman = Position.board[attackedSquare];
-			if (chessman == Piece.NOPIECE || Piece.getColor(chessman) == enemyColor) {
-				attackCount += 3;
-			}
-			if (myAttackTable[attackedSquare] == -127) {
-				attackCount += 1;
-			}
+		attackCount /= 4;
+		assert attackCount >= 0 && attackCount <= 16;
+
+		int pattern = 0;
+		if ((attackedZone & enemyAttackBoard[PieceType.PAWN]) != 0) {
+			pattern |= 1;
 		}
-		attackedSquare = kingPosition - sign * 17;
-		if ((attackedSquare & 0x88) == 0 && enemyAttackTable[attackedSquare] != 0) {
-			attackCount += 4;
-			flag |= enemyAttackTable[attackedSquare];
-			int chessman = Position.board[attackedSquare];
-			if (chessman == Piece.NOPIECE || Piece.getColor(chessman) == enemyColor) {
-				attackCount += 3;
-			}
-			if (myAttackTable[attackedSquare] == -127) {
-				attackCount += 1;
-			}
+		if ((attackedZone & (enemyAttackBoard[PieceType.KNIGHT] | enemyAttackBoard[PieceType.BISHOP])) != 0) {
+			pattern |= 2;
 		}
-		attackedSquare = kingPosition + sign * 17;
-		if ((attackedSquare & 0x88) == 0 && enemyAttackTable[attackedSquare] != 0) {
-			attackCount += 4;
-			flag |= enemyAttackTable[attackedSquare];
-			int chessman = Position.board[attackedSquare];
-			if (chessman == Piece.NOPIECE || Piece.getColor(chessman) == enemyColor) {
-				attackCount += 3;
-			}
-			if (myAttackTable[attackedSquare] == -127) {
-				attackCount += 1;
-			}
+		if ((attackedZone & enemyAttackBoard[PieceType.ROOK]) != 0) {
+			pattern |= 4;
 		}
-		attackedSquare = kingPosition + sign * 16;
-		if ((attackedSquare & 0x88) == 0 && enemyAttackTable[attackedSquare] != 0) {
-			attackCount += 4;
-			flag |= enemyAttackTable[attackedSquare];
-			int chessman = Position.board[attackedSquare];
-			if (chessman == Piece.NOPIECE || Piece.getColor(chessman) == enemyColor) {
-				attackCount += 3;
-			}
-			if (myAttackTable[attackedSquare] == -127) {
-				attackCount += 1;
-			}
+		if ((attackedZone & enemyAttackBoard[PieceType.QUEEN]) != 0) {
+			pattern |= 8;
 		}
-		attackedSquare = kingPosition + sign * 15;
-		if ((attackedSquare & 0x88) == 0 && enemyAttackTable[attackedSquare] != 0) {
-			attackCount += 4;
-			flag |= enemyAttackTable[attackedSquare];
-			int chessman = Position.board[attackedSquare];
-			if (chessman == Piece.NOPIECE || Piece.getColor(chessman) == enemyColor) {
-				attackCount += 3;
-			}
-			if (myAttackTable[attackedSquare] == -127) {
-				attackCount += 1;
-			}
+		if ((attackedZone & enemyAttackBoard[PieceType.KING]) != 0) {
+			pattern |= 16;
 		}
+		assert KING_ATTACK_PATTERN[pattern] >= 0 && KING_ATTACK_PATTERN[pattern] <= 8;
 
-		attackCount /= 4;
-		assert attackCount >= 0 && attackCount <= 16;
-		assert KING_ATTACK_PATTERN[(flag >>> 3) & MASK_ATTACKERS] >= 0 && KING_ATTACK_PATTERN[(flag >>> 3) & MASK_ATTACKERS] <= 8;
-
-		int kingSafety = (KING_ATTACK_PATTERN[(flag >>> 3) & MASK_ATTACKERS] * EVAL_KING_ATTACK * KING_ATTACK_EVAL[attackCount]) / 256;
+		int kingSafety = (KING_ATTACK_PATTERN[pattern] * EVAL_KING_ATTACK * KING_ATTACK_EVAL[attackCount]) / 256;
 		assert kingSafety >= 0 && kingSafety <= 8 * EVAL_KING_ATTACK;
 
-		total[TOTAL_OPENING] -= kingSafety;
+		total -= Score.valueOf(kingSafety, 0);
 
+		int castlingKingside = Castling.WHITE_KINGSIDE;
+		int castlingQueenside = Castling.WHITE_QUEENSIDE;
 		int castlingPositionKingside = Square.WHITE_CASTLING_KINGSIDE;
 		int castlingPositionQueenside = Square.WHITE_CASTLING_QUEENSIDE;
 		if (myColor == Color.BLACK) {
+			castlingKingside = Castling.BLACK_KINGSIDE;
+			castlingQueenside = Castling.BLACK_QUEENSIDE;
 			castlingPositionKingside = Square.BLACK_CASTLING_KINGSIDE;
 			castlingPositionQueenside = Square.BLACK_CASTLING_QUEENSIDE;
 		}
 
 		// Evaluate pawn shield
-		int positionPenalty = getPawnShieldPenalty(myColor, kingPosition);
+		int positionPenalty = getShelterPenalty(myColor, kingPosition);
 		int castlingPenalty = positionPenalty;
 
 		if ((Position.castling & castlingKingside) != 0) {
-			int tempPenalty = getPawnShieldPenalty(myColor, castlingPositionKingside);
+			int tempPenalty = getShelterPenalty(myColor, castlingPositionKingside);
 			if (tempPenalty < castlingPenalty) {
 				castlingPenalty = tempPenalty;
 			}
 		}
 		if ((Position.castling & castlingQueenside) != 0) {
-			int tempPenalty = getPawnShieldPenalty(myColor, castlingPositionQueenside);
+			int tempPenalty = getShelterPenalty(myColor, castlingPositionQueenside);
 			if (tempPenalty < castlingPenalty) {
 				castlingPenalty = tempPenalty;
 			}
@@ -1131,99 +1002,129 @@ final class Evaluation {
 
 		int pawnShieldPenalty = (positionPenalty + castlingPenalty) / 2;
 
-		total[TOTAL_OPENING] -= pawnShieldPenalty;
+		total -= Score.valueOf(pawnShieldPenalty, 0);
+
+		totalKing[myColor] = total;
 	}
 
-	private static void evaluatePawnStructure(int myColor, int enemyColor, Position board) {
+	private static void evaluatePawnStructure(PawnTable.PawnTableEntry entry, int myColor, int enemyColor) {
 		assert myColor != Color.NOCOLOR;
-		assert board != null;
 
 		// Initialize
-		int[] total = totalPawnStructure[myColor];
-		byte[] myAttackTable = attackTable[myColor];
-		byte[] enemyAttackTable = attackTable[enemyColor];
-		byte[] myPawnTable = pawnTable[myColor];
+		int total = Score.ZERO;
+		long myPawns = entry.pawns[myColor];
+		long allPawns = myPawns | entry.pawns[enemyColor];
+		long myPawnAttacks = entry.pawnAttacks[myColor];
+		long enemyPawnAttacks = entry.pawnAttacks[enemyColor];
 		PositionList myPawnList = Position.pawnList[myColor];
+		int sign = 1;
+		if (myColor == Color.BLACK) {
+			sign = -1;
+		} else {
+			assert myColor == Color.WHITE;
+		}
 
 		// Evaluate each pawn
 		for (int i = 0; i < myPawnList.size; i++) {
 			int pawnPosition = myPawnList.position[i];
-			int pawnFile = Square.getFile(pawnPosition);
 			int pawnRank = Square.getRank(pawnPosition);
-			int tableFile = pawnFile + 1;
+			int index = Square.toIndex(pawnPosition);
 
 			// Doubled pawns
-			if (myPawnTable[tableFile] != pawnRank) {
-				total[TOTAL_OPENING] -= EVAL_PAWN_DOUBLED_OPENING;
-				total[TOTAL_ENDGAME] -= EVAL_PAWN_DOUBLED_ENDGAME;
+			// Notes: Only the pawns in front are doubled.
+			if ((Bitboard.frontSpan[enemyColor][index] & myPawns) != 0) {
+				total -= Score.valueOf(EVAL_PAWN_DOUBLED_OPENING, EVAL_PAWN_DOUBLED_ENDGAME);
 			}
 
 			// Isolated pawn
-			if (myPawnTable[tableFile - 1] == 0 && myPawnTable[tableFile + 1] == 0) {
-				total[TOTAL_OPENING] -= EVAL_PAWN_ISOLATED_OPENING;
-				total[TOTAL_ENDGAME] -= EVAL_PAWN_ISOLATED_ENDGAME;
+			if ((Bitboard.isolatedMask[index] & myPawns) == 0) {
+				total -= Score.valueOf(EVAL_PAWN_ISOLATED_OPENING, EVAL_PAWN_ISOLATED_ENDGAME);
 			}
 
 			// Backward pawn
-			else if ((myAttackTable[pawnPosition] & BIT_PAWN) == 0) {
-				// We are not protected, check whether we have a backward pawn here
-
-				boolean backward = false;
-				int sign = 1;
-				if (myColor == Color.WHITE) {
-					if ((myPawnTable[tableFile + 1] == 0 || myPawnTable[tableFile + 1] > pawnRank)
-							&& (myPawnTable[tableFile - 1] == 0 || myPawnTable[tableFile - 1] > pawnRank)) {
-						// We are behind the left and right pawn
-						backward = true;
+			// Notes: We are not protected and behind the left and right pawn.
+			else if ((myPawnAttacks & Bitboard.valueOf(pawnPosition)) == 0
+					&& (Bitboard.backwardMask[myColor][index] & myPawns) == 0) {
+				// Really backward?
+				boolean backward = true;
+
+				long front = Bitboard.valueOf(pawnPosition + sign * 16);
+				if ((Bitboard.pawnAttacks[myColor][index] & myPawns) != 0) {
+					// We are protecting a buddy on the left or right side
+					// Check whether we can advance
+					if ((allPawns & front) == 0
+							&& (enemyPawnAttacks & (Bitboard.valueOf(pawnPosition) | front)) == 0) {
+						backward = false;
 					}
-				} else {
-					assert myColor == Color.BLACK;
-
-					if ((myPawnTable[tableFile + 1] == 0 || myPawnTable[tableFile + 1] < pawnRank)
-							&& (myPawnTable[tableFile - 1] == 0 || myPawnTable[tableFile - 1] < pawnRank)) {
-						// We are behind the left and right pawn
-						backward = true;
-						sign = -1;
+				} else if (pawnRank == 1
+						&& (Bitboard.pawnAttacks[myColor][Square.toIndex(pawnPosition + sign * 16)] & myPawns) != 0) {
+					// We can do a pawn double advance
+					front |= Bitboard.valueOf(pawnPosition + sign * 32);
+					if ((allPawns & front) == 0
+							&& (enemyPawnAttacks & (Bitboard.valueOf(pawnPosition) | front)) == 0) {
+						backward = false;
 					}
 				}
 
 				if (backward) {
-					// Really backward?
-
-					if (myPawnTable[tableFile + 1] == pawnRank + sign * 1
-							|| myPawnTable[tableFile - 1] == pawnRank + sign * 1) {
-						// We are protecting a buddy on the left or right side
-						// Check whether we can advance
-						assert ((pawnPosition + sign * 16) & 0x88) == 0;
-						int chessman = Position.board[pawnPosition + sign * 16];
-						if ((chessman == Piece.NOPIECE || Piece.getChessman(chessman) != PieceType.PAWN)
-								&& (enemyAttackTable[pawnPosition] & BIT_PAWN) == 0
-								&& (enemyAttackTable[pawnPosition + sign * 16] & BIT_PAWN) == 0) {
-							backward = false;
-						}
-					} else if (pawnRank == 1
-							&& (myPawnTable[tableFile + 1] == pawnRank + sign * 2
-							|| myPawnTable[tableFile - 1] == pawnRank + sign * 2)) {
-						// We can do a pawn double advance
-						assert ((pawnPosition + sign * 32) & 0x88) == 0;
-						int chessman1 = Position.board[pawnPosition + sign * 16];
-						int chessman2 = Position.board[pawnPosition + sign * 32];
-						if ((chessman1 == Piece.NOPIECE || Piece.getChessman(chessman1) != PieceType.PAWN)
-								&& (chessman2 == Piece.NOPIECE || Piece.getChessman(chessman2) != PieceType.PAWN)
-								&& (enemyAttackTable[pawnPosition] & BIT_PAWN) == 0
-								&& (enemyAttackTable[pawnPosition + sign * 16] & BIT_PAWN) == 0
-								&& (enemyAttackTable[pawnPosition + sign * 32] & BIT_PAWN) == 0) {
-							backward = false;
-						}
-					}
+					total -= Score.valueOf(EVAL_PAWN_BACKWARD_OPENING, EVAL_PAWN_BACKWARD_ENDGAME);
+				}
+			}
+		}
 
-					if (backward) {
-						total[TOTAL_OPENING] -= EVAL_PAWN_BACKWARD_OPENING;
-						total[TOTAL_ENDGAME] -= EVAL_PAWN_BACKWARD_ENDGAME;
-					}
+		entry.score[myColor] = total;
+	}
+
+	private static void evaluatePawnPassers(PawnTable.PawnTableEntry entry, int myColor, int enemyColor) {
+		assert myColor != Color.NOCOLOR;
+
+		// Initialize
+		long enemyPawns = entry.pawns[enemyColor];
+
+		// Find the passed pawns
+		// Notes: The pieces are checked by evaluatePawnPasser().
+		for (long pawns = entry.pawns[myColor]; pawns != 0; pawns &= pawns - 1) {
+			int index = Long.numberOfTrailingZeros(pawns);
+			if ((Bitboard.passedMask[myColor][index] & enemyPawns) == 0) {
+				entry.passers[myColor] |= 1L << index;
+			}
+		}
+	}
+
+	private static void evaluatePawnShelter(PawnTable.PawnTableEntry entry, int myColor) {
+		assert myColor != Color.NOCOLOR;
+
+		// Initialize
+		byte[] myPawnTable = entry.pawnTable[myColor];
+		int[] myShelter = entry.shelter[myColor];
+
+		// Evaluate the penalty of each file for a king on the first rank. See
+		// getPawnShieldPenalty().
+		for (int file = 0; file < 8; file++) {
+			int rank = myPawnTable[file + 1];
+			if (rank == 0) {
+				myShelter[file] = 36;
+			} else {
+				if (myColor == Color.BLACK) {
+					rank = 7 - rank;
+				} else {
+					assert myColor == Color.WHITE;
 				}
+				myShelter[file] = (rank - 1) * (rank - 1);
 			}
 		}
+
+		// Evaluate the pawn shield. The file of the king counts twice.
+		int left = 0;
+		for (int file = 0; file < 8; file++) {
+			int penalty = myShelter[file];
+			int right = 0;
+			if (file < 7) {
+				right = myShelter[file + 1];
+			}
+			myShelter[file] = left + 2 * penalty + right;
+			left = penalty;
+		}
 	}
 
 	private static void evaluatePawnPasser(int myColor, int enemyColor, Position board) {
@@ -1231,10 +1132,8 @@ final class Evaluation {
 		assert board != null;
 
 		// Initialize
-		int[] total = totalPawnPasser[myColor];
-		byte[] myAttackTable = attackTable[myColor];
-		byte[] enemyPawnTable = pawnTable[enemyColor];
-		PositionList myPawnList = Position.pawnList[myColor];
+		int total = Score.ZERO;
+		int[] myAttackMap = Position.attackMap[myColor];
 
 		assert Position.kingList[enemyColor].size == 1;
 		int enemyKingPosition = Position.kingList[enemyColor].position[0];
@@ -1245,66 +1144,54 @@ final class Evaluation {
 		int myKingFile = Square.getFile(myKingPosition);
 		int myKingRank = Square.getRank(myKingPosition);
 
-		// Evaluate each pawn
-		for (int i = 0; i < myPawnList.size; i++) {
-			int pawnPosition = myPawnList.position[i];
+		// Evaluate each passed pawn
+		for (long passers = pawnEntry.passers[myColor]; passers != 0; passers &= passers - 1) {
+			int pawnPosition = Square.valueOfIndex(Long.numberOfTrailingZeros(passers));
 			int pawnFile = Square.getFile(pawnPosition);
 			int pawnRank = Square.getRank(pawnPosition);
 			int pawn = Position.board[pawnPosition];
-			int tableFile = pawnFile + 1;
 
 			// Passed pawn
-			boolean isPasser = false;
+			boolean isPasser = true;
 			int sign = 1;
 			int rankBonus = pawnRank;
 			if (myColor == Color.WHITE) {
-				if ((enemyPawnTable[tableFile] == 0 || enemyPawnTable[tableFile] < pawnRank)
-						&& (enemyPawnTable[tableFile + 1] == 0 || enemyPawnTable[tableFile + 1] <= pawnRank)
-						&& (enemyPawnTable[tableFile - 1] == 0 || enemyPawnTable[tableFile - 1] <= pawnRank)) {
-					isPasser = true;
-
-					if ((myAttackTable[pawnPosition] & BIT_ROOK) != 0) {
-						// We are protected by a rook
-						// Check whether the rook is in front of us
-						int endPosition = pawnPosition + 16;
-						for (int j = pawnRank + 1; j <= 7; j++) {
-							int chessman = Position.board[endPosition];
-							if (chessman != Piece.NOPIECE) {
-								if (Piece.getChessman(chessman) == PieceType.ROOK && Piece.getColor(chessman) == myColor) {
-									// We have no bad rook
-									isPasser = false;
-								}
-								break;
+				if ((myAttackMap[pawnPosition] & Attack.MASK_ROOK) != 0) {
+					// We are protected by a rook
+					// Check whether the rook is in front of us
+					int endPosition = pawnPosition + 16;
+					for (int j = pawnRank + 1; j <= 7; j++) {
+						int chessman = Position.board[endPosition];
+						if (chessman != Piece.NOPIECE) {
+							if (Piece.getChessman(chessman) == PieceType.ROOK && Piece.getColor(chessman) == myColor) {
+								// We have no bad rook
+								isPasser = false;
 							}
-							endPosition += 16;
+							break;
 						}
+						endPosition += 16;
 					}
 				}
 			} else {
 				assert myColor == Color.BLACK;
 
-				if ((enemyPawnTable[tableFile] == 0 || enemyPawnTable[tableFile] > pawnRank)
-						&& (enemyPawnTable[tableFile + 1] == 0 || enemyPawnTable[tableFile + 1] >= pawnRank)
-						&& (enemyPawnTable[tableFile - 1] == 0 || enemyPawnTable[tableFile - 1] >= pawnRank)) {
-					isPasser = true;
-					sign = -1;
-					rankBonus = 7 - pawnRank;
-
-					if ((myAttackTable[pawnPosition] & BIT_ROOK) != 0) {
-						// We are protected by a rook
-						// Check whether the rook is in front of us
-						int endPosition = pawnPosition - 16;
-						for (int j = pawnRank - 1; j >= 0; j--) {
-							int chessman = Position.board[endPosition];
-							if (chessman != Piece.NOPIECE) {
-								if (Piece.getChessman(chessman) == PieceType.ROOK && Piece.getColor(chessman) == myColor) {
-									// We have no bad rook
-									isPasser = false;
-								}
-								break;
+				sign = -1;
+				rankBonus = 7 - pawnRank;
+
+				if ((myAttackMap[pawnPosition] & Attack.MASK_ROOK) != 0) {
+					// We are protected by a rook
+					// Check whether the rook is in front of us
+					int endPosition = pawnPosition - 16;
+					for (int j = pawnRank - 1; j >= 0; j--) {
+						int chessman = Position.board[endPosition];
+						if (chessman != Piece.NOPIECE) {
+							if (Piece.getChessman(chessman) == PieceType.ROOK && Piece.getColor(chessman) == myColor) {
+								// We have no bad rook
+								isPasser = false;
 							}
-							endPosition -= 16;
+							break;
 						}
+						endPosition -= 16;
 					}
 				}
 			}
@@ -1315,7 +1202,7 @@ final class Evaluation {
 				}
 
 				// Evaluate opening value
-				total[TOTAL_OPENING] += EVAL_PAWN_PASSER_OPENING_MIN + ((EVAL_PAWN_PASSER_OPENING_MAX - EVAL_PAWN_PASSER_OPENING_MIN) * bonus) / EVAL_PAWN_PASSER_MAXBONUS;
+				int opening = EVAL_PAWN_PASSER_OPENING_MIN + ((EVAL_PAWN_PASSER_OPENING_MAX - EVAL_PAWN_PASSER_OPENING_MIN) * bonus) / EVAL_PAWN_PASSER_MAXBONUS;
 
 				// Evaluate endgame value
 				int endgameMax = EVAL_PAWN_PASSER_ENDGAME_MAX;
@@ -1358,8 +1245,8 @@ final class Evaluation {
 							}
 
 							// King protected passer
-							else if (((promotionDistance <= 2 && (myAttackTable[pawnPosition] & BIT_KING) != 0)
-									|| (promotionDistance <= 3 && (myAttackTable[pawnPosition + 16] & BIT_KING) != 0 && board.activeColor == myColor))
+							else if (((promotionDistance <= 2 && (myAttackMap[pawnPosition] & Attack.MASK_KING) != 0)
+									|| (promotionDistance <= 3 && (myAttackMap[pawnPosition + 16] & Attack.MASK_KING) != 0 && board.activeColor == myColor))
 									&& (myKingFile != pawnFile
 									|| (pawnFile != File.a && pawnFile != File.h))) {
 								endgameMax += EVAL_PAWN_PASSER_UNSTOPPABLE;
@@ -1397,8 +1284,8 @@ final class Evaluation {
 							}
 
 							// King protected passer
-							else if (((promotionDistance <= 2 && (myAttackTable[pawnPosition] & BIT_KING) != 0)
-									|| (promotionDistance <= 3 && (myAttackTable[pawnPosition - 16] & BIT_KING) != 0 && board.activeColor == myColor))
+							else if (((promotionDistance <= 2 && (myAttackMap[pawnPosition] & Attack.MASK_KING) != 0)
+									|| (promotionDistance <= 3 && (myAttackMap[pawnPosition - 16] & Attack.MASK_KING) != 0 && board.activeColor == myColor))
 									&& (myKingFile != pawnFile
 									|| (pawnFile != File.a && pawnFile != File.h))) {
 								endgameMax += EVAL_PAWN_PASSER_UNSTOPPABLE;
@@ -1418,12 +1305,16 @@ final class Evaluation {
 				}
 
 				// Evaluate endgame value
-				total[TOTAL_ENDGAME] += EVAL_PAWN_PASSER_ENDGAME_MIN;
+				int endgame = EVAL_PAWN_PASSER_ENDGAME_MIN;
 				if (endgameMax - EVAL_PAWN_PASSER_ENDGAME_MIN > 0) {
-					total[TOTAL_ENDGAME] += ((endgameMax - EVAL_PAWN_PASSER_ENDGAME_MIN) * bonus) / EVAL_PAWN_PASSER_MAXBONUS;
+					endgame += ((endgameMax - EVAL_PAWN_PASSER_ENDGAME_MIN) * bonus) / EVAL_PAWN_PASSER_MAXBONUS;
 				}
+
+				total += Score.valueOf(opening, endgame);
 			}
 		}
+
+		totalPawnPasser[myColor] = total;
 	}
 
 	private static void evaluatePatterns(int myColor, Position board) {
@@ -1431,66 +1322,54 @@ final class Evaluation {
 		assert board != null;
 
 		// Initialize
-		int[] total = totalPatterns[myColor];
+		int total = Score.ZERO;
 
 		if (myColor == Color.WHITE) {
 			// Trapped white bishop
 			if (Position.board[Square.a7] == Piece.WHITE_BISHOP
 					&& Position.board[Square.b6] == Piece.BLACK_PAWN) {
-				total[TOTAL_OPENING] -= 100;
-				total[TOTAL_ENDGAME] -= 100;
+				total -= Score.valueOf(100, 100);
 				if (Position.board[Square.c7] == Piece.BLACK_PAWN) {
-					total[TOTAL_OPENING] -= 50;
-					total[TOTAL_ENDGAME] -= 50;
+					total -= Score.valueOf(50, 50);
 				}
 			}
 			if (Position.board[Square.b8] == Piece.WHITE_BISHOP
 					&& Position.board[Square.c7] == Piece.BLACK_PAWN) {
-				total[TOTAL_OPENING] -= 100;
-				total[TOTAL_ENDGAME] -= 100;
+				total -= Score.valueOf(100, 100);
 			}
 			if (Position.board[Square.h7] == Piece.WHITE_BISHOP
 					&& Position.board[Square.g6] == Piece.BLACK_PAWN) {
-				total[TOTAL_OPENING] -= 100;
-				total[TOTAL_ENDGAME] -= 100;
+				total -= Score.valueOf(100, 100);
 				if (Position.board[Square.f7] == Piece.BLACK_PAWN) {
-					total[TOTAL_OPENING] -= 50;
-					total[TOTAL_ENDGAME] -= 50;
+					total -= Score.valueOf(50, 50);
 				}
 			}
 			if (Position.board[Square.g8] == Piece.WHITE_BISHOP
 					&& Position.board[Square.f7] == Piece.BLACK_PAWN) {
-				total[TOTAL_OPENING] -= 100;
-				total[TOTAL_ENDGAME] -= 100;
+				total -= Score.valueOf(100, 100);
 			}
 			if (Position.board[Square.a6] == Piece.WHITE_BISHOP
 					&& Position.board[Square.b5] == Piece.BLACK_PAWN) {
-				total[TOTAL_OPENING] -= 50;
-				total[TOTAL_ENDGAME] -= 50;
+				total -= Score.valueOf(50, 50);
 			}
 			if (Position.board[Square.h6] == Piece.WHITE_BISHOP
 					&& Position.board[Square.g5] == Piece.BLACK_PAWN) {
-				total[TOTAL_OPENING] -= 50;
-				total[TOTAL_ENDGAME] -= 50;
+				total -= Score.valueOf(50, 50);
 			}
 
 			// Blocked center pawn
 			if (Position.board[Square.d2] == Piece.WHITE_PAWN
 					&& Position.board[Square.d3] != Piece.NOPIECE) {
-				total[TOTAL_OPENING] -= 20;
-				total[TOTAL_ENDGAME] -= 20;
+				total -= Score.valueOf(20, 20);
 				if (Position.board[Square.c1] == Piece.WHITE_BISHOP) {
-					total[TOTAL_OPENING] -= 30;
-					total[TOTAL_ENDGAME] -= 30;
+					total -= Score.valueOf(30, 30);
 				}
 			}
 			if (Position.board[Square.e2] == Piece.WHITE_PAWN
 					&& Position.board[Square.e3] != Piece.NOPIECE) {
-				total[TOTAL_OPENING] -= 20;
-				total[TOTAL_ENDGAME] -= 20;
+				total -= Score.valueOf(20, 20);
 				if (Position.board[Square.f1] == Piece.WHITE_BISHOP) {
-					total[TOTAL_OPENING] -= 30;
-					total[TOTAL_ENDGAME] -= 30;
+					total -= Score.valueOf(30, 30);
 				}
 			}
 
@@ -1500,16 +1379,14 @@ final class Evaluation {
 					&& (Position.board[Square.a1] == Piece.WHITE_ROOK
 					|| Position.board[Square.a2] == Piece.WHITE_ROOK
 					|| Position.board[Square.b1] == Piece.WHITE_ROOK)) {
-				total[TOTAL_OPENING] -= 50;
-				total[TOTAL_ENDGAME] -= 50;
+				total -= Score.valueOf(50, 50);
 			}
 			if ((Position.board[Square.f1] == Piece.WHITE_KING
 					|| Position.board[Square.g1] == Piece.WHITE_KING)
 					&& (Position.board[Square.h1] == Piece.WHITE_ROOK
 					|| Position.board[Square.h2] == Piece.WHITE_ROOK
 					|| Position.board[Square.g1] == Piece.WHITE_ROOK)) {
-				total[TOTAL_OPENING] -= 50;
-				total[TOTAL_ENDGAME] -= 50;
+				total -= Score.valueOf(50, 50);
 			}
 		} else {
 			assert myColor == Color.BLACK;
@@ -1517,60 +1394,48 @@ final class Evaluation {
 			// Trapped black bishop
 			if (Position.board[Square.a2] == Piece.BLACK_BISHOP
 					&& Position.board[Square.b3] == Piece.WHITE_PAWN) {
-				total[TOTAL_OPENING] -= 100;
-				total[TOTAL_ENDGAME] -= 100;
+				total -= Score.valueOf(100, 100);
 				if (Position.board[Square.c2] == Piece.WHITE_PAWN) {
-					total[TOTAL_OPENING] -= 50;
-					total[TOTAL_ENDGAME] -= 50;
+					total -= Score.valueOf(50, 50);
 				}
 			}
 			if (Position.board[Square.b1] == Piece.BLACK_BISHOP
 					&& Position.board[Square.c2] == Piece.WHITE_PAWN) {
-				total[TOTAL_OPENING] -= 100;
-				total[TOTAL_ENDGAME] -= 100;
+				total -= Score.valueOf(100, 100);
 			}
 			if (Position.board[Square.h2] == Piece.BLACK_BISHOP
 					&& Position.board[Square.g3] == Piece.WHITE_PAWN) {
-				total[TOTAL_OPENING] -= 100;
-				total[TOTAL_ENDGAME] -= 100;
+				total -= Score.valueOf(100, 100);
 				if (Position.board[Square.f2] == Piece.WHITE_PAWN) {
-					total[TOTAL_OPENING] -= 50;
-					total[TOTAL_ENDGAME] -= 50;
+					total -= Score.valueOf(50, 50);
 				}
 			}
 			if (Position.board[Square.g1] == Piece.BLACK_BISHOP
 					&& Position.board[Square.f2] == Piece.WHITE_PAWN) {
-				total[TOTAL_OPENING] -= 100;
-				total[TOTAL_ENDGAME] -= 100;
+				total -= Score.valueOf(100, 100);
 			}
 			if (Position.board[Square.a3] == Piece.BLACK_BISHOP
 					&& Position.board[Square.b4] == Piece.WHITE_PAWN) {
-				total[TOTAL_OPENING] -= 50;
-				total[TOTAL_ENDGAME] -= 50;
+				total -= Score.valueOf(50, 50);
 			}
 			if (Position.board[Square.h3] == Piece.BLACK_BISHOP
 					&& Position.board[Square.g4] == Piece.WHITE_PAWN) {
-				total[TOTAL_OPENING] -= 50;
-				total[TOTAL_ENDGAME] -= 50;
+				total -= Score.valueOf(50, 50);
 			}
 
 			// Blocked center pawn
 			if (Position.board[Square.d7] == Piece.BLACK_PAWN
 					&& Position.board[Square.d6] != Piece.NOPIECE) {
-				total[TOTAL_OPENING] -= 20;
-				total[TOTAL_ENDGAME] -= 20;
+				total -= Score.valueOf(20, 20);
 				if (Position.board[Square.c8] == Piece.BLACK_BISHOP) {
-					total[TOTAL_OPENING] -= 30;
-					total[TOTAL_ENDGAME] -= 30;
+					total -= Score.valueOf(30, 30);
 				}
 			}
 			if (Position.board[Square.e7] == Piece.BLACK_PAWN
 					&& Position.board[Square.e6] != Piece.NOPIECE) {
-				total[TOTAL_OPENING] -= 20;
-				total[TOTAL_ENDGAME] -= 20;
+				total -= Score.valueOf(20, 20);
 				if (Position.board[Square.f8] == Piece.BLACK_BISHOP) {
-					total[TOTAL_OPENING] -= 30;
-					total[TOTAL_ENDGAME] -= 30;
+					total -= Score.valueOf(30, 30);
 				}
 			}
 
@@ -1580,27 +1445,33 @@ final class Evaluation {
 					&& (Position.board[Square.a8] == Piece.BLACK_ROOK
 					|| Position.board[Square.a7] == Piece.BLACK_ROOK
 					|| Position.board[Square.b8] == Piece.BLACK_ROOK)) {
-				total[TOTAL_OPENING] -= 50;
-				total[TOTAL_ENDGAME] -= 50;
+				total -= Score.valueOf(50, 50);
 			}
 			if ((Position.board[Square.f8] == Piece.BLACK_KING
 					|| Position.board[Square.g8] == Piece.BLACK_KING)
 					&& (Position.board[Square.h8] == Piece.BLACK_ROOK
 					|| Position.board[Square.h7] == Piece.BLACK_ROOK
 					|| Position.board[Square.g8] == Piece.BLACK_ROOK)) {
-				total[TOTAL_OPENING] -= 50;
-				total[TOTAL_ENDGAME] -= 50;
+				total -= Score.valueOf(50, 50);
 			}
 		}
+
+		totalPatterns[myColor] = total;
+	}
+
+	private static int getShelterPenalty(int myColor, int kingPosition) {
+		if (Square.getRelativeRank(kingPosition, myColor) == Rank.r1) {
+			// Use the pawn shield of the pawn table entry
+			return pawnEntry.shelter[myColor][Square.getFile(kingPosition)];
+		} else {
+			return getPawnShieldPenalty(pawnEntry.pawnTable[myColor], myColor, kingPosition);
+		}
 	}
 
-	private static int getPawnShieldPenalty(int myColor, int kingPosition) {
+	private static int getPawnShieldPenalty(byte[] myPawnTable, int myColor, int kingPosition) {
 		assert myColor != Color.NOCOLOR;
 		assert (kingPosition & 0x88) == 0;
 
-		// Initialize
-		byte[] myPawnTable = pawnTable[myColor];
-
 		int kingFile = Square.getFile(kingPosition);
 		int kingRank = Square.getRank(kingPosition);
 		int tableFile = kingFile + 1;
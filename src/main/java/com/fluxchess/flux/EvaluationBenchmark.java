@@ -0,0 +1,120 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+import com.fluxchess.jcpi.models.GenericBoard;
+import com.fluxchess.jcpi.models.IllegalNotationException;
+
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Measures the evaluation throughput of the hand-written evaluation and the
+ * network evaluation. Both evaluate every node of a fixed depth tree.
+ */
+final class EvaluationBenchmark {
+
+	private static final int DEPTH = 3;
+	private static final int ITERATIONS = 5;
+
+	private static final String[] fens = {
+			"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+			"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq -",
+			"r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - -",
+			"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - -"
+	};
+
+	private final Evaluation evaluation = new Evaluation();
+	private long checksum = 0;
+
+	void run(String networkFile) throws IOException, IllegalNotationException {
+		if (networkFile == null) {
+			Network.randomize(256, new Random(0));
+			System.out.format("Using a random network with %d hidden neurons and the %s kernel%n", Network.hiddenSize, NetworkKernel.getName());
+		} else {
+			Network.load(new java.io.File(networkFile));
+			System.out.format("Using network %s with %d hidden neurons and the %s kernel%n", networkFile, Network.hiddenSize, NetworkKernel.getName());
+		}
+
+		// Measure the evaluation and not the evaluation table
+		boolean useEvaluationTable = Configuration.useEvaluationTable;
+		Configuration.useEvaluationTable = false;
+
+		long classical = Long.MAX_VALUE;
+		long network = Long.MAX_VALUE;
+		long nodes = 0;
+		for (int i = 0; i < ITERATIONS; i++) {
+			Configuration.useNetwork = false;
+			long startTime = System.nanoTime();
+			nodes = run();
+			classical = Math.min(classical, System.nanoTime() - startTime);
+
+			Configuration.useNetwork = true;
+			startTime = System.nanoTime();
+			run();
+			network = Math.min(network, System.nanoTime() - startTime);
+		}
+
+		Configuration.useEvaluationTable = useEvaluationTable;
+		Network.unload();
+
+		System.out.format("Nodes: %d%n", nodes);
+		System.out.format("Classical: %d ms, %d n/ms%n", classical / 1000000, nodes * 1000000 / classical);
+		System.out.format("Network: %d ms, %d n/ms%n", network / 1000000, nodes * 1000000 / network);
+		System.out.format("Checksum: %d%n", checksum);
+	}
+
+	private long run() throws IllegalNotationException {
+		long nodes = 0;
+
+		for (String fen : fens) {
+			Position position = new Position(new GenericBoard(fen));
+			new MoveGenerator(position, new KillerTable(), new HistoryTable());
+			new See(position);
+
+			nodes += miniMax(position, DEPTH);
+		}
+
+		return nodes;
+	}
+
+	private long miniMax(Position board, int depth) {
+		this.checksum += this.evaluation.evaluate(board);
+
+		if (depth == 0) {
+			return 1;
+		}
+
+		long totalNodes = 1;
+
+		Attack attack = board.getAttack(board.activeColor);
+		MoveGenerator.initializeMain(attack, 0, Move.NOMOVE);
+
+		int move;
+		while ((move = MoveGenerator.getNextMove()) != Move.NOMOVE) {
+			board.makeMove(move);
+			totalNodes += miniMax(board, depth - 1);
+			board.undoMove(move);
+		}
+
+		MoveGenerator.destroy();
+
+		return totalNodes;
+	}
+}
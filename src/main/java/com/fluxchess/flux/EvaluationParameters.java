@@ -0,0 +1,190 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+import java.io.PrintStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The tunable evaluation parameters. These are the non final evaluation
+ * weights and the piece square tables without the unused pawn squares.
+ */
+final class EvaluationParameters {
+
+	private static final List<Parameter> parameters = new ArrayList<>();
+
+	private static final int[] chessmen = {
+			PieceType.PAWN, PieceType.KNIGHT, PieceType.BISHOP, PieceType.ROOK, PieceType.QUEEN, PieceType.KING
+	};
+
+	static {
+		for (Field field : Evaluation.class.getDeclaredFields()) {
+			int modifiers = field.getModifiers();
+			if (field.getName().startsWith("EVAL_")
+					&& field.getType() == int.class
+					&& Modifier.isStatic(modifiers)
+					&& !Modifier.isFinal(modifiers)) {
+				parameters.add(new FieldParameter(field));
+			}
+		}
+
+		for (int chessman : chessmen) {
+			for (int square : Square.values) {
+				int rank = square >>> 4;
+				if (chessman == PieceType.PAWN && (rank == 0 || rank == 7)) {
+					continue;
+				}
+				parameters.add(new TableParameter("OPENING", PieceSquareTable.OPENING[chessman], square));
+				parameters.add(new TableParameter("ENDGAME", PieceSquareTable.ENDGAME[chessman], square));
+			}
+		}
+	}
+
+	private abstract static class Parameter {
+
+		final String name;
+
+		Parameter(String name) {
+			this.name = name;
+		}
+
+		abstract int get();
+
+		abstract void set(int value);
+	}
+
+	private static final class FieldParameter extends Parameter {
+
+		private final Field field;
+
+		FieldParameter(Field field) {
+			super(field.getName());
+			this.field = field;
+			this.field.setAccessible(true);
+		}
+
+		int get() {
+			try {
+				return this.field.getInt(null);
+			} catch (IllegalAccessException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		void set(int value) {
+			try {
+				this.field.setInt(null, value);
+			} catch (IllegalAccessException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+	private static final class TableParameter extends Parameter {
+
+		private final int[] table;
+		private final int square;
+
+		TableParameter(String name, int[] table, int square) {
+			super(name + "[" + square + "]");
+			this.table = table;
+			this.square = square;
+		}
+
+		int get() {
+			return this.table[this.square];
+		}
+
+		void set(int value) {
+			this.table[this.square] = value;
+		}
+	}
+
+	private EvaluationParameters() {
+	}
+
+	/**
+	 * Returns the current values of all parameters.
+	 *
+	 * @return the values.
+	 */
+	static int[] get() {
+		int[] values = new int[parameters.size()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = parameters.get(i).get();
+		}
+		return values;
+	}
+
+	/**
+	 * Sets all parameters and updates the piece square tables.
+	 *
+	 * @param values the values in the order of get().
+	 */
+	static void set(int[] values) {
+		if (values.length != parameters.size()) {
+			throw new IllegalArgumentException("Expected " + parameters.size() + " parameters");
+		}
+
+		for (int i = 0; i < values.length; i++) {
+			parameters.get(i).set(values[i]);
+		}
+		PieceSquareTable.update();
+	}
+
+	/**
+	 * Prints the parameters in source form. The current parameters are not
+	 * changed.
+	 *
+	 * @param values the values in the order of get().
+	 * @param output the stream.
+	 */
+	static void print(int[] values, PrintStream output) {
+		int[] current = get();
+		set(values);
+
+		for (Parameter parameter : parameters) {
+			if (parameter instanceof FieldParameter) {
+				output.format("static int %s = %d;%n", parameter.name, parameter.get());
+			}
+		}
+		print("OPENING", PieceSquareTable.OPENING, output);
+		print("ENDGAME", PieceSquareTable.ENDGAME, output);
+		output.flush();
+
+		set(current);
+	}
+
+	private static void print(String name, int[][] tables, PrintStream output) {
+		output.format("%s:%n", name);
+		for (int chessman : chessmen) {
+			output.format("// %s%n", Piece.valueOfIntChessman(chessman));
+			for (int rank = 0; rank < 8; rank++) {
+				StringBuilder line = new StringBuilder();
+				for (int file = 0; file < 8; file++) {
+					line.append(tables[chessman][rank * 16 + file]).append(", ");
+				}
+				output.println(line.append("0, 0, 0, 0, 0, 0, 0, 0,"));
+			}
+		}
+	}
+}
@@ -62,6 +62,16 @@ final class EvaluationTable {
 		currentEntry.evaluation = newEvaluation;
 	}
 
+	/**
+	 * Clears the evaluation table.
+	 */
+	void clear() {
+		for (EvaluationTableEntry anEntry : this.entry) {
+			anEntry.zobristCode = 0;
+			anEntry.evaluation = -Value.INFINITY;
+		}
+	}
+
 	/**
 	 * Returns the evaluation table entry given the zobrist code.
 	 *
@@ -26,6 +26,7 @@ import com.fluxchess.jcpi.models.GenericMove;
 import com.fluxchess.jcpi.options.AbstractOption;
 import com.fluxchess.jcpi.protocols.IProtocolHandler;
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
 
@@ -35,6 +36,8 @@ public final class Flux extends AbstractEngine {
 	private TranspositionTable transpositionTable;
 	private final int[] timeTable = new int[Depth.MAX_PLY + 1];
 	private Search search;
+	private Evaluation evaluation;
+	private final HistoryTables historyTables = new HistoryTables();
 
 	public Flux() {
 		initialize();
@@ -48,9 +51,10 @@ public final class Flux extends AbstractEngine {
 
 	private void initialize() {
 		initializeTranspositionTable();
+		this.evaluation = new Evaluation();
 
 		// Create a new search
-		this.search = new Search(getProtocol(), new Position(new GenericBoard(GenericBoard.STANDARDSETUP)), this.transpositionTable, this.timeTable);
+		this.search = new Search(getProtocol(), new Position(new GenericBoard(GenericBoard.STANDARDSETUP)), this.transpositionTable, this.timeTable, this.evaluation, this.historyTables);
 	}
 
 	private void initializeTranspositionTable() {
@@ -91,8 +95,10 @@ public final class Flux extends AbstractEngine {
 	public void receive(EngineDebugCommand command) {
 		if (command == null) throw new IllegalArgumentException();
 
+		Configuration.debug = command.debug;
+
 		ProtocolInformationCommand infoCommand = new ProtocolInformationCommand();
-		if (command.debug) {
+		if (Configuration.debug) {
 			infoCommand.setString("Turning on debugging mode");
 		} else {
 			infoCommand.setString("Turning off debugging mode");
@@ -108,6 +114,10 @@ public final class Flux extends AbstractEngine {
 
 		// Clear the hash table
 		this.transpositionTable.clear();
+		this.evaluation.clear();
+
+		// Clear the history of the last game
+		this.historyTables.clear();
 
 		// Clear time table
 		Arrays.fill(this.timeTable, 0);
@@ -145,7 +155,7 @@ public final class Flux extends AbstractEngine {
 		if (this.board != null) {
 			if (this.search.isStopped()) {
 				// Create a new search
-				this.search = new Search(getProtocol(), this.board, this.transpositionTable, this.timeTable);
+				this.search = new Search(getProtocol(), this.board, this.transpositionTable, this.timeTable, this.evaluation, this.historyTables);
 
 				// Set all search parameters
 				if (command.getDepth() != null && command.getDepth() > 0) {
@@ -247,5 +257,39 @@ public final class Flux extends AbstractEngine {
 
 			Configuration.analyzeMode = Boolean.parseBoolean(command.value);
 		}
+
+		// networkFile
+		else if (command.name.equalsIgnoreCase(Configuration.networkFileOption.name)) {
+			if (command.value == null) throw new IllegalArgumentException();
+
+			loadNetwork(command.value);
+		}
+	}
+
+	private void loadNetwork(String networkFile) {
+		Configuration.networkFile = networkFile;
+		boolean wasLoaded = Network.loaded;
+
+		ProtocolInformationCommand infoCommand = new ProtocolInformationCommand();
+		if (networkFile.isEmpty() || networkFile.equals(Configuration.defaultNetworkFile)) {
+			Network.unload();
+			infoCommand.setString("Using the classical evaluation");
+		} else {
+			try {
+				Network.load(new java.io.File(networkFile));
+				infoCommand.setString(String.format("Loaded network %s with %d hidden neurons and the %s kernel", networkFile, Network.hiddenSize, NetworkKernel.getName()));
+			} catch (IOException e) {
+				Network.unload();
+				infoCommand.setString(String.format("Cannot load network %s: %s", networkFile, e.getMessage()));
+			}
+		}
+
+		// The cached evaluations belong to the last evaluator
+		if (wasLoaded || Network.loaded) {
+			this.transpositionTable.clear();
+			this.evaluation.clear();
+		}
+
+		getProtocol().send(infoCommand);
 	}
 }
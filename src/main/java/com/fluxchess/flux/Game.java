@@ -0,0 +1,156 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Plays a game between two players with fixed node searches. The game ends
+ * on mate, stalemate, repetition, the fifty move rule or the ply limit. It
+ * is adjudicated if both sides agree on a clear score for a few plies.
+ */
+final class Game {
+
+	// Adjudication
+	private static final int MAX_PLIES = 400;
+	private static final int RESIGN_VALUE = 1000;
+	private static final int RESIGN_PLIES = 4;
+	private static final int DRAW_VALUE = 10;
+	private static final int DRAW_PLIES = 8;
+	private static final int DRAW_MINIMUM_PLIES = 80;
+
+	private final long nodes;
+
+	private final MoveList moveList = new MoveList();
+	private int plies = 0;
+
+	Game(long nodes) {
+		assert nodes > 0;
+
+		this.nodes = nodes;
+	}
+
+	/**
+	 * Plays a game from the position. The first plies are random moves, which
+	 * are stored without a score.
+	 *
+	 * @param board       the start position.
+	 * @param white       the white player.
+	 * @param black       the black player.
+	 * @param randomPlies the number of random plies.
+	 * @param random      the random generator of the random plies.
+	 * @param writer      the game writer or null if the game is not stored.
+	 * @return the result as GameWriter.BLACK_WINS, DRAW or WHITE_WINS.
+	 */
+	int play(Position board, Player white, Player black, int randomPlies, Random random, GameWriter writer) throws IOException {
+		assert randomPlies >= 0;
+
+		white.clear();
+		black.clear();
+		new MoveGenerator(board, new KillerTable(), new HistoryTable());
+		new See(board);
+
+		if (writer != null) {
+			writer.startGame(board);
+		}
+
+		int result = GameWriter.DRAW;
+		int whiteWinPlies = 0;
+		int blackWinPlies = 0;
+		int drawPlies = 0;
+		this.plies = 0;
+		while (true) {
+			// Check the end of the game
+			generateMoves(board);
+			if (this.moveList.getLength() == 0) {
+				if (board.getAttack(board.activeColor).isCheck()) {
+					result = board.activeColor == Color.WHITE ? GameWriter.BLACK_WINS : GameWriter.WHITE_WINS;
+				}
+				break;
+			} else if (board.isRepetition() || board.halfMoveClock >= 100 || this.plies == MAX_PLIES) {
+				break;
+			}
+
+			int move;
+			int value;
+			if (this.plies < randomPlies) {
+				move = this.moveList.moves[this.moveList.head + random.nextInt(this.moveList.getLength())];
+				value = GameWriter.NOSCORE;
+			} else {
+				Player player = board.activeColor == Color.WHITE ? white : black;
+				move = player.search(board, this.nodes);
+				value = player.getValue();
+				if (move == Move.NOMOVE) {
+					move = this.moveList.moves[this.moveList.head];
+					value = GameWriter.NOSCORE;
+				}
+			}
+
+			if (writer != null) {
+				writer.addPly(move, value);
+			}
+			int whiteValue = board.activeColor == Color.WHITE ? value : -value;
+			board.makeMove(move);
+			this.plies++;
+
+			// Adjudicate on the scores of both sides
+			if (value != GameWriter.NOSCORE) {
+				whiteWinPlies = whiteValue >= RESIGN_VALUE ? whiteWinPlies + 1 : 0;
+				blackWinPlies = whiteValue <= -RESIGN_VALUE ? blackWinPlies + 1 : 0;
+				drawPlies = Math.abs(whiteValue) <= DRAW_VALUE ? drawPlies + 1 : 0;
+				if (whiteWinPlies == RESIGN_PLIES) {
+					result = GameWriter.WHITE_WINS;
+					break;
+				} else if (blackWinPlies == RESIGN_PLIES) {
+					result = GameWriter.BLACK_WINS;
+					break;
+				} else if (drawPlies >= DRAW_PLIES && this.plies > DRAW_MINIMUM_PLIES) {
+					break;
+				}
+			}
+		}
+
+		if (writer != null) {
+			writer.endGame(result);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the number of plies of the last game.
+	 *
+	 * @return the number of plies.
+	 */
+	int getPlies() {
+		return this.plies;
+	}
+
+	private void generateMoves(Position board) {
+		this.moveList.resetList();
+
+		MoveGenerator.initializeMain(board.getAttack(board.activeColor), 0, Move.NOMOVE);
+		int move;
+		while ((move = MoveGenerator.getNextMove()) != Move.NOMOVE) {
+			this.moveList.moves[this.moveList.tail++] = move;
+		}
+		MoveGenerator.destroy();
+	}
+}
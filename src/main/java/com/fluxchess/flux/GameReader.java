@@ -0,0 +1,165 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the positions of a game file written by GameWriter. The file is
+ * read sequentially through a memory mapped window. Every position of a
+ * game except the last one has a move and a score. The last position is
+ * not returned.
+ */
+final class GameReader implements Closeable {
+
+	// The window is larger than the largest game
+	private static final int WINDOW_SIZE = 1 << 26;
+
+	private final FileChannel channel;
+	private final long size;
+
+	private MappedByteBuffer buffer = null;
+	private long bufferOffset = 0;
+
+	// The file offset of the next game
+	private long offset = GameWriter.HEADER_SIZE;
+
+	// The file offset of the plies of the current game
+	private long pliesOffset = 0;
+	private int plies = 0;
+	private int ply = 0;
+
+	private int result = GameWriter.DRAW;
+	private int move = Move.NOMOVE;
+	private int score = GameWriter.NOSCORE;
+
+	GameReader(Path path) throws IOException {
+		this.channel = FileChannel.open(path, StandardOpenOption.READ);
+		this.size = this.channel.size();
+
+		if (this.size < GameWriter.HEADER_SIZE) {
+			throw new IOException("Not a game file: " + path);
+		}
+		map(0, GameWriter.HEADER_SIZE);
+		if (this.buffer.getInt(0) != GameWriter.MAGIC || this.buffer.getInt(4) != GameWriter.VERSION) {
+			throw new IOException("Not a game file: " + path);
+		}
+	}
+
+	/**
+	 * Sets up the board with the next position. Within a game the board has
+	 * to be the one from the previous call, because we make the move on it.
+	 *
+	 * @param board the board.
+	 * @return false if there are no more positions.
+	 */
+	boolean next(Position board) throws IOException {
+		if (this.ply + 1 < this.plies) {
+			board.makeMove(this.move);
+			this.ply++;
+		} else {
+			// Read the next game and skip empty games
+			do {
+				if (this.offset == this.size) {
+					return false;
+				} else if (this.offset + GameWriter.GAME_HEADER_SIZE > this.size) {
+					throw new IOException("Truncated game file");
+				}
+
+				map(this.offset, GameWriter.GAME_HEADER_SIZE);
+				int index = (int) (this.offset - this.bufferOffset);
+				try {
+					board.decode(this.buffer, index);
+				} catch (IllegalArgumentException e) {
+					throw new IOException("Invalid start position at " + this.offset, e);
+				}
+				this.result = this.buffer.get(index + 32);
+				this.plies = this.buffer.getShort(index + 34) & 0xFFFF;
+				if (this.plies > GameWriter.MAX_PLIES
+						|| (this.result != GameWriter.BLACK_WINS && this.result != GameWriter.DRAW && this.result != GameWriter.WHITE_WINS)) {
+					throw new IOException("Invalid game at " + this.offset);
+				}
+
+				this.pliesOffset = this.offset + GameWriter.GAME_HEADER_SIZE;
+				this.offset = this.pliesOffset + (long) this.plies * GameWriter.PLY_SIZE;
+				this.ply = 0;
+				if (this.offset > this.size) {
+					throw new IOException("Truncated game file");
+				}
+			} while (this.plies == 0);
+
+			map(this.pliesOffset, this.plies * GameWriter.PLY_SIZE);
+		}
+
+		int index = (int) (this.pliesOffset - this.bufferOffset) + this.ply * GameWriter.PLY_SIZE;
+		try {
+			this.move = Move.valueOfCompact(this.buffer.getShort(index) & 0xFFFF, board);
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Invalid move at " + (this.pliesOffset + this.ply * GameWriter.PLY_SIZE), e);
+		}
+		this.score = this.buffer.getShort(index + 2);
+
+		return true;
+	}
+
+	/**
+	 * Returns the move made from the current position.
+	 */
+	int getMove() {
+		return this.move;
+	}
+
+	/**
+	 * Returns the score of the current position for the active color or
+	 * GameWriter.NOSCORE.
+	 */
+	int getScore() {
+		return this.score;
+	}
+
+	/**
+	 * Returns the result of the current game.
+	 */
+	int getResult() {
+		return this.result;
+	}
+
+	/**
+	 * Makes sure the bytes at the file offset are in the window.
+	 */
+	private void map(long position, int length) throws IOException {
+		assert position + length <= this.size;
+
+		if (this.buffer == null || position < this.bufferOffset || position + length > this.bufferOffset + this.buffer.limit()) {
+			this.bufferOffset = position;
+			this.buffer = this.channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, this.size - position));
+			this.buffer.order(ByteOrder.LITTLE_ENDIAN);
+		}
+	}
+
+	public void close() throws IOException {
+		this.channel.close();
+	}
+}
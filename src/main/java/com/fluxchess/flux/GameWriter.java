@@ -0,0 +1,146 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Writes games to a game file. Each game is stored as its start position
+ * followed by the moves. The positions of the game are restored by making
+ * the moves, so a position costs 4 bytes instead of a full record.
+ * <p>
+ * The file is little endian. It starts with the magic number and the
+ * version, followed by the games:
+ * <pre>
+ *  0 32 bytes  start position, see Position.encode()
+ * 32  1 byte   result, 0 = black wins, 1 = draw, 2 = white wins
+ * 33  1 byte   reserved
+ * 34  2 bytes  number of plies
+ * 36  4 bytes  for each ply the compact move, see Move.toCompact(), and the
+ *              score for the active color before the move
+ * </pre>
+ */
+final class GameWriter implements Closeable {
+
+	static final int MAGIC = 0x464C5847;
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 8;
+
+	static final int GAME_HEADER_SIZE = 36;
+	static final int PLY_SIZE = 4;
+
+	// A game can't be longer than the board stack
+	static final int MAX_PLIES = Search.MAX_MOVES - 1;
+
+	static final int BLACK_WINS = 0;
+	static final int DRAW = 1;
+	static final int WHITE_WINS = 2;
+
+	// The score of plies without a search, like random opening moves
+	static final int NOSCORE = Short.MIN_VALUE;
+
+	private final OutputStream output;
+	private final ByteBuffer buffer = ByteBuffer.allocate(GAME_HEADER_SIZE + MAX_PLIES * PLY_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+	private int plies = -1;
+
+	/**
+	 * Creates a new game writer and writes the file header.
+	 *
+	 * @param output the output stream. It is closed by close().
+	 */
+	GameWriter(OutputStream output) throws IOException {
+		this.output = output;
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(MAGIC);
+		header.putInt(VERSION);
+		this.output.write(header.array());
+	}
+
+	/**
+	 * Starts a new game.
+	 *
+	 * @param board the start position.
+	 */
+	void startGame(Position board) {
+		assert this.plies == -1;
+
+		board.encode(this.buffer, 0);
+		this.plies = 0;
+	}
+
+	/**
+	 * Adds the next ply of the game. The move has to be added before it is
+	 * made on the board.
+	 *
+	 * @param move  the move.
+	 * @param score the score for the active color or NOSCORE.
+	 */
+	void addPly(int move, int score) {
+		assert this.plies >= 0;
+		assert move != Move.NOMOVE;
+
+		if (this.plies == MAX_PLIES) {
+			throw new IllegalStateException("Too many plies");
+		}
+
+		int offset = GAME_HEADER_SIZE + this.plies * PLY_SIZE;
+		this.buffer.putShort(offset, (short) Move.toCompact(move));
+		this.buffer.putShort(offset + 2, (short) (score == NOSCORE ? NOSCORE : Math.max(NOSCORE + 1, Math.min(Short.MAX_VALUE, score))));
+		this.plies++;
+	}
+
+	/**
+	 * Ends the game and writes it.
+	 *
+	 * @param result the result, BLACK_WINS, DRAW or WHITE_WINS.
+	 */
+	void endGame(int result) throws IOException {
+		assert this.plies >= 0;
+		assert result == BLACK_WINS || result == DRAW || result == WHITE_WINS;
+
+		this.buffer.put(32, (byte) result);
+		this.buffer.put(33, (byte) 0);
+		this.buffer.putShort(34, (short) this.plies);
+		this.output.write(this.buffer.array(), 0, GAME_HEADER_SIZE + this.plies * PLY_SIZE);
+		this.plies = -1;
+	}
+
+	/**
+	 * Writes a complete game record, for example one read from another game
+	 * file.
+	 *
+	 * @param game   the game record.
+	 * @param length the length of the record.
+	 */
+	void writeGame(byte[] game, int length) throws IOException {
+		assert this.plies == -1;
+		assert length >= GAME_HEADER_SIZE;
+
+		this.output.write(game, 0, length);
+	}
+
+	public void close() throws IOException {
+		this.output.close();
+	}
+}
@@ -18,59 +18,91 @@
  */
 package com.fluxchess.flux;
 
+import java.util.Arrays;
+
+/**
+ * This table is used to store the History Heuristic. Good moves get a bonus
+ * and searched moves which failed get a malus. Every update moves the value
+ * towards the bonus by a fraction of the distance. So the values stay within
+ * +/- MAX_HISTORYVALUE and decay by themselves.
+ */
 final class HistoryTable {
 
-	static final int MAX_HISTORYVALUE = 65536;
+	static final int MAX_HISTORYVALUE = 16384;
 
-	private static int[][] historyTable;
+	// The bonus grows with the square of the depth
+	private static final int BONUS_FACTOR = 128;
+	private static final int MAX_BONUS = MAX_HISTORYVALUE / 4;
+
+	private final int[] historyTable = new int[Piece.PIECE_VALUE_SIZE * Position.BOARDSIZE];
 
 	/**
 	 * Creates a new HistoryTable.
 	 */
 	HistoryTable() {
-		historyTable = new int[Piece.PIECE_VALUE_SIZE][Position.BOARDSIZE];
 	}
 
 	/**
-	 * Returns the number of hits for the move.
+	 * Returns the bonus of a good move at the depth.
+	 *
+	 * @param depth the depth.
+	 * @return the bonus.
+	 */
+	static int getBonus(int depth) {
+		assert depth > 0;
+
+		return Math.min(BONUS_FACTOR * depth * depth, MAX_BONUS);
+	}
+
+	/**
+	 * Returns the value moved towards the bonus or the malus.
+	 *
+	 * @param value the value.
+	 * @param bonus the bonus or a negative malus.
+	 * @return the new value.
+	 */
+	static int update(int value, int bonus) {
+		assert Math.abs(bonus) <= MAX_HISTORYVALUE;
+
+		return value + bonus - value * Math.abs(bonus) / MAX_HISTORYVALUE;
+	}
+
+	/**
+	 * Returns the history value of the move.
 	 *
 	 * @param move the IntMove.
-	 * @return the number of hits.
+	 * @return the history value.
 	 */
 	int get(int move) {
 		assert move != Move.NOMOVE;
 
-		int piece = Move.getChessmanPiece(move);
-		int end = Move.getEnd(move);
-		assert Move.getChessman(move) != Piece.NOPIECE;
-		assert Move.getChessmanColor(move) != Color.NOCOLOR;
-		assert (end & 0x88) == 0;
-
-		return historyTable[piece][end];
+		return historyTable[getIndex(move)];
 	}
 
 	/**
-	 * Increment the number of hits for this move.
+	 * Updates the history value of the move.
 	 *
-	 * @param move the IntMove.
+	 * @param move  the IntMove.
+	 * @param bonus the bonus or a negative malus.
 	 */
-	void add(int move, int depth) {
+	void add(int move, int bonus) {
 		assert move != Move.NOMOVE;
 
+		int index = getIndex(move);
+		historyTable[index] = update(historyTable[index], bonus);
+	}
+
+	void clear() {
+		Arrays.fill(historyTable, 0);
+	}
+
+	private static int getIndex(int move) {
 		int piece = Move.getChessmanPiece(move);
 		int end = Move.getEnd(move);
 		assert Move.getChessman(move) != Piece.NOPIECE;
 		assert Move.getChessmanColor(move) != Color.NOCOLOR;
 		assert (end & 0x88) == 0;
 
-		historyTable[piece][end] += depth;
-
-		if (historyTable[piece][end] >= MAX_HISTORYVALUE) {
-			for (int pieceValue : Piece.pieceValues) {
-				for (int positionValue : Square.values) {
-					historyTable[pieceValue][positionValue] /= 2;
-				}
-			}
-		}
+		return piece * Position.BOARDSIZE + end;
 	}
 }
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+/**
+ * The history tables of the search. They carry over from one search to the
+ * next, so every player of a match and the engine itself keep their own
+ * set and clear it only for a new game.
+ */
+final class HistoryTables {
+
+	final HistoryTable historyTable = new HistoryTable();
+	final CounterMoveTable counterMoveTable = new CounterMoveTable();
+	final ContinuationTable continuationTable = new ContinuationTable();
+	final ContinuationTable secondContinuationTable = new ContinuationTable();
+	final CaptureHistoryTable captureHistoryTable = new CaptureHistoryTable();
+
+	/**
+	 * Creates new empty HistoryTables.
+	 */
+	HistoryTables() {
+	}
+
+	/**
+	 * Clears all tables for a new game.
+	 */
+	void clear() {
+		this.historyTable.clear();
+		this.counterMoveTable.clear();
+		this.continuationTable.clear();
+		this.secondContinuationTable.clear();
+		this.captureHistoryTable.clear();
+	}
+}
@@ -18,6 +18,12 @@
  */
 package com.fluxchess.flux;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.util.Scanner;
 
 public final class Main {
@@ -39,6 +45,94 @@ public final class Main {
 
 				if (token.equalsIgnoreCase("perft")) {
 					new Perft().run();
+				} else if (token.equalsIgnoreCase("evalbench")) {
+					new EvaluationBenchmark().run(tokens.hasNext() ? tokens.next() : null);
+				} else if (token.equalsIgnoreCase("batch")) {
+					// batch <eval|qsearch> <input> <output> [workers n]
+					Batch batch = new Batch(tokens.next());
+					String input = tokens.next();
+					String output = tokens.next();
+					int workers = 1;
+					if (tokens.hasNext() && tokens.next().equalsIgnoreCase("workers")) {
+						workers = tokens.nextInt();
+					}
+					batch.run(Paths.get(input), Paths.get(output), workers);
+				} else if (token.equalsIgnoreCase("selfplay")) {
+					// selfplay <output> [games n] [nodes n] [random n] [workers n] [seed n]
+					String output = tokens.next();
+					int games = 1000;
+					long nodes = 5000;
+					int randomPlies = 8;
+					int workers = Runtime.getRuntime().availableProcessors();
+					long seed = 0;
+					while (tokens.hasNext()) {
+						String option = tokens.next();
+						if (option.equalsIgnoreCase("games")) {
+							games = tokens.nextInt();
+						} else if (option.equalsIgnoreCase("nodes")) {
+							nodes = tokens.nextLong();
+						} else if (option.equalsIgnoreCase("random")) {
+							randomPlies = tokens.nextInt();
+						} else if (option.equalsIgnoreCase("workers")) {
+							workers = tokens.nextInt();
+						} else if (option.equalsIgnoreCase("seed")) {
+							seed = tokens.nextLong();
+						} else {
+							throw new IllegalArgumentException("Unknown option: " + option);
+						}
+					}
+					new SelfPlay(nodes, randomPlies).run(Paths.get(output), games, workers, seed);
+				} else if (token.equalsIgnoreCase("selfplay-worker")) {
+					int games = tokens.nextInt();
+					long nodes = tokens.nextLong();
+					int randomPlies = tokens.nextInt();
+					long seed = tokens.nextLong();
+					try (GameWriter writer = new GameWriter(new BufferedOutputStream(System.out))) {
+						new SelfPlay(nodes, randomPlies).play(writer, games, seed);
+					}
+				} else if (token.equalsIgnoreCase("match")) {
+					// match <openings> [games n] [nodes n] [workers n] [elo0 x] [elo1 x] [base settings] [test settings]
+					String openings = tokens.next();
+					int games = 20000;
+					long nodes = 5000;
+					int workers = Runtime.getRuntime().availableProcessors();
+					double elo0 = 0;
+					double elo1 = 5;
+					String baseSettings = "";
+					String testSettings = "";
+					while (tokens.hasNext()) {
+						String option = tokens.next();
+						if (option.equalsIgnoreCase("games")) {
+							games = tokens.nextInt();
+						} else if (option.equalsIgnoreCase("nodes")) {
+							nodes = tokens.nextLong();
+						} else if (option.equalsIgnoreCase("workers")) {
+							workers = tokens.nextInt();
+						} else if (option.equalsIgnoreCase("elo0")) {
+							elo0 = Double.parseDouble(tokens.next());
+						} else if (option.equalsIgnoreCase("elo1")) {
+							elo1 = Double.parseDouble(tokens.next());
+						} else if (option.equalsIgnoreCase("base")) {
+							baseSettings = tokens.next();
+						} else if (option.equalsIgnoreCase("test")) {
+							testSettings = tokens.next();
+						} else {
+							throw new IllegalArgumentException("Unknown option: " + option);
+						}
+					}
+					Sprt sprt = new Sprt(elo0, elo1, 0.05, 0.05);
+					new Match(nodes, baseSettings, testSettings, sprt).run(Paths.get(openings), games, workers);
+				} else if (token.equalsIgnoreCase("match-worker")) {
+					long nodes = tokens.nextLong();
+					String baseSettings = Match.fromArgument(tokens.next());
+					String testSettings = Match.fromArgument(tokens.next());
+					new Match(nodes, baseSettings, testSettings, null).work(
+							new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)),
+							new PrintWriter(System.out));
+				} else if (token.equalsIgnoreCase("batch-worker")) {
+					new Batch(tokens.next()).work(
+							new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)),
+							new PrintWriter(System.out));
 				} else {
 					throw new IllegalArgumentException("Unknown argument: " + token);
 				}
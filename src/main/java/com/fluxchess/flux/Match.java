@@ -0,0 +1,236 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plays a match between a base and a test configuration with fixed node
+ * searches. Every opening is played twice with switched colors. We print
+ * the Elo difference and the SPRT state after every game pair and stop as
+ * soon as the SPRT is finished.
+ * <p>
+ * Position, Evaluation and Search have static state, so the games run in
+ * worker JVMs. A worker reads one opening per line from its standard input
+ * and answers with the two results of the pair from the view of the test
+ * player. Both players of a worker share the static state and apply their
+ * settings before every search.
+ */
+final class Match {
+
+	private final long nodes;
+	private final String baseSettings;
+	private final String testSettings;
+
+	private final Sprt sprt;
+	private List<String> openings;
+	private int pairs = 0;
+	private int nextPair = 0;
+
+	Match(long nodes, String baseSettings, String testSettings, Sprt sprt) {
+		assert nodes > 0;
+
+		this.nodes = nodes;
+		this.baseSettings = baseSettings;
+		this.testSettings = testSettings;
+		this.sprt = sprt;
+	}
+
+	/**
+	 * Plays the match. The openings are used in file order and repeated if
+	 * there are fewer openings than game pairs.
+	 *
+	 * @param path    the file of openings, one FEN or EPD per line.
+	 * @param games   the maximum number of games.
+	 * @param workers the number of worker JVMs. With one worker the games are
+	 *                played in this JVM.
+	 */
+	void run(Path path, int games, int workers) throws IOException, InterruptedException {
+		assert games > 1;
+		assert workers > 0;
+
+		this.openings = new ArrayList<>();
+		for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+			if (!line.trim().isEmpty()) {
+				this.openings.add(line.trim());
+			}
+		}
+		if (this.openings.isEmpty()) {
+			throw new IOException("No openings in " + path);
+		}
+		this.pairs = games / 2;
+		this.nextPair = 0;
+
+		if (workers == 1) {
+			Player base = new Player(this.baseSettings);
+			Player test = new Player(this.testSettings);
+			Position board = new Position(this.openings.get(0));
+			Game game = new Game(this.nodes);
+
+			String opening;
+			while ((opening = nextOpening()) != null) {
+				int[] results = playPair(opening, board, base, test, game);
+				record(results[0], results[1]);
+			}
+		} else {
+			distribute(workers);
+		}
+	}
+
+	private void distribute(int workers) throws IOException, InterruptedException {
+		List<Process> processes = new ArrayList<>();
+		List<Thread> threads = new ArrayList<>();
+		IOException[] workerException = new IOException[1];
+
+		try {
+			for (int i = 0; i < Math.min(workers, this.pairs); i++) {
+				Process process = new ProcessBuilder(
+						Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+						"-cp", System.getProperty("java.class.path"),
+						Main.class.getName(), "match-worker", Long.toString(this.nodes),
+						toArgument(this.baseSettings), toArgument(this.testSettings))
+						.redirectError(ProcessBuilder.Redirect.INHERIT)
+						.start();
+				processes.add(process);
+
+				Thread thread = new Thread(() -> {
+					try (PrintWriter output = new PrintWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+					     BufferedReader input = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+						String opening;
+						while ((opening = nextOpening()) != null) {
+							output.println(opening);
+							output.flush();
+
+							String line = input.readLine();
+							if (line == null) {
+								throw new IOException("Match worker failed");
+							}
+							String[] results = line.split(" ");
+							record(Integer.parseInt(results[0]), Integer.parseInt(results[1]));
+						}
+					} catch (IOException | RuntimeException e) {
+						synchronized (workerException) {
+							workerException[0] = e instanceof IOException ? (IOException) e : new IOException(e);
+						}
+					}
+				});
+				thread.start();
+				threads.add(thread);
+			}
+
+			for (Thread thread : threads) {
+				thread.join();
+			}
+		} finally {
+			// Stop the remaining workers if one of them failed
+			for (Process process : processes) {
+				process.destroy();
+			}
+		}
+
+		if (workerException[0] != null) {
+			throw workerException[0];
+		}
+	}
+
+	/**
+	 * Returns a settings list as a single command line argument.
+	 */
+	private static String toArgument(String settings) {
+		return settings.isEmpty() ? "-" : settings;
+	}
+
+	/**
+	 * Returns the settings list of a command line argument.
+	 *
+	 * @param argument the command line argument.
+	 * @return the settings list.
+	 */
+	static String fromArgument(String argument) {
+		return argument.equals("-") ? "" : argument;
+	}
+
+	/**
+	 * Returns the opening of the next pair or null if the match is over.
+	 */
+	private synchronized String nextOpening() {
+		if (this.nextPair == this.pairs || this.sprt.isFinished()) {
+			return null;
+		}
+
+		return this.openings.get(this.nextPair++ % this.openings.size());
+	}
+
+	private void record(int first, int second) {
+		synchronized (this.sprt) {
+			this.sprt.add(first, second);
+			System.out.println(this.sprt);
+		}
+	}
+
+	/**
+	 * Plays the game pairs of the worker.
+	 *
+	 * @param input  the openings, one per line.
+	 * @param output the results of each pair.
+	 */
+	void work(BufferedReader input, PrintWriter output) throws IOException {
+		Player base = new Player(this.baseSettings);
+		Player test = new Player(this.testSettings);
+		Position board = null;
+		Game game = new Game(this.nodes);
+
+		String opening;
+		while ((opening = input.readLine()) != null) {
+			if (board == null) {
+				board = new Position(opening);
+			}
+			int[] results = playPair(opening, board, base, test, game);
+			output.println(results[0] + " " + results[1]);
+			output.flush();
+		}
+	}
+
+	/**
+	 * Plays the opening with both colors.
+	 *
+	 * @return the two results from the view of the test player.
+	 */
+	private static int[] playPair(String opening, Position board, Player base, Player test, Game game) throws IOException {
+		int[] results = new int[2];
+
+		// The game results are half points from the view of white
+		board.fromFen(opening);
+		results[0] = game.play(board, test, base, 0, null, null);
+		board.fromFen(opening);
+		results[1] = Sprt.WIN - game.play(board, base, test, 0, null, null);
+
+		return results;
+	}
+}
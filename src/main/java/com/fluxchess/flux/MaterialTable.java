@@ -0,0 +1,131 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+final class MaterialTable {
+
+	// Size of one material entry
+	static final int ENTRYSIZE = 96;
+
+	// The material key has a 4 bit counter for each chessman and color
+	private static final int COUNTER_BITS = 4;
+	private static final long COUNTER_MASK = 0xF;
+
+	private final int size;
+
+	private final MaterialTableEntry[] entry;
+
+	static final class MaterialTableEntry {
+
+		long materialKey = -1;
+		final int[] score = new int[Color.ARRAY_DIMENSION];
+		int phase = 0;
+		final int[] drawFactor = new int[Color.ARRAY_DIMENSION];
+		int endgame = Endgame.NONE;
+		int endgameColor = Color.NOCOLOR;
+
+		MaterialTableEntry() {
+		}
+	}
+
+	MaterialTable(int newSize) {
+		assert newSize >= 1;
+
+		this.size = newSize;
+
+		// Initialize entry
+		this.entry = new MaterialTableEntry[newSize];
+		for (int i = 0; i < this.entry.length; i++) {
+			this.entry[i] = new MaterialTableEntry();
+		}
+	}
+
+	/**
+	 * Returns the material key unit of the chessman.
+	 *
+	 * @param chessman the chessman.
+	 * @param color    the color.
+	 * @return the material key unit.
+	 */
+	static long valueOf(int chessman, int color) {
+		assert chessman != Piece.NOPIECE && chessman != PieceType.KING;
+		assert color != Color.NOCOLOR;
+
+		return 1L << ((color * PieceType.VALUES_SIZE + chessman) * COUNTER_BITS);
+	}
+
+	/**
+	 * Returns the number of chessmen in the material key.
+	 *
+	 * @param materialKey the material key.
+	 * @param chessman    the chessman.
+	 * @param color       the color.
+	 * @return the number of chessmen.
+	 */
+	static int getCount(long materialKey, int chessman, int color) {
+		assert chessman != Piece.NOPIECE && chessman != PieceType.KING;
+		assert color != Color.NOCOLOR;
+
+		return (int) ((materialKey >>> ((color * PieceType.VALUES_SIZE + chessman) * COUNTER_BITS)) & COUNTER_MASK);
+	}
+
+	/**
+	 * Returns the material table entry for the material key. The entry is
+	 * cleared if it belongs to a different material key.
+	 *
+	 * @param newMaterialKey the material key.
+	 * @return the material table entry.
+	 */
+	MaterialTableEntry put(long newMaterialKey) {
+		MaterialTableEntry currentEntry = this.entry[getPosition(newMaterialKey)];
+
+		currentEntry.materialKey = newMaterialKey;
+		for (int color : Color.values) {
+			currentEntry.score[color] = Score.ZERO;
+			currentEntry.drawFactor[color] = 0;
+		}
+		currentEntry.phase = 0;
+		currentEntry.endgame = Endgame.NONE;
+		currentEntry.endgameColor = Color.NOCOLOR;
+
+		return currentEntry;
+	}
+
+	/**
+	 * Returns the material table entry given the material key.
+	 *
+	 * @param newMaterialKey the material key.
+	 * @return the material table entry or null if there exists no entry.
+	 */
+	MaterialTableEntry get(long newMaterialKey) {
+		MaterialTableEntry currentEntry = this.entry[getPosition(newMaterialKey)];
+
+		if (currentEntry.materialKey == newMaterialKey) {
+			return currentEntry;
+		} else {
+			return null;
+		}
+	}
+
+	private int getPosition(long newMaterialKey) {
+		// The counters are packed in the low bits. Spread them before we
+		// take the modulo.
+		return (int) (((newMaterialKey * 0x9E3779B97F4A7C15L) >>> 1) % this.size);
+	}
+}
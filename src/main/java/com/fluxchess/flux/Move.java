@@ -536,6 +536,69 @@ final class Move {
 		return false;
 	}
 
+	/**
+	 * Returns the 16 bit form of the move. It keeps only the start square
+	 * index (bits 0 - 5), the end square index (bits 6 - 11) and the
+	 * promotion chessman (bits 12 - 14, 0 if there is none). The other fields
+	 * are restored from the board by valueOfCompact().
+	 *
+	 * @param move the move.
+	 * @return the compact move.
+	 */
+	static int toCompact(int move) {
+		assert move != NOMOVE;
+
+		int compact = Square.toIndex(getStart(move)) | (Square.toIndex(getEnd(move)) << 6);
+		if (getType(move) == MoveType.PAWNPROMOTION) {
+			compact |= getPromotion(move) << 12;
+		}
+
+		return compact;
+	}
+
+	/**
+	 * Returns the move of the compact move on the board. The move is not
+	 * checked for legality.
+	 *
+	 * @param compact the compact move.
+	 * @param board   the board.
+	 * @return the move.
+	 * @throws IllegalArgumentException if there is no chessman of the active
+	 *                                  color on the start square.
+	 */
+	static int valueOfCompact(int compact, Position board) {
+		assert board != null;
+
+		int start = Square.valueOfIndex(compact & 0x3F);
+		int end = Square.valueOfIndex((compact >>> 6) & 0x3F);
+		int promotion = (compact >>> 12) & PieceType.MASK;
+
+		int piece = Position.board[start];
+		if (piece == Piece.NOPIECE || Piece.getColor(piece) != board.activeColor) {
+			throw new IllegalArgumentException("Invalid move: " + compact);
+		}
+
+		int chessman = Piece.getChessman(piece);
+		if (chessman == PieceType.PAWN) {
+			if (promotion != 0) {
+				if (promotion != PieceType.KNIGHT && promotion != PieceType.BISHOP
+						&& promotion != PieceType.ROOK && promotion != PieceType.QUEEN) {
+					throw new IllegalArgumentException("Invalid move: " + compact);
+				}
+				return createMove(MoveType.PAWNPROMOTION, start, end, piece, Position.board[end], promotion);
+			} else if (Math.abs(end - start) == 32) {
+				return createMove(MoveType.PAWNDOUBLE, start, end, piece, Piece.NOPIECE, Piece.NOPIECE);
+			} else if (end == board.enPassantSquare) {
+				// The captured pawn is beside the start square
+				return createMove(MoveType.ENPASSANT, start, end, piece, Position.board[(start & 0x70) | (end & 0x07)], Piece.NOPIECE);
+			}
+		} else if (chessman == PieceType.KING && Math.abs(end - start) == 2) {
+			return createMove(MoveType.CASTLING, start, end, piece, Piece.NOPIECE, Piece.NOPIECE);
+		}
+
+		return createMove(MoveType.NORMAL, start, end, piece, Position.board[end], Piece.NOPIECE);
+	}
+
 	/**
 	 * Returns the CommandMove from the move.
 	 *
@@ -36,7 +36,8 @@ final class MoveGenerator {
 	private static final int GEN_EVASION = 5;
 	private static final int GEN_GOODCAPTURE_QS = 6;
 	private static final int GEN_CHECK_QS = 7;
-	private static final int GEN_END = 8;
+	private static final int GEN_PROBCUT = 8;
+	private static final int GEN_END = 9;
 
 	// Generator
 	private final class Generator {
@@ -46,6 +47,10 @@ final class MoveGenerator {
 		int transpositionMove = Move.NOMOVE;
 		int primaryKillerMove = Move.NOMOVE;
 		int secondaryKillerMove = Move.NOMOVE;
+		int counterMove = Move.NOMOVE;
+		int previousMove = Move.NOMOVE;
+		int secondPreviousMove = Move.NOMOVE;
+		int seeThreshold = 0;
 	}
 
 	// Board
@@ -54,6 +59,10 @@ final class MoveGenerator {
 	// Tables
 	private static KillerTable killerTable;
 	private static HistoryTable historyTable;
+	private static CounterMoveTable counterMoveTable;
+	private static ContinuationTable continuationTable;
+	private static ContinuationTable secondContinuationTable;
+	private static CaptureHistoryTable captureHistoryTable;
 
 	// Move list
 	private static MoveList moveList;
@@ -70,6 +79,7 @@ final class MoveGenerator {
 	private static final int statePositionQuiescentAll;
 	private static final int statePositionQuiescentCapture;
 	private static final int statePositionEvasion;
+	private static final int statePositionProbCut;
 
 	static {
 		// Initialize state list
@@ -92,16 +102,36 @@ final class MoveGenerator {
 		stateList[position++] = GEN_GOODCAPTURE_QS;
 		stateList[position++] = GEN_END;
 
+		statePositionProbCut = position;
+		stateList[position++] = GEN_PROBCUT;
+		stateList[position++] = GEN_END;
+
 		statePositionEvasion = position;
 		stateList[position] = GEN_END;
 	}
 
 	/**
-	 * Creates a new MoveGenerator.
+	 * Creates a new MoveGenerator without counter moves, continuation history
+	 * and capture history.
 	 *
 	 * @param newBoard the board.
 	 */
 	MoveGenerator(Position newBoard, KillerTable newKillerTable, HistoryTable newHistoryTable) {
+		this(newBoard, newKillerTable, newHistoryTable, null, null, null, null);
+	}
+
+	/**
+	 * Creates a new MoveGenerator.
+	 *
+	 * @param newBoard                   the board.
+	 * @param newCounterMoveTable        the counter moves or null.
+	 * @param newContinuationTable       the history after the previous move or null.
+	 * @param newSecondContinuationTable the history after the move before or null.
+	 * @param newCaptureHistoryTable     the capture history or null.
+	 */
+	MoveGenerator(Position newBoard, KillerTable newKillerTable, HistoryTable newHistoryTable,
+	              CounterMoveTable newCounterMoveTable, ContinuationTable newContinuationTable, ContinuationTable newSecondContinuationTable,
+	              CaptureHistoryTable newCaptureHistoryTable) {
 		assert newBoard != null;
 		assert newKillerTable != null;
 		assert newHistoryTable != null;
@@ -109,6 +139,10 @@ final class MoveGenerator {
 		board = newBoard;
 		killerTable = newKillerTable;
 		historyTable = newHistoryTable;
+		counterMoveTable = newCounterMoveTable;
+		continuationTable = newContinuationTable;
+		secondContinuationTable = newSecondContinuationTable;
+		captureHistoryTable = newCaptureHistoryTable;
 
 		moveList = new MoveList();
 		tempMoveList = new MoveList();
@@ -122,6 +156,19 @@ final class MoveGenerator {
 	}
 
 	static void initializeMain(Attack attack, int height, int transpositionMove) {
+		initializeMain(attack, height, transpositionMove, Move.NOMOVE, Move.NOMOVE);
+	}
+
+	/**
+	 * Initializes the main move generation.
+	 *
+	 * @param attack             the attack of the active color.
+	 * @param height             the height.
+	 * @param transpositionMove  the transposition move or Move.NOMOVE.
+	 * @param previousMove       the move which led to this position or Move.NOMOVE.
+	 * @param secondPreviousMove the move before the previous move or Move.NOMOVE.
+	 */
+	static void initializeMain(Attack attack, int height, int transpositionMove, int previousMove, int secondPreviousMove) {
 		moveList.newList();
 		tempMoveList.newList();
 		nonCaptureMoveList.newList();
@@ -131,6 +178,29 @@ final class MoveGenerator {
 		generator[generatorHistory].primaryKillerMove = killerTable.getPrimaryKiller(height);
 		generator[generatorHistory].secondaryKillerMove = killerTable.getSecondaryKiller(height);
 
+		//## BEGIN Counter Move
+		int counterMove = Move.NOMOVE;
+		if (Configuration.useCounterMoveTable && counterMoveTable != null) {
+			counterMove = counterMoveTable.get(previousMove);
+			if (Configuration.useKillerTable
+					&& (counterMove == generator[generatorHistory].primaryKillerMove
+					|| counterMove == generator[generatorHistory].secondaryKillerMove)) {
+				counterMove = Move.NOMOVE;
+			}
+		}
+		generator[generatorHistory].counterMove = counterMove;
+		//## ENDOF Counter Move
+
+		//## BEGIN Continuation History
+		if (Configuration.useContinuationTable && continuationTable != null) {
+			generator[generatorHistory].previousMove = previousMove;
+			generator[generatorHistory].secondPreviousMove = secondPreviousMove;
+		} else {
+			generator[generatorHistory].previousMove = Move.NOMOVE;
+			generator[generatorHistory].secondPreviousMove = Move.NOMOVE;
+		}
+		//## ENDOF Continuation History
+
 		if (attack.isCheck()) {
 			generateEvasion(attack);
 			moveList.rateEvasion(generator[generatorHistory].transpositionMove, generator[generatorHistory].primaryKillerMove, generator[generatorHistory].secondaryKillerMove, historyTable);
@@ -154,6 +224,9 @@ final class MoveGenerator {
 		generator[generatorHistory].transpositionMove = Move.NOMOVE;
 		generator[generatorHistory].primaryKillerMove = Move.NOMOVE;
 		generator[generatorHistory].secondaryKillerMove = Move.NOMOVE;
+		generator[generatorHistory].counterMove = Move.NOMOVE;
+		generator[generatorHistory].previousMove = Move.NOMOVE;
+		generator[generatorHistory].secondPreviousMove = Move.NOMOVE;
 
 		if (attack.isCheck()) {
 			generateEvasion(attack);
@@ -171,6 +244,32 @@ final class MoveGenerator {
 		}
 	}
 
+	/**
+	 * Initializes the ProbCut move generation. Only legal captures with a
+	 * static exchange evaluation of at least the threshold are generated.
+	 *
+	 * @param attack       the attack of the active color.
+	 * @param seeThreshold the minimum static exchange evaluation.
+	 */
+	static void initializeProbCut(Attack attack, int seeThreshold) {
+		assert !attack.isCheck();
+
+		moveList.newList();
+		tempMoveList.newList();
+		nonCaptureMoveList.newList();
+		generatorHistory++;
+
+		generator[generatorHistory].transpositionMove = Move.NOMOVE;
+		generator[generatorHistory].primaryKillerMove = Move.NOMOVE;
+		generator[generatorHistory].secondaryKillerMove = Move.NOMOVE;
+		generator[generatorHistory].counterMove = Move.NOMOVE;
+		generator[generatorHistory].previousMove = Move.NOMOVE;
+		generator[generatorHistory].secondPreviousMove = Move.NOMOVE;
+		generator[generatorHistory].seeThreshold = seeThreshold;
+
+		generator[generatorHistory].statePosition = statePositionProbCut;
+	}
+
 	static void destroy() {
 		generatorHistory--;
 		nonCaptureMoveList.deleteList();
@@ -222,6 +321,9 @@ final class MoveGenerator {
 						if (move == generator[generatorHistory].secondaryKillerMove) {
 							continue;
 						}
+						if (move == generator[generatorHistory].counterMove) {
+							continue;
+						}
 						if (!isLegal(move)) {
 							continue;
 						}
@@ -251,6 +353,15 @@ final class MoveGenerator {
 						}
 						assert board.isCheckingMove(move) : board.getBoard().toString() + ", " + Move.toCommandMove(move).toString();
 						break;
+					case GEN_PROBCUT:
+						if (!isLegal(move)) {
+							continue;
+						}
+						assert Move.getTarget(move) != Piece.NOPIECE;
+						if (See.seeMove(move, Move.getChessmanColor(move)) < generator[generatorHistory].seeThreshold) {
+							continue;
+						}
+						break;
 					case GEN_END:
 						assert false : stateList[generator[generatorHistory].statePosition];
 						break;
@@ -280,7 +391,7 @@ final class MoveGenerator {
 				case GEN_GOODCAPTURE:
 					generateCaptures();
 					tempMoveList.resetList();
-					moveList.rateFromMVVLVA();
+					rateCaptures();
 					moveList.sort();
 					generator[generatorHistory].testState = GEN_GOODCAPTURE;
 					break;
@@ -292,16 +403,21 @@ final class MoveGenerator {
 						if (generator[generatorHistory].secondaryKillerMove != Move.NOMOVE) {
 							moveList.moves[moveList.tail++] = generator[generatorHistory].secondaryKillerMove;
 						}
-						generator[generatorHistory].testState = GEN_KILLER;
 					} else {
 						generator[generatorHistory].primaryKillerMove = Move.NOMOVE;
 						generator[generatorHistory].secondaryKillerMove = Move.NOMOVE;
 					}
+					if (generator[generatorHistory].counterMove != Move.NOMOVE) {
+						moveList.moves[moveList.tail++] = generator[generatorHistory].counterMove;
+					}
+					generator[generatorHistory].testState = GEN_KILLER;
 					break;
 				case GEN_NONCAPTURE:
 					generateNonCaptures();
 					if (Configuration.useHistoryTable) {
-						moveList.rateFromHistory(historyTable);
+						moveList.rateFromHistory(historyTable,
+								continuationTable, generator[generatorHistory].previousMove,
+								secondContinuationTable, generator[generatorHistory].secondPreviousMove);
 						moveList.sort();
 					}
 					generator[generatorHistory].testState = GEN_NONCAPTURE;
@@ -313,7 +429,7 @@ final class MoveGenerator {
 					break;
 				case GEN_GOODCAPTURE_QS:
 					generateCaptures();
-					moveList.rateFromMVVLVA();
+					rateCaptures();
 					moveList.sort();
 					generator[generatorHistory].testState = GEN_GOODCAPTURE_QS;
 					break;
@@ -321,6 +437,12 @@ final class MoveGenerator {
 					generateChecks();
 					generator[generatorHistory].testState = GEN_CHECK_QS;
 					break;
+				case GEN_PROBCUT:
+					generateCaptures();
+					rateCaptures();
+					moveList.sort();
+					generator[generatorHistory].testState = GEN_PROBCUT;
+					break;
 				case GEN_END:
 					return Move.NOMOVE;
 				default:
@@ -330,6 +452,14 @@ final class MoveGenerator {
 		}
 	}
 
+	private static void rateCaptures() {
+		if (Configuration.useCaptureHistoryTable && captureHistoryTable != null) {
+			moveList.rateFromCaptureHistory(captureHistoryTable);
+		} else {
+			moveList.rateFromMVVLVA();
+		}
+	}
+
 	private static boolean isPseudo(int move) {
 		int chessmanPosition = Move.getStart(move);
 		int piece = Position.board[chessmanPosition];
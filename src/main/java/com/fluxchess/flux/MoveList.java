@@ -23,6 +23,9 @@ final class MoveList {
 	private static final int MAXSIZE = 4096;
 	private static final int HISTORYSIZE = Depth.MAX_PLY + 1;
 
+	// A full capture history is worth about half a pawn of MVV/LVA rating
+	private static final int CAPTURE_HISTORY_DIVISOR = 32;
+
 	final int[] moves = new int[MAXSIZE];
 	final int[] values = new int[MAXSIZE];
 	int head = 0;
@@ -122,11 +125,21 @@ final class MoveList {
 	}
 
 	/**
-	 * Rates the move list according to the history table.
+	 * Rates the move list according to the history table and the
+	 * continuation history of the previous two moves.
 	 */
-	void rateFromHistory(HistoryTable historyTable) {
+	void rateFromHistory(HistoryTable historyTable,
+	                     ContinuationTable continuationTable, int previousMove,
+	                     ContinuationTable secondContinuationTable, int secondPreviousMove) {
 		for (int i = head; i < tail; i++) {
-			values[i] = historyTable.get(moves[i]);
+			int value = historyTable.get(moves[i]);
+			if (previousMove != Move.NOMOVE) {
+				value += continuationTable.get(previousMove, moves[i]);
+			}
+			if (secondPreviousMove != Move.NOMOVE) {
+				value += secondContinuationTable.get(secondPreviousMove, moves[i]);
+			}
+			values[i] = value;
 		}
 	}
 
@@ -139,6 +152,16 @@ final class MoveList {
 		}
 	}
 
+	/**
+	 * Rates the move list according to the MVV/LVA and the capture history.
+	 * The capture history reorders captures of similar value.
+	 */
+	void rateFromCaptureHistory(CaptureHistoryTable captureHistoryTable) {
+		for (int i = head; i < tail; i++) {
+			values[i] = getMVVLVARating(moves[i]) + captureHistoryTable.get(moves[i]) / CAPTURE_HISTORY_DIVISOR;
+		}
+	}
+
 	private int getMVVLVARating(int move) {
 		int value = 0;
 
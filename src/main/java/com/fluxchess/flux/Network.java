@@ -0,0 +1,340 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+/**
+ * A simple efficiently updatable neural network. The input layer has one
+ * feature for each chessman, color and square, seen from both sides. The
+ * hidden layer is kept in an accumulator for each perspective which is
+ * updated incrementally by Position.put(), remove() and move().
+ */
+final class Network {
+
+	// Network file header
+	static final int MAGIC = 0x464C5558;
+	static final int VERSION = 1;
+
+	// Input layer: 2 colors x 6 chessmen x 64 squares
+	static final int INPUTS = Color.ARRAY_DIMENSION * 6 * 64;
+
+	// Quantization of the feature and output weights
+	static final int QA = 255;
+	static final int QB = 64;
+	static final int SCALE = 400;
+
+	// Feature offset of each chessman
+	private static final int[] chessmanOffset = new int[PieceType.VALUES_SIZE];
+
+	static {
+		chessmanOffset[PieceType.PAWN] = 0;
+		chessmanOffset[PieceType.KNIGHT] = 64;
+		chessmanOffset[PieceType.BISHOP] = 2 * 64;
+		chessmanOffset[PieceType.ROOK] = 3 * 64;
+		chessmanOffset[PieceType.QUEEN] = 4 * 64;
+		chessmanOffset[PieceType.KING] = 5 * 64;
+	}
+
+	static boolean loaded = false;
+
+	static int hiddenSize = 0;
+	static short[] featureWeights = new short[0];
+	static short[] featureBias = new short[0];
+	static short[] outputWeights = new short[0];
+	static int outputBias = 0;
+
+	// The hidden layer for each perspective
+	static final short[][] accumulator = new short[Color.ARRAY_DIMENSION][0];
+
+	private Network() {
+	}
+
+	/**
+	 * Returns the feature index of the chessman seen from the perspective.
+	 *
+	 * @param perspective the perspective color.
+	 * @param chessman    the chessman.
+	 * @param color       the color of the chessman.
+	 * @param position    the position.
+	 * @return the feature index.
+	 */
+	static int getFeature(int perspective, int chessman, int color, int position) {
+		assert perspective != Color.NOCOLOR;
+		assert chessman != Piece.NOPIECE;
+		assert color != Color.NOCOLOR;
+		assert (position & 0x88) == 0;
+
+		int index = Square.toIndex(position);
+		if (perspective == Color.BLACK) {
+			// Mirror the board vertically
+			index ^= 56;
+		}
+		int side = color == perspective ? 0 : 6 * 64;
+
+		return side + chessmanOffset[chessman] + index;
+	}
+
+	/**
+	 * Adds the chessman to the accumulators.
+	 */
+	static void add(int chessman, int color, int position) {
+		for (int perspective : Color.values) {
+			int offset = getFeature(perspective, chessman, color, position) * hiddenSize;
+			NetworkKernel.add(accumulator[perspective], featureWeights, offset, hiddenSize);
+		}
+	}
+
+	/**
+	 * Removes the chessman from the accumulators.
+	 */
+	static void remove(int chessman, int color, int position) {
+		for (int perspective : Color.values) {
+			int offset = getFeature(perspective, chessman, color, position) * hiddenSize;
+			NetworkKernel.subtract(accumulator[perspective], featureWeights, offset, hiddenSize);
+		}
+	}
+
+	/**
+	 * Moves the chessman in the accumulators. This is a remove and add in
+	 * one pass.
+	 */
+	static void move(int chessman, int color, int start, int end) {
+		for (int perspective : Color.values) {
+			int startOffset = getFeature(perspective, chessman, color, start) * hiddenSize;
+			int endOffset = getFeature(perspective, chessman, color, end) * hiddenSize;
+			NetworkKernel.move(accumulator[perspective], featureWeights, startOffset, endOffset, hiddenSize);
+		}
+	}
+
+	/**
+	 * Recomputes the accumulators from the board.
+	 */
+	static void refresh() {
+		for (int color : Color.values) {
+			System.arraycopy(featureBias, 0, accumulator[color], 0, hiddenSize);
+		}
+
+		if (loaded) {
+			for (int position : Square.values) {
+				int piece = Position.board[position];
+				if (piece != Piece.NOPIECE) {
+					add(Piece.getChessman(piece), Piece.getColor(piece), position);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Evaluates the accumulators.
+	 *
+	 * @param myColor the side to move.
+	 * @return the evaluation value in centipawns.
+	 */
+	static int evaluate(int myColor) {
+		assert loaded;
+
+		long sum = (long) NetworkKernel.dot(accumulator[myColor], outputWeights, 0, hiddenSize, QA)
+				+ NetworkKernel.dot(accumulator[Color.switchColor(myColor)], outputWeights, hiddenSize, hiddenSize, QA);
+
+		// The output bias is quantized with QA * QB like the sum. Scaling
+		// overflows int for large hidden layers.
+		return (int) ((sum + outputBias) * SCALE / (QA * QB));
+	}
+
+	/**
+	 * Loads the network from the file.
+	 *
+	 * @param file the network file.
+	 * @throws IOException if the file cannot be read or is not a valid network.
+	 */
+	static void load(java.io.File file) throws IOException {
+		try (InputStream stream = new BufferedInputStream(new FileInputStream(file))) {
+			load(stream);
+		}
+	}
+
+	/**
+	 * Loads the network from the stream. All values are little endian. The
+	 * file starts with the magic number, the version and the hidden layer
+	 * size. Then follow the feature weights, the feature bias, the output
+	 * weights as shorts and the output bias as int.
+	 *
+	 * @param stream the input stream.
+	 * @throws IOException if the stream is not a valid network.
+	 */
+	static void load(InputStream stream) throws IOException {
+		DataInputStream input = new DataInputStream(stream);
+
+		ByteBuffer header = read(input, 3 * Integer.BYTES);
+		if (header.getInt() != MAGIC) {
+			throw new IOException("Invalid network file");
+		}
+		if (header.getInt() != VERSION) {
+			throw new IOException("Unsupported network version");
+		}
+		int newHiddenSize = header.getInt();
+		if (newHiddenSize <= 0 || newHiddenSize > 4096) {
+			throw new IOException("Invalid hidden layer size: " + newHiddenSize);
+		}
+
+		short[] newFeatureWeights = new short[INPUTS * newHiddenSize];
+		short[] newFeatureBias = new short[newHiddenSize];
+		short[] newOutputWeights = new short[2 * newHiddenSize];
+		read(input, Short.BYTES * newFeatureWeights.length).asShortBuffer().get(newFeatureWeights);
+		read(input, Short.BYTES * newFeatureBias.length).asShortBuffer().get(newFeatureBias);
+		read(input, Short.BYTES * newOutputWeights.length).asShortBuffer().get(newOutputWeights);
+		int newOutputBias = read(input, Integer.BYTES).getInt();
+
+		initialize(newFeatureWeights, newFeatureBias, newOutputWeights, newOutputBias);
+	}
+
+	/**
+	 * Sets the quantized weights and refreshes the accumulators.
+	 *
+	 * @param newFeatureWeights the feature weights, INPUTS x hidden layer size.
+	 * @param newFeatureBias    the feature bias.
+	 * @param newOutputWeights  the output weights, 2 x hidden layer size.
+	 * @param newOutputBias     the output bias.
+	 */
+	static void initialize(short[] newFeatureWeights, short[] newFeatureBias, short[] newOutputWeights, int newOutputBias) {
+		assert newFeatureBias.length > 0;
+		assert newFeatureWeights.length == INPUTS * newFeatureBias.length;
+		assert newOutputWeights.length == 2 * newFeatureBias.length;
+
+		hiddenSize = newFeatureBias.length;
+		featureWeights = newFeatureWeights;
+		featureBias = newFeatureBias;
+		outputWeights = newOutputWeights;
+		outputBias = newOutputBias;
+		for (int color : Color.values) {
+			accumulator[color] = new short[hiddenSize];
+		}
+		loaded = true;
+
+		refresh();
+	}
+
+	/**
+	 * Saves the network to the stream in the format read by load().
+	 *
+	 * @param stream the output stream.
+	 * @throws IOException if the stream cannot be written.
+	 */
+	static void save(OutputStream stream) throws IOException {
+		assert loaded;
+
+		save(featureWeights, featureBias, outputWeights, outputBias, stream);
+	}
+
+	/**
+	 * Saves the quantized weights to the stream in the format read by load().
+	 * The loaded network is not changed.
+	 *
+	 * @param newFeatureWeights the feature weights, INPUTS x hidden layer size.
+	 * @param newFeatureBias    the feature bias.
+	 * @param newOutputWeights  the output weights, 2 x hidden layer size.
+	 * @param newOutputBias     the output bias.
+	 * @param stream            the output stream.
+	 * @throws IOException if the stream cannot be written.
+	 */
+	static void save(short[] newFeatureWeights, short[] newFeatureBias, short[] newOutputWeights, int newOutputBias, OutputStream stream) throws IOException {
+		if (newFeatureBias.length == 0
+				|| newFeatureWeights.length != INPUTS * newFeatureBias.length
+				|| newOutputWeights.length != 2 * newFeatureBias.length) {
+			throw new IllegalArgumentException("Invalid network size");
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate(
+				3 * Integer.BYTES
+						+ Short.BYTES * (newFeatureWeights.length + newFeatureBias.length + newOutputWeights.length)
+						+ Integer.BYTES)
+				.order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(MAGIC).putInt(VERSION).putInt(newFeatureBias.length);
+		for (short value : newFeatureWeights) {
+			buffer.putShort(value);
+		}
+		for (short value : newFeatureBias) {
+			buffer.putShort(value);
+		}
+		for (short value : newOutputWeights) {
+			buffer.putShort(value);
+		}
+		buffer.putInt(newOutputBias);
+
+		stream.write(buffer.array());
+		stream.flush();
+	}
+
+	/**
+	 * Initializes the network with small random weights. This is used for
+	 * testing and benchmarking without a network file.
+	 *
+	 * @param newHiddenSize the hidden layer size.
+	 * @param random        the random generator.
+	 */
+	static void randomize(int newHiddenSize, Random random) {
+		assert newHiddenSize > 0;
+
+		short[] newFeatureWeights = new short[INPUTS * newHiddenSize];
+		short[] newFeatureBias = new short[newHiddenSize];
+		short[] newOutputWeights = new short[2 * newHiddenSize];
+		for (int i = 0; i < newFeatureWeights.length; i++) {
+			newFeatureWeights[i] = (short) (random.nextInt(65) - 32);
+		}
+		for (int i = 0; i < newFeatureBias.length; i++) {
+			newFeatureBias[i] = (short) random.nextInt(QA);
+		}
+		for (int i = 0; i < newOutputWeights.length; i++) {
+			newOutputWeights[i] = (short) (random.nextInt(2 * QB + 1) - QB);
+		}
+
+		initialize(newFeatureWeights, newFeatureBias, newOutputWeights, 0);
+	}
+
+	/**
+	 * Unloads the network. The hand-written evaluation is used again.
+	 */
+	static void unload() {
+		loaded = false;
+		hiddenSize = 0;
+		featureWeights = new short[0];
+		featureBias = new short[0];
+		outputWeights = new short[0];
+		outputBias = 0;
+		for (int color : Color.values) {
+			accumulator[color] = new short[0];
+		}
+	}
+
+	private static ByteBuffer read(DataInputStream input, int length) throws IOException {
+		byte[] bytes = new byte[length];
+		input.readFully(bytes);
+
+		return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+	}
+}
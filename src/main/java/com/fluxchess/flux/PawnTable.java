@@ -20,79 +20,124 @@ package com.fluxchess.flux;
 
 final class PawnTable {
 
-	static final int ENTRYSIZE = 16;
+	// Size of one pawn entry
+	static final int ENTRYSIZE = 320;
 
 	private final int size;
 
-	private final long[] zobristCode;
-	private final int[] opening;
-	private final int[] endgame;
+	private final PawnTableEntry[] entry;
+
+	// Statistics
+	long probes = 0;
+	long hits = 0;
+
+	static final class PawnTableEntry {
+
+		long zobristCode = -1;
+
+		// The packed pawn structure score of each color
+		final int[] score = new int[Color.ARRAY_DIMENSION];
+
+		// The lowest pawn rank of each file. 8 + 2 -> 2 Sentinels for each
+		// side.
+		final byte[][] pawnTable = new byte[Color.ARRAY_DIMENSION][10];
+
+		// The pawns, the passed pawns and the squares attacked by pawns as
+		// bitboards
+		final long[] pawns = new long[Color.ARRAY_DIMENSION];
+		final long[] passers = new long[Color.ARRAY_DIMENSION];
+		final long[] pawnAttacks = new long[Color.ARRAY_DIMENSION];
+
+		// One bit for each file without own pawns
+		final int[] openFiles = new int[Color.ARRAY_DIMENSION];
+
+		// The pawn shield penalty for a king on the first rank of each file
+		final int[][] shelter = new int[Color.ARRAY_DIMENSION][8];
+
+		PawnTableEntry() {
+		}
+	}
 
 	PawnTable(int newSize) {
 		assert newSize >= 1;
 
 		this.size = newSize;
-		this.zobristCode = new long[this.size];
-		this.opening = new int[this.size];
-		this.endgame = new int[this.size];
+
+		// Initialize entry
+		this.entry = new PawnTableEntry[newSize];
+		for (int i = 0; i < this.entry.length; i++) {
+			this.entry[i] = new PawnTableEntry();
+		}
 	}
 
 	/**
-	 * Puts a zobrist code and opening and endgame value into the table.
+	 * Returns the pawn table entry for the zobrist code. The entry is
+	 * cleared if it belongs to a different zobrist code.
 	 *
 	 * @param newZobristCode the zobrist code.
-	 * @param newOpening     the opening value.
-	 * @param newEndgame     the endgame value.
+	 * @return the pawn table entry.
 	 */
-	void put(long newZobristCode, int newOpening, int newEndgame) {
-		int position = (int) (newZobristCode % this.size);
+	PawnTableEntry put(long newZobristCode) {
+		PawnTableEntry currentEntry = this.entry[getPosition(newZobristCode)];
+
+		currentEntry.zobristCode = newZobristCode;
+		for (int color : Color.values) {
+			currentEntry.score[color] = Score.ZERO;
+			for (int i = 0; i < currentEntry.pawnTable[color].length; i++) {
+				currentEntry.pawnTable[color][i] = 0;
+			}
+			currentEntry.pawns[color] = 0;
+			currentEntry.passers[color] = 0;
+			currentEntry.pawnAttacks[color] = 0;
+			currentEntry.openFiles[color] = 0;
+			for (int i = 0; i < currentEntry.shelter[color].length; i++) {
+				currentEntry.shelter[color][i] = 0;
+			}
+		}
 
-		this.zobristCode[position] = newZobristCode;
-		this.opening[position] = newOpening;
-		this.endgame[position] = newEndgame;
+		return currentEntry;
 	}
 
 	/**
-	 * Returns whether or not this zobrist code exists in the table.
+	 * Returns the pawn table entry given the zobrist code.
 	 *
 	 * @param newZobristCode the zobrist code.
-	 * @return true if the zobrist code exists in the table, false otherwise.
+	 * @return the pawn table entry or null if there exists no entry.
 	 */
-	boolean exists(long newZobristCode) {
-		int position = (int) (newZobristCode % this.size);
-
-		return this.zobristCode[position] == newZobristCode;
+	PawnTableEntry get(long newZobristCode) {
+		PawnTableEntry currentEntry = this.entry[getPosition(newZobristCode)];
+
+		this.probes++;
+		if (currentEntry.zobristCode == newZobristCode) {
+			this.hits++;
+			return currentEntry;
+		} else {
+			return null;
+		}
 	}
 
 	/**
-	 * Returns the opening given the zobrist code.
-	 *
-	 * @param newZobristCode the zobrist code.
-	 * @return the opening value.
+	 * Resets the statistics of the table.
 	 */
-	int getOpening(long newZobristCode) {
-		int position = (int) (newZobristCode % this.size);
-
-		if (this.zobristCode[position] == newZobristCode) {
-			return this.opening[position];
-		}
-
-		throw new IllegalArgumentException();
+	void resetStatistics() {
+		this.probes = 0;
+		this.hits = 0;
 	}
 
 	/**
-	 * Returns the endgame given the zobrist code.
+	 * Returns the hit rate of the table.
 	 *
-	 * @param newZobristCode the zobrist code.
-	 * @return the endgame value.
+	 * @return the hit rate in percent.
 	 */
-	int getEndgame(long newZobristCode) {
-		int position = (int) (newZobristCode % this.size);
-
-		if (this.zobristCode[position] == newZobristCode) {
-			return this.endgame[position];
+	double getHitRate() {
+		if (this.probes > 0) {
+			return 100.0 * this.hits / this.probes;
+		} else {
+			return 0.0;
 		}
+	}
 
-		throw new IllegalArgumentException();
+	private int getPosition(long newZobristCode) {
+		return (int) (newZobristCode % this.size);
 	}
 }
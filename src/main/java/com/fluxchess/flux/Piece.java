@@ -46,6 +46,9 @@ final class Piece {
 	private static final int COLOR_SHIFT = 3;
 	private static final int COLOR_MASK = Color.MASK << COLOR_SHIFT;
 
+	// The FEN notation characters indexed by chessman
+	private static final String NOTATION = " PNK BRQ";
+
 	/**
 	 * Piece values
 	 */
@@ -156,6 +159,35 @@ final class Piece {
 		}
 	}
 
+	/**
+	 * Returns the piece of the FEN notation character.
+	 *
+	 * @param notation the notation character, upper case for white.
+	 * @return the piece or NOPIECE if the character is not a piece.
+	 */
+	static int valueOfNotation(char notation) {
+		int chessman = NOTATION.indexOf(Character.toUpperCase(notation));
+		if (chessman <= 0 || !isValidChessman(chessman)) {
+			return NOPIECE;
+		}
+
+		return createPiece(chessman, Character.isUpperCase(notation) ? Color.WHITE : Color.BLACK);
+	}
+
+	/**
+	 * Returns the FEN notation character of the piece.
+	 *
+	 * @param piece the piece.
+	 * @return the notation character, upper case for white.
+	 */
+	static char toNotation(int piece) {
+		assert piece != NOPIECE;
+
+		char notation = NOTATION.charAt(getChessman(piece));
+
+		return getColor(piece) == Color.WHITE ? notation : Character.toLowerCase(notation);
+	}
+
 	/**
 	 * Get the piece from GenericChessman and GenericColor.
 	 *
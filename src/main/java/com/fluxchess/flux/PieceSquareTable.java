@@ -20,7 +20,7 @@ package com.fluxchess.flux;
 
 final class PieceSquareTable {
 
-	private static final int[][] OPENING = {
+	static final int[][] OPENING = {
 			{ // Empty
 					//    a1,   b1,   c1,   d1,   e1,   f1,   g1,   h1
 					0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
@@ -119,7 +119,7 @@ final class PieceSquareTable {
 			}
 	};
 
-	private static final int[][] ENDGAME = {
+	static final int[][] ENDGAME = {
 			{ // Empty
 					//    a1,   b1,   c1,   d1,   e1,   f1,   g1,   h1
 					0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
@@ -218,9 +218,42 @@ final class PieceSquareTable {
 			}
 	};
 
+	// The packed opening and endgame scores, already flipped for black
+	private static final int[][][] SCORE = new int[Color.ARRAY_DIMENSION][PieceType.VALUES_SIZE][Position.BOARDSIZE];
+
+	static {
+		update();
+	}
+
 	private PieceSquareTable() {
 	}
 
+	/**
+	 * Updates the packed scores from the opening and endgame tables. Positions
+	 * created before still use the old values.
+	 */
+	static void update() {
+		for (int color : Color.values) {
+			for (int piecetype = 0; piecetype < PieceType.VALUES_SIZE; piecetype++) {
+				for (int square : Square.values) {
+					int tableSquare = square;
+					if (color == Color.BLACK) {
+						tableSquare = 127 - 8 - square;
+					}
+
+					SCORE[color][piecetype][square] = Score.valueOf(OPENING[piecetype][tableSquare], ENDGAME[piecetype][tableSquare]);
+				}
+			}
+		}
+	}
+
+	static int getScore(int piecetype, int color, int square) {
+		assert color != Color.NOCOLOR;
+		assert (square & 0x88) == 0;
+
+		return SCORE[color][piecetype][square];
+	}
+
 	static int getValue(int phase, int piecetype, int color, int square) {
 		assert phase != GamePhase.NOGAMEPHASE;
 		assert color != Color.NOCOLOR;
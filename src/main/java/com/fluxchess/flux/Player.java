@@ -0,0 +1,205 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One configuration of the engine, which plays games with fixed node
+ * searches. The settings are a comma separated list of name=value pairs.
+ * A name is a boolean or int field of Configuration or Evaluation, or
+ * EvalFile for a network file.
+ * <p>
+ * Configuration, Evaluation and Network have static state. So we apply the
+ * settings before every search and restore the defaults afterwards. Every
+ * player has its own transposition table, evaluation tables and history
+ * tables, so the searches of one player never change the move ordering of
+ * the other.
+ */
+final class Player {
+
+	// A small transposition table is enough for small node budgets
+	private static final int TRANSPOSITIONTABLE_SIZE = 4;
+
+	private final List<Field> fields = new ArrayList<>();
+	private final List<Object> values = new ArrayList<>();
+	private final List<Object> defaults = new ArrayList<>();
+
+	// The network or null if the player uses the default network
+	private short[] featureWeights = null;
+	private short[] featureBias = null;
+	private short[] outputWeights = null;
+	private int outputBias = 0;
+
+	private final TranspositionTable transpositionTable = new TranspositionTable(TRANSPOSITIONTABLE_SIZE * 1024 * 1024 / TranspositionTable.ENTRYSIZE);
+	private final int[] timeTable = new int[Depth.MAX_PLY + 1];
+	private final Evaluation evaluation = new Evaluation();
+	private final HistoryTables historyTables = new HistoryTables();
+	private final SilentProtocol protocol = new SilentProtocol();
+
+	private int value = Score.ZERO;
+
+	/**
+	 * Creates a player with the default settings.
+	 */
+	Player() {
+	}
+
+	/**
+	 * Creates a player with the settings.
+	 *
+	 * @param settings the comma separated list of name=value pairs.
+	 * @throws IllegalArgumentException if a setting is invalid.
+	 * @throws IOException              if the network file cannot be loaded.
+	 */
+	Player(String settings) throws IOException {
+		for (String setting : settings.split(",")) {
+			if (setting.isEmpty()) {
+				continue;
+			}
+			int separator = setting.indexOf('=');
+			if (separator == -1) {
+				throw new IllegalArgumentException("Invalid setting: " + setting);
+			}
+			String name = setting.substring(0, separator);
+			String newValue = setting.substring(separator + 1);
+
+			if (name.equalsIgnoreCase(Configuration.networkFileOption.name)) {
+				loadNetwork(newValue);
+				continue;
+			}
+
+			Field field = getField(name);
+			this.fields.add(field);
+			try {
+				this.defaults.add(field.get(null));
+			} catch (IllegalAccessException e) {
+				throw new IllegalArgumentException("Invalid setting: " + setting, e);
+			}
+			if (field.getType() == boolean.class) {
+				if (!newValue.equals("true") && !newValue.equals("false")) {
+					throw new IllegalArgumentException("Invalid setting: " + setting);
+				}
+				this.values.add(Boolean.valueOf(newValue));
+			} else {
+				try {
+					this.values.add(Integer.valueOf(newValue));
+				} catch (NumberFormatException e) {
+					throw new IllegalArgumentException("Invalid setting: " + setting, e);
+				}
+			}
+		}
+	}
+
+	private static Field getField(String name) {
+		for (Class<?> type : new Class<?>[]{Configuration.class, Evaluation.class}) {
+			try {
+				Field field = type.getDeclaredField(name);
+				int modifiers = field.getModifiers();
+				if (Modifier.isStatic(modifiers)
+						&& !Modifier.isFinal(modifiers)
+						&& (field.getType() == boolean.class || field.getType() == int.class)) {
+					field.setAccessible(true);
+					return field;
+				}
+			} catch (NoSuchFieldException e) {
+				// Try the next class
+			}
+		}
+
+		throw new IllegalArgumentException("Unknown setting: " + name);
+	}
+
+	private void loadNetwork(String file) throws IOException {
+		assert !Network.loaded;
+
+		Network.load(new java.io.File(file));
+		this.featureWeights = Network.featureWeights;
+		this.featureBias = Network.featureBias;
+		this.outputWeights = Network.outputWeights;
+		this.outputBias = Network.outputBias;
+		Network.unload();
+	}
+
+	/**
+	 * Clears the tables for a new game.
+	 */
+	void clear() {
+		this.transpositionTable.clear();
+		this.evaluation.clear();
+		this.historyTables.clear();
+	}
+
+	/**
+	 * Searches the position with a fixed number of nodes.
+	 *
+	 * @param board the position.
+	 * @param nodes the number of nodes.
+	 * @return the best move or Move.NOMOVE if the search found none.
+	 */
+	int search(Position board, long nodes) {
+		apply();
+		try {
+			Search search = new Search(this.protocol, board, this.transpositionTable, this.timeTable, this.evaluation, this.historyTables);
+			search.setSearchNodes(nodes);
+			search.run();
+			this.value = search.getResultValue();
+			return search.getResultMove();
+		} finally {
+			restore();
+		}
+	}
+
+	/**
+	 * Returns the value of the last search from the view of the side to move.
+	 *
+	 * @return the value.
+	 */
+	int getValue() {
+		return this.value;
+	}
+
+	private void apply() {
+		set(this.values);
+		if (this.featureWeights != null) {
+			Network.initialize(this.featureWeights, this.featureBias, this.outputWeights, this.outputBias);
+		}
+	}
+
+	private void restore() {
+		set(this.defaults);
+		if (this.featureWeights != null) {
+			Network.unload();
+		}
+	}
+
+	private void set(List<Object> newValues) {
+		try {
+			for (int i = 0; i < this.fields.size(); i++) {
+				this.fields.get(i).set(null, newValues.get(i));
+			}
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -20,6 +20,10 @@ package com.fluxchess.flux;
 
 import com.fluxchess.jcpi.models.*;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
 import java.util.Random;
 
 final class Position {
@@ -32,6 +36,12 @@ final class Position {
 	// The size of the history stack
 	private static final int STACKSIZE = Search.MAX_MOVES;
 
+	/**
+	 * The size of the binary encoding
+	 */
+	static final int ENCODING_SIZE = 32;
+	private static final int MAX_ENCODED_CHESSMEN = 32;
+
 	// Game phase thresholds
 	static final int GAMEPHASE_OPENING_VALUE =
 			Piece.VALUE_KING
@@ -74,6 +84,9 @@ final class Position {
 	// Pawn zobrist code
 	long pawnZobristCode = 0;
 
+	// The material key. We always keep the key current.
+	long materialKey = 0;
+
 	// En Passant square
 	int enPassantSquare = Square.NOPOSITION;
 
@@ -101,14 +114,34 @@ final class Position {
 	static final int[] materialCount = new int[Color.ARRAY_DIMENSION];
 	static final int[] materialCountAll = new int[Color.ARRAY_DIMENSION];
 
-	// The positional values. We always keep the values current.
-	static final int[] positionValueOpening = new int[Color.ARRAY_DIMENSION];
-	static final int[] positionValueEndgame = new int[Color.ARRAY_DIMENSION];
+	// The positional scores. We always keep the scores current.
+	static final int[] positionValue = new int[Color.ARRAY_DIMENSION];
 
 	// Attack
 	private static final Attack[][] attackHistory = new Attack[STACKSIZE + 1][Color.ARRAY_DIMENSION];
 	private int attackHistorySize = 0;
-	private static final Attack tempAttack = new Attack();
+
+	// The attack map. For every color and position we count the attackers
+	// per chessman. We always keep the map current.
+	static final int[][] attackMap = new int[Color.ARRAY_DIMENSION][BOARDSIZE];
+
+	// The total number of attacked positions per color and chessman.
+	static final int[][] attackSum = new int[Color.ARRAY_DIMENSION][PieceType.VALUES_SIZE];
+
+	// The attacked positions per color and chessman as bitboards. A bit is
+	// set if the counter of the chessman in the attack map is not zero.
+	static final long[][] attackBoard = new long[Color.ARRAY_DIMENSION][PieceType.VALUES_SIZE];
+
+	// The occupied positions per color as bitboards.
+	static final long[] occupancy = new long[Color.ARRAY_DIMENSION];
+
+	// For every position the directions of all slider rays reaching it. The
+	// direction bits are indexed like Square.queenDirections.
+	private static final int[] sliderRays = new int[BOARDSIZE];
+	private static final int[] rayDirection = new int[2 * Square.NE + 1];
+
+	// The scratch board for fromFen() and decode()
+	private static final int[] setupBoard = new int[BOARDSIZE];
 
 	private static final class State {
 
@@ -117,8 +150,7 @@ final class Position {
 		int halfMoveClockHistory = 0;
 		int enPassantHistory = 0;
 		int captureSquareHistory = 0;
-		final int[] positionValueOpening = new int[Color.ARRAY_DIMENSION];
-		final int[] positionValueEndgame = new int[Color.ARRAY_DIMENSION];
+		final int[] positionValue = new int[Color.ARRAY_DIMENSION];
 
 		State() {
 			clear();
@@ -131,8 +163,7 @@ final class Position {
 			this.enPassantHistory = 0;
 			this.captureSquareHistory = 0;
 			for (int color : Color.values) {
-				this.positionValueOpening[color] = 0;
-				this.positionValueEndgame[color] = 0;
+				this.positionValue[color] = Score.ZERO;
 			}
 		}
 	}
@@ -163,15 +194,7 @@ final class Position {
 		for (int i = 0; i < states.length; i++) {
 			states[i] = new State();
 		}
-	}
 
-	/**
-	 * Creates a new board.
-	 *
-	 * @param newBoard the board to setup our own board.
-	 */
-	Position(GenericBoard newBoard) {
-		// Initialize the position lists
 		for (int color : Color.values) {
 			pawnList[color] = new PositionList();
 			knightList[color] = new PositionList();
@@ -181,13 +204,402 @@ final class Position {
 			kingList[color] = new PositionList();
 		}
 
-		// Initialize the attack list
 		for (int i = 0; i < attackHistory.length; i++) {
 			for (int j = 0; j < Color.ARRAY_DIMENSION; j++) {
 				attackHistory[i][j] = new Attack();
 			}
 		}
 
+		for (int i = 0; i < Square.queenDirections.length; i++) {
+			rayDirection[Square.queenDirections[i] + Square.NE] = 1 << i;
+		}
+
+		// The board is empty until the first position is set up
+		Arrays.fill(board, Piece.NOPIECE);
+	}
+
+	/**
+	 * Creates a new board.
+	 *
+	 * @param newBoard the board to setup our own board.
+	 */
+	Position(GenericBoard newBoard) {
+		clear();
+
+		for (int position : Square.values) {
+			GenericPiece genericPiece = newBoard.getPiece(Square.valueOfIntPosition(position));
+			if (genericPiece != null) {
+				int piece = Piece.createPiece(Piece.valueOfChessman(genericPiece.chessman), Color.valueOfColor(genericPiece.color));
+				put(piece, position, true);
+			}
+		}
+
+		int newCastling = 0;
+		if (newBoard.getCastling(GenericColor.WHITE, GenericCastling.KINGSIDE) != null) {
+			newCastling |= Castling.WHITE_KINGSIDE;
+		}
+		if (newBoard.getCastling(GenericColor.WHITE, GenericCastling.QUEENSIDE) != null) {
+			newCastling |= Castling.WHITE_QUEENSIDE;
+		}
+		if (newBoard.getCastling(GenericColor.BLACK, GenericCastling.KINGSIDE) != null) {
+			newCastling |= Castling.BLACK_KINGSIDE;
+		}
+		if (newBoard.getCastling(GenericColor.BLACK, GenericCastling.QUEENSIDE) != null) {
+			newCastling |= Castling.BLACK_QUEENSIDE;
+		}
+
+		setup(
+				newBoard.getEnPassant() == null ? Square.NOPOSITION : Square.valueOfPosition(newBoard.getEnPassant()),
+				newCastling,
+				Color.valueOfColor(newBoard.getActiveColor()),
+				newBoard.getHalfMoveClock(),
+				newBoard.getFullMoveNumber());
+	}
+
+	/**
+	 * Creates a new board from a FEN.
+	 *
+	 * @param fen the FEN.
+	 * @throws IllegalArgumentException if the FEN is not valid.
+	 */
+	Position(CharSequence fen) {
+		fromFen(fen);
+	}
+
+	/**
+	 * Sets up the board from a FEN. The board is reused and no objects are
+	 * allocated. The halfmove clock and the fullmove number are optional, so
+	 * EPD lines are accepted as well. Castling rights without the king and
+	 * rook on their initial squares are dropped.
+	 *
+	 * @param fen the FEN.
+	 * @throws IllegalArgumentException if the FEN is not valid. The board is
+	 *                                  not changed in this case.
+	 */
+	void fromFen(CharSequence fen) {
+		int length = fen.length();
+		int index = skipSpaces(fen, 0);
+
+		// Parse the piece placement into the scratch board first, so we don't
+		// leave a broken board behind if the FEN is not valid.
+		Arrays.fill(setupBoard, Piece.NOPIECE);
+		int file = 0;
+		int rank = 7;
+		for (; index < length && fen.charAt(index) != ' '; index++) {
+			char character = fen.charAt(index);
+			if (character == '/') {
+				if (file != 8 || rank == 0) {
+					throw new IllegalArgumentException("Invalid FEN: " + fen);
+				}
+				file = 0;
+				rank--;
+			} else if (character >= '1' && character <= '8') {
+				file += character - '0';
+				if (file > 8) {
+					throw new IllegalArgumentException("Invalid FEN: " + fen);
+				}
+			} else {
+				int piece = Piece.valueOfNotation(character);
+				if (piece == Piece.NOPIECE || file == 8) {
+					throw new IllegalArgumentException("Invalid FEN: " + fen);
+				}
+				setupBoard[rank * 16 + file] = piece;
+				file++;
+			}
+		}
+		if (file != 8 || rank != 0 || !isValidSetup()) {
+			throw new IllegalArgumentException("Invalid FEN: " + fen);
+		}
+
+		// Parse the active color
+		index = skipSpaces(fen, index);
+		int newActiveColor;
+		if (index < length && fen.charAt(index) == 'w') {
+			newActiveColor = Color.WHITE;
+		} else if (index < length && fen.charAt(index) == 'b') {
+			newActiveColor = Color.BLACK;
+		} else {
+			throw new IllegalArgumentException("Invalid FEN: " + fen);
+		}
+		index = skipSpaces(fen, index + 1);
+
+		// Parse the castling rights
+		int newCastling = 0;
+		if (index < length && fen.charAt(index) == '-') {
+			index++;
+		} else {
+			for (; index < length && fen.charAt(index) != ' '; index++) {
+				switch (fen.charAt(index)) {
+					case 'K':
+						newCastling |= Castling.WHITE_KINGSIDE;
+						break;
+					case 'Q':
+						newCastling |= Castling.WHITE_QUEENSIDE;
+						break;
+					case 'k':
+						newCastling |= Castling.BLACK_KINGSIDE;
+						break;
+					case 'q':
+						newCastling |= Castling.BLACK_QUEENSIDE;
+						break;
+					default:
+						throw new IllegalArgumentException("Invalid FEN: " + fen);
+				}
+			}
+		}
+		index = skipSpaces(fen, index);
+
+		// Parse the en passant square
+		int newEnPassantSquare = Square.NOPOSITION;
+		if (index < length && fen.charAt(index) == '-') {
+			index++;
+		} else if (index + 1 < length
+				&& fen.charAt(index) >= 'a' && fen.charAt(index) <= 'h'
+				&& fen.charAt(index + 1) == (newActiveColor == Color.WHITE ? '6' : '3')) {
+			newEnPassantSquare = (fen.charAt(index + 1) - '1') * 16 + (fen.charAt(index) - 'a');
+			index += 2;
+		} else {
+			throw new IllegalArgumentException("Invalid FEN: " + fen);
+		}
+		index = skipSpaces(fen, index);
+
+		// Parse the optional halfmove clock and fullmove number
+		int newHalfMoveClock = 0;
+		int newFullMoveNumber = 1;
+		if (index < length && Character.isDigit(fen.charAt(index))) {
+			for (; index < length && Character.isDigit(fen.charAt(index)); index++) {
+				newHalfMoveClock = newHalfMoveClock * 10 + (fen.charAt(index) - '0');
+			}
+			index = skipSpaces(fen, index);
+
+			if (index < length && Character.isDigit(fen.charAt(index))) {
+				newFullMoveNumber = 0;
+				for (; index < length && Character.isDigit(fen.charAt(index)); index++) {
+					newFullMoveNumber = newFullMoveNumber * 10 + (fen.charAt(index) - '0');
+				}
+				newFullMoveNumber = Math.max(1, newFullMoveNumber);
+			}
+		}
+
+		load(newEnPassantSquare, newCastling, newActiveColor, newHalfMoveClock, newFullMoveNumber);
+	}
+
+	/**
+	 * Encodes the board into ENCODING_SIZE bytes in little endian:
+	 * <pre>
+	 *  0  8 bytes  occupancy, bit 0 is a1 and bit 63 is h8
+	 *  8 16 bytes  piece of each occupied square in ascending order, 4 bits each
+	 * 24  1 byte   active color
+	 * 25  1 byte   castling rights
+	 * 26  1 byte   en passant square index or -1
+	 * 27  1 byte   reserved
+	 * 28  2 bytes  halfmove clock
+	 * 30  2 bytes  fullmove number
+	 * </pre>
+	 * The move history is not encoded, so repetitions before the encoded
+	 * board are not detected after decoding.
+	 *
+	 * @param buffer the little endian buffer.
+	 * @param offset the offset.
+	 * @throws IllegalStateException if there are more than 32 chessmen on the
+	 *                               board.
+	 */
+	void encode(ByteBuffer buffer, int offset) {
+		assert buffer.order() == ByteOrder.LITTLE_ENDIAN;
+
+		long allOccupancy = occupancy[Color.WHITE] | occupancy[Color.BLACK];
+		if (Long.bitCount(allOccupancy) > MAX_ENCODED_CHESSMEN) {
+			throw new IllegalStateException("Too many chessmen to encode");
+		}
+
+		// The pieces are 4 bit nibbles. In little endian the first piece is in
+		// the low nibble of the first byte.
+		long lowPieces = 0;
+		long highPieces = 0;
+		int count = 0;
+		for (long bits = allOccupancy; bits != 0; bits &= bits - 1) {
+			long piece = board[Square.valueOfIndex(Long.numberOfTrailingZeros(bits))];
+			if (count < 16) {
+				lowPieces |= piece << (count << 2);
+			} else {
+				highPieces |= piece << ((count - 16) << 2);
+			}
+			count++;
+		}
+
+		buffer.putLong(offset, allOccupancy);
+		buffer.putLong(offset + 8, lowPieces);
+		buffer.putLong(offset + 16, highPieces);
+		buffer.put(offset + 24, (byte) this.activeColor);
+		buffer.put(offset + 25, (byte) castling);
+		buffer.put(offset + 26, (byte) (this.enPassantSquare == Square.NOPOSITION ? -1 : Square.toIndex(this.enPassantSquare)));
+		buffer.put(offset + 27, (byte) 0);
+		buffer.putShort(offset + 28, (short) Math.min(this.halfMoveClock, 0xFFFF));
+		buffer.putShort(offset + 30, (short) Math.min(getFullMoveNumber(), 0xFFFF));
+	}
+
+	/**
+	 * Sets up the board from an encoding written by encode(). The board is
+	 * reused and no objects are allocated.
+	 *
+	 * @param buffer the little endian buffer.
+	 * @param offset the offset.
+	 * @throws IllegalArgumentException if the encoding is not valid. The board
+	 *                                  is not changed in this case.
+	 */
+	void decode(ByteBuffer buffer, int offset) {
+		assert buffer.order() == ByteOrder.LITTLE_ENDIAN;
+
+		Arrays.fill(setupBoard, Piece.NOPIECE);
+		long allOccupancy = buffer.getLong(offset);
+		if (Long.bitCount(allOccupancy) > MAX_ENCODED_CHESSMEN) {
+			throw new IllegalArgumentException("Invalid encoding");
+		}
+		long lowPieces = buffer.getLong(offset + 8);
+		long highPieces = buffer.getLong(offset + 16);
+		int count = 0;
+		for (long bits = allOccupancy; bits != 0; bits &= bits - 1) {
+			int piece = (int) ((count < 16 ? lowPieces >>> (count << 2) : highPieces >>> ((count - 16) << 2)) & Piece.PIECE_MASK);
+			if (!Piece.isValidChessman(piece & PieceType.MASK)) {
+				throw new IllegalArgumentException("Invalid encoding");
+			}
+			setupBoard[Square.valueOfIndex(Long.numberOfTrailingZeros(bits))] = piece;
+			count++;
+		}
+
+		int newActiveColor = buffer.get(offset + 24);
+		int newCastling = buffer.get(offset + 25);
+		int newEnPassantIndex = buffer.get(offset + 26);
+		int newHalfMoveClock = buffer.getShort(offset + 28) & 0xFFFF;
+		int newFullMoveNumber = Math.max(1, buffer.getShort(offset + 30) & 0xFFFF);
+		if (!isValidSetup()
+				|| (newActiveColor != Color.WHITE && newActiveColor != Color.BLACK)
+				|| (newCastling & ~0xF) != 0
+				|| (newEnPassantIndex != -1 && newEnPassantIndex >>> 3 != (newActiveColor == Color.WHITE ? 5 : 2))) {
+			throw new IllegalArgumentException("Invalid encoding");
+		}
+
+		load(newEnPassantIndex == -1 ? Square.NOPOSITION : Square.valueOfIndex(newEnPassantIndex),
+				newCastling, newActiveColor, newHalfMoveClock, newFullMoveNumber);
+	}
+
+	/**
+	 * Returns a snapshot of the board. A snapshot is the encoding of the
+	 * board and can be handed to other threads or processes.
+	 *
+	 * @return the snapshot.
+	 */
+	byte[] snapshot() {
+		byte[] snapshot = new byte[ENCODING_SIZE];
+		encode(ByteBuffer.wrap(snapshot).order(ByteOrder.LITTLE_ENDIAN), 0);
+
+		return snapshot;
+	}
+
+	/**
+	 * Restores the board from a snapshot.
+	 *
+	 * @param snapshot the snapshot.
+	 * @throws IllegalArgumentException if the snapshot is not valid.
+	 */
+	void restore(byte[] snapshot) {
+		if (snapshot.length != ENCODING_SIZE) {
+			throw new IllegalArgumentException("Invalid snapshot");
+		}
+
+		decode(ByteBuffer.wrap(snapshot).order(ByteOrder.LITTLE_ENDIAN), 0);
+	}
+
+	/**
+	 * Returns whether the scratch board has one king per color and no pawns
+	 * on the first and last rank.
+	 */
+	private static boolean isValidSetup() {
+		int whiteKings = 0;
+		int blackKings = 0;
+		for (int position : Square.values) {
+			int piece = setupBoard[position];
+			if (piece != Piece.NOPIECE) {
+				int chessman = Piece.getChessman(piece);
+				if (chessman == PieceType.KING) {
+					if (Piece.getColor(piece) == Color.WHITE) {
+						whiteKings++;
+					} else {
+						blackKings++;
+					}
+				} else if (chessman == PieceType.PAWN
+						&& (Square.getRank(position) == 0 || Square.getRank(position) == 7)) {
+					return false;
+				}
+			}
+		}
+
+		return whiteKings == 1 && blackKings == 1;
+	}
+
+	/**
+	 * Sets up the board from the scratch board. Castling rights without the
+	 * king and rook on their initial squares are dropped.
+	 */
+	private void load(int newEnPassantSquare, int newCastling, int newActiveColor, int newHalfMoveClock, int newFullMoveNumber) {
+		newCastling &= getCastling(Piece.WHITE_KING, Square.e1, Piece.WHITE_ROOK, Square.h1, Castling.WHITE_KINGSIDE)
+				| getCastling(Piece.WHITE_KING, Square.e1, Piece.WHITE_ROOK, Square.a1, Castling.WHITE_QUEENSIDE)
+				| getCastling(Piece.BLACK_KING, Square.e8, Piece.BLACK_ROOK, Square.h8, Castling.BLACK_KINGSIDE)
+				| getCastling(Piece.BLACK_KING, Square.e8, Piece.BLACK_ROOK, Square.a8, Castling.BLACK_QUEENSIDE);
+
+		clear();
+
+		for (int position : Square.values) {
+			if (setupBoard[position] != Piece.NOPIECE) {
+				put(setupBoard[position], position, true);
+			}
+		}
+
+		setup(newEnPassantSquare, newCastling, newActiveColor, newHalfMoveClock, newFullMoveNumber);
+	}
+
+	private static int skipSpaces(CharSequence fen, int index) {
+		while (index < fen.length() && fen.charAt(index) == ' ') {
+			index++;
+		}
+
+		return index;
+	}
+
+	private static int getCastling(int king, int kingPosition, int rook, int rookPosition, int castling) {
+		if (setupBoard[kingPosition] == king && setupBoard[rookPosition] == rook) {
+			return castling;
+		} else {
+			return 0;
+		}
+	}
+
+	/**
+	 * Clears the board.
+	 */
+	private void clear() {
+		// Initialize the position lists
+		for (int color : Color.values) {
+			pawnList[color].size = 0;
+			knightList[color].size = 0;
+			bishopList[color].size = 0;
+			rookList[color].size = 0;
+			queenList[color].size = 0;
+			kingList[color].size = 0;
+		}
+
+		// Initialize the stacks
+		this.statesSize = 0;
+		this.castlingHistorySize = 0;
+		this.captureHistorySize = 0;
+		this.attackHistorySize = 0;
+
+		// Initialize the attack list. Deeper entries are cleared when they are
+		// pushed.
+		for (int color : Color.values) {
+			attackHistory[0][color].count = Attack.NOATTACK;
+		}
+
 		// Initialize the material values and counters
 		for (int color : Color.values) {
 			materialValue[color] = 0;
@@ -197,60 +609,154 @@ final class Position {
 
 		// Initialize the positional values
 		for (int color : Color.values) {
-			positionValueOpening[color] = 0;
-			positionValueEndgame[color] = 0;
+			positionValue[color] = Score.ZERO;
+		}
+
+		// Initialize the attack map
+		for (int color : Color.values) {
+			Arrays.fill(attackMap[color], 0);
+			Arrays.fill(attackSum[color], 0);
+			Arrays.fill(attackBoard[color], 0);
+			occupancy[color] = 0;
 		}
+		Arrays.fill(sliderRays, 0);
 
 		// Initialize the board
 		for (int position : Square.values) {
 			board[position] = Piece.NOPIECE;
-
-			GenericPiece genericPiece = newBoard.getPiece(Square.valueOfIntPosition(position));
-			if (genericPiece != null) {
-				int piece = Piece.createPiece(Piece.valueOfChessman(genericPiece.chessman), Color.valueOfColor(genericPiece.color));
-				put(piece, position, true);
-			}
 		}
+		Network.refresh();
+
+		this.zobristCode = 0;
+		this.pawnZobristCode = 0;
+		this.materialKey = 0;
+		this.enPassantSquare = Square.NOPOSITION;
+		this.captureSquare = Square.NOPOSITION;
+		this.activeColor = Color.WHITE;
+	}
 
+	/**
+	 * Sets up the state after the chessmen have been put on the board.
+	 *
+	 * @param newEnPassantSquare the en passant square.
+	 * @param newCastling        the castling rights.
+	 * @param newActiveColor     the active color.
+	 * @param newHalfMoveClock   the halfmove clock.
+	 * @param newFullMoveNumber  the fullmove number.
+	 */
+	private void setup(int newEnPassantSquare, int newCastling, int newActiveColor, int newHalfMoveClock, int newFullMoveNumber) {
 		// Initialize en passant
-		if (newBoard.getEnPassant() != null) {
-			this.enPassantSquare = Square.valueOfPosition(newBoard.getEnPassant());
-			this.zobristCode ^= zobristEnPassant[Square.valueOfPosition(newBoard.getEnPassant())];
+		if (newEnPassantSquare != Square.NOPOSITION) {
+			this.enPassantSquare = newEnPassantSquare;
+			this.zobristCode ^= zobristEnPassant[newEnPassantSquare];
 		}
 
 		// Initialize castling
-		castling = 0;
-		if (newBoard.getCastling(GenericColor.WHITE, GenericCastling.KINGSIDE) != null) {
-			castling |= Castling.WHITE_KINGSIDE;
+		castling = newCastling;
+		if ((newCastling & Castling.WHITE_KINGSIDE) != 0) {
 			this.zobristCode ^= zobristCastling[Castling.WHITE_KINGSIDE];
 		}
-		if (newBoard.getCastling(GenericColor.WHITE, GenericCastling.QUEENSIDE) != null) {
-			castling |= Castling.WHITE_QUEENSIDE;
+		if ((newCastling & Castling.WHITE_QUEENSIDE) != 0) {
 			this.zobristCode ^= zobristCastling[Castling.WHITE_QUEENSIDE];
 		}
-		if (newBoard.getCastling(GenericColor.BLACK, GenericCastling.KINGSIDE) != null) {
-			castling |= Castling.BLACK_KINGSIDE;
+		if ((newCastling & Castling.BLACK_KINGSIDE) != 0) {
 			this.zobristCode ^= zobristCastling[Castling.BLACK_KINGSIDE];
 		}
-		if (newBoard.getCastling(GenericColor.BLACK, GenericCastling.QUEENSIDE) != null) {
-			castling |= Castling.BLACK_QUEENSIDE;
+		if ((newCastling & Castling.BLACK_QUEENSIDE) != 0) {
 			this.zobristCode ^= zobristCastling[Castling.BLACK_QUEENSIDE];
 		}
 
 		// Initialize the active color
-		if (this.activeColor != Color.valueOfColor(newBoard.getActiveColor())) {
-			this.activeColor = Color.valueOfColor(newBoard.getActiveColor());
+		if (this.activeColor != newActiveColor) {
+			this.activeColor = newActiveColor;
 			this.zobristCode ^= zobristActiveColor;
 			this.pawnZobristCode ^= zobristActiveColor;
 		}
 
 		// Initialize the half move clock
-		assert newBoard.getHalfMoveClock() >= 0;
-		this.halfMoveClock = newBoard.getHalfMoveClock();
+		assert newHalfMoveClock >= 0;
+		this.halfMoveClock = newHalfMoveClock;
 
 		// Initialize the full move number
-		assert newBoard.getFullMoveNumber() > 0;
-		setFullMoveNumber(newBoard.getFullMoveNumber());
+		assert newFullMoveNumber > 0;
+		setFullMoveNumber(newFullMoveNumber);
+	}
+
+	/**
+	 * Writes the FEN of the board. Numbers and characters are appended one at
+	 * a time, so no objects are allocated.
+	 *
+	 * @param fen the Appendable to write to.
+	 * @throws IOException if the Appendable throws.
+	 */
+	void toFen(Appendable fen) throws IOException {
+		// Write the piece placement
+		for (int rank = 7; rank >= 0; rank--) {
+			int empty = 0;
+			for (int file = 0; file < 8; file++) {
+				int piece = board[rank * 16 + file];
+				if (piece == Piece.NOPIECE) {
+					empty++;
+				} else {
+					if (empty > 0) {
+						fen.append((char) ('0' + empty));
+						empty = 0;
+					}
+					fen.append(Piece.toNotation(piece));
+				}
+			}
+			if (empty > 0) {
+				fen.append((char) ('0' + empty));
+			}
+			if (rank > 0) {
+				fen.append('/');
+			}
+		}
+
+		// Write the active color
+		fen.append(' ').append(this.activeColor == Color.WHITE ? 'w' : 'b').append(' ');
+
+		// Write the castling rights
+		if (castling == 0) {
+			fen.append('-');
+		} else {
+			if ((castling & Castling.WHITE_KINGSIDE) != 0) {
+				fen.append('K');
+			}
+			if ((castling & Castling.WHITE_QUEENSIDE) != 0) {
+				fen.append('Q');
+			}
+			if ((castling & Castling.BLACK_KINGSIDE) != 0) {
+				fen.append('k');
+			}
+			if ((castling & Castling.BLACK_QUEENSIDE) != 0) {
+				fen.append('q');
+			}
+		}
+		fen.append(' ');
+
+		// Write the en passant square
+		if (this.enPassantSquare == Square.NOPOSITION) {
+			fen.append('-');
+		} else {
+			fen.append((char) ('a' + Square.getFile(this.enPassantSquare)));
+			fen.append((char) ('1' + Square.getRank(this.enPassantSquare)));
+		}
+		fen.append(' ');
+
+		// Write the halfmove clock and the fullmove number
+		appendNumber(fen, this.halfMoveClock);
+		fen.append(' ');
+		appendNumber(fen, getFullMoveNumber());
+	}
+
+	private static void appendNumber(Appendable fen, int number) throws IOException {
+		assert number >= 0;
+
+		if (number >= 10) {
+			appendNumber(fen, number / 10);
+		}
+		fen.append((char) ('0' + number % 10));
 	}
 
 	/**
@@ -307,11 +813,19 @@ final class Position {
 
 		// Update
 		board[position] = piece;
+		occupancy[color] |= Bitboard.valueOf(position);
 		materialValue[color] += Piece.getValueFromChessman(chessman);
+		if (chessman != PieceType.KING) {
+			this.materialKey += MaterialTable.valueOf(chessman, color);
+		}
+		updateSliderAttacks(position, -1);
+		updateAttacks(chessman, color, position, 1);
+		if (Network.loaded) {
+			Network.add(chessman, color, position);
+		}
 		if (update) {
 			this.zobristCode ^= zobristChessman[chessman][color][position];
-			positionValueOpening[color] += PieceSquareTable.getValue(GamePhase.OPENING, chessman, color, position);
-			positionValueEndgame[color] += PieceSquareTable.getValue(GamePhase.ENDGAME, chessman, color, position);
+			positionValue[color] += PieceSquareTable.getScore(chessman, color, position);
 		}
 	}
 
@@ -370,12 +884,20 @@ final class Position {
 		}
 
 		// Update
+		updateAttacks(chessman, color, position, -1);
 		board[position] = Piece.NOPIECE;
+		occupancy[color] &= ~Bitboard.valueOf(position);
+		updateSliderAttacks(position, 1);
+		if (Network.loaded) {
+			Network.remove(chessman, color, position);
+		}
 		materialValue[color] -= Piece.getValueFromChessman(chessman);
+		if (chessman != PieceType.KING) {
+			this.materialKey -= MaterialTable.valueOf(chessman, color);
+		}
 		if (update) {
 			this.zobristCode ^= zobristChessman[chessman][color][position];
-			positionValueOpening[color] -= PieceSquareTable.getValue(GamePhase.OPENING, chessman, color, position);
-			positionValueEndgame[color] -= PieceSquareTable.getValue(GamePhase.ENDGAME, chessman, color, position);
+			positionValue[color] -= PieceSquareTable.getScore(chessman, color, position);
 		}
 
 		return piece;
@@ -438,21 +960,183 @@ final class Position {
 		}
 
 		// Update
+		updateAttacks(chessman, color, start, -1);
 		board[start] = Piece.NOPIECE;
+		updateSliderAttacks(start, 1);
+		updateSliderAttacks(end, -1);
 		board[end] = piece;
+		occupancy[color] ^= Bitboard.valueOf(start) | Bitboard.valueOf(end);
+		updateAttacks(chessman, color, end, 1);
+		if (Network.loaded) {
+			Network.move(chessman, color, start, end);
+		}
 		if (update) {
 			long[] tempZobristChessman = zobristChessman[chessman][color];
 			this.zobristCode ^= tempZobristChessman[start];
 			this.zobristCode ^= tempZobristChessman[end];
-			positionValueOpening[color] -= PieceSquareTable.getValue(GamePhase.OPENING, chessman, color, start);
-			positionValueEndgame[color] -= PieceSquareTable.getValue(GamePhase.ENDGAME, chessman, color, start);
-			positionValueOpening[color] += PieceSquareTable.getValue(GamePhase.OPENING, chessman, color, end);
-			positionValueEndgame[color] += PieceSquareTable.getValue(GamePhase.ENDGAME, chessman, color, end);
+			positionValue[color] -= PieceSquareTable.getScore(chessman, color, start);
+			positionValue[color] += PieceSquareTable.getScore(chessman, color, end);
 		}
 
 		return piece;
 	}
 
+	/**
+	 * Adds or removes the attacks of the chessman to the attack map.
+	 *
+	 * @param chessman the chessman.
+	 * @param color    the color of the chessman.
+	 * @param position the position of the chessman.
+	 * @param sign     1 to add the attacks, -1 to remove them.
+	 */
+	private static void updateAttacks(int chessman, int color, int position, int sign) {
+		assert chessman != Piece.NOPIECE;
+		assert color != Color.NOCOLOR;
+		assert (position & 0x88) == 0;
+		assert sign == 1 || sign == -1;
+
+		int[] myAttackMap = attackMap[color];
+		int mask = Attack.valueOf(chessman) * 0xF;
+		long bits = 0;
+
+		switch (chessman) {
+			case PieceType.PAWN:
+				for (int i = 1; i < Square.pawnDirections.length; i++) {
+					int targetPosition = position;
+					if (color == Color.WHITE) {
+						targetPosition += Square.pawnDirections[i];
+					} else {
+						targetPosition -= Square.pawnDirections[i];
+					}
+					if ((targetPosition & 0x88) == 0) {
+						myAttackMap[targetPosition] += sign * Attack.ONE_PAWN;
+						attackSum[color][PieceType.PAWN] += sign;
+						if (sign > 0 || (myAttackMap[targetPosition] & mask) == 0) {
+							bits |= Bitboard.valueOf(targetPosition);
+						}
+					}
+				}
+				break;
+			case PieceType.KNIGHT:
+			case PieceType.KING:
+				int[] directions = chessman == PieceType.KNIGHT ? Square.knightDirections : Square.kingDirections;
+				for (int delta : directions) {
+					int targetPosition = position + delta;
+					if ((targetPosition & 0x88) == 0) {
+						myAttackMap[targetPosition] += sign * Attack.valueOf(chessman);
+						attackSum[color][chessman] += sign;
+						if (sign > 0 || (myAttackMap[targetPosition] & mask) == 0) {
+							bits |= Bitboard.valueOf(targetPosition);
+						}
+					}
+				}
+				break;
+			case PieceType.BISHOP:
+				for (int delta : Square.bishopDirections) {
+					bits |= updateRayAttacks(chessman, color, position + delta, delta, sign);
+				}
+				break;
+			case PieceType.ROOK:
+				for (int delta : Square.rookDirections) {
+					bits |= updateRayAttacks(chessman, color, position + delta, delta, sign);
+				}
+				break;
+			case PieceType.QUEEN:
+				for (int delta : Square.queenDirections) {
+					bits |= updateRayAttacks(chessman, color, position + delta, delta, sign);
+				}
+				break;
+			default:
+				assert false : chessman;
+				break;
+		}
+
+		updateAttackBoard(chessman, color, bits, sign);
+	}
+
+	/**
+	 * Sets or clears the changed positions in the attack bitboard.
+	 *
+	 * @param chessman the chessman.
+	 * @param color    the color of the chessman.
+	 * @param bits     the positions with a new attack or without any attack
+	 *                 left.
+	 * @param sign     1 to set the positions, -1 to clear them.
+	 */
+	private static void updateAttackBoard(int chessman, int color, long bits, int sign) {
+		if (sign > 0) {
+			attackBoard[color][chessman] |= bits;
+		} else {
+			attackBoard[color][chessman] &= ~bits;
+		}
+	}
+
+	/**
+	 * Adds or removes the attacks of a slider along the ray.
+	 *
+	 * @param chessman       the slider chessman.
+	 * @param color          the color of the slider.
+	 * @param targetPosition the first position of the ray.
+	 * @param delta          the direction of the ray.
+	 * @param sign           1 to add the attacks, -1 to remove them.
+	 * @return the positions with a new attack or without any attack left.
+	 */
+	private static long updateRayAttacks(int chessman, int color, int targetPosition, int delta, int sign) {
+		int[] myAttackMap = attackMap[color];
+		int value = sign * Attack.valueOf(chessman);
+		int mask = Attack.valueOf(chessman) * 0xF;
+		int ray = rayDirection[delta + Square.NE];
+		int count = 0;
+		long bits = 0;
+		while ((targetPosition & 0x88) == 0) {
+			assert ((sliderRays[targetPosition] & ray) == 0) == (sign > 0);
+
+			myAttackMap[targetPosition] += value;
+			if (sign > 0 || (myAttackMap[targetPosition] & mask) == 0) {
+				bits |= Bitboard.valueOf(targetPosition);
+			}
+			sliderRays[targetPosition] ^= ray;
+			count++;
+			if (board[targetPosition] != Piece.NOPIECE) {
+				break;
+			}
+			targetPosition += delta;
+		}
+		attackSum[color][chessman] += sign * count;
+
+		return bits;
+	}
+
+	/**
+	 * Updates the rays of all sliders attacking the position. If the position
+	 * gets occupied the rays get cut, if it gets empty the rays get extended.
+	 *
+	 * @param position the position.
+	 * @param sign     1 to extend the rays, -1 to cut them.
+	 */
+	private static void updateSliderAttacks(int position, int sign) {
+		assert (position & 0x88) == 0;
+		assert sign == 1 || sign == -1;
+
+		int rays = sliderRays[position];
+		while (rays != 0) {
+			int delta = Square.queenDirections[Integer.numberOfTrailingZeros(rays)];
+			rays &= rays - 1;
+
+			// Find the slider behind the position
+			int sliderPosition = position - delta;
+			while (board[sliderPosition] == Piece.NOPIECE) {
+				sliderPosition -= delta;
+				assert (sliderPosition & 0x88) == 0;
+			}
+
+			int slider = board[sliderPosition];
+			int chessman = Piece.getChessman(slider);
+			int color = Piece.getColor(slider);
+			updateAttackBoard(chessman, color, updateRayAttacks(chessman, color, position + delta, delta, sign), sign);
+		}
+	}
+
 	/**
 	 * Returns the GenericBoard.
 	 *
@@ -799,8 +1483,13 @@ final class Position {
 
 		assert kingList[color].size == 1;
 
+		int kingPosition = kingList[color].position[0];
 		int attackerColor = Color.switchColor(color);
-		getAttack(attack, kingList[color].position[0], attackerColor, false);
+		if (attackMap[attackerColor][kingPosition] == 0) {
+			attack.count = 0;
+		} else {
+			getAttack(attack, kingPosition, attackerColor);
+		}
 
 		return attack;
 	}
@@ -816,7 +1505,7 @@ final class Position {
 		assert (targetPosition & 0x88) == 0;
 		assert attackerColor != Color.NOCOLOR;
 
-		return getAttack(tempAttack, targetPosition, attackerColor, true);
+		return attackMap[attackerColor][targetPosition] != 0;
 	}
 
 	/**
@@ -825,10 +1514,8 @@ final class Position {
 	 * @param attack         the attack to fill the information.
 	 * @param targetPosition the target position.
 	 * @param attackerColor  the attacker color.
-	 * @param stop           whether we should only check.
-	 * @return true if the position can be attacked, false otherwise.
 	 */
-	private boolean getAttack(Attack attack, int targetPosition, int attackerColor, boolean stop) {
+	private void getAttack(Attack attack, int targetPosition, int attackerColor) {
 		assert attack != null;
 		assert targetPosition != Square.NOPOSITION;
 		assert attackerColor != Color.NOCOLOR;
@@ -848,9 +1535,6 @@ final class Position {
 		if ((pawnAttackerPosition & 0x88) == 0) {
 			int pawn = board[pawnAttackerPosition];
 			if (pawn != Piece.NOPIECE && pawn == pawnPiece) {
-				if (stop) {
-					return true;
-				}
 				assert Attack.deltas[targetPosition - pawnAttackerPosition + 127] == sign * -15;
 				attack.position[attack.count] = pawnAttackerPosition;
 				attack.delta[attack.count] = sign * -15;
@@ -861,9 +1545,6 @@ final class Position {
 		if ((pawnAttackerPosition & 0x88) == 0) {
 			int pawn = board[pawnAttackerPosition];
 			if (pawn != Piece.NOPIECE && pawn == pawnPiece) {
-				if (stop) {
-					return true;
-				}
 				assert Attack.deltas[targetPosition - pawnAttackerPosition + 127] == sign * -17;
 				attack.position[attack.count] = pawnAttackerPosition;
 				attack.delta[attack.count] = sign * -17;
@@ -878,9 +1559,6 @@ final class Position {
 			assert board[attackerPosition] != Piece.NOPIECE;
 			assert attackerColor == Piece.getColor(board[attackerPosition]);
 			if (canAttack(PieceType.KNIGHT, attackerColor, attackerPosition, targetPosition)) {
-				if (stop) {
-					return true;
-				}
 				int attackDelta = Attack.deltas[targetPosition - attackerPosition + 127];
 				assert attackDelta != 0;
 				attack.position[attack.count] = attackerPosition;
@@ -896,9 +1574,6 @@ final class Position {
 			assert board[attackerPosition] != Piece.NOPIECE;
 			assert attackerColor == Piece.getColor(board[attackerPosition]);
 			if (canAttack(PieceType.BISHOP, attackerColor, attackerPosition, targetPosition)) {
-				if (stop) {
-					return true;
-				}
 				int attackDelta = Attack.deltas[targetPosition - attackerPosition + 127];
 				assert attackDelta != 0;
 				attack.position[attack.count] = attackerPosition;
@@ -914,9 +1589,6 @@ final class Position {
 			assert board[attackerPosition] != Piece.NOPIECE;
 			assert attackerColor == Piece.getColor(board[attackerPosition]);
 			if (canAttack(PieceType.ROOK, attackerColor, attackerPosition, targetPosition)) {
-				if (stop) {
-					return true;
-				}
 				int attackDelta = Attack.deltas[targetPosition - attackerPosition + 127];
 				assert attackDelta != 0;
 				attack.position[attack.count] = attackerPosition;
@@ -932,9 +1604,6 @@ final class Position {
 			assert board[attackerPosition] != Piece.NOPIECE;
 			assert attackerColor == Piece.getColor(board[attackerPosition]);
 			if (canAttack(PieceType.QUEEN, attackerColor, attackerPosition, targetPosition)) {
-				if (stop) {
-					return true;
-				}
 				int attackDelta = Attack.deltas[targetPosition - attackerPosition + 127];
 				assert attackDelta != 0;
 				attack.position[attack.count] = attackerPosition;
@@ -949,9 +1618,6 @@ final class Position {
 		assert board[attackerPosition] != Piece.NOPIECE;
 		assert attackerColor == Piece.getColor(board[attackerPosition]);
 		if (canAttack(PieceType.KING, attackerColor, attackerPosition, targetPosition)) {
-			if (stop) {
-				return true;
-			}
 			int attackDelta = Attack.deltas[targetPosition - attackerPosition + 127];
 			assert attackDelta != 0;
 			attack.position[attack.count] = attackerPosition;
@@ -959,7 +1625,7 @@ final class Position {
 			attack.count++;
 		}
 
-		return false;
+		assert attack.count == Attack.getCount(attackMap[attackerColor][targetPosition]);
 	}
 
 	/**
@@ -1090,8 +1756,7 @@ final class Position {
 		currentStackEntry.enPassantHistory = this.enPassantSquare;
 		currentStackEntry.captureSquareHistory = this.captureSquare;
 		for (int color : Color.values) {
-			currentStackEntry.positionValueOpening[color] = positionValueOpening[color];
-			currentStackEntry.positionValueEndgame[color] = positionValueEndgame[color];
+			currentStackEntry.positionValue[color] = positionValue[color];
 		}
 
 		// Update stack size
@@ -1165,8 +1830,7 @@ final class Position {
 		this.enPassantSquare = currentStackEntry.enPassantHistory;
 		this.captureSquare = currentStackEntry.captureSquareHistory;
 		for (int color : Color.values) {
-			positionValueOpening[color] = currentStackEntry.positionValueOpening[color];
-			positionValueEndgame[color] = currentStackEntry.positionValueEndgame[color];
+			positionValue[color] = currentStackEntry.positionValue[color];
 		}
 
 		switch (type) {
@@ -1618,8 +2282,7 @@ final class Position {
 		currentStackEntry.enPassantHistory = this.enPassantSquare;
 		currentStackEntry.captureSquareHistory = this.captureSquare;
 		for (int color : Color.values) {
-			currentStackEntry.positionValueOpening[color] = positionValueOpening[color];
-			currentStackEntry.positionValueEndgame[color] = positionValueEndgame[color];
+			currentStackEntry.positionValue[color] = positionValue[color];
 		}
 
 		// Update stack size
@@ -1676,8 +2339,7 @@ final class Position {
 		this.enPassantSquare = currentStackEntry.enPassantHistory;
 		this.captureSquare = currentStackEntry.captureSquareHistory;
 		for (int color : Color.values) {
-			positionValueOpening[color] = currentStackEntry.positionValueOpening[color];
-			positionValueEndgame[color] = currentStackEntry.positionValueEndgame[color];
+			positionValue[color] = currentStackEntry.positionValue[color];
 		}
 	}
 
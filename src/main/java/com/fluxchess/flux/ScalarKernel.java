@@ -0,0 +1,57 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+/**
+ * The scalar network kernel. These loops run on every JVM and are the
+ * reference for the vector kernel.
+ */
+final class ScalarKernel {
+
+	private ScalarKernel() {
+	}
+
+	static void add(short[] hidden, short[] weights, int offset, int size) {
+		for (int i = 0; i < size; i++) {
+			hidden[i] += weights[offset + i];
+		}
+	}
+
+	static void subtract(short[] hidden, short[] weights, int offset, int size) {
+		for (int i = 0; i < size; i++) {
+			hidden[i] -= weights[offset + i];
+		}
+	}
+
+	static void move(short[] hidden, short[] weights, int startOffset, int endOffset, int size) {
+		for (int i = 0; i < size; i++) {
+			hidden[i] += weights[endOffset + i] - weights[startOffset + i];
+		}
+	}
+
+	static int dot(short[] hidden, short[] weights, int offset, int size, int max) {
+		int sum = 0;
+		for (int i = 0; i < size; i++) {
+			// Clipped ReLU, branch free so the loop can be vectorized
+			sum += Math.min(Math.max(hidden[i], 0), max) * weights[offset + i];
+		}
+
+		return sum;
+	}
+}
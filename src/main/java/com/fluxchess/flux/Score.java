@@ -0,0 +1,63 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+/**
+ * A score packs an opening and an endgame value into a single int. The
+ * endgame value lives in the upper 16 bits and the opening value in the lower
+ * 16 bits. Scores can be added, subtracted and multiplied by an int without
+ * unpacking them.
+ */
+final class Score {
+
+	static final int ZERO = 0;
+
+	private Score() {
+	}
+
+	static int valueOf(int opening, int endgame) {
+		assert opening >= Short.MIN_VALUE && opening <= Short.MAX_VALUE;
+		assert endgame >= Short.MIN_VALUE && endgame <= Short.MAX_VALUE;
+
+		return (endgame << 16) + opening;
+	}
+
+	static int getOpening(int score) {
+		return (short) score;
+	}
+
+	static int getEndgame(int score) {
+		// Correct the borrow from a negative opening value
+		return (short) ((score + 0x8000) >> 16);
+	}
+
+	/**
+	 * Returns the mix of the opening and endgame value.
+	 *
+	 * @param score    the score.
+	 * @param phase    the phase between 0 (endgame) and interval (opening).
+	 * @param interval the phase interval.
+	 * @return the tapered value.
+	 */
+	static int taper(int score, int phase, int interval) {
+		assert phase >= 0 && phase <= interval;
+
+		return (getOpening(score) * phase + getEndgame(score) * (interval - phase)) / interval;
+	}
+}
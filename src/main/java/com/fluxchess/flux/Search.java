@@ -33,6 +33,9 @@ final class Search implements Runnable {
 	 */
 	static final int MAX_MOVES = 4096;
 
+	// The number of searched quiet moves and captures we punish per node
+	private static final int SEARCHEDMOVES_SIZE = 64;
+
 	private static final int ASPIRATIONWINDOW = 20;
 	private static final int ASPIRATIONWINDOW_ADJUSTMENT = 200;
 
@@ -44,12 +47,26 @@ final class Search implements Runnable {
 
 	private static final int IID_DEPTH = 2;
 
+	private static final int SINGULAR_DEPTH = 6;
+	private static final int SINGULAR_TRANSPOSITIONDEPTH = 3;
+	// The margin per ply, about half a pawn at SINGULAR_DEPTH
+	private static final int SINGULAR_MARGIN = 8;
+
+	private static final int PROBCUT_DEPTH = 5;
+	private static final int PROBCUT_REDUCTION = 4;
+	private static final int PROBCUT_MARGIN = 2 * Piece.VALUE_PAWN;
+
 	private static final int LMR_DEPTH = 3;
 	private static final int LMR_MOVENUMBER_MINIMUM = 3;
+	private static final int LMR_SIZE = 64;
+	private static final double LMR_BASE = 0.5;
+	private static final double LMR_DIVISOR = 2.0;
+	private static final int[][] lateMoveReduction = new int[LMR_SIZE][LMR_SIZE];
 
 	private static final int FUTILITY_FRONTIERMARGIN = 2 * Piece.VALUE_PAWN;
 	private static final int FUTILITY_PREFRONTIERMARGIN = Piece.VALUE_ROOK;
 	private static final int FUTILITY_QUIESCENTMARGIN = Piece.VALUE_PAWN;
+	private static final int FUTILITY_IMPROVINGMARGIN = Piece.VALUE_PAWN / 2;
 
 	// Objects
 	private final IProtocol protocol;
@@ -79,17 +96,26 @@ final class Search implements Runnable {
 	private int showPvNumber = 1;
 
 	// Search logic
-	private Evaluation evaluation = new Evaluation();
+	private Evaluation evaluation;
 	private static Position board;
 	private final int myColor;
 
 	// Search tables
 	private TranspositionTable transpositionTable;
 	private static KillerTable killerTable;
-	private static HistoryTable historyTable;
+	private final HistoryTable historyTable;
+	private final CounterMoveTable counterMoveTable;
+	private final ContinuationTable continuationTable;
+	private final ContinuationTable secondContinuationTable;
+	private final CaptureHistoryTable captureHistoryTable;
 
 	// Search information
 	private static final MoveList[] pvList = new MoveList[Depth.MAX_PLY + 1];
+	private static final int[] staticEvaluation = new int[Depth.MAX_PLY + 1];
+	private static final int[] searchMove = new int[Depth.MAX_PLY + 1];
+	private static final int[] excludedMove = new int[Depth.MAX_PLY + 1];
+	private static final int[][] quietMoves = new int[Depth.MAX_PLY + 1][SEARCHEDMOVES_SIZE];
+	private static final int[][] captureMoves = new int[Depth.MAX_PLY + 1][SEARCHEDMOVES_SIZE];
 	private static final HashMap<Integer, PrincipalVariation> multiPvMap = new HashMap<>(MAX_MOVES);
 	private Result bestResult = null;
 	private final int[] timeTable;
@@ -99,6 +125,13 @@ final class Search implements Runnable {
 	private long totalTimeStart = 0;
 	private long currentTimeStart = 0;
 	private long totalNodes = 0;
+	private long totalEvaluations = 0;
+	private long quiescentEvaluations = 0;
+	private long lazyEvaluations = 0;
+	private long quiescentNodes = 0;
+	private long cutoffs = 0;
+	private long firstMoveCutoffs = 0;
+	private long probCutCutoffs = 0;
 	private GenericMove currentMove = null;
 	private int currentMoveNumber = 0;
 
@@ -130,12 +163,31 @@ final class Search implements Runnable {
 		for (int i = 0; i < pvList.length; i++) {
 			pvList[i] = new MoveList();
 		}
+		Arrays.fill(excludedMove, Move.NOMOVE);
+
+		// The reduction grows with the logarithm of the depth and the move number
+		for (int depth = 1; depth < LMR_SIZE; depth++) {
+			for (int moveNumber = 1; moveNumber < LMR_SIZE; moveNumber++) {
+				lateMoveReduction[depth][moveNumber] = (int) (LMR_BASE + Math.log(depth) * Math.log(moveNumber) / LMR_DIVISOR);
+			}
+		}
 	}
 
 	Search(IProtocol protocol, Position newBoard, TranspositionTable newTranspositionTable, int[] timeTable) {
+		this(protocol, newBoard, newTranspositionTable, timeTable, new Evaluation(), new HistoryTables());
+	}
+
+	/**
+	 * Creates a new search with an existing evaluation and history tables.
+	 * This saves us the allocation of the evaluation tables if we search many
+	 * times and keeps the history from one search to the next.
+	 */
+	Search(IProtocol protocol, Position newBoard, TranspositionTable newTranspositionTable, int[] timeTable, Evaluation newEvaluation, HistoryTables newHistoryTables) {
 		assert protocol != null;
 		assert newBoard != null;
 		assert newTranspositionTable != null;
+		assert newEvaluation != null;
+		assert newHistoryTables != null;
 
 		this.protocol = protocol;
 
@@ -149,12 +201,17 @@ final class Search implements Runnable {
 			this.transpositionTable.increaseAge();
 		}
 		killerTable = new KillerTable();
-		historyTable = new HistoryTable();
+		this.historyTable = newHistoryTables.historyTable;
+		this.counterMoveTable = newHistoryTables.counterMoveTable;
+		this.continuationTable = newHistoryTables.continuationTable;
+		this.secondContinuationTable = newHistoryTables.secondContinuationTable;
+		this.captureHistoryTable = newHistoryTables.captureHistoryTable;
 
-		new MoveGenerator(newBoard, killerTable, historyTable);
+		new MoveGenerator(newBoard, killerTable, this.historyTable, this.counterMoveTable, this.continuationTable, this.secondContinuationTable, this.captureHistoryTable);
 		new See(newBoard);
 
 		this.timeTable = timeTable;
+		this.evaluation = newEvaluation;
 
 		multiPvMap.clear();
 	}
@@ -176,6 +233,7 @@ final class Search implements Runnable {
 		// Go...
 		this.semaphore.release();
 
+		this.evaluation.pawnHashtable.resetStatistics();
 		totalTimeStart = System.currentTimeMillis();
 		currentTimeStart = totalTimeStart;
 		Result moveResult = getBestMove();
@@ -251,6 +309,29 @@ final class Search implements Runnable {
 		}
 	}
 
+	/**
+	 * Returns the best move of the finished search.
+	 *
+	 * @return the best move or Move.NOMOVE if there is no legal move.
+	 */
+	int getResultMove() {
+		assert this.bestResult != null;
+
+		return this.bestResult.bestMove;
+	}
+
+	/**
+	 * Returns the value of the best move of the finished search for the
+	 * active color.
+	 *
+	 * @return the value.
+	 */
+	int getResultValue() {
+		assert this.bestResult != null;
+
+		return this.bestResult.resultValue;
+	}
+
 	boolean isStopped() {
 		return !this.thread.isAlive();
 	}
@@ -461,9 +542,11 @@ final class Search implements Runnable {
 		}
 
 		//## BEGIN Iterative Deepening
+		long lastIterationNodes = 0;
 		for (currentDepth = initialDepth; currentDepth <= this.searchDepth; currentDepth++) {
 			currentMaxDepth = 0;
 			sendInformationDepth();
+			long iterationStartNodes = this.totalNodes;
 
 			// Create a new result
 			Result moveResult = new Result();
@@ -539,6 +622,12 @@ final class Search implements Runnable {
 			moveResult.time = endTime - startTime;
 			moveResult.depth = currentDepth;
 
+			long iterationNodes = this.totalNodes - iterationStartNodes;
+			if (Configuration.debug && lastIterationNodes > 0 && !(this.stopped && this.canStop)) {
+				sendInformationBranchingFactor(iterationNodes, lastIterationNodes);
+			}
+			lastIterationNodes = iterationNodes;
+
 			// Set the used time
 			if (currentDepth > initialDepth) {
 				if (timeTable[currentDepth] == 0) {
@@ -686,7 +775,7 @@ final class Search implements Runnable {
 
 		// Abort conditions
 		if ((this.stopped && this.canStop) || height == Depth.MAX_PLY) {
-			return this.evaluation.evaluate(board);
+			return evaluate();
 		}
 
 		// Initialize
@@ -701,6 +790,9 @@ final class Search implements Runnable {
 		// Initialize the move number
 		int currentMoveNumber = 0;
 
+		// Initialize the search stack
+		staticEvaluation[height] = isCheck ? Value.INFINITY : evaluate();
+
 		// Initialize Single-Response Extension
 		boolean isSingleReply;
 		isSingleReply = isCheck && rootMoveList.getLength() == 1;
@@ -716,6 +808,7 @@ final class Search implements Runnable {
 			int newDepth = getNewDepth(depth, move, isSingleReply, false);
 
 			// Do move
+			searchMove[height] = move;
 			board.makeMove(move);
 
 			//## BEGIN Principal Variation Search
@@ -836,7 +929,7 @@ final class Search implements Runnable {
 		}
 
 		if (!(this.stopped && this.canStop)) {
-			this.transpositionTable.put(board.zobristCode, depth, bestValue, hashType, bestMove, false, height);
+			this.transpositionTable.put(board.zobristCode, depth, bestValue, hashType, bestMove, false, staticEvaluation[height], height);
 		}
 
 		if (depth == 1 && this.showPvNumber <= 1 && bestPv != null) {
@@ -897,7 +990,7 @@ final class Search implements Runnable {
 
 		// Abort conditions
 		if ((this.stopped && this.canStop) || height == Depth.MAX_PLY) {
-			return this.evaluation.evaluate(board);
+			return evaluate();
 		}
 
 		// Check the repetition table and fifty move rule
@@ -925,15 +1018,26 @@ final class Search implements Runnable {
 		//## ENDOF Mate Distance Pruning
 
 		// Check the transposition table first
+		// Notes: The entry belongs to the search including the excluded move.
+		// So we must not take a cut-off from it in an excluded search.
+		boolean isExcluded = excludedMove[height] != Move.NOMOVE;
 		int transpositionMove = Move.NOMOVE;
+		int transpositionEvaluation = Value.INFINITY;
+		int transpositionValue = Value.INFINITY;
+		int transpositionType = Bound.NOBOUND;
+		int transpositionDepth = -1;
 		boolean mateThreat = false;
 		if (Configuration.useTranspositionTable) {
 			TranspositionTable.TranspositionTableEntry entry = this.transpositionTable.get(board.zobristCode);
 			if (entry != null) {
 				transpositionMove = entry.move;
+				transpositionEvaluation = entry.evaluation;
+				transpositionValue = entry.getValue(height);
+				transpositionType = entry.type;
+				transpositionDepth = entry.depth;
 				mateThreat = entry.mateThreat;
 
-				if (!pvNode && entry.depth >= depth) {
+				if (!pvNode && !isExcluded && entry.depth >= depth) {
 					int value = entry.getValue(height);
 					int type = entry.type;
 
@@ -964,21 +1068,37 @@ final class Search implements Runnable {
 		Attack attack = board.getAttack(board.activeColor);
 		boolean isCheck = attack.isCheck();
 
+		//## BEGIN Static Evaluation
+		// Notes: We keep the static evaluation on the search stack. A
+		// transposition table hit saves us the evaluation.
+		int evalValue = Value.INFINITY;
+		if (!isCheck) {
+			if (transpositionEvaluation != Value.INFINITY) {
+				evalValue = transpositionEvaluation;
+			} else {
+				evalValue = evaluate();
+			}
+		}
+		staticEvaluation[height] = evalValue;
+		boolean improving = isImproving(height);
+		//## ENDOF Static Evaluation
+
 		//## BEGIN Null-Move Pruning
 		// Notes: Ideas from http://www.cs.biu.ac.il/~davoudo/pubs/vrfd_null.html
-		int evalValue = Value.INFINITY;
 		if (Configuration.useNullMovePruning) {
 			if (!pvNode
+					&& !isExcluded
 					&& depth >= NULLMOVE_DEPTH
 					&& doNull
 					&& !isCheck
 					&& !mateThreat
 					&& board.getGamePhase() != GamePhase.ENDGAME
-					&& (evalValue = this.evaluation.evaluate(board)) >= beta) {
+					&& evalValue >= beta) {
 				// Depth reduction
 				int newDepth = depth - 1 - NULLMOVE_REDUCTION;
 
 				// Make the null move
+				searchMove[height] = Move.NOMOVE;
 				board.makeMoveNull();
 				int value = -alphaBeta(newDepth, -beta, -beta + 1, height + 1, false, false);
 				board.undoMoveNull();
@@ -1014,7 +1134,7 @@ final class Search implements Runnable {
 
 					if (!(this.stopped && this.canStop)) {
 						// Store the value into the transposition table
-						this.transpositionTable.put(board.zobristCode, depth, value, Bound.LOWER, Move.NOMOVE, mateThreat, height);
+						this.transpositionTable.put(board.zobristCode, depth, value, Bound.LOWER, Move.NOMOVE, mateThreat, evalValue, height);
 					}
 
 					return value;
@@ -1023,11 +1143,61 @@ final class Search implements Runnable {
 		}
 		//## ENDOF Null-Move Forward Pruning
 
+		//## BEGIN ProbCut
+		// Notes: Ideas from Stockfish. If a good capture beats a raised beta
+		// at reduced depth, the full depth search will very likely beat beta.
+		// A quiescent search filters the captures before the reduced search.
+		if (Configuration.useProbCut) {
+			int probCutBeta = beta + PROBCUT_MARGIN;
+			if (!pvNode
+					&& !isExcluded
+					&& depth >= PROBCUT_DEPTH
+					&& !isCheck
+					&& Math.abs(beta) < Value.CHECKMATE_THRESHOLD
+					&& !(transpositionDepth >= depth - PROBCUT_REDUCTION && transpositionValue < probCutBeta)) {
+				assert evalValue != Value.INFINITY;
+
+				// Only captures which win at least the missing material
+				MoveGenerator.initializeProbCut(attack, Math.max(1, probCutBeta - evalValue));
+
+				int move;
+				while ((move = MoveGenerator.getNextMove()) != Move.NOMOVE) {
+					searchMove[height] = move;
+					board.makeMove(move);
+					int value = -quiescent(0, -probCutBeta, -probCutBeta + 1, height + 1, false, true);
+					if (value >= probCutBeta) {
+						value = -alphaBeta(depth - PROBCUT_REDUCTION, -probCutBeta, -probCutBeta + 1, height + 1, false, true);
+					}
+					board.undoMove(move);
+
+					if (this.stopped && this.canStop) {
+						break;
+					}
+
+					if (value >= probCutBeta) {
+						// Cut-off
+						MoveGenerator.destroy();
+						this.probCutCutoffs++;
+
+						// Store the value into the transposition table
+						this.transpositionTable.put(board.zobristCode, depth - PROBCUT_REDUCTION + 1, value, Bound.LOWER, move, mateThreat, evalValue, height);
+
+						return value;
+					}
+				}
+
+				MoveGenerator.destroy();
+			}
+		}
+		//## ENDOF ProbCut
+
 		// Initialize
 		int hashType = Bound.UPPER;
 		int bestValue = -Value.INFINITY;
 		int bestMove = Move.NOMOVE;
 		int searchedMoves = 0;
+		int quietCount = 0;
+		int captureCount = 0;
 
 		//## BEGIN Internal Iterative Deepening
 		if (Configuration.useInternalIterativeDeepening) {
@@ -1104,8 +1274,41 @@ final class Search implements Runnable {
 		}
 		//## ENDOF Internal Iterative Deepening
 
+		//## BEGIN Singular Extension
+		// Notes: If all other moves fail low against a lowered bound, the
+		// transposition move is singular and we extend it. If even the lowered
+		// bound fails high, several moves beat beta and we take a multi-cut.
+		boolean isSingular = false;
+		if (Configuration.useSingularExtension) {
+			if (!isExcluded
+					&& depth >= SINGULAR_DEPTH
+					&& height < 2 * this.currentDepth
+					&& transpositionMove != Move.NOMOVE
+					&& (transpositionType == Bound.LOWER || transpositionType == Bound.EXACT)
+					&& transpositionDepth >= depth - SINGULAR_TRANSPOSITIONDEPTH
+					&& Math.abs(transpositionValue) < Value.CHECKMATE_THRESHOLD) {
+				int singularBeta = transpositionValue - SINGULAR_MARGIN * depth;
+
+				excludedMove[height] = transpositionMove;
+				int value = alphaBeta((depth - 1) / 2, singularBeta - 1, singularBeta, height, false, false);
+				excludedMove[height] = Move.NOMOVE;
+
+				if (this.stopped && this.canStop) {
+					return alpha;
+				}
+
+				if (value < singularBeta) {
+					isSingular = true;
+				} else if (!pvNode && singularBeta >= beta) {
+					// Multi-cut
+					return singularBeta;
+				}
+			}
+		}
+		//## ENDOF Singular Extension
+
 		// Initialize the move generator
-		MoveGenerator.initializeMain(attack, height, transpositionMove);
+		MoveGenerator.initializeMain(attack, height, transpositionMove, getPreviousMove(height, 1), getPreviousMove(height, 2));
 
 		// Initialize Single-Response Extension
 		boolean isSingleReply;
@@ -1113,6 +1316,10 @@ final class Search implements Runnable {
 
 		int move;
 		while ((move = MoveGenerator.getNextMove()) != Move.NOMOVE) {
+			if (move == excludedMove[height]) {
+				continue;
+			}
+
 			//## BEGIN Minor Promotion Pruning
 			if (Configuration.useMinorPromotionPruning
 					&& !this.analyzeMode
@@ -1125,6 +1332,9 @@ final class Search implements Runnable {
 
 			// Extension
 			int newDepth = getNewDepth(depth, move, isSingleReply, mateThreat);
+			if (isSingular && move == transpositionMove && newDepth < depth) {
+				newDepth++;
+			}
 
 			//## BEGIN Extended Futility Pruning
 			// Notes: Ideas from http://supertech.lcs.mit.edu/~heinz/dt/node18.html
@@ -1138,11 +1348,11 @@ final class Search implements Runnable {
 					assert !board.isCheckingMove(move);
 					assert Move.getType(move) != MoveType.PAWNPROMOTION : board.getBoard() + ", " + Move.toString(move);
 
-					if (evalValue == Value.INFINITY) {
-						// Store evaluation
-						evalValue = this.evaluation.evaluate(board);
-					}
+					assert evalValue != Value.INFINITY;
 					int value = evalValue + FUTILITY_PREFRONTIERMARGIN;
+					if (!improving) {
+						value -= FUTILITY_IMPROVINGMARGIN;
+					}
 
 					// Add the target value to the eval
 					int target = Move.getTarget(move);
@@ -1173,11 +1383,11 @@ final class Search implements Runnable {
 					assert !board.isCheckingMove(move);
 					assert Move.getType(move) != MoveType.PAWNPROMOTION : board.getBoard() + ", " + Move.toString(move);
 
-					if (evalValue == Value.INFINITY) {
-						// Store evaluation
-						evalValue = this.evaluation.evaluate(board);
-					}
+					assert evalValue != Value.INFINITY;
 					int value = evalValue + FUTILITY_FRONTIERMARGIN;
+					if (!improving) {
+						value -= FUTILITY_IMPROVINGMARGIN;
+					}
 
 					// Add the target value to the eval
 					int target = Move.getTarget(move);
@@ -1198,10 +1408,9 @@ final class Search implements Runnable {
 
 			//## BEGIN Late Move Reduction
 			// Notes: Ideas from: http://www.glaurungchess.com/lmr.html
-			boolean reduced = false;
+			int reduction = 0;
 			if (Configuration.useLateMoveReduction) {
-				if (!pvNode
-						&& searchedMoves >= LMR_MOVENUMBER_MINIMUM
+				if (searchedMoves >= LMR_MOVENUMBER_MINIMUM
 						&& depth >= LMR_DEPTH
 						&& newDepth < depth
 						&& !isCheck
@@ -1211,13 +1420,16 @@ final class Search implements Runnable {
 					assert !board.isCheckingMove(move);
 					assert Move.getType(move) != MoveType.PAWNPROMOTION : board.getBoard() + ", " + Move.toString(move);
 
-					newDepth--;
-					reduced = true;
+					// Never extend and keep at least one ply
+					reduction = Math.max(0, Math.min(getReduction(depth, searchedMoves + 1, move, height, pvNode, improving), newDepth - 1));
+					newDepth -= reduction;
 				}
 			}
+			boolean reduced = reduction > 0;
 			//## ENDOF Late Move Reduction
 
 			// Do move
+			searchMove[height] = move;
 			board.makeMove(move);
 
 			//## BEGIN Principal Variation Search
@@ -1231,23 +1443,26 @@ final class Search implements Runnable {
 				} else {
 					value = -alphaBeta(newDepth, -alpha - 1, -alpha, height + 1, false, true);
 				}
-				if (value > alpha && value < beta) {
-					// Research again
-					value = -alphaBeta(newDepth, -beta, -alpha, height + 1, true, true);
-				}
 			}
 			//## ENDOF Principal Variation Search
 
 			//## BEGIN Late Move Reduction Research
 			if (Configuration.useLateMoveReductionResearch) {
-				if (reduced && value >= beta) {
-					// Research with original depth
-					newDepth++;
-					value = -alphaBeta(newDepth, -beta, -alpha, height + 1, pvNode, true);
+				if (reduced && value > alpha) {
+					// Research with original depth and a null window
+					newDepth += reduction;
+					value = -alphaBeta(newDepth, -alpha - 1, -alpha, height + 1, false, true);
 				}
 			}
 			//## ENDOF Late Move Reduction Research
 
+			//## BEGIN Principal Variation Search Research
+			if (pvNode && bestValue != -Value.INFINITY && value > alpha && value < beta) {
+				// Research again with the full window
+				value = -alphaBeta(newDepth, -beta, -alpha, height + 1, true, true);
+			}
+			//## ENDOF Principal Variation Search Research
+
 			// Undo move
 			board.undoMove(move);
 
@@ -1257,6 +1472,15 @@ final class Search implements Runnable {
 
 			// Update
 			searchedMoves++;
+			if (Move.getTarget(move) != Piece.NOPIECE) {
+				if (captureCount < SEARCHEDMOVES_SIZE) {
+					captureMoves[height][captureCount++] = move;
+				}
+			} else if (Move.getType(move) != MoveType.PAWNPROMOTION) {
+				if (quietCount < SEARCHEDMOVES_SIZE) {
+					quietMoves[height][quietCount++] = move;
+				}
+			}
 
 			// Pruning
 			if (value > bestValue) {
@@ -1272,6 +1496,10 @@ final class Search implements Runnable {
 					// Is the value higher than beta?
 					if (value >= beta) {
 						// Cut-off
+						this.cutoffs++;
+						if (searchedMoves == 1) {
+							this.firstMoveCutoffs++;
+						}
 
 						hashType = Bound.LOWER;
 						break;
@@ -1282,6 +1510,12 @@ final class Search implements Runnable {
 
 		MoveGenerator.destroy();
 
+		if (isExcluded) {
+			// We did not search all moves. So we neither know whether we are
+			// mated nor may we store the value.
+			return bestValue == -Value.INFINITY ? alpha : bestValue;
+		}
+
 		// If we cannot move, check for checkmate and stalemate.
 		if (bestValue == -Value.INFINITY) {
 			if (isCheck) {
@@ -1297,20 +1531,42 @@ final class Search implements Runnable {
 
 		if (!(this.stopped && this.canStop)) {
 			if (bestMove != Move.NOMOVE) {
-				addGoodMove(bestMove, depth, height);
+				addGoodMove(bestMove, depth, height, quietCount, captureCount);
 			}
-			this.transpositionTable.put(board.zobristCode, depth, bestValue, hashType, bestMove, mateThreat, height);
+			this.transpositionTable.put(board.zobristCode, depth, bestValue, hashType, bestMove, mateThreat, evalValue, height);
 		}
 
 		return bestValue;
 	}
 
+	/**
+	 * Returns the quiescent search value of the board for the active color.
+	 * The search runs in the calling thread without time control.
+	 *
+	 * @param newBoard the board.
+	 * @return the quiescent search value.
+	 */
+	int quiescent(Position newBoard) {
+		assert newBoard != null;
+
+		board = newBoard;
+		new MoveGenerator(newBoard, killerTable, this.historyTable, this.counterMoveTable, this.continuationTable, this.secondContinuationTable, this.captureHistoryTable);
+		new See(newBoard);
+
+		this.totalNodes = 0;
+		this.totalTimeStart = System.currentTimeMillis();
+		this.currentTimeStart = this.totalTimeStart;
+
+		return quiescent(0, -Value.INFINITY, Value.INFINITY, 0, true, false);
+	}
+
 	private int quiescent(int checkingDepth, int alpha, int beta, int height, boolean pvNode, boolean useTranspositionTable) {
 		updateSearch(height);
+		this.quiescentNodes++;
 
 		// Abort conditions
 		if ((this.stopped && this.canStop) || height == Depth.MAX_PLY) {
-			return this.evaluation.evaluate(board);
+			return evaluate();
 		}
 
 		// Check the repetition table and fifty move rule
@@ -1338,10 +1594,12 @@ final class Search implements Runnable {
 		//## ENDOF Mate Distance Pruning
 
 		// Check the transposition table first
+		int transpositionEvaluation = Value.INFINITY;
 		if (Configuration.useTranspositionTable && useTranspositionTable) {
 			TranspositionTable.TranspositionTableEntry entry = this.transpositionTable.get(board.zobristCode);
 			if (entry != null) {
 				assert entry.depth >= checkingDepth;
+				transpositionEvaluation = entry.evaluation;
 				int value = entry.getValue(height);
 				int type = entry.type;
 
@@ -1375,10 +1633,18 @@ final class Search implements Runnable {
 		int hashType = Bound.UPPER;
 		int bestValue = -Value.INFINITY;
 		int evalValue = Value.INFINITY;
+		boolean lazy = false;
 
 		if (!isCheck) {
 			// Stand pat
-			int value = this.evaluation.evaluate(board);
+			int value;
+			if (transpositionEvaluation != Value.INFINITY) {
+				value = transpositionEvaluation;
+			} else {
+				// Delta pruning needs the exact value below alpha
+				value = evaluate(-Value.INFINITY, beta);
+				lazy = this.evaluation.lazy;
+			}
 
 			// Store evaluation
 			evalValue = value;
@@ -1399,7 +1665,7 @@ final class Search implements Runnable {
 
 					if (useTranspositionTable) {
 						assert checkingDepth == 0;
-						this.transpositionTable.put(board.zobristCode, 0, bestValue, hashType, Move.NOMOVE, false, height);
+						this.transpositionTable.put(board.zobristCode, 0, bestValue, hashType, Move.NOMOVE, false, lazy ? Value.INFINITY : evalValue, height);
 					}
 
 					return bestValue;
@@ -1485,7 +1751,7 @@ final class Search implements Runnable {
 
 		if (useTranspositionTable) {
 			if (!(this.stopped && this.canStop)) {
-				this.transpositionTable.put(board.zobristCode, 0, bestValue, hashType, Move.NOMOVE, false, height);
+				this.transpositionTable.put(board.zobristCode, 0, bestValue, hashType, Move.NOMOVE, false, lazy ? Value.INFINITY : evalValue, height);
 			}
 		}
 
@@ -1549,6 +1815,87 @@ final class Search implements Runnable {
 		return newDepth;
 	}
 
+	/**
+	 * Returns the late move reduction of a quiet move. We reduce less in PV
+	 * nodes, if the position improves and if the move has a good history.
+	 *
+	 * @param depth      the depth.
+	 * @param moveNumber the move number starting with 1.
+	 * @param move       the move.
+	 * @param height     the height.
+	 * @param pvNode     whether this is a PV node.
+	 * @param improving  whether the static evaluation improves.
+	 * @return the reduction, which may be zero or negative.
+	 */
+	private int getReduction(int depth, int moveNumber, int move, int height, boolean pvNode, boolean improving) {
+		int reduction = lateMoveReduction[Math.min(depth, LMR_SIZE - 1)][Math.min(moveNumber, LMR_SIZE - 1)];
+
+		if (pvNode) {
+			reduction--;
+		}
+		if (!improving) {
+			reduction++;
+		}
+
+		int history = this.historyTable.get(move)
+				+ this.continuationTable.get(getPreviousMove(height, 1), move)
+				+ this.secondContinuationTable.get(getPreviousMove(height, 2), move);
+		reduction -= history / HistoryTable.MAX_HISTORYVALUE;
+
+		return reduction;
+	}
+
+	/**
+	 * Returns whether the static evaluation has improved since our last move.
+	 *
+	 * @param height the current height.
+	 * @return true if the static evaluation has improved.
+	 */
+	private static boolean isImproving(int height) {
+		int evalValue = staticEvaluation[height];
+		if (evalValue == Value.INFINITY) {
+			// We are in check
+			return false;
+		}
+
+		if (height < 2 || staticEvaluation[height - 2] == Value.INFINITY) {
+			return true;
+		}
+
+		return evalValue >= staticEvaluation[height - 2];
+	}
+
+	/**
+	 * Returns the static evaluation of the current board.
+	 *
+	 * @return the static evaluation.
+	 */
+	private int evaluate() {
+		totalEvaluations++;
+
+		return this.evaluation.evaluate(board);
+	}
+
+	/**
+	 * Returns the static evaluation of the current board or a bound outside
+	 * the window.
+	 *
+	 * @param alpha the alpha value.
+	 * @param beta  the beta value.
+	 * @return the static evaluation or a bound.
+	 */
+	private int evaluate(int alpha, int beta) {
+		totalEvaluations++;
+		quiescentEvaluations++;
+
+		int value = this.evaluation.evaluate(board, alpha, beta);
+		if (this.evaluation.lazy) {
+			lazyEvaluations++;
+		}
+
+		return value;
+	}
+
 	private static boolean isDangerousMove(int move) {
 		int chessman = Move.getChessman(move);
 		int relativeRank = Square.getRelativeRank(Move.getEnd(move), board.activeColor);
@@ -1578,22 +1925,62 @@ final class Search implements Runnable {
 		}
 	}
 
-	private static void addGoodMove(int move, int depth, int height) {
+	/**
+	 * Returns a move of the search stack before the height.
+	 *
+	 * @param height the height.
+	 * @param plies  the number of plies back.
+	 * @return the move or Move.NOMOVE for a null move or a move before the root.
+	 */
+	private static int getPreviousMove(int height, int plies) {
+		return height >= plies ? searchMove[height - plies] : Move.NOMOVE;
+	}
+
+	/**
+	 * Rewards the good move and punishes the other searched moves of the
+	 * node. A good quiet move punishes the searched quiet moves and every
+	 * good move punishes the searched captures.
+	 *
+	 * @param move         the good move.
+	 * @param depth        the depth.
+	 * @param height       the height.
+	 * @param quietCount   the number of searched quiet moves.
+	 * @param captureCount the number of searched captures.
+	 */
+	private void addGoodMove(int move, int depth, int height, int quietCount, int captureCount) {
 		assert move != Move.NOMOVE;
 
+		int bonus = HistoryTable.getBonus(depth);
+
 		if (Move.getTarget(move) != Piece.NOPIECE) {
-			return;
+			this.captureHistoryTable.add(move, bonus);
+		} else if (Move.getType(move) != MoveType.PAWNPROMOTION) {
+			assert Move.getType(move) != MoveType.ENPASSANT;
+
+			killerTable.add(move, height);
+
+			int previousMove = getPreviousMove(height, 1);
+			int secondPreviousMove = getPreviousMove(height, 2);
+			this.counterMoveTable.add(previousMove, move);
+			this.historyTable.add(move, bonus);
+			this.continuationTable.add(previousMove, move, bonus);
+			this.secondContinuationTable.add(secondPreviousMove, move, bonus);
+
+			for (int i = 0; i < quietCount; i++) {
+				int quietMove = quietMoves[height][i];
+				if (quietMove != move) {
+					this.historyTable.add(quietMove, -bonus);
+					this.continuationTable.add(previousMove, quietMove, -bonus);
+					this.secondContinuationTable.add(secondPreviousMove, quietMove, -bonus);
+				}
+			}
 		}
 
-		int type = Move.getType(move);
-		if (type == MoveType.PAWNPROMOTION) {
-			return;
+		for (int i = 0; i < captureCount; i++) {
+			if (captureMoves[height][i] != move) {
+				this.captureHistoryTable.add(captureMoves[height][i], -bonus);
+			}
 		}
-
-		assert type != MoveType.ENPASSANT;
-
-		killerTable.add(move, height);
-		historyTable.add(move, depth);
 	}
 
 	private void sendInformation(PrincipalVariation pv, int pvNumber) {
@@ -1692,6 +2079,21 @@ final class Search implements Runnable {
 		}
 	}
 
+	/**
+	 * Sends the effective branching factor of the iteration.
+	 *
+	 * @param iterationNodes     the nodes of the current iteration.
+	 * @param lastIterationNodes the nodes of the last iteration.
+	 */
+	private void sendInformationBranchingFactor(long iterationNodes, long lastIterationNodes) {
+		ProtocolInformationCommand command = new ProtocolInformationCommand();
+
+		command.setString(String.format("depth %d, nodes %d, effective branching factor %.2f",
+				this.currentDepth, iterationNodes, (double) iterationNodes / lastIterationNodes));
+
+		this.protocol.send(command);
+	}
+
 	/**
 	 * Sends the current status.
 	 */
@@ -1706,6 +2108,57 @@ final class Search implements Runnable {
 
 		this.protocol.send(command);
 
+		if (Configuration.debug && this.totalNodes > 0) {
+			command = new ProtocolInformationCommand();
+
+			command.setString(String.format("evaluations %d, evaluations per node %.3f",
+					this.totalEvaluations, (double) this.totalEvaluations / this.totalNodes));
+
+			this.protocol.send(command);
+
+			if (this.quiescentEvaluations > 0) {
+				command = new ProtocolInformationCommand();
+
+				command.setString(String.format("lazy evaluations %d, %.1f%% of quiescent evaluations",
+						this.lazyEvaluations, 100.0 * this.lazyEvaluations / this.quiescentEvaluations));
+
+				this.protocol.send(command);
+			}
+
+			command = new ProtocolInformationCommand();
+
+			command.setString(String.format("quiescent nodes %d, %.1f%% of nodes",
+					this.quiescentNodes, 100.0 * this.quiescentNodes / this.totalNodes));
+
+			this.protocol.send(command);
+
+			if (this.cutoffs > 0) {
+				command = new ProtocolInformationCommand();
+
+				command.setString(String.format("cutoffs %d, %.1f%% on the first move",
+						this.cutoffs, 100.0 * this.firstMoveCutoffs / this.cutoffs));
+
+				this.protocol.send(command);
+			}
+
+			if (this.probCutCutoffs > 0) {
+				command = new ProtocolInformationCommand();
+
+				command.setString(String.format("probcut cutoffs %d", this.probCutCutoffs));
+
+				this.protocol.send(command);
+			}
+
+			if (this.evaluation.pawnHashtable.probes > 0) {
+				command = new ProtocolInformationCommand();
+
+				command.setString(String.format("pawn table hits %d, %.1f%% of probes",
+						this.evaluation.pawnHashtable.hits, this.evaluation.pawnHashtable.getHitRate()));
+
+				this.protocol.send(command);
+			}
+		}
+
 		this.currentTimeStart = System.currentTimeMillis();
 	}
 
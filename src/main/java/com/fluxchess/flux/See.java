@@ -157,6 +157,12 @@ final class See {
 	}
 
 	private static void addAllAttackers(List list, int targetPosition, int myColor) {
+		// Get the attackers from the attack map
+		int attackers = Position.attackMap[myColor][targetPosition];
+		if (attackers == 0) {
+			return;
+		}
+
 		// Pawn attacks
 		int sign = 1;
 		int pawn = Piece.WHITE_PAWN;
@@ -166,68 +172,78 @@ final class See {
 		} else {
 			assert myColor == Color.WHITE;
 		}
-		int pawnPosition = targetPosition - sign * 15;
-		if ((pawnPosition & 0x88) == 0 && Position.board[pawnPosition] == pawn) {
-			list.chessman[list.size] = pawn;
-			list.position[list.size] = pawnPosition;
-			list.size++;
-		}
-		pawnPosition = targetPosition - sign * 17;
-		if ((pawnPosition & 0x88) == 0 && Position.board[pawnPosition] == pawn) {
-			list.chessman[list.size] = pawn;
-			list.position[list.size] = pawnPosition;
-			list.size++;
+		if ((attackers & Attack.MASK_PAWN) != 0) {
+			int pawnPosition = targetPosition - sign * 15;
+			if ((pawnPosition & 0x88) == 0 && Position.board[pawnPosition] == pawn) {
+				list.chessman[list.size] = pawn;
+				list.position[list.size] = pawnPosition;
+				list.size++;
+			}
+			pawnPosition = targetPosition - sign * 17;
+			if ((pawnPosition & 0x88) == 0 && Position.board[pawnPosition] == pawn) {
+				list.chessman[list.size] = pawn;
+				list.position[list.size] = pawnPosition;
+				list.size++;
+			}
 		}
 
 		// Knight attacks
 		PositionList tempPositionList = Position.knightList[myColor];
-		for (int i = 0; i < tempPositionList.size; i++) {
-			int position = tempPositionList.position[i];
-			if (board.canAttack(PieceType.KNIGHT, myColor, position, targetPosition)) {
-				list.chessman[list.size] = Position.board[position];
-				list.position[list.size] = position;
-				list.size++;
+		if ((attackers & Attack.MASK_KNIGHT) != 0) {
+			for (int i = 0; i < tempPositionList.size; i++) {
+				int position = tempPositionList.position[i];
+				if (board.canAttack(PieceType.KNIGHT, myColor, position, targetPosition)) {
+					list.chessman[list.size] = Position.board[position];
+					list.position[list.size] = position;
+					list.size++;
+				}
 			}
 		}
 
 		// Bishop attacks
 		tempPositionList = Position.bishopList[myColor];
-		for (int i = 0; i < tempPositionList.size; i++) {
-			int position = tempPositionList.position[i];
-			if (board.canAttack(PieceType.BISHOP, myColor, position, targetPosition)) {
-				int bishop = Position.board[position];
-				if (hasHiddenAttacker(position, targetPosition)) {
-					addAttacker(list, bishop, position, true);
-				} else {
-					addAttacker(list, bishop, position, false);
+		if ((attackers & Attack.MASK_BISHOP) != 0) {
+			for (int i = 0; i < tempPositionList.size; i++) {
+				int position = tempPositionList.position[i];
+				if (board.canAttack(PieceType.BISHOP, myColor, position, targetPosition)) {
+					int bishop = Position.board[position];
+					if (hasHiddenAttacker(position, targetPosition)) {
+						addAttacker(list, bishop, position, true);
+					} else {
+						addAttacker(list, bishop, position, false);
+					}
 				}
 			}
 		}
 
 		// Rook attacks
 		tempPositionList = Position.rookList[myColor];
-		for (int i = 0; i < tempPositionList.size; i++) {
-			int position = tempPositionList.position[i];
-			if (board.canAttack(PieceType.ROOK, myColor, position, targetPosition)) {
-				int rook = Position.board[position];
-				if (hasHiddenAttacker(position, targetPosition)) {
-					addAttacker(list, rook, position, true);
-				} else {
-					addAttacker(list, rook, position, false);
+		if ((attackers & Attack.MASK_ROOK) != 0) {
+			for (int i = 0; i < tempPositionList.size; i++) {
+				int position = tempPositionList.position[i];
+				if (board.canAttack(PieceType.ROOK, myColor, position, targetPosition)) {
+					int rook = Position.board[position];
+					if (hasHiddenAttacker(position, targetPosition)) {
+						addAttacker(list, rook, position, true);
+					} else {
+						addAttacker(list, rook, position, false);
+					}
 				}
 			}
 		}
 
 		// Queen attacks
 		tempPositionList = Position.queenList[myColor];
-		for (int i = 0; i < tempPositionList.size; i++) {
-			int position = tempPositionList.position[i];
-			if (board.canAttack(PieceType.QUEEN, myColor, position, targetPosition)) {
-				int queen = Position.board[position];
-				if (hasHiddenAttacker(position, targetPosition)) {
-					addAttacker(list, queen, position, true);
-				} else {
-					addAttacker(list, queen, position, false);
+		if ((attackers & Attack.MASK_QUEEN) != 0) {
+			for (int i = 0; i < tempPositionList.size; i++) {
+				int position = tempPositionList.position[i];
+				if (board.canAttack(PieceType.QUEEN, myColor, position, targetPosition)) {
+					int queen = Position.board[position];
+					if (hasHiddenAttacker(position, targetPosition)) {
+						addAttacker(list, queen, position, true);
+					} else {
+						addAttacker(list, queen, position, false);
+					}
 				}
 			}
 		}
@@ -235,7 +251,8 @@ final class See {
 		// King attacks
 		assert Position.kingList[myColor].size == 1;
 		int position = Position.kingList[myColor].position[0];
-		if (board.canAttack(PieceType.KING, myColor, position, targetPosition)) {
+		if ((attackers & Attack.MASK_KING) != 0) {
+			assert board.canAttack(PieceType.KING, myColor, position, targetPosition);
 			list.chessman[list.size] = Position.board[position];
 			list.position[list.size] = position;
 			list.size++;
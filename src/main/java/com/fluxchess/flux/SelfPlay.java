@@ -0,0 +1,193 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Plays games against itself with fixed node searches and writes them into
+ * a game file. Each game starts with a number of random plies, which are
+ * stored without a score.
+ * <p>
+ * Position, Evaluation and Search have static state, so every engine runs
+ * in its own worker JVM. A worker plays its games one after the other and
+ * writes them as a game file to its standard output. We copy every complete
+ * game into the output file as soon as it arrives.
+ */
+final class SelfPlay {
+
+	private static final String STARTFEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+	private final long nodes;
+	private final int randomPlies;
+
+	private long positions = 0;
+
+	SelfPlay(long nodes, int randomPlies) {
+		assert nodes > 0;
+		assert randomPlies >= 0;
+
+		this.nodes = nodes;
+		this.randomPlies = randomPlies;
+	}
+
+	/**
+	 * Plays the games and writes them into the game file.
+	 *
+	 * @param path    the game file.
+	 * @param games   the number of games.
+	 * @param workers the number of worker JVMs. With one worker the games are
+	 *                played in this JVM.
+	 * @param seed    the seed of the random plies.
+	 */
+	void run(Path path, int games, int workers, long seed) throws IOException, InterruptedException {
+		assert games > 0;
+		assert workers > 0;
+
+		long startTime = System.currentTimeMillis();
+		if (workers == 1) {
+			try (GameWriter writer = new GameWriter(new BufferedOutputStream(Files.newOutputStream(path)))) {
+				play(writer, games, seed);
+			}
+		} else {
+			distribute(path, games, workers, seed);
+		}
+		long duration = Math.max(1, System.currentTimeMillis() - startTime);
+
+		System.out.format("Played %d games with %d positions in %d ms, %d positions/s%n",
+				games, this.positions, duration, this.positions * 1000 / duration);
+	}
+
+	private void distribute(Path path, int games, int workers, long seed) throws IOException, InterruptedException {
+		List<Process> processes = new ArrayList<>();
+		List<Thread> threads = new ArrayList<>();
+		IOException[] copyException = new IOException[1];
+
+		try (GameWriter writer = new GameWriter(new BufferedOutputStream(Files.newOutputStream(path)))) {
+			for (int i = 0; i < workers; i++) {
+				// Spread the games evenly
+				int workerGames = games / workers + (i < games % workers ? 1 : 0);
+				if (workerGames == 0) {
+					continue;
+				}
+
+				Process process = new ProcessBuilder(
+						Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+						"-cp", System.getProperty("java.class.path"),
+						Main.class.getName(), "selfplay-worker",
+						Integer.toString(workerGames), Long.toString(this.nodes), Integer.toString(this.randomPlies), Long.toString(seed + i))
+						.redirectError(ProcessBuilder.Redirect.INHERIT)
+						.start();
+				processes.add(process);
+
+				Thread thread = new Thread(() -> {
+					try {
+						copy(process.getInputStream(), writer);
+					} catch (IOException e) {
+						synchronized (copyException) {
+							copyException[0] = e;
+						}
+					}
+				});
+				thread.start();
+				threads.add(thread);
+			}
+
+			for (Thread thread : threads) {
+				thread.join();
+			}
+			for (Process process : processes) {
+				if (process.waitFor() != 0) {
+					throw new IOException("Self-play worker failed");
+				}
+			}
+		}
+
+		if (copyException[0] != null) {
+			throw copyException[0];
+		}
+	}
+
+	/**
+	 * Copies the games of a worker into the game file.
+	 */
+	private void copy(InputStream stream, GameWriter writer) throws IOException {
+		DataInputStream input = new DataInputStream(new BufferedInputStream(stream));
+		byte[] game = new byte[GameWriter.GAME_HEADER_SIZE + GameWriter.MAX_PLIES * GameWriter.PLY_SIZE];
+		ByteBuffer buffer = ByteBuffer.wrap(game).order(ByteOrder.LITTLE_ENDIAN);
+
+		input.readFully(game, 0, GameWriter.HEADER_SIZE);
+		if (buffer.getInt(0) != GameWriter.MAGIC || buffer.getInt(4) != GameWriter.VERSION) {
+			throw new IOException("Invalid self-play worker output");
+		}
+
+		while (true) {
+			try {
+				input.readFully(game, 0, GameWriter.GAME_HEADER_SIZE);
+			} catch (EOFException e) {
+				return;
+			}
+			int plies = buffer.getShort(34) & 0xFFFF;
+			if (plies > GameWriter.MAX_PLIES) {
+				throw new IOException("Invalid self-play worker output");
+			}
+			int length = GameWriter.GAME_HEADER_SIZE + plies * GameWriter.PLY_SIZE;
+			input.readFully(game, GameWriter.GAME_HEADER_SIZE, length - GameWriter.GAME_HEADER_SIZE);
+
+			synchronized (writer) {
+				writer.writeGame(game, length);
+				this.positions += plies;
+			}
+		}
+	}
+
+	/**
+	 * Plays the games one after the other.
+	 *
+	 * @param writer the game writer.
+	 * @param games  the number of games.
+	 * @param seed   the seed of the random plies.
+	 */
+	void play(GameWriter writer, int games, long seed) throws IOException {
+		Random random = new Random(seed);
+		Position board = new Position(STARTFEN);
+		Player player = new Player();
+		Game game = new Game(this.nodes);
+
+		for (int i = 0; i < games; i++) {
+			board.fromFen(STARTFEN);
+			game.play(board, player, player, this.randomPlies, random, writer);
+			this.positions += game.getPlies();
+		}
+	}
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+/**
+ * Sequential probability ratio test of a match, which is played in game
+ * pairs. H0 is that the test player is elo0 stronger than the base player
+ * and H1 is that it is elo1 stronger.
+ * <p>
+ * We count the pairs by their score in half points. So the correlation of
+ * the two games of a pair, which share their opening, is part of the
+ * variance. The log likelihood ratio uses the normal approximation of the
+ * generalized SPRT on the pair scores.
+ */
+final class Sprt {
+
+	// Game results from the view of the test player in half points
+	static final int LOSS = 0;
+	static final int DRAW = 1;
+	static final int WIN = 2;
+
+	// 95% confidence
+	private static final double CONFIDENCE = 1.959964;
+
+	private final double score0;
+	private final double score1;
+	private final double lowerBound;
+	private final double upperBound;
+
+	private final long[] pairs = new long[2 * WIN + 1];
+	private long wins = 0;
+	private long draws = 0;
+	private long losses = 0;
+
+	Sprt(double elo0, double elo1, double alpha, double beta) {
+		assert elo0 < elo1;
+		assert alpha > 0 && alpha < 1;
+		assert beta > 0 && beta < 1;
+
+		this.score0 = getScore(elo0);
+		this.score1 = getScore(elo1);
+		this.lowerBound = Math.log(beta / (1 - alpha));
+		this.upperBound = Math.log((1 - beta) / alpha);
+	}
+
+	/**
+	 * Returns the expected score of the Elo difference.
+	 *
+	 * @param elo the Elo difference.
+	 * @return the expected score between 0 and 1.
+	 */
+	static double getScore(double elo) {
+		return 1 / (1 + Math.pow(10, -elo / 400));
+	}
+
+	/**
+	 * Returns the Elo difference of the expected score.
+	 *
+	 * @param score the expected score between 0 and 1.
+	 * @return the Elo difference.
+	 */
+	static double getElo(double score) {
+		return 400 * Math.log10(score / (1 - score));
+	}
+
+	/**
+	 * Adds the results of a game pair.
+	 *
+	 * @param first  the result of the first game.
+	 * @param second the result of the second game.
+	 */
+	void add(int first, int second) {
+		assert first >= LOSS && first <= WIN;
+		assert second >= LOSS && second <= WIN;
+
+		this.pairs[first + second]++;
+		for (int result : new int[]{first, second}) {
+			if (result == WIN) {
+				this.wins++;
+			} else if (result == DRAW) {
+				this.draws++;
+			} else {
+				this.losses++;
+			}
+		}
+	}
+
+	long getGames() {
+		return this.wins + this.draws + this.losses;
+	}
+
+	/**
+	 * Returns the mean score of the test player.
+	 *
+	 * @return the mean score between 0 and 1.
+	 */
+	double getMean() {
+		long count = getGames() / 2;
+		if (count == 0) {
+			return 0.5;
+		}
+
+		double sum = 0;
+		for (int i = 0; i < this.pairs.length; i++) {
+			sum += this.pairs[i] * i;
+		}
+		return sum / (count * (this.pairs.length - 1));
+	}
+
+	/**
+	 * Returns the variance of the pair scores.
+	 *
+	 * @return the variance.
+	 */
+	double getVariance() {
+		long count = getGames() / 2;
+		if (count == 0) {
+			return 0;
+		}
+
+		double mean = getMean();
+		double sum = 0;
+		for (int i = 0; i < this.pairs.length; i++) {
+			double deviation = (double) i / (this.pairs.length - 1) - mean;
+			sum += this.pairs[i] * deviation * deviation;
+		}
+		return sum / count;
+	}
+
+	/**
+	 * Returns the log likelihood ratio of H1 against H0.
+	 *
+	 * @return the log likelihood ratio.
+	 */
+	double getLlr() {
+		double variance = getVariance();
+		if (variance == 0) {
+			return 0;
+		}
+
+		long count = getGames() / 2;
+		return count * (this.score1 - this.score0) * (2 * getMean() - this.score0 - this.score1) / (2 * variance);
+	}
+
+	/**
+	 * Returns the Elo difference of the test player.
+	 *
+	 * @return the Elo difference.
+	 */
+	double getElo() {
+		return getElo(clamp(getMean()));
+	}
+
+	/**
+	 * Returns the half width of the 95% confidence interval of the Elo
+	 * difference.
+	 *
+	 * @return the half width in Elo.
+	 */
+	double getEloError() {
+		long count = getGames() / 2;
+		if (count == 0) {
+			return Double.POSITIVE_INFINITY;
+		}
+
+		double mean = getMean();
+		double error = CONFIDENCE * Math.sqrt(getVariance() / count);
+		return (getElo(clamp(mean + error)) - getElo(clamp(mean - error))) / 2;
+	}
+
+	/**
+	 * Returns whether the log likelihood ratio crossed one of the bounds.
+	 *
+	 * @return true if the test is finished.
+	 */
+	boolean isFinished() {
+		double llr = getLlr();
+		return llr <= this.lowerBound || llr >= this.upperBound;
+	}
+
+	/**
+	 * Returns whether H1 is accepted.
+	 *
+	 * @return true if the log likelihood ratio crossed the upper bound.
+	 */
+	boolean isAccepted() {
+		return getLlr() >= this.upperBound;
+	}
+
+	private static double clamp(double score) {
+		// Keep the Elo difference finite
+		return Math.max(0.001, Math.min(0.999, score));
+	}
+
+	@Override
+	public String toString() {
+		String state = "";
+		if (isFinished()) {
+			state = isAccepted() ? " H1 accepted" : " H0 accepted";
+		}
+
+		return String.format("Games %d: +%d -%d =%d, Elo %.1f +/- %.1f, LLR %.2f (%.2f, %.2f)%s",
+				getGames(), this.wins, this.losses, this.draws,
+				getElo(), getEloError(), getLlr(), this.lowerBound, this.upperBound, state);
+	}
+}
@@ -229,6 +229,45 @@ final class Square {
 		return rank;
 	}
 
+	/**
+	 * Returns the distance between two positions. That is the number of king
+	 * moves from one position to the other.
+	 *
+	 * @param position1 the first position.
+	 * @param position2 the second position.
+	 * @return the distance (0 - 7).
+	 */
+	static int getDistance(int position1, int position2) {
+		assert position1 != NOPOSITION;
+		assert position2 != NOPOSITION;
+
+		return Math.max(Math.abs(getFile(position1) - getFile(position2)), Math.abs(getRank(position1) - getRank(position2)));
+	}
+
+	/**
+	 * Returns the square index (0 - 63) of the position.
+	 *
+	 * @param position the position.
+	 * @return the square index.
+	 */
+	static int toIndex(int position) {
+		assert (position & 0x88) == 0;
+
+		return (position + (position & 7)) >>> 1;
+	}
+
+	/**
+	 * Returns the position of the square index (0 - 63).
+	 *
+	 * @param index the square index.
+	 * @return the position.
+	 */
+	static int valueOfIndex(int index) {
+		assert index >= 0 && index < 64;
+
+		return index + (index & ~7);
+	}
+
 	/**
 	 * Returns the relative rank of the position. That is the rank from the
 	 * point of view of the color.
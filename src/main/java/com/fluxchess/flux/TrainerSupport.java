@@ -0,0 +1,288 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+
+/**
+ * The engine functions used by the trainer module. Everything else of the
+ * engine stays package private.
+ * <p>
+ * Position and Evaluation have static state, so all methods share one
+ * position and are not thread safe.
+ */
+public final class TrainerSupport {
+
+	public static final int WHITE = Color.WHITE;
+	public static final int BLACK = Color.BLACK;
+
+	// The size of an encoded position, see encode()
+	public static final int ENCODING_SIZE = Position.ENCODING_SIZE;
+
+	// The network layout and quantization
+	public static final int NETWORK_INPUTS = Network.INPUTS;
+	public static final int NETWORK_QA = Network.QA;
+	public static final int NETWORK_QB = Network.QB;
+	public static final int NETWORK_SCALE = Network.SCALE;
+
+	// The game results from white's point of view
+	public static final int BLACK_WINS = GameWriter.BLACK_WINS;
+	public static final int DRAW = GameWriter.DRAW;
+	public static final int WHITE_WINS = GameWriter.WHITE_WINS;
+
+	// The score of a game position without a score
+	public static final int NOSCORE = GameWriter.NOSCORE;
+
+	private static Position position = null;
+	private static Evaluation evaluation = null;
+
+	/**
+	 * Receives the positions of a game file.
+	 */
+	public interface GamePositionConsumer {
+
+		/**
+		 * Accepts a position.
+		 *
+		 * @param buffer the little endian buffer with the encoded position at
+		 *               offset 0.
+		 * @param score  the score for the active color or NOSCORE.
+		 * @param result the game result from white's point of view.
+		 * @throws IOException if the position cannot be processed.
+		 */
+		void accept(ByteBuffer buffer, int score, int result) throws IOException;
+	}
+
+	private TrainerSupport() {
+	}
+
+	private static void setup(String fen) {
+		if (position == null) {
+			position = new Position(fen);
+			new See(position);
+		} else {
+			position.fromFen(fen);
+		}
+	}
+
+	/**
+	 * Encodes the position of the FEN into ENCODING_SIZE bytes. The layout is
+	 * the one of the engine's position encoding. The first 8 bytes are the
+	 * occupancy, the next 16 bytes the 4 bit pieces of the occupied squares in
+	 * ascending order and byte 24 is the active color.
+	 *
+	 * @param fen    the FEN.
+	 * @param buffer the little endian buffer.
+	 * @param offset the offset.
+	 * @throws IllegalArgumentException if the FEN is not valid or has more
+	 *                                  than 32 chessmen.
+	 */
+	public static void encode(String fen, ByteBuffer buffer, int offset) {
+		setup(fen);
+		try {
+			position.encode(buffer, offset);
+		} catch (IllegalStateException e) {
+			throw new IllegalArgumentException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Returns the network features of an encoded position from the
+	 * perspective of each color.
+	 *
+	 * @param buffer   the little endian buffer.
+	 * @param offset   the offset of the encoded position.
+	 * @param features the features of each color, indexed by WHITE and BLACK.
+	 *                 Each array must hold 32 features.
+	 * @return the number of features.
+	 */
+	public static int getFeatures(ByteBuffer buffer, int offset, int[][] features) {
+		long occupancy = buffer.getLong(offset);
+
+		int size = 0;
+		while (occupancy != 0) {
+			int index = Long.numberOfTrailingZeros(occupancy);
+			occupancy &= occupancy - 1;
+
+			int piece = (buffer.get(offset + 8 + (size >>> 1)) >>> ((size & 1) << 2)) & Piece.PIECE_MASK;
+			int chessman = Piece.getChessman(piece);
+			int color = Piece.getColor(piece);
+			int square = Square.valueOfIndex(index);
+			for (int perspective : Color.values) {
+				features[perspective][size] = Network.getFeature(perspective, chessman, color, square);
+			}
+			size++;
+		}
+
+		return size;
+	}
+
+	/**
+	 * Returns the network feature of a piece.
+	 *
+	 * @param perspective the perspective color.
+	 * @param piece       the FEN notation character, upper case for white.
+	 * @param square      the square, for example "e4".
+	 * @return the feature index.
+	 * @throws IllegalArgumentException if the piece or the square is not
+	 *                                  valid.
+	 */
+	public static int getFeature(int perspective, char piece, String square) {
+		if (perspective != WHITE && perspective != BLACK) {
+			throw new IllegalArgumentException("Invalid perspective: " + perspective);
+		}
+		int intPiece = Piece.valueOfNotation(piece);
+		if (intPiece == Piece.NOPIECE) {
+			throw new IllegalArgumentException("Invalid piece: " + piece);
+		}
+		if (square.length() != 2
+				|| square.charAt(0) < 'a' || square.charAt(0) > 'h'
+				|| square.charAt(1) < '1' || square.charAt(1) > '8') {
+			throw new IllegalArgumentException("Invalid square: " + square);
+		}
+		int intSquare = (square.charAt(1) - '1') * 16 + (square.charAt(0) - 'a');
+
+		return Network.getFeature(perspective, Piece.getChessman(intPiece), Piece.getColor(intPiece), intSquare);
+	}
+
+	/**
+	 * Writes quantized weights as a network file for the "EvalFile" option.
+	 *
+	 * @param featureWeights the feature weights, NETWORK_INPUTS x hidden layer
+	 *                       size, quantized with NETWORK_QA.
+	 * @param featureBias    the feature bias, quantized with NETWORK_QA.
+	 * @param outputWeights  the output weights, 2 x hidden layer size,
+	 *                       quantized with NETWORK_QB.
+	 * @param outputBias     the output bias, quantized with NETWORK_QA *
+	 *                       NETWORK_QB.
+	 * @param stream         the output stream.
+	 * @throws IOException if the stream cannot be written.
+	 */
+	public static void writeNetwork(short[] featureWeights, short[] featureBias, short[] outputWeights, int outputBias, OutputStream stream) throws IOException {
+		Network.save(featureWeights, featureBias, outputWeights, outputBias, stream);
+	}
+
+	/**
+	 * Returns the network evaluation of the position for the active color.
+	 * The network is unloaded afterwards.
+	 *
+	 * @param network the network file stream.
+	 * @param fen     the FEN.
+	 * @return the value in centipawns.
+	 * @throws IOException if the stream is not a valid network.
+	 */
+	public static int evaluateNetwork(InputStream network, String fen) throws IOException {
+		setup(fen);
+		try {
+			Network.load(network);
+			return Network.evaluate(position.activeColor);
+		} finally {
+			Network.unload();
+		}
+	}
+
+	/**
+	 * Returns the classical static evaluation of the position from white's
+	 * point of view. The evaluation caches are not used, so changed
+	 * parameters take effect at once.
+	 *
+	 * @param fen the FEN.
+	 * @return the value in centipawns.
+	 * @throws IllegalArgumentException if the FEN is not valid.
+	 */
+	public static int evaluate(String fen) {
+		setup(fen);
+		if (evaluation == null) {
+			evaluation = new Evaluation();
+		}
+
+		boolean useEvaluationTable = Configuration.useEvaluationTable;
+		boolean usePawnTable = Configuration.usePawnTable;
+		boolean useMaterialTable = Configuration.useMaterialTable;
+		boolean useNetwork = Configuration.useNetwork;
+		Configuration.useEvaluationTable = false;
+		Configuration.usePawnTable = false;
+		Configuration.useMaterialTable = false;
+		Configuration.useNetwork = false;
+		try {
+			int value = evaluation.evaluate(position);
+			return position.activeColor == Color.WHITE ? value : -value;
+		} finally {
+			Configuration.useEvaluationTable = useEvaluationTable;
+			Configuration.usePawnTable = usePawnTable;
+			Configuration.useMaterialTable = useMaterialTable;
+			Configuration.useNetwork = useNetwork;
+		}
+	}
+
+	/**
+	 * Returns the current values of the tunable evaluation parameters.
+	 *
+	 * @return the values.
+	 */
+	public static int[] getEvaluationParameters() {
+		return EvaluationParameters.get();
+	}
+
+	/**
+	 * Sets the tunable evaluation parameters.
+	 *
+	 * @param values the values in the order of getEvaluationParameters().
+	 * @throws IllegalArgumentException if the number of values is wrong.
+	 */
+	public static void setEvaluationParameters(int[] values) {
+		EvaluationParameters.set(values);
+	}
+
+	/**
+	 * Prints the evaluation parameters in source form.
+	 *
+	 * @param values the values in the order of getEvaluationParameters().
+	 * @param output the stream.
+	 */
+	public static void printEvaluationParameters(int[] values, PrintStream output) {
+		EvaluationParameters.print(values, output);
+	}
+
+	/**
+	 * Encodes every position of a game file. The consumer must not call
+	 * other methods of this class, because they share the position.
+	 *
+	 * @param path     the game file.
+	 * @param consumer the consumer of the positions.
+	 * @throws IOException if the file is not a valid game file.
+	 */
+	public static void readGames(Path path, GamePositionConsumer consumer) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(ENCODING_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		setup("4k3/8/8/8/8/8/8/4K3 w - -");
+
+		try (GameReader reader = new GameReader(path)) {
+			while (reader.next(position)) {
+				position.encode(buffer, 0);
+				consumer.accept(buffer, reader.getScore(), reader.getResult());
+			}
+		}
+	}
+}
@@ -25,7 +25,7 @@ import java.util.List;
 final class TranspositionTable {
 
 	// Size of one transposition entry
-	static final int ENTRYSIZE = 44;
+	static final int ENTRYSIZE = 48;
 
 	private final int size;
 
@@ -44,6 +44,7 @@ final class TranspositionTable {
 		int type = Bound.NOBOUND;
 		int move = Move.NOMOVE;
 		boolean mateThreat = false;
+		int evaluation = Value.INFINITY;
 
 		TranspositionTableEntry() {
 		}
@@ -56,6 +57,7 @@ final class TranspositionTable {
 			this.type = Bound.NOBOUND;
 			this.move = Move.NOMOVE;
 			this.mateThreat = false;
+			this.evaluation = Value.INFINITY;
 		}
 
 		int getValue(int height) {
@@ -127,8 +129,9 @@ final class TranspositionTable {
 	 * @param value       the value.
 	 * @param type        the value type.
 	 * @param move        the move.
+	 * @param evaluation  the static evaluation or Value.INFINITY if unknown.
 	 */
-	void put(long zobristCode, int depth, int value, int type, int move, boolean mateThreat, int height) {
+	void put(long zobristCode, int depth, int value, int type, int move, boolean mateThreat, int evaluation, int height) {
 		assert depth >= 0;
 		assert type != Bound.NOBOUND;
 		assert height >= 0;
@@ -146,6 +149,7 @@ final class TranspositionTable {
 			currentEntry.type = type;
 			currentEntry.move = move;
 			currentEntry.mateThreat = mateThreat;
+			currentEntry.evaluation = evaluation;
 		} else if (currentEntry.zobristCode == zobristCode) {
 			// The same zobrist key already exists
 			if (depth >= currentEntry.depth && move != Move.NOMOVE) {
@@ -155,6 +159,11 @@ final class TranspositionTable {
 				currentEntry.move = move;
 				currentEntry.mateThreat = mateThreat;
 			}
+
+			// The static evaluation does not depend on the search depth
+			if (evaluation != Value.INFINITY) {
+				currentEntry.evaluation = evaluation;
+			}
 		} else {
 			// We have a collision. Overwrite existing entry
 			currentEntry.zobristCode = zobristCode;
@@ -163,6 +172,7 @@ final class TranspositionTable {
 			currentEntry.type = type;
 			currentEntry.move = move;
 			currentEntry.mateThreat = mateThreat;
+			currentEntry.evaluation = evaluation;
 		}
 		//## ENDOF "always replace" Scheme
 	}
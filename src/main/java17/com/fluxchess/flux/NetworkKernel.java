@@ -0,0 +1,86 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+/**
+ * The network kernel used by Network. This is the Java 17 version from
+ * the multi-release jar. It uses the vector API if the incubator module
+ * has been added with "--add-modules jdk.incubator.vector", and falls back
+ * to the scalar loops otherwise.
+ */
+final class NetworkKernel {
+
+	private static final boolean useVector = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+	private NetworkKernel() {
+	}
+
+	/**
+	 * Returns the name of the kernel.
+	 */
+	static String getName() {
+		return useVector ? "vector" : "scalar";
+	}
+
+	/**
+	 * Adds the weights at the offset to the hidden layer.
+	 */
+	static void add(short[] hidden, short[] weights, int offset, int size) {
+		if (useVector) {
+			VectorKernel.add(hidden, weights, offset, size);
+		} else {
+			ScalarKernel.add(hidden, weights, offset, size);
+		}
+	}
+
+	/**
+	 * Subtracts the weights at the offset from the hidden layer.
+	 */
+	static void subtract(short[] hidden, short[] weights, int offset, int size) {
+		if (useVector) {
+			VectorKernel.subtract(hidden, weights, offset, size);
+		} else {
+			ScalarKernel.subtract(hidden, weights, offset, size);
+		}
+	}
+
+	/**
+	 * Subtracts the weights at the start offset from and adds the weights
+	 * at the end offset to the hidden layer.
+	 */
+	static void move(short[] hidden, short[] weights, int startOffset, int endOffset, int size) {
+		if (useVector) {
+			VectorKernel.move(hidden, weights, startOffset, endOffset, size);
+		} else {
+			ScalarKernel.move(hidden, weights, startOffset, endOffset, size);
+		}
+	}
+
+	/**
+	 * Returns the dot product of the clipped hidden layer and the weights
+	 * at the offset.
+	 */
+	static int dot(short[] hidden, short[] weights, int offset, int size, int max) {
+		if (useVector) {
+			return VectorKernel.dot(hidden, weights, offset, size, max);
+		} else {
+			return ScalarKernel.dot(hidden, weights, offset, size, max);
+		}
+	}
+}
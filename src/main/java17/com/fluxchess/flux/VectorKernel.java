@@ -0,0 +1,100 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The vector network kernel. It computes the same values as ScalarKernel.
+ * The remaining elements after the last full vector use the scalar loops.
+ */
+final class VectorKernel {
+
+	private static final VectorSpecies<Short> SHORT = ShortVector.SPECIES_PREFERRED;
+	private static final VectorSpecies<Integer> INT = IntVector.SPECIES_PREFERRED;
+
+	// Shorts which widen into one int vector
+	private static final VectorSpecies<Short> HALF_SHORT = VectorSpecies.of(short.class, VectorShape.forBitSize(INT.vectorBitSize() / 2));
+
+	private VectorKernel() {
+	}
+
+	static void add(short[] hidden, short[] weights, int offset, int size) {
+		int bound = SHORT.loopBound(size);
+		int i = 0;
+		for (; i < bound; i += SHORT.length()) {
+			ShortVector.fromArray(SHORT, hidden, i)
+					.add(ShortVector.fromArray(SHORT, weights, offset + i))
+					.intoArray(hidden, i);
+		}
+		for (; i < size; i++) {
+			hidden[i] += weights[offset + i];
+		}
+	}
+
+	static void subtract(short[] hidden, short[] weights, int offset, int size) {
+		int bound = SHORT.loopBound(size);
+		int i = 0;
+		for (; i < bound; i += SHORT.length()) {
+			ShortVector.fromArray(SHORT, hidden, i)
+					.sub(ShortVector.fromArray(SHORT, weights, offset + i))
+					.intoArray(hidden, i);
+		}
+		for (; i < size; i++) {
+			hidden[i] -= weights[offset + i];
+		}
+	}
+
+	static void move(short[] hidden, short[] weights, int startOffset, int endOffset, int size) {
+		int bound = SHORT.loopBound(size);
+		int i = 0;
+		for (; i < bound; i += SHORT.length()) {
+			ShortVector.fromArray(SHORT, hidden, i)
+					.add(ShortVector.fromArray(SHORT, weights, endOffset + i))
+					.sub(ShortVector.fromArray(SHORT, weights, startOffset + i))
+					.intoArray(hidden, i);
+		}
+		for (; i < size; i++) {
+			hidden[i] += weights[endOffset + i] - weights[startOffset + i];
+		}
+	}
+
+	static int dot(short[] hidden, short[] weights, int offset, int size, int max) {
+		IntVector sum = IntVector.zero(INT);
+		int bound = INT.loopBound(size);
+		int i = 0;
+		for (; i < bound; i += INT.length()) {
+			IntVector value = (IntVector) ShortVector.fromArray(HALF_SHORT, hidden, i)
+					.convertShape(VectorOperators.S2I, INT, 0);
+			IntVector weight = (IntVector) ShortVector.fromArray(HALF_SHORT, weights, offset + i)
+					.convertShape(VectorOperators.S2I, INT, 0);
+			sum = sum.add(value.max(0).min(max).mul(weight));
+		}
+		int result = sum.reduceLanes(VectorOperators.ADD);
+		for (; i < size; i++) {
+			result += Math.min(Math.max(hidden[i], 0), max) * weights[offset + i];
+		}
+
+		return result;
+	}
+}
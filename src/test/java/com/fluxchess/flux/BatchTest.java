@@ -0,0 +1,82 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+import com.fluxchess.jcpi.models.GenericBoard;
+import com.fluxchess.jcpi.models.IllegalNotationException;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BatchTest {
+
+	private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq -";
+	private static final String ENDGAME = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - -";
+
+	private static String[] work(String mode, String input) throws IOException {
+		StringWriter output = new StringWriter();
+		long count = new Batch(mode).work(new BufferedReader(new StringReader(input)), new PrintWriter(output));
+
+		String[] lines = output.toString().split("\\R");
+		assertThat(lines).hasSize((int) count);
+		return lines;
+	}
+
+	private static int evaluate(String fen) throws IllegalNotationException {
+		Position board = new Position(new GenericBoard(fen));
+		new See(board);
+		return new Evaluation().evaluate(board);
+	}
+
+	private static int getValue(String line) {
+		return Integer.parseInt(line.substring(line.lastIndexOf(';') + 1));
+	}
+
+	@Test
+	void testEvaluation() throws IOException, IllegalNotationException {
+		String[] lines = work("eval", KIWIPETE + "\n" + "invalid\n" + ENDGAME + "\n");
+
+		assertThat(lines).containsExactly(
+				KIWIPETE + ";" + evaluate(KIWIPETE),
+				"invalid;error",
+				ENDGAME + ";" + evaluate(ENDGAME));
+	}
+
+	@Test
+	void testQuiescent() throws IOException, IllegalNotationException {
+		// The white queen is hanging
+		String hanging = "4k3/8/8/3q4/8/8/Q7/4K3 b - -";
+		String[] lines = work("qsearch", hanging + "\n" + KIWIPETE + "\n");
+
+		assertThat(lines).hasSize(2);
+		assertThat(getValue(lines[0])).isGreaterThan(evaluate(hanging) + 500);
+	}
+
+	@Test
+	void testMode() {
+		assertThatThrownBy(() -> new Batch("search")).isInstanceOf(IllegalArgumentException.class);
+	}
+}
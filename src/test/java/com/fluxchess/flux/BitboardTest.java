@@ -0,0 +1,65 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BitboardTest {
+
+	private static long valueOf(int... positions) {
+		long bitboard = 0;
+		for (int position : positions) {
+			bitboard |= Bitboard.valueOf(position);
+		}
+		return bitboard;
+	}
+
+	@Test
+	void testValueOf() {
+		assertThat(Bitboard.valueOf(Square.a1)).isEqualTo(1L);
+		assertThat(Bitboard.valueOf(Square.h1)).isEqualTo(1L << 7);
+		assertThat(Bitboard.valueOf(Square.a8)).isEqualTo(1L << 56);
+		assertThat(Bitboard.valueOf(Square.h8)).isEqualTo(1L << 63);
+	}
+
+	@Test
+	void testKingZone() {
+		assertThat(Bitboard.kingZone[Square.toIndex(Square.a1)]).isEqualTo(valueOf(Square.a2, Square.b2, Square.b1));
+		assertThat(Long.bitCount(Bitboard.kingZone[Square.toIndex(Square.e4)])).isEqualTo(8);
+	}
+
+	@Test
+	void testPawnMasks() {
+		assertThat(Bitboard.pawnAttacks[Color.WHITE][Square.toIndex(Square.a2)]).isEqualTo(valueOf(Square.b3));
+		assertThat(Bitboard.pawnAttacks[Color.BLACK][Square.toIndex(Square.e5)]).isEqualTo(valueOf(Square.d4, Square.f4));
+
+		assertThat(Bitboard.frontSpan[Color.WHITE][Square.toIndex(Square.c5)]).isEqualTo(valueOf(Square.c6, Square.c7, Square.c8));
+		assertThat(Bitboard.frontSpan[Color.BLACK][Square.toIndex(Square.c3)]).isEqualTo(valueOf(Square.c2, Square.c1));
+
+		assertThat(Bitboard.passedMask[Color.WHITE][Square.toIndex(Square.a6)]).isEqualTo(valueOf(Square.a7, Square.a8, Square.b7, Square.b8));
+		assertThat(Bitboard.passedMask[Color.BLACK][Square.toIndex(Square.e3)]).isEqualTo(valueOf(Square.d2, Square.d1, Square.e2, Square.e1, Square.f2, Square.f1));
+
+		assertThat(Bitboard.isolatedMask[Square.toIndex(Square.h4)]).isEqualTo(valueOf(Square.g1, Square.g2, Square.g3, Square.g4, Square.g5, Square.g6, Square.g7, Square.g8));
+
+		assertThat(Bitboard.backwardMask[Color.WHITE][Square.toIndex(Square.b3)]).isEqualTo(valueOf(Square.a1, Square.a2, Square.a3, Square.c1, Square.c2, Square.c3));
+		assertThat(Bitboard.backwardMask[Color.BLACK][Square.toIndex(Square.b6)]).isEqualTo(valueOf(Square.a8, Square.a7, Square.a6, Square.c8, Square.c7, Square.c6));
+	}
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CaptureHistoryTableTest {
+
+	@Test
+	void testCaptureHistoryTable() {
+		CaptureHistoryTable table = new CaptureHistoryTable();
+
+		int knightTakesPawn = Move.createMove(MoveType.NORMAL, Square.c3, Square.d5, Piece.WHITE_KNIGHT, Piece.BLACK_PAWN, Piece.NOPIECE);
+		int knightTakesBishop = Move.createMove(MoveType.NORMAL, Square.c3, Square.d5, Piece.WHITE_KNIGHT, Piece.BLACK_BISHOP, Piece.NOPIECE);
+
+		table.add(knightTakesPawn, 3);
+		table.add(knightTakesPawn, 2);
+		assertThat(table.get(knightTakesPawn)).isEqualTo(5);
+
+		// The captured chessman is part of the index
+		assertThat(table.get(knightTakesBishop)).isZero();
+
+		// A malus pulls the value below zero
+		table.add(knightTakesBishop, -HistoryTable.getBonus(4));
+		assertThat(table.get(knightTakesBishop)).isEqualTo(-HistoryTable.getBonus(4));
+		assertThat(table.get(knightTakesPawn)).isEqualTo(5);
+
+		table.clear();
+		assertThat(table.get(knightTakesBishop)).isZero();
+	}
+}
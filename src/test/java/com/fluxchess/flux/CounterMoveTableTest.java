@@ -0,0 +1,50 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CounterMoveTableTest {
+
+	@Test
+	void testCounterMoveTable() {
+		CounterMoveTable table = new CounterMoveTable();
+
+		int previousMove = Move.createMove(MoveType.NORMAL, Square.e2, Square.e4, Piece.WHITE_PAWN, Piece.NOPIECE, Piece.NOPIECE);
+		int move1 = Move.createMove(MoveType.NORMAL, Square.g8, Square.f6, Piece.BLACK_KNIGHT, Piece.NOPIECE, Piece.NOPIECE);
+		int move2 = Move.createMove(MoveType.NORMAL, Square.b8, Square.c6, Piece.BLACK_KNIGHT, Piece.NOPIECE, Piece.NOPIECE);
+		assertThat(table.get(previousMove)).isEqualTo(Move.NOMOVE);
+
+		table.add(previousMove, move1);
+		assertThat(table.get(previousMove)).isEqualTo(move1);
+
+		// The last counter move replaces the old one
+		table.add(previousMove, move2);
+		assertThat(table.get(previousMove)).isEqualTo(move2);
+
+		// There is no counter move after a null move
+		table.add(Move.NOMOVE, move1);
+		assertThat(table.get(Move.NOMOVE)).isEqualTo(Move.NOMOVE);
+
+		table.clear();
+		assertThat(table.get(previousMove)).isEqualTo(Move.NOMOVE);
+	}
+}
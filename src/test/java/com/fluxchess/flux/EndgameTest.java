@@ -0,0 +1,102 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+import com.fluxchess.jcpi.models.GenericBoard;
+import com.fluxchess.jcpi.models.IllegalNotationException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EndgameTest {
+
+	private static int evaluate(String fen) throws IllegalNotationException {
+		Position board = new Position(new GenericBoard(fen));
+		new See(board);
+		return new Evaluation().evaluate(board);
+	}
+
+	@Test
+	void testProbe() throws IllegalNotationException {
+		MaterialTable table = new MaterialTable(1024);
+
+		Position board = new Position(new GenericBoard("8/8/8/4k3/8/8/8/1NB1K3 w - - 0 1"));
+		MaterialTable.MaterialTableEntry entry = table.put(board.materialKey);
+		Endgame.probe(entry);
+		assertThat(entry.endgame).isEqualTo(Endgame.KBNK);
+		assertThat(entry.endgameColor).isEqualTo(Color.WHITE);
+
+		board = new Position(new GenericBoard("8/8/8/4k3/8/8/8/3rK3 w - - 0 1"));
+		entry = table.put(board.materialKey);
+		Endgame.probe(entry);
+		assertThat(entry.endgame).isEqualTo(Endgame.KXK);
+		assertThat(entry.endgameColor).isEqualTo(Color.BLACK);
+
+		board = new Position(new GenericBoard("8/4b3/8/4k3/3p4/2P5/4B3/4K3 w - - 0 1"));
+		entry = table.put(board.materialKey);
+		Endgame.probe(entry);
+		assertThat(entry.endgame).isEqualTo(Endgame.OPPOSITEBISHOPS);
+
+		board = new Position(new GenericBoard("8/5b2/8/4k3/3p4/2P5/4N3/4K3 w - - 0 1"));
+		entry = table.put(board.materialKey);
+		Endgame.probe(entry);
+		assertThat(entry.endgame).isEqualTo(Endgame.NONE);
+	}
+
+	@Test
+	void testKPK() throws IllegalNotationException {
+		// White wins with the opposition
+		assertThat(evaluate("4k3/8/4K3/4P3/8/8/8/8 b - - 0 1")).isLessThan(-Piece.VALUE_PAWN);
+		assertThat(evaluate("4k3/8/4K3/4P3/8/8/8/8 w - - 0 1")).isGreaterThan(Piece.VALUE_PAWN);
+
+		// Black wins
+		assertThat(evaluate("8/8/8/8/4p3/4k3/8/4K3 w - - 0 1")).isLessThan(-Piece.VALUE_PAWN);
+
+		// Draws
+		assertThat(evaluate("4k3/4P3/4K3/8/8/8/8/8 b - - 0 1")).isEqualTo(Value.DRAW);
+		assertThat(evaluate("k7/8/K7/P7/8/8/8/8 w - - 0 1")).isEqualTo(Value.DRAW);
+	}
+
+	@Test
+	void testKXK() throws IllegalNotationException {
+		// Push the enemy king to the edge
+		assertThat(evaluate("7k/8/5K2/8/8/8/8/R7 w - - 0 1"))
+				.isGreaterThan(evaluate("8/8/8/4k3/8/2K5/8/R7 w - - 0 1"));
+		assertThat(evaluate("7K/8/5k2/8/8/8/8/q7 w - - 0 1"))
+				.isLessThan(evaluate("8/8/8/4K3/8/2k5/8/q7 w - - 0 1"));
+	}
+
+	@Test
+	void testKBNK() throws IllegalNotationException {
+		// Push the enemy king to the corner of the bishop's color
+		int rightCorner = evaluate("7k/8/5K2/8/8/8/8/1NB5 w - - 0 1");
+		int wrongCorner = evaluate("k7/8/2K5/8/8/8/8/1NB5 w - - 0 1");
+		int center = evaluate("8/8/8/4k3/8/2K5/8/1NB5 w - - 0 1");
+		assertThat(rightCorner).isGreaterThan(center);
+		assertThat(center).isGreaterThan(wrongCorner);
+	}
+
+	@Test
+	void testOppositeBishops() throws IllegalNotationException {
+		int opposite = evaluate("8/4b3/8/4k3/3p4/2P1P3/4B3/4K3 w - - 0 1");
+		int same = evaluate("8/5b2/8/4k3/3p4/2P1P3/4B3/4K3 w - - 0 1");
+		assertThat(opposite).isGreaterThan(0);
+		assertThat(opposite).isLessThan(same);
+	}
+}
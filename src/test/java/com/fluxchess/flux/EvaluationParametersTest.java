@@ -0,0 +1,84 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EvaluationParametersTest {
+
+	private int[] values;
+
+	@BeforeEach
+	void setUp() {
+		this.values = EvaluationParameters.get();
+	}
+
+	@AfterEach
+	void tearDown() {
+		EvaluationParameters.set(this.values);
+	}
+
+	@Test
+	void testSet() throws ReflectiveOperationException {
+		int bishopPair = getWeight("EVAL_BISHOP_PAIR");
+		int knightScore = PieceSquareTable.getScore(PieceType.KNIGHT, Color.BLACK, Square.d5);
+
+		int[] changed = this.values.clone();
+		for (int i = 0; i < changed.length; i++) {
+			changed[i]++;
+		}
+		EvaluationParameters.set(changed);
+
+		assertThat(EvaluationParameters.get()).isEqualTo(changed);
+		assertThat(getWeight("EVAL_BISHOP_PAIR")).isEqualTo(bishopPair + 1);
+		assertThat(PieceSquareTable.getScore(PieceType.KNIGHT, Color.BLACK, Square.d5))
+				.isEqualTo(knightScore + Score.valueOf(1, 1));
+
+		assertThatThrownBy(() -> EvaluationParameters.set(new int[1]))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static int getWeight(String name) throws ReflectiveOperationException {
+		Field field = Evaluation.class.getDeclaredField(name);
+		field.setAccessible(true);
+		return field.getInt(null);
+	}
+
+	@Test
+	void testPrint() {
+		int[] changed = this.values.clone();
+		changed[0]++;
+
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		EvaluationParameters.print(changed, new PrintStream(stream, true, StandardCharsets.UTF_8));
+
+		assertThat(stream.toString(StandardCharsets.UTF_8)).contains("static int EVAL_", "OPENING:", "ENDGAME:");
+		assertThat(EvaluationParameters.get()).isEqualTo(this.values);
+	}
+}
@@ -35,5 +35,9 @@ class EvaluationTableTest {
 		table.put(2, 2);
 		assertThat(table.get(2)).isNotNull();
 		assertThat(2).isEqualTo(table.get(2).evaluation);
+
+		table.clear();
+		assertThat(table.get(1)).isNull();
+		assertThat(table.get(2)).isNull();
 	}
 }
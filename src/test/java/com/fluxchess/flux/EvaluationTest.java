@@ -43,4 +43,56 @@ class EvaluationTest {
 			e.printStackTrace();
 		}
 	}
+
+	@Test
+	void testLazyEvaluate() {
+		Position board;
+
+		try {
+			// White is a queen up
+			board = new Position(new GenericBoard("r1b1kb1r/pppp1ppp/2n2n2/4p3/4P3/2N2N2/PPPP1PPP/R1BQKB1R w KQkq -"));
+			new See(board);
+
+			Evaluation evaluation = new Evaluation();
+			int lazyValue = evaluation.evaluate(board, -Value.INFINITY, 0);
+			assertThat(evaluation.lazy).isTrue();
+			assertThat(lazyValue).isGreaterThanOrEqualTo(0);
+
+			evaluation = new Evaluation();
+			int value = evaluation.evaluate(board);
+			assertThat(evaluation.lazy).isFalse();
+			assertThat(value).isGreaterThanOrEqualTo(lazyValue);
+
+			// Inside the window we always evaluate fully
+			evaluation = new Evaluation();
+			assertThat(evaluation.evaluate(board, value - 1, value + 1)).isEqualTo(value);
+			assertThat(evaluation.lazy).isFalse();
+		} catch (IllegalNotationException e) {
+			e.printStackTrace();
+		}
+	}
+
+	@Test
+	void testLazyEvaluateOppositeBishops() {
+		Position board;
+
+		try {
+			// White is two pawns up, but the opposite bishops scale the value
+			board = new Position(new GenericBoard("4k3/4bpp1/8/8/8/1PPB4/5PP1/4K3 w - -"));
+			new See(board);
+
+			Evaluation evaluation = new Evaluation();
+			int value = evaluation.evaluate(board);
+
+			evaluation = new Evaluation();
+			assertThat(evaluation.evaluate(board, -Value.INFINITY, -Value.INFINITY + 1)).isEqualTo(value);
+			assertThat(evaluation.lazy).isFalse();
+
+			evaluation = new Evaluation();
+			assertThat(evaluation.evaluate(board, Value.INFINITY - 1, Value.INFINITY)).isEqualTo(value);
+			assertThat(evaluation.lazy).isFalse();
+		} catch (IllegalNotationException e) {
+			e.printStackTrace();
+		}
+	}
 }
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GameReaderTest {
+
+	@Test
+	void testWriteRead(@TempDir Path directory) throws IOException {
+		String[] startFens = {
+				"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+				"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+				"n1n5/PPPk4/8/8/8/8/4Kppp/5N1N b - - 0 1"
+		};
+
+		List<String> fens = new ArrayList<>();
+		List<Integer> moves = new ArrayList<>();
+		List<Integer> scores = new ArrayList<>();
+
+		Path file = directory.resolve("games.bin");
+		try (GameWriter writer = new GameWriter(Files.newOutputStream(file))) {
+			for (String startFen : startFens) {
+				Position board = new Position(startFen);
+				new MoveGenerator(board, new KillerTable(), new HistoryTable());
+				new See(board);
+
+				writer.startGame(board);
+				for (int ply = 0; ply < 30; ply++) {
+					MoveList list = new MoveList();
+					MoveGenerator.initializeMain(board.getAttack(board.activeColor), 0, Move.NOMOVE);
+					int move;
+					while ((move = MoveGenerator.getNextMove()) != Move.NOMOVE) {
+						list.moves[list.tail++] = move;
+					}
+					MoveGenerator.destroy();
+					if (list.tail == 0) {
+						break;
+					}
+
+					move = list.moves[(ply * 7) % list.tail];
+					int score = ply == 0 ? GameWriter.NOSCORE : ply * 10 - 100;
+
+					StringBuilder fen = new StringBuilder();
+					board.toFen(fen);
+					fens.add(fen.toString());
+					moves.add(move);
+					scores.add(score);
+
+					writer.addPly(move, score);
+					board.makeMove(move);
+				}
+				writer.endGame(GameWriter.DRAW);
+			}
+
+			// An empty game is skipped
+			writer.startGame(new Position(startFens[0]));
+			writer.endGame(GameWriter.WHITE_WINS);
+		}
+
+		try (GameReader reader = new GameReader(file)) {
+			Position board = new Position(startFens[0]);
+			int count = 0;
+			while (reader.next(board)) {
+				StringBuilder fen = new StringBuilder();
+				board.toFen(fen);
+				assertThat(fen.toString()).isEqualTo(fens.get(count));
+				assertThat(reader.getMove()).isEqualTo(moves.get(count));
+				assertThat(reader.getScore()).isEqualTo(scores.get(count));
+				assertThat(reader.getResult()).isEqualTo(GameWriter.DRAW);
+				count++;
+			}
+			assertThat(count).isEqualTo(fens.size());
+		}
+	}
+
+	@Test
+	void testInvalidFile(@TempDir Path directory) throws IOException {
+		Path file = directory.resolve("invalid.bin");
+		Files.write(file, "not a game file".getBytes());
+		assertThatThrownBy(() -> new GameReader(file)).isInstanceOf(IOException.class);
+
+		// A truncated game
+		try (GameWriter writer = new GameWriter(Files.newOutputStream(file))) {
+			Position board = new Position("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+			writer.startGame(board);
+			writer.addPly(Move.valueOfCompact(Square.toIndex(Square.e2) | (Square.toIndex(Square.e4) << 6), board), 0);
+			writer.endGame(GameWriter.DRAW);
+		}
+		byte[] bytes = Files.readAllBytes(file);
+		Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+		try (GameReader reader = new GameReader(file)) {
+			assertThatThrownBy(() -> reader.next(new Position("8/8/8/8/8/8/8/K6k w - -"))).isInstanceOf(IOException.class);
+		}
+	}
+}
@@ -36,4 +36,34 @@ class HistoryTableTest {
 		table.add(move2, 1);
 		assertThat(2).isEqualTo(table.get(move2));
 	}
+
+	@Test
+	void testGravity() {
+		HistoryTable table = new HistoryTable();
+
+		int move = Move.createMove(MoveType.NORMAL, 16, 32, PieceType.PAWN, Piece.NOPIECE, Piece.NOPIECE);
+		int bonus = HistoryTable.getBonus(Depth.MAX_DEPTH);
+		assertThat(bonus).isLessThanOrEqualTo(HistoryTable.MAX_HISTORYVALUE);
+		assertThat(HistoryTable.getBonus(1)).isLessThan(HistoryTable.getBonus(4));
+
+		// The value stays bounded without rescaling the table
+		for (int i = 0; i < 1000; i++) {
+			table.add(move, bonus);
+			assertThat(table.get(move)).isBetween(0, HistoryTable.MAX_HISTORYVALUE);
+		}
+		int maximum = table.get(move);
+		assertThat(maximum).isGreaterThan(HistoryTable.MAX_HISTORYVALUE - bonus);
+
+		// A malus moves the value down again
+		table.add(move, -bonus);
+		assertThat(table.get(move)).isLessThan(maximum);
+		for (int i = 0; i < 1000; i++) {
+			table.add(move, -bonus);
+			assertThat(table.get(move)).isBetween(-HistoryTable.MAX_HISTORYVALUE, HistoryTable.MAX_HISTORYVALUE);
+		}
+		assertThat(table.get(move)).isNegative();
+
+		table.clear();
+		assertThat(table.get(move)).isZero();
+	}
 }
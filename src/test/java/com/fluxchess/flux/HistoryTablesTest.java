@@ -0,0 +1,61 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HistoryTablesTest {
+
+	@Test
+	void testClear() {
+		HistoryTables tables = new HistoryTables();
+		HistoryTables otherTables = new HistoryTables();
+
+		int previousMove = Move.createMove(MoveType.NORMAL, Square.e2, Square.e4, Piece.WHITE_PAWN, Piece.NOPIECE, Piece.NOPIECE);
+		int move = Move.createMove(MoveType.NORMAL, Square.g8, Square.f6, Piece.BLACK_KNIGHT, Piece.NOPIECE, Piece.NOPIECE);
+		int capture = Move.createMove(MoveType.NORMAL, Square.f6, Square.e4, Piece.BLACK_KNIGHT, Piece.WHITE_PAWN, Piece.NOPIECE);
+
+		tables.historyTable.add(move, 5);
+		tables.counterMoveTable.add(previousMove, move);
+		tables.continuationTable.add(previousMove, move, 5);
+		tables.secondContinuationTable.add(previousMove, move, 5);
+		tables.captureHistoryTable.add(capture, 5);
+
+		assertThat(tables.historyTable.get(move)).isEqualTo(5);
+		assertThat(tables.counterMoveTable.get(previousMove)).isEqualTo(move);
+		assertThat(tables.continuationTable.get(previousMove, move)).isEqualTo(5);
+		assertThat(tables.secondContinuationTable.get(previousMove, move)).isEqualTo(5);
+		assertThat(tables.captureHistoryTable.get(capture)).isEqualTo(5);
+
+		// Every owner has its own tables
+		assertThat(otherTables.historyTable.get(move)).isZero();
+		assertThat(otherTables.counterMoveTable.get(previousMove)).isEqualTo(Move.NOMOVE);
+		assertThat(otherTables.continuationTable.get(previousMove, move)).isZero();
+		assertThat(otherTables.captureHistoryTable.get(capture)).isZero();
+
+		tables.clear();
+		assertThat(tables.historyTable.get(move)).isZero();
+		assertThat(tables.counterMoveTable.get(previousMove)).isEqualTo(Move.NOMOVE);
+		assertThat(tables.continuationTable.get(previousMove, move)).isZero();
+		assertThat(tables.secondContinuationTable.get(previousMove, move)).isZero();
+		assertThat(tables.captureHistoryTable.get(capture)).isZero();
+	}
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MatchTest {
+
+	// White mates in one with Ra8
+	private static final String MATE = "6k1/5ppp/8/8/8/8/8/R5K1 w - -";
+	private static final String STARTFEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+	@Test
+	void testWork() throws IOException {
+		StringWriter output = new StringWriter();
+		new Match(500, "", "useNullMovePruning=false", null).work(
+				new BufferedReader(new StringReader(MATE + "\n")), new PrintWriter(output));
+
+		// The test player wins with white and loses with black
+		assertThat(output.toString().split("\\R")).containsExactly("2 0");
+	}
+
+	@Test
+	void testRun(@TempDir Path directory) throws IOException, InterruptedException {
+		Path openings = directory.resolve("openings.epd");
+		Files.write(openings, Arrays.asList(MATE, "", STARTFEN + " id \"start\";"));
+
+		Sprt sprt = new Sprt(0, 5, 0.05, 0.05);
+		new Match(100, "", "", sprt).run(openings, 6, 1);
+
+		assertThat(sprt.getGames()).isEqualTo(6);
+	}
+
+	@Test
+	void testSettings() throws IOException, ReflectiveOperationException {
+		Player player = new Player("useNullMovePruning=false,EVAL_PAWN_DOUBLED_OPENING=50");
+		assertThat(Configuration.useNullMovePruning).isTrue();
+
+		int defaultValue = getWeight("EVAL_PAWN_DOUBLED_OPENING");
+
+		player.search(new Position(MATE), 100);
+		assertThat(Configuration.useNullMovePruning).isTrue();
+		assertThat(getWeight("EVAL_PAWN_DOUBLED_OPENING")).isEqualTo(defaultValue);
+
+		assertThatThrownBy(() -> new Player("useNullMovePruning")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new Player("unknown=1")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new Player("useNullMovePruning=1")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new Player("debug=x,EVAL_PAWN_DOUBLED_OPENING=x")).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static int getWeight(String name) throws ReflectiveOperationException {
+		Field field = Evaluation.class.getDeclaredField(name);
+		field.setAccessible(true);
+		return field.getInt(null);
+	}
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MaterialTableTest {
+
+	@Test
+	void testMaterialTable() {
+		MaterialTable table = new MaterialTable(1024);
+
+		long materialKey = MaterialTable.valueOf(PieceType.ROOK, Color.WHITE);
+		assertThat(table.get(materialKey)).isNull();
+
+		MaterialTable.MaterialTableEntry entry = table.put(materialKey);
+		entry.phase = 1;
+		assertThat(table.get(materialKey)).isSameAs(entry);
+		assertThat(table.get(materialKey).phase).isEqualTo(1);
+		assertThat(table.get(0)).isNull();
+
+		entry = table.put(0);
+		assertThat(entry.phase).isEqualTo(0);
+		assertThat(table.get(0)).isSameAs(entry);
+	}
+
+	@Test
+	void testGetCount() {
+		long materialKey = 0;
+		for (int color : Color.values) {
+			for (int chessman : PieceType.values) {
+				if (chessman != PieceType.KING) {
+					for (int i = 0; i < chessman + color; i++) {
+						materialKey += MaterialTable.valueOf(chessman, color);
+					}
+				}
+			}
+		}
+
+		for (int color : Color.values) {
+			for (int chessman : PieceType.values) {
+				if (chessman != PieceType.KING) {
+					assertThat(MaterialTable.getCount(materialKey, chessman, color)).isEqualTo(chessman + color);
+				}
+			}
+		}
+	}
+}
@@ -25,6 +25,8 @@ import org.junit.jupiter.api.Test;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -213,6 +215,32 @@ class MoveGeneratorTest {
 		assertThat(mainMoveList.getLength()).as(printDifference(board, mainMoveList, quiescentMoveList)).isEqualTo(quiescentMoveList.getLength());
 	}
 
+	@Test
+	void testProbCutCaptures() throws IllegalNotationException {
+		// The pawn wins the queen, the queen loses itself against the pawn
+		Position testBoard = new Position(new GenericBoard("4k3/8/2p5/1p1q4/4P3/8/8/1Q2K3 w - - 0 1"));
+		new See(testBoard);
+		new MoveGenerator(testBoard, new KillerTable(), new HistoryTable());
+
+		assertThat(getProbCutMoves(testBoard, 1)).containsExactly("e4d5");
+		assertThat(getProbCutMoves(testBoard, -Piece.VALUE_QUEEN)).containsExactlyInAnyOrder("e4d5", "b1b5");
+		assertThat(getProbCutMoves(testBoard, Piece.VALUE_QUEEN)).isEmpty();
+	}
+
+	private static List<String> getProbCutMoves(Position board, int seeThreshold) {
+		List<String> moves = new ArrayList<>();
+
+		MoveGenerator.initializeProbCut(board.getAttack(board.activeColor), seeThreshold);
+		int move = MoveGenerator.getNextMove();
+		while (move != Move.NOMOVE) {
+			moves.add(Move.toCommandMove(move).toString());
+			move = MoveGenerator.getNextMove();
+		}
+		MoveGenerator.destroy();
+
+		return moves;
+	}
+
 	private String printDifference(Position board, MoveList main, MoveList quiescent) {
 		String result = board.getBoard().toString() + "\n";
 
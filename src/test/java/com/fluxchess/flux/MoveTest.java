@@ -67,4 +67,27 @@ class MoveTest {
 		move = Move.setEndPosition(move, Square.a4);
 		assertThat(Square.a4).isEqualTo(Move.getEnd(move));
 	}
+
+	@Test
+	void testCompact() {
+		String[] fens = {
+				"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+				"r3k2r/p1ppqpb1/bn2pnp1/3PN3/Pp2P3/2N2Q1p/1PPBBPPP/R3K2R b KQkq a3 0 1",
+				"n1n5/PPPk4/8/8/8/8/4Kppp/5N1N b - - 0 1"
+		};
+
+		for (String fen : fens) {
+			Position board = new Position(fen);
+			new MoveGenerator(board, new KillerTable(), new HistoryTable());
+			new See(board);
+
+			MoveGenerator.initializeMain(board.getAttack(board.activeColor), 0, Move.NOMOVE);
+			int move;
+			while ((move = MoveGenerator.getNextMove()) != Move.NOMOVE) {
+				assertThat(Move.toCompact(move)).isLessThan(1 << 15);
+				assertThat(Move.valueOfCompact(Move.toCompact(move), board)).as(fen).isEqualTo(move);
+			}
+			MoveGenerator.destroy();
+		}
+	}
 }
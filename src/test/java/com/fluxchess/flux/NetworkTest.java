@@ -0,0 +1,157 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+import com.fluxchess.jcpi.models.GenericBoard;
+import com.fluxchess.jcpi.models.IllegalNotationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NetworkTest {
+
+	@AfterEach
+	void tearDown() {
+		Network.unload();
+	}
+
+	@Test
+	void testFeature() {
+		// A white pawn on e2 is a black pawn on e7 for black
+		assertThat(Network.getFeature(Color.WHITE, PieceType.PAWN, Color.WHITE, Square.e2))
+				.isEqualTo(Network.getFeature(Color.BLACK, PieceType.PAWN, Color.BLACK, Square.e7));
+		assertThat(Network.getFeature(Color.WHITE, PieceType.KING, Color.BLACK, Square.h8))
+				.isEqualTo(Network.INPUTS - 1);
+		assertThat(Network.getFeature(Color.BLACK, PieceType.PAWN, Color.BLACK, Square.a8))
+				.isEqualTo(0);
+	}
+
+	@Test
+	void testIncrementalUpdate() throws IllegalNotationException {
+		Network.randomize(32, new Random(0));
+
+		Position board = new Position(new GenericBoard("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq -"));
+		new MoveGenerator(board, new KillerTable(), new HistoryTable());
+		new See(board);
+
+		assertRefresh(board, 3);
+	}
+
+	private void assertRefresh(Position board, int depth) {
+		short[][] accumulator = {
+				Network.accumulator[Color.WHITE].clone(),
+				Network.accumulator[Color.BLACK].clone()
+		};
+		Network.refresh();
+		assertThat(Network.accumulator[Color.WHITE]).isEqualTo(accumulator[Color.WHITE]);
+		assertThat(Network.accumulator[Color.BLACK]).isEqualTo(accumulator[Color.BLACK]);
+
+		if (depth == 0) {
+			return;
+		}
+
+		Attack attack = board.getAttack(board.activeColor);
+		MoveGenerator.initializeMain(attack, 0, Move.NOMOVE);
+
+		int move;
+		while ((move = MoveGenerator.getNextMove()) != Move.NOMOVE) {
+			board.makeMove(move);
+			assertRefresh(board, depth - 1);
+			board.undoMove(move);
+		}
+
+		MoveGenerator.destroy();
+	}
+
+	@Test
+	void testSymmetry() throws IllegalNotationException {
+		Network.randomize(32, new Random(1));
+
+		new Position(new GenericBoard("r1bqk2r/pppp1ppp/2n2n2/2b1p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq -"));
+		int white = Network.evaluate(Color.WHITE);
+
+		new Position(new GenericBoard("rnbqk2r/pppp1ppp/5n2/2b1p3/2B1P3/2N2N2/PPPP1PPP/R1BQK2R b KQkq -"));
+		int black = Network.evaluate(Color.BLACK);
+
+		assertThat(black).isEqualTo(white);
+	}
+
+	@Test
+	void testOutputLayer() throws IllegalNotationException {
+		// Every neuron is saturated and has the maximum output weight
+		int size = 512;
+		short[] featureBias = new short[size];
+		short[] outputWeights = new short[2 * size];
+		Arrays.fill(featureBias, (short) Network.QA);
+		Arrays.fill(outputWeights, 0, size, (short) Network.QB);
+		new Position(new GenericBoard("4k3/8/8/8/8/8/8/4K3 w - -"));
+		Network.initialize(new short[Network.INPUTS * size], featureBias, outputWeights, Network.QA * Network.QB);
+
+		assertThat(Network.evaluate(Color.WHITE)).isEqualTo((size + 1) * Network.SCALE);
+		assertThat(Network.evaluate(Color.BLACK)).isEqualTo((size + 1) * Network.SCALE);
+	}
+
+	@Test
+	void testLoad() throws IOException, IllegalNotationException {
+		Network.randomize(16, new Random(2));
+		new Position(new GenericBoard("4k3/pp3p2/8/3P4/2p5/8/P4PPP/6K1 w - -"));
+		int value = Network.evaluate(Color.WHITE);
+
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		Network.save(output);
+		Network.unload();
+		assertThat(Network.loaded).isFalse();
+
+		Network.load(new ByteArrayInputStream(output.toByteArray()));
+		assertThat(Network.loaded).isTrue();
+		assertThat(Network.hiddenSize).isEqualTo(16);
+		assertThat(Network.evaluate(Color.WHITE)).isEqualTo(value);
+
+		byte[] truncated = new byte[output.size() - 1];
+		System.arraycopy(output.toByteArray(), 0, truncated, 0, truncated.length);
+		assertThatThrownBy(() -> Network.load(new ByteArrayInputStream(truncated))).isInstanceOf(IOException.class);
+		assertThatThrownBy(() -> Network.load(new ByteArrayInputStream(new byte[16]))).isInstanceOf(IOException.class);
+	}
+
+	@Test
+	void testEvaluation() throws IllegalNotationException {
+		Position board = new Position(new GenericBoard("r1bqk2r/pppp1ppp/2n2n2/2b1p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq -"));
+		new See(board);
+		Evaluation evaluation = new Evaluation();
+		int classical = evaluation.evaluate(board);
+
+		Network.randomize(32, new Random(3));
+		assertThat(new Evaluation().evaluate(board)).isEqualTo(Network.evaluate(Color.WHITE));
+
+		Configuration.useNetwork = false;
+		try {
+			assertThat(new Evaluation().evaluate(board)).isEqualTo(classical);
+		} finally {
+			Configuration.useNetwork = true;
+		}
+	}
+}
@@ -18,6 +18,8 @@
  */
 package com.fluxchess.flux;
 
+import com.fluxchess.jcpi.models.GenericBoard;
+import com.fluxchess.jcpi.models.IllegalNotationException;
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -28,14 +30,58 @@ class PawnTableTest {
 	void testPawnTable() {
 		PawnTable table = new PawnTable(1024);
 
-		table.put(1, 1, 1);
-		assertThat(table.exists(1)).isTrue();
-		assertThat(1).isEqualTo(table.getOpening(1));
-		assertThat(1).isEqualTo(table.getEndgame(1));
+		PawnTable.PawnTableEntry entry = table.put(1);
+		entry.score[Color.WHITE] = Score.valueOf(1, 1);
+		assertThat(table.get(1)).isSameAs(entry);
+		assertThat(1).isEqualTo(Score.getOpening(table.get(1).score[Color.WHITE]));
+		assertThat(1).isEqualTo(Score.getEndgame(table.get(1).score[Color.WHITE]));
 
-		table.put(2, 2, 2);
-		assertThat(table.exists(2)).isTrue();
-		assertThat(2).isEqualTo(table.getOpening(2));
-		assertThat(2).isEqualTo(table.getEndgame(2));
+		entry = table.put(2);
+		entry.score[Color.BLACK] = Score.valueOf(2, -2);
+		assertThat(table.get(2)).isSameAs(entry);
+		assertThat(2).isEqualTo(Score.getOpening(table.get(2).score[Color.BLACK]));
+		assertThat(-2).isEqualTo(Score.getEndgame(table.get(2).score[Color.BLACK]));
+
+		// A colliding zobrist code clears the entry
+		entry = table.put(1 + 1024);
+		assertThat(table.get(1)).isNull();
+		assertThat(entry.score[Color.WHITE]).isEqualTo(Score.ZERO);
+
+		assertThat(table.probes).isEqualTo(7);
+		assertThat(table.hits).isEqualTo(6);
+
+		table.resetStatistics();
+		assertThat(table.probes).isEqualTo(0);
+		assertThat(table.hits).isEqualTo(0);
+		assertThat(table.getHitRate()).isEqualTo(0.0);
+	}
+
+	@Test
+	void testPawnTableEntry() throws IllegalNotationException {
+		Position board = new Position(new GenericBoard("4k3/pp3p2/8/3P4/2p5/8/P4PPP/6K1 w - -"));
+		new See(board);
+		Evaluation evaluation = new Evaluation();
+		evaluation.evaluate(board);
+
+		PawnTable.PawnTableEntry entry = evaluation.pawnHashtable.get(board.pawnZobristCode);
+		assertThat(entry).isNotNull();
+
+		// Passed pawns
+		assertThat(entry.passers[Color.WHITE]).isEqualTo((1L << Square.toIndex(Square.d5)) | (1L << Square.toIndex(Square.h2)));
+		assertThat(entry.passers[Color.BLACK]).isEqualTo(1L << Square.toIndex(Square.c4));
+
+		// Pawn attacks
+		assertThat(entry.pawnAttacks[Color.WHITE] & (1L << Square.toIndex(Square.e6))).isNotZero();
+		assertThat(entry.pawnAttacks[Color.WHITE] & (1L << Square.toIndex(Square.b3))).isNotZero();
+		assertThat(entry.pawnAttacks[Color.BLACK] & (1L << Square.toIndex(Square.d3))).isNotZero();
+		assertThat(entry.pawnAttacks[Color.BLACK] & (1L << Square.toIndex(Square.c5))).isZero();
+
+		// Open files
+		assertThat(entry.openFiles[Color.WHITE]).isEqualTo(0b00010110);
+		assertThat(entry.openFiles[Color.BLACK]).isEqualTo(0b11011000);
+
+		// The king shelter is cached for the first rank
+		assertThat(entry.shelter[Color.WHITE][File.g]).isEqualTo(0);
+		assertThat(entry.shelter[Color.WHITE][File.b]).isGreaterThan(entry.shelter[Color.WHITE][File.g]);
 	}
 }
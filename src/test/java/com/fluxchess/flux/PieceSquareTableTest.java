@@ -39,4 +39,18 @@ class PieceSquareTableTest {
 			}
 		}
 	}
+
+	@Test
+	void testGetScore() {
+		for (GenericChessman chessman : GenericChessman.values()) {
+			int piecetype = Piece.valueOfChessman(chessman);
+			for (int color : Color.values) {
+				for (int position : Square.values) {
+					int score = PieceSquareTable.getScore(piecetype, color, position);
+					assertThat(Score.getOpening(score)).isEqualTo(PieceSquareTable.getValue(GamePhase.OPENING, piecetype, color, position));
+					assertThat(Score.getEndgame(score)).isEqualTo(PieceSquareTable.getValue(GamePhase.ENDGAME, piecetype, color, position));
+				}
+			}
+		}
+	}
 }
@@ -21,7 +21,14 @@ package com.fluxchess.flux;
 import com.fluxchess.jcpi.models.*;
 import org.junit.jupiter.api.Test;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.fail;
 
 class PositionTest {
@@ -293,4 +300,214 @@ class PositionTest {
 		testBoard.makeMove(move);
 		assertThat(2).isEqualTo(testBoard.getFullMoveNumber());
 	}
+
+	@Test
+	void testIncrementalUpdates() {
+		String[] fens = {
+				GenericBoard.STANDARDSETUP.toString(),
+				"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+				"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+				"r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+				"rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+				"5k2/8/8/8/3Pp3/8/8/3K4 b - d3 0 1"
+		};
+
+		for (String fen : fens) {
+			try {
+				Position testBoard = new Position(new GenericBoard(fen));
+				new See(testBoard);
+				new MoveGenerator(testBoard, new KillerTable(), new HistoryTable());
+				assertIncrementalUpdates(testBoard, 2);
+			} catch (IllegalNotationException e) {
+				fail();
+			}
+		}
+	}
+
+	@Test
+	void testFromFen() throws IOException, IllegalNotationException {
+		try (BufferedReader file = new BufferedReader(new InputStreamReader(PositionTest.class.getResourceAsStream("/perftsuite.epd")))) {
+			Position testBoard = new Position(GenericBoard.STANDARDSETUP.toString());
+
+			String line;
+			while ((line = file.readLine()) != null) {
+				String fen = line.split(";")[0].trim();
+
+				Position board = new Position(new GenericBoard(fen));
+				long zobristCode = board.zobristCode;
+				long pawnZobristCode = board.pawnZobristCode;
+				long materialKey = board.materialKey;
+				int[] positionValue = Position.positionValue.clone();
+				GenericBoard genericBoard = board.getBoard();
+
+				// Reuse the board after some moves
+				testBoard.makeMoveNull();
+				testBoard.fromFen(fen);
+				assertThat(testBoard.getBoard()).as(fen).isEqualTo(genericBoard);
+				assertThat(testBoard.zobristCode).as(fen).isEqualTo(zobristCode);
+				assertThat(testBoard.pawnZobristCode).as(fen).isEqualTo(pawnZobristCode);
+				assertThat(testBoard.materialKey).as(fen).isEqualTo(materialKey);
+				assertThat(Position.positionValue).as(fen).isEqualTo(positionValue);
+				assertThat(testBoard.captureSquare).isEqualTo(Square.NOPOSITION);
+
+				StringBuilder builder = new StringBuilder();
+				testBoard.toFen(builder);
+				assertThat(builder.toString()).isEqualTo(genericBoard.toString());
+			}
+		}
+	}
+
+	@Test
+	void testFromFenOptionalFields() throws IOException {
+		Position board = new Position("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 bm e5;");
+		assertThat(board.halfMoveClock).isEqualTo(0);
+		assertThat(board.getFullMoveNumber()).isEqualTo(1);
+		assertThat(board.enPassantSquare).isEqualTo(Square.e3);
+
+		// Castling without the rook is dropped
+		board.fromFen("4k3/8/8/8/8/8/8/4K2R w KQ - 3 40");
+		StringBuilder builder = new StringBuilder();
+		board.toFen(builder);
+		assertThat(builder.toString()).isEqualTo("4k3/8/8/8/8/8/8/4K2R w K - 3 40");
+	}
+
+	@Test
+	void testFromFenInvalid() {
+		String[] fens = {
+				"",
+				"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq -",
+				"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNRR w KQkq -",
+				"rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq -",
+				"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQQBNR w KQkq -",
+				"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq -",
+				"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkx -",
+				"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e4",
+				"Pnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq -"
+		};
+
+		Position board = new Position(GenericBoard.STANDARDSETUP.toString());
+		for (String fen : fens) {
+			assertThatThrownBy(() -> board.fromFen(fen)).as(fen).isInstanceOf(IllegalArgumentException.class);
+		}
+
+		// The board is unchanged
+		assertThat(board.getBoard()).isEqualTo(new GenericBoard(GenericBoard.STANDARDSETUP));
+	}
+
+	@Test
+	void testEncodeDecode() throws IOException, IllegalNotationException {
+		ByteBuffer buffer = ByteBuffer.allocate(Position.ENCODING_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+		try (BufferedReader file = new BufferedReader(new InputStreamReader(PositionTest.class.getResourceAsStream("/perftsuite.epd")))) {
+			Position testBoard = new Position(GenericBoard.STANDARDSETUP.toString());
+
+			String line;
+			while ((line = file.readLine()) != null) {
+				Position board = new Position(new GenericBoard(line.split(";")[0].trim()));
+				long zobristCode = board.zobristCode;
+				GenericBoard genericBoard = board.getBoard();
+				board.encode(buffer, 0);
+
+				testBoard.decode(buffer, 0);
+				assertThat(testBoard.getBoard()).isEqualTo(genericBoard);
+				assertThat(testBoard.zobristCode).isEqualTo(zobristCode);
+			}
+		}
+	}
+
+	@Test
+	void testSnapshotRestore() throws IllegalNotationException {
+		Position board = new Position("5k2/8/8/8/3Pp3/8/8/3K4 b - d3 12 40");
+		byte[] snapshot = board.snapshot();
+		assertThat(snapshot).hasSize(Position.ENCODING_SIZE);
+
+		board.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+		board.makeMoveNull();
+		board.restore(snapshot);
+		assertThat(board.getBoard()).isEqualTo(new GenericBoard("5k2/8/8/8/3Pp3/8/8/3K4 b - d3 12 40"));
+		assertThat(board.snapshot()).isEqualTo(snapshot);
+
+		// A pawn on the first rank
+		snapshot[8] = Piece.WHITE_PAWN;
+		assertThatThrownBy(() -> board.restore(snapshot)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> board.restore(new byte[Position.ENCODING_SIZE])).isInstanceOf(IllegalArgumentException.class);
+		assertThat(board.getBoard()).isEqualTo(new GenericBoard("5k2/8/8/8/3Pp3/8/8/3K4 b - d3 12 40"));
+	}
+
+	private void assertIncrementalUpdates(Position board, int depth) {
+		int[][] attackMap = computeAttackMap(board);
+		for (int color : Color.values) {
+			assertThat(Position.attackMap[color]).as(board.getBoard().toString()).isEqualTo(attackMap[color]);
+			for (int chessman : PieceType.values) {
+				int attackSum = 0;
+				for (int position : Square.values) {
+					attackSum += Attack.getCount(attackMap[color][position], chessman);
+				}
+				assertThat(Position.attackSum[color][chessman]).as(board.getBoard().toString()).isEqualTo(attackSum);
+
+				long attackBoard = 0;
+				for (int position : Square.values) {
+					if (Attack.getCount(attackMap[color][position], chessman) > 0) {
+						attackBoard |= Bitboard.valueOf(position);
+					}
+				}
+				assertThat(Position.attackBoard[color][chessman]).as(board.getBoard().toString()).isEqualTo(attackBoard);
+			}
+
+			long occupancy = 0;
+			for (int position : Square.values) {
+				int piece = Position.board[position];
+				if (piece != Piece.NOPIECE && Piece.getColor(piece) == color) {
+					occupancy |= Bitboard.valueOf(position);
+				}
+			}
+			assertThat(Position.occupancy[color]).as(board.getBoard().toString()).isEqualTo(occupancy);
+		}
+
+		long materialKey = 0;
+		for (int position : Square.values) {
+			int piece = Position.board[position];
+			if (piece != Piece.NOPIECE && Piece.getChessman(piece) != PieceType.KING) {
+				materialKey += MaterialTable.valueOf(Piece.getChessman(piece), Piece.getColor(piece));
+			}
+		}
+		assertThat(board.materialKey).as(board.getBoard().toString()).isEqualTo(materialKey);
+
+		if (depth == 0) {
+			return;
+		}
+
+		MoveGenerator.initializeMain(board.getAttack(board.activeColor), 0, Move.NOMOVE);
+		int move = MoveGenerator.getNextMove();
+		while (move != Move.NOMOVE) {
+			board.makeMove(move);
+			assertIncrementalUpdates(board, depth - 1);
+			board.undoMove(move);
+			move = MoveGenerator.getNextMove();
+		}
+		MoveGenerator.destroy();
+
+		for (int color : Color.values) {
+			assertThat(Position.attackMap[color]).as(board.getBoard().toString()).isEqualTo(attackMap[color]);
+		}
+	}
+
+	private int[][] computeAttackMap(Position board) {
+		int[][] attackMap = new int[Color.ARRAY_DIMENSION][Position.BOARDSIZE];
+
+		for (int position : Square.values) {
+			int piece = Position.board[position];
+			if (piece != Piece.NOPIECE) {
+				int chessman = Piece.getChessman(piece);
+				int color = Piece.getColor(piece);
+				for (int target : Square.values) {
+					if (target != position && board.canAttack(chessman, color, position, target)) {
+						attackMap[color][target] += Attack.valueOf(chessman);
+					}
+				}
+			}
+		}
+
+		return attackMap;
+	}
 }
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScoreTest {
+
+	@Test
+	void testValueOf() {
+		int[] values = {0, 1, -1, 50, -50, 975, -975, 20000, -20000};
+		for (int opening : values) {
+			for (int endgame : values) {
+				int score = Score.valueOf(opening, endgame);
+				assertThat(Score.getOpening(score)).isEqualTo(opening);
+				assertThat(Score.getEndgame(score)).isEqualTo(endgame);
+			}
+		}
+	}
+
+	@Test
+	void testArithmetic() {
+		int score1 = Score.valueOf(10, -20);
+		int score2 = Score.valueOf(-35, 5);
+
+		assertThat(score1 + score2).isEqualTo(Score.valueOf(-25, -15));
+		assertThat(score1 - score2).isEqualTo(Score.valueOf(45, -25));
+		assertThat(score2 * -3).isEqualTo(Score.valueOf(105, -15));
+	}
+
+	@Test
+	void testTaper() {
+		int score = Score.valueOf(100, -50);
+
+		assertThat(Score.taper(score, 10, 10)).isEqualTo(100);
+		assertThat(Score.taper(score, 0, 10)).isEqualTo(-50);
+		assertThat(Score.taper(score, 5, 10)).isEqualTo(25);
+	}
+}
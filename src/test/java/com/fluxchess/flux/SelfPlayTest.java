@@ -0,0 +1,57 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SelfPlayTest {
+
+	@Test
+	void testPlay(@TempDir Path directory) throws IOException, InterruptedException {
+		Path file = directory.resolve("games.bin");
+		new SelfPlay(200, 4).run(file, 2, 1, 0);
+
+		int positions = 0;
+		int randomPositions = 0;
+		try (GameReader reader = new GameReader(file)) {
+			Position board = new Position("4k3/8/8/8/8/8/8/4K3 w - -");
+			while (reader.next(board)) {
+				if (reader.getScore() == GameWriter.NOSCORE) {
+					randomPositions++;
+				}
+				assertThat(reader.getResult()).isBetween(GameWriter.BLACK_WINS, GameWriter.WHITE_WINS);
+				positions++;
+			}
+		}
+		assertThat(randomPositions).isEqualTo(2 * 4);
+		assertThat(positions).isGreaterThan(randomPositions);
+
+		// The games only depend on the seed
+		Path other = directory.resolve("other.bin");
+		new SelfPlay(200, 4).run(other, 2, 1, 0);
+		assertThat(Files.readAllBytes(other)).isEqualTo(Files.readAllBytes(file));
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class SprtTest {
+
+	@Test
+	void testScore() {
+		assertThat(Sprt.getScore(0)).isEqualTo(0.5);
+		assertThat(Sprt.getScore(400)).isCloseTo(10.0 / 11.0, within(1e-9));
+		assertThat(Sprt.getElo(Sprt.getScore(35))).isCloseTo(35, within(1e-9));
+	}
+
+	@Test
+	void testEqual() {
+		Sprt sprt = new Sprt(0, 5, 0.05, 0.05);
+		for (int i = 0; i < 100; i++) {
+			sprt.add(Sprt.WIN, Sprt.LOSS);
+			sprt.add(Sprt.DRAW, Sprt.DRAW);
+			sprt.add(Sprt.LOSS, Sprt.DRAW);
+			sprt.add(Sprt.DRAW, Sprt.WIN);
+		}
+
+		assertThat(sprt.getGames()).isEqualTo(800);
+		assertThat(sprt.getMean()).isEqualTo(0.5);
+		assertThat(sprt.getElo()).isCloseTo(0, within(1e-9));
+		assertThat(sprt.getEloError()).isBetween(5.0, 50.0);
+		assertThat(sprt.getLlr()).isNegative();
+		assertThat(sprt.toString()).startsWith("Games 800: +200 -200 =400, Elo 0.0 +/- ");
+	}
+
+	@Test
+	void testAccepted() {
+		Sprt sprt = new Sprt(0, 5, 0.05, 0.05);
+		while (!sprt.isFinished()) {
+			sprt.add(Sprt.WIN, Sprt.DRAW);
+			sprt.add(Sprt.DRAW, Sprt.DRAW);
+			sprt.add(Sprt.WIN, Sprt.LOSS);
+		}
+
+		assertThat(sprt.isAccepted()).isTrue();
+		assertThat(sprt.getElo()).isGreaterThan(50);
+		assertThat(sprt.toString()).endsWith("H1 accepted");
+	}
+
+	@Test
+	void testRejected() {
+		Sprt sprt = new Sprt(0, 5, 0.05, 0.05);
+		while (!sprt.isFinished()) {
+			sprt.add(Sprt.LOSS, Sprt.DRAW);
+			sprt.add(Sprt.DRAW, Sprt.DRAW);
+			sprt.add(Sprt.WIN, Sprt.LOSS);
+		}
+
+		assertThat(sprt.isAccepted()).isFalse();
+		assertThat(sprt.getElo()).isLessThan(-50);
+		assertThat(sprt.toString()).endsWith("H0 accepted");
+	}
+
+	@Test
+	void testEmpty() {
+		Sprt sprt = new Sprt(0, 5, 0.05, 0.05);
+
+		assertThat(sprt.getLlr()).isZero();
+		assertThat(sprt.isFinished()).isFalse();
+	}
+}
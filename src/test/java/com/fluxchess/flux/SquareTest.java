@@ -117,4 +117,15 @@ class SquareTest {
 			assertThat(File.h).isEqualTo(Square.getFile(position));
 		}
 	}
+
+	@Test
+	void testIndex() {
+		assertThat(Square.toIndex(Square.a1)).isEqualTo(0);
+		assertThat(Square.toIndex(Square.h1)).isEqualTo(7);
+		assertThat(Square.toIndex(Square.a2)).isEqualTo(8);
+		assertThat(Square.toIndex(Square.h8)).isEqualTo(63);
+		for (int position : Square.values) {
+			assertThat(Square.valueOfIndex(Square.toIndex(position))).isEqualTo(position);
+		}
+	}
 }
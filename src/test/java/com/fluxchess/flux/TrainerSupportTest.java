@@ -0,0 +1,113 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TrainerSupportTest {
+
+	private static final String FEN = "r1bqk2r/pppp1ppp/2n2n2/2b1p3/2B1P3/5N2/PPPP1PPP/RNBQK2R b KQkq -";
+
+	@AfterEach
+	void tearDown() {
+		Network.unload();
+	}
+
+	@Test
+	void testEncode() {
+		ByteBuffer buffer = ByteBuffer.allocate(TrainerSupport.ENCODING_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		TrainerSupport.encode("4k3/8/8/8/8/8/4P3/4K3 b - - 0 1", buffer, 0);
+		assertThat(buffer.get(24)).isEqualTo((byte) TrainerSupport.BLACK);
+
+		int[][] features = new int[2][32];
+		assertThat(TrainerSupport.getFeatures(buffer, 0, features)).isEqualTo(3);
+		assertThat(features[TrainerSupport.WHITE]).startsWith(
+				Network.getFeature(Color.WHITE, PieceType.KING, Color.WHITE, Square.e1),
+				Network.getFeature(Color.WHITE, PieceType.PAWN, Color.WHITE, Square.e2),
+				Network.getFeature(Color.WHITE, PieceType.KING, Color.BLACK, Square.e8));
+		assertThat(features[TrainerSupport.BLACK][1])
+				.isEqualTo(TrainerSupport.getFeature(TrainerSupport.BLACK, 'P', "e2"));
+
+		assertThatThrownBy(() -> TrainerSupport.encode("4k3/8/8/8/8/8/4X3/4K3 w - -", buffer, 0))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> TrainerSupport.getFeature(TrainerSupport.WHITE, 'P', "e9"))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void testEvaluateNetwork() throws IOException {
+		Network.randomize(32, new Random(0));
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		Network.save(stream);
+		Network.unload();
+
+		int value = TrainerSupport.evaluateNetwork(new ByteArrayInputStream(stream.toByteArray()), FEN);
+		assertThat(Network.loaded).isFalse();
+
+		// The position of the FEN is still set up
+		Network.load(new ByteArrayInputStream(stream.toByteArray()));
+		assertThat(value).isEqualTo(Network.evaluate(Color.BLACK));
+	}
+
+	@Test
+	void testEvaluate() {
+		assertThat(TrainerSupport.evaluate("4k3/8/8/8/8/8/3PP3/4K3 b - - 0 1"))
+				.isEqualTo(TrainerSupport.evaluate("4k3/8/8/8/8/8/3PP3/4K3 w - - 0 1"))
+				.isPositive();
+		assertThat(Configuration.useNetwork).isTrue();
+	}
+
+	@Test
+	void testReadGames(@TempDir Path directory) throws IOException {
+		Path games = directory.resolve("games.bin");
+		try (GameWriter writer = new GameWriter(Files.newOutputStream(games))) {
+			Position board = new Position("4k3/8/8/8/8/8/4P3/4K3 w - - 0 1");
+			writer.startGame(board);
+			int move = Move.valueOfCompact(Square.toIndex(Square.e2) | (Square.toIndex(Square.e4) << 6), board);
+			writer.addPly(move, GameWriter.NOSCORE);
+			board.makeMove(move);
+			writer.addPly(Move.valueOfCompact(Square.toIndex(Square.e8) | (Square.toIndex(Square.d7) << 6), board), -300);
+			writer.endGame(GameWriter.WHITE_WINS);
+		}
+
+		List<int[]> positions = new ArrayList<>();
+		TrainerSupport.readGames(games, (buffer, score, result) ->
+				positions.add(new int[]{buffer.get(24), score, result}));
+
+		assertThat(positions).containsExactly(
+				new int[]{TrainerSupport.WHITE, TrainerSupport.NOSCORE, TrainerSupport.WHITE_WINS},
+				new int[]{TrainerSupport.BLACK, -300, TrainerSupport.WHITE_WINS});
+	}
+}
@@ -30,7 +30,7 @@ class TranspositionTableTest {
 		int move1 = Move.createMove(MoveType.NORMAL, Square.a2, Square.a3, Piece.createPiece(PieceType.PAWN, Color.WHITE), Piece.NOPIECE, Piece.NOPIECE);
 
 		// Put an entry into the table
-		table.put(1L, 1, 100, Bound.EXACT, move1, false, 0);
+		table.put(1L, 1, 100, Bound.EXACT, move1, false, 50, 0);
 
 		TranspositionTable.TranspositionTableEntry entry = table.get(1L);
 		assertThat(entry).isNotNull();
@@ -39,9 +39,10 @@ class TranspositionTableTest {
 		assertThat(100).isEqualTo(entry.getValue(0));
 		assertThat(Bound.EXACT).isEqualTo(entry.type);
 		assertThat(move1).isEqualTo(entry.move);
+		assertThat(50).isEqualTo(entry.evaluation);
 
 		// Overwrite the entry with a new one
-		table.put(1L, 2, 200, Bound.LOWER, move1, false, 0);
+		table.put(1L, 2, 200, Bound.LOWER, move1, false, Value.INFINITY, 0);
 
 		entry = table.get(1L);
 		assertThat(entry).isNotNull();
@@ -51,8 +52,11 @@ class TranspositionTableTest {
 		assertThat(Bound.LOWER).isEqualTo(entry.type);
 		assertThat(move1).isEqualTo(entry.move);
 
+		// Keep the static evaluation if we do not know it
+		assertThat(50).isEqualTo(entry.evaluation);
+
 		// Put an mate entry into the table
-		table.put(2L, 0, Value.CHECKMATE - 5, Bound.EXACT, move1, false, 3);
+		table.put(2L, 0, Value.CHECKMATE - 5, Bound.EXACT, move1, false, Value.INFINITY, 3);
 
 		entry = table.get(2L);
 		assertThat(entry).isNotNull();
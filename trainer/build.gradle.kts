@@ -0,0 +1,30 @@
+plugins {
+	java
+	application
+}
+
+repositories {
+	jcenter()
+}
+
+java {
+	sourceCompatibility = JavaVersion.VERSION_11
+	targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+	implementation(rootProject)
+
+	testImplementation(Libs.junitJupiterApi)
+	testRuntimeOnly(Libs.junitJupiterEngine)
+	testImplementation(Libs.assertjCore)
+}
+
+application {
+	mainClassName = "com.fluxchess.flux.trainer.Trainer"
+	applicationDefaultJvmArgs = listOf("-Xmx4g")
+}
+
+tasks.test {
+	useJUnitPlatform()
+}
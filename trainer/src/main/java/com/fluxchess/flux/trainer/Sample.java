@@ -0,0 +1,99 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux.trainer;
+
+import com.fluxchess.flux.TrainerSupport;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A training sample. A sample file is a sequence of fixed size records
+ * in little endian. The first 25 bytes are the same as in
+ * TrainerSupport.encode():
+ * <pre>
+ *  0  8 bytes  occupancy, bit 0 is a1 and bit 63 is h8
+ *  8 16 bytes  piece of each occupied square in ascending order, 4 bits each
+ * 24  1 byte   active color
+ * 25  1 byte   result for the active color, 0 = loss, 1 = draw, 2 = win
+ * 26  2 bytes  score for the active color in centipawns
+ * 28  4 bytes  reserved
+ * </pre>
+ */
+final class Sample {
+
+	static final int SIZE = 32;
+	static final int MAX_PIECES = 32;
+
+	static final int LOSS = 0;
+	static final int DRAW = 1;
+	static final int WIN = 2;
+
+	int activeColor = TrainerSupport.WHITE;
+	int result = DRAW;
+	int score = 0;
+
+	// Active features for each perspective
+	final int[][] features = new int[2][MAX_PIECES];
+	int size = 0;
+
+	/**
+	 * Decodes the record at the offset.
+	 *
+	 * @param buffer the little endian buffer.
+	 * @param offset the record offset.
+	 */
+	void decode(ByteBuffer buffer, int offset) {
+		size = TrainerSupport.getFeatures(buffer, offset, features);
+		activeColor = buffer.get(offset + 24);
+		result = buffer.get(offset + 25);
+		score = buffer.getShort(offset + 26);
+	}
+
+	/**
+	 * Encodes the position of the FEN with the score and the result.
+	 *
+	 * @param fen    the FEN.
+	 * @param score  the score for the active color in centipawns.
+	 * @param result the result for the active color.
+	 * @param buffer the little endian buffer.
+	 * @param offset the record offset.
+	 * @throws IllegalArgumentException if the FEN is not valid.
+	 */
+	static void encode(String fen, int score, int result, ByteBuffer buffer, int offset) {
+		TrainerSupport.encode(fen, buffer, offset);
+		label(score, result, buffer, offset);
+	}
+
+	/**
+	 * Writes the score and the result into a record which already holds an
+	 * encoded position.
+	 *
+	 * @param score  the score for the active color in centipawns.
+	 * @param result the result for the active color.
+	 * @param buffer the little endian buffer.
+	 * @param offset the record offset.
+	 */
+	static void label(int score, int result, ByteBuffer buffer, int offset) {
+		assert result == LOSS || result == DRAW || result == WIN;
+
+		buffer.put(offset + 25, (byte) result);
+		buffer.putShort(offset + 26, (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, score)));
+		buffer.putInt(offset + 28, 0);
+	}
+}
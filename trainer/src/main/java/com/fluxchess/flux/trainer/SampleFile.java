@@ -0,0 +1,84 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux.trainer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A memory mapped sample file. The file is mapped in chunks because a
+ * single mapping is limited to 2 GB. Reading uses absolute offsets only,
+ * so many threads can read at the same time.
+ */
+final class SampleFile implements Closeable {
+
+	// Records per mapped chunk, 1 GB
+	private static final int CHUNK_RECORDS = (1 << 30) / Sample.SIZE;
+
+	private final FileChannel channel;
+	private final MappedByteBuffer[] chunks;
+	private final long size;
+
+	SampleFile(Path path) throws IOException {
+		this.channel = FileChannel.open(path, StandardOpenOption.READ);
+
+		long length = this.channel.size();
+		if (length % Sample.SIZE != 0) {
+			this.channel.close();
+			throw new IOException("Invalid sample file length: " + length);
+		}
+		this.size = length / Sample.SIZE;
+
+		this.chunks = new MappedByteBuffer[(int) ((this.size + CHUNK_RECORDS - 1) / CHUNK_RECORDS)];
+		for (int i = 0; i < this.chunks.length; i++) {
+			long start = (long) i * CHUNK_RECORDS * Sample.SIZE;
+			long chunkLength = Math.min((long) CHUNK_RECORDS * Sample.SIZE, length - start);
+			this.chunks[i] = this.channel.map(FileChannel.MapMode.READ_ONLY, start, chunkLength);
+			this.chunks[i].order(ByteOrder.LITTLE_ENDIAN);
+		}
+	}
+
+	/**
+	 * Returns the number of samples.
+	 */
+	long size() {
+		return this.size;
+	}
+
+	/**
+	 * Decodes the sample at the index.
+	 *
+	 * @param index  the sample index.
+	 * @param sample the sample to decode into.
+	 */
+	void read(long index, Sample sample) {
+		assert index >= 0 && index < this.size;
+
+		sample.decode(this.chunks[(int) (index / CHUNK_RECORDS)], (int) (index % CHUNK_RECORDS) * Sample.SIZE);
+	}
+
+	public void close() throws IOException {
+		this.channel.close();
+	}
+}
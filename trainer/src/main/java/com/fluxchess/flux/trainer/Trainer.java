@@ -0,0 +1,321 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux.trainer;
+
+import com.fluxchess.flux.TrainerSupport;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Trains the evaluation network from sample files on the CPU.
+ * <p>
+ * Each mini-batch is split into one slice per thread. Every thread adds
+ * the gradients of its slice into its own gradient, the slices are summed
+ * and one Adam step is applied.
+ */
+public final class Trainer {
+
+	private int hiddenSize = 256;
+	private int epochs = 10;
+	private int batchSize = 16384;
+	private float learningRate = 0.001f;
+	private float lambda = 0.75f;
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private long seed = 0;
+
+	public static void main(String[] args) {
+		try {
+			if (args.length >= 3 && args[0].equalsIgnoreCase("train")) {
+				Trainer trainer = new Trainer();
+				trainer.parseOptions(args, 3);
+				trainer.train(Paths.get(args[1]), Paths.get(args[2]));
+			} else if (args.length == 3 && args[0].equalsIgnoreCase("convert")) {
+				convert(Paths.get(args[1]), Paths.get(args[2]));
+			} else if (args.length == 3 && args[0].equalsIgnoreCase("convert-games")) {
+				convertGames(Paths.get(args[1]), Paths.get(args[2]));
+			} else if (args.length >= 2 && args[0].equalsIgnoreCase("tune")) {
+				tune(args);
+			} else if (args.length == 4 && args[0].equalsIgnoreCase("tune-worker")) {
+				Tuner.work(Paths.get(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+			} else {
+				System.out.println("Usage: trainer train <samples> <network> [hidden <n>] [epochs <n>] [batch <n>] [rate <r>] [lambda <l>] [threads <n>] [seed <n>]");
+				System.out.println("       trainer convert <fens> <samples>");
+				System.out.println("       trainer convert-games <games> <samples>");
+				System.out.println("       trainer tune <fens> [threads <n>] [iterations <n>]");
+				System.exit(1);
+			}
+		} catch (Throwable t) {
+			System.out.format("Exiting trainer due to an exception: %s%n", t.getLocalizedMessage());
+			t.printStackTrace();
+			System.exit(1);
+		}
+	}
+
+	private static void tune(String[] args) throws IOException {
+		int threads = Runtime.getRuntime().availableProcessors();
+		int iterations = 100;
+		for (int i = 2; i + 1 < args.length; i += 2) {
+			switch (args[i].toLowerCase()) {
+				case "threads":
+					threads = Integer.parseInt(args[i + 1]);
+					break;
+				case "iterations":
+					iterations = Integer.parseInt(args[i + 1]);
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown option: " + args[i]);
+			}
+		}
+
+		try (Tuner tuner = new Tuner(Paths.get(args[1]), threads)) {
+			tuner.tune(iterations, System.out);
+		}
+	}
+
+	private void parseOptions(String[] args, int start) {
+		for (int i = start; i + 1 < args.length; i += 2) {
+			String value = args[i + 1];
+			switch (args[i].toLowerCase()) {
+				case "hidden":
+					this.hiddenSize = Integer.parseInt(value);
+					break;
+				case "epochs":
+					this.epochs = Integer.parseInt(value);
+					break;
+				case "batch":
+					this.batchSize = Integer.parseInt(value);
+					break;
+				case "rate":
+					this.learningRate = Float.parseFloat(value);
+					break;
+				case "lambda":
+					this.lambda = Float.parseFloat(value);
+					break;
+				case "threads":
+					this.threads = Integer.parseInt(value);
+					break;
+				case "seed":
+					this.seed = Long.parseLong(value);
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown option: " + args[i]);
+			}
+		}
+	}
+
+	/**
+	 * Trains a network and writes the quantized network after each epoch.
+	 *
+	 * @param samplePath  the sample file.
+	 * @param networkPath the network file.
+	 */
+	void train(Path samplePath, Path networkPath) throws IOException, InterruptedException, ExecutionException {
+		try (SampleFile samples = new SampleFile(samplePath)) {
+			train(samples, networkPath);
+		}
+	}
+
+	TrainerNetwork train(SampleFile samples, Path networkPath) throws IOException, InterruptedException, ExecutionException {
+		if (samples.size() == 0) {
+			throw new IllegalArgumentException("No samples");
+		}
+
+		System.out.format("Training %d hidden neurons on %d samples with %d threads%n", this.hiddenSize, samples.size(), this.threads);
+
+		Random random = new Random(this.seed);
+		TrainerNetwork network = new TrainerNetwork(this.hiddenSize, random);
+
+		TrainerNetwork.Gradient[] gradients = new TrainerNetwork.Gradient[this.threads];
+		Sample[] threadSamples = new Sample[this.threads];
+		for (int i = 0; i < this.threads; i++) {
+			gradients[i] = new TrainerNetwork.Gradient(this.hiddenSize);
+			threadSamples[i] = new Sample();
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(this.threads);
+		try {
+			long batches = (samples.size() + this.batchSize - 1) / this.batchSize;
+			for (int epoch = 1; epoch <= this.epochs; epoch++) {
+				long startTime = System.currentTimeMillis();
+				double loss = 0;
+
+				// Visit the batches in random order. Samples within a batch are
+				// read sequentially which keeps the mapped file access fast.
+				long[] order = shuffle(batches, random);
+				for (long batch : order) {
+					long start = batch * this.batchSize;
+					long end = Math.min(start + this.batchSize, samples.size());
+					long slice = (end - start + this.threads - 1) / this.threads;
+
+					List<Future<?>> futures = new ArrayList<>();
+					for (int i = 0; i < this.threads; i++) {
+						long sliceStart = start + i * slice;
+						long sliceEnd = Math.min(sliceStart + slice, end);
+						TrainerNetwork.Gradient gradient = gradients[i];
+						Sample sample = threadSamples[i];
+						gradient.clear();
+						futures.add(executor.submit(() -> {
+							for (long index = sliceStart; index < sliceEnd; index++) {
+								samples.read(index, sample);
+								network.backward(sample, this.lambda, gradient);
+							}
+						}));
+					}
+					for (Future<?> future : futures) {
+						future.get();
+					}
+
+					for (int i = 1; i < this.threads; i++) {
+						gradients[0].add(gradients[i]);
+					}
+					loss += gradients[0].loss;
+					network.update(gradients[0], this.learningRate);
+				}
+
+				long duration = Math.max(1, System.currentTimeMillis() - startTime);
+				System.out.format("Epoch %d: loss %.6f, %d samples/s%n",
+						epoch, loss / samples.size(), samples.size() * 1000 / duration);
+
+				if (networkPath != null) {
+					try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(networkPath))) {
+						network.write(stream);
+					}
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		return network;
+	}
+
+	private static long[] shuffle(long size, Random random) {
+		long[] order = new long[(int) size];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		for (int i = order.length - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			long value = order[i];
+			order[i] = order[j];
+			order[j] = value;
+		}
+
+		return order;
+	}
+
+	/**
+	 * Converts a text file into a sample file. Each line has a FEN, the score
+	 * for the active color in centipawns and the game result from white's
+	 * point of view ("1-0", "1/2-1/2" or "0-1"), separated by ';'.
+	 *
+	 * @param fenPath    the text file.
+	 * @param samplePath the sample file.
+	 */
+	static void convert(Path fenPath, Path samplePath) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(Sample.SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		long count = 0;
+
+		try (BufferedReader reader = Files.newBufferedReader(fenPath, StandardCharsets.UTF_8);
+			 OutputStream output = new BufferedOutputStream(Files.newOutputStream(samplePath))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.trim().isEmpty()) {
+					continue;
+				}
+
+				String[] tokens = line.split(";");
+				if (tokens.length != 3) {
+					throw new IOException("Invalid line: " + line);
+				}
+				String fen = tokens[0].trim();
+				int score = Integer.parseInt(tokens[1].trim());
+				int result;
+				switch (tokens[2].trim()) {
+					case "1-0":
+						result = Sample.WIN;
+						break;
+					case "0-1":
+						result = Sample.LOSS;
+						break;
+					case "1/2-1/2":
+						result = Sample.DRAW;
+						break;
+					default:
+						throw new IOException("Invalid result: " + line);
+				}
+				if (fen.split("\\s+")[1].equals("b")) {
+					result = Sample.WIN - result;
+				}
+
+				Sample.encode(fen, score, result, buffer, 0);
+				output.write(buffer.array());
+				count++;
+			}
+		}
+
+		System.out.format("Converted %d samples%n", count);
+	}
+
+	/**
+	 * Converts a game file into a sample file. Positions without a score are
+	 * skipped.
+	 *
+	 * @param gamePath   the game file.
+	 * @param samplePath the sample file.
+	 */
+	static void convertGames(Path gamePath, Path samplePath) throws IOException {
+		long[] count = {0};
+
+		try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(samplePath))) {
+			TrainerSupport.readGames(gamePath, (buffer, score, result) -> {
+				if (score == TrainerSupport.NOSCORE) {
+					return;
+				}
+
+				// The game results and the sample results have the same order
+				if (buffer.get(24) == TrainerSupport.BLACK) {
+					result = Sample.WIN - result;
+				}
+
+				Sample.label(score, result, buffer, 0);
+				output.write(buffer.array(), 0, Sample.SIZE);
+				count[0]++;
+			});
+		}
+
+		System.out.format("Converted %d samples%n", count[0]);
+	}
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux.trainer;
+
+import com.fluxchess.flux.TrainerSupport;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The floating point version of the engine's network used for training. It
+ * has the same layout and is quantized when it is written.
+ */
+final class TrainerNetwork {
+
+	// Weights are clipped so the quantized accumulators and the output
+	// sum fit into shorts and ints
+	static final float FEATURE_LIMIT = 127f / TrainerSupport.NETWORK_QA * 4;
+	static final float OUTPUT_LIMIT = 127f / TrainerSupport.NETWORK_QB;
+
+	// Adam
+	private static final float BETA1 = 0.9f;
+	private static final float BETA2 = 0.999f;
+	private static final float EPSILON = 1e-8f;
+
+	final int hiddenSize;
+
+	final float[] featureWeights;
+	final float[] featureBias;
+	final float[] outputWeights;
+	final float[] outputBias = new float[1];
+
+	// Adam moments of each parameter array
+	private final float[][] moment1;
+	private final float[][] moment2;
+	private int step = 0;
+
+	/**
+	 * The gradient of a part of a mini-batch. Each training thread owns one
+	 * so the threads never write to shared memory.
+	 */
+	static final class Gradient {
+
+		final float[] featureWeights;
+		final float[] featureBias;
+		final float[] outputWeights;
+		final float[] outputBias = new float[1];
+		double loss = 0;
+		int count = 0;
+
+		// Scratch space of the forward pass
+		private final float[][] accumulator;
+		private final float[][] delta;
+
+		Gradient(int hiddenSize) {
+			this.featureWeights = new float[TrainerSupport.NETWORK_INPUTS * hiddenSize];
+			this.featureBias = new float[hiddenSize];
+			this.outputWeights = new float[2 * hiddenSize];
+			this.accumulator = new float[2][hiddenSize];
+			this.delta = new float[2][hiddenSize];
+		}
+
+		void clear() {
+			Arrays.fill(this.featureWeights, 0);
+			Arrays.fill(this.featureBias, 0);
+			Arrays.fill(this.outputWeights, 0);
+			this.outputBias[0] = 0;
+			this.loss = 0;
+			this.count = 0;
+		}
+
+		void add(Gradient gradient) {
+			add(this.featureWeights, gradient.featureWeights);
+			add(this.featureBias, gradient.featureBias);
+			add(this.outputWeights, gradient.outputWeights);
+			this.outputBias[0] += gradient.outputBias[0];
+			this.loss += gradient.loss;
+			this.count += gradient.count;
+		}
+
+		private static void add(float[] sum, float[] values) {
+			for (int i = 0; i < sum.length; i++) {
+				sum[i] += values[i];
+			}
+		}
+	}
+
+	TrainerNetwork(int hiddenSize, Random random) {
+		assert hiddenSize > 0;
+
+		this.hiddenSize = hiddenSize;
+		this.featureWeights = new float[TrainerSupport.NETWORK_INPUTS * hiddenSize];
+		this.featureBias = new float[hiddenSize];
+		this.outputWeights = new float[2 * hiddenSize];
+
+		// About 30 features are active, scale the initial weights for that
+		float featureRange = (float) (1 / Math.sqrt(Sample.MAX_PIECES));
+		for (int i = 0; i < this.featureWeights.length; i++) {
+			this.featureWeights[i] = (random.nextFloat() * 2 - 1) * featureRange;
+		}
+		for (int i = 0; i < this.featureBias.length; i++) {
+			this.featureBias[i] = 0.5f;
+		}
+		float outputRange = (float) (1 / Math.sqrt(2 * hiddenSize));
+		for (int i = 0; i < this.outputWeights.length; i++) {
+			this.outputWeights[i] = (random.nextFloat() * 2 - 1) * outputRange;
+		}
+
+		float[][] parameters = {this.featureWeights, this.featureBias, this.outputWeights, this.outputBias};
+		this.moment1 = new float[parameters.length][];
+		this.moment2 = new float[parameters.length][];
+		for (int i = 0; i < parameters.length; i++) {
+			this.moment1[i] = new float[parameters[i].length];
+			this.moment2[i] = new float[parameters[i].length];
+		}
+	}
+
+	/**
+	 * Returns the output of the network for the sample. One unit equals
+	 * TrainerSupport.NETWORK_SCALE centipawns.
+	 */
+	float evaluate(Sample sample, Gradient gradient) {
+		float[][] accumulator = gradient.accumulator;
+		for (int perspective = TrainerSupport.WHITE; perspective <= TrainerSupport.BLACK; perspective++) {
+			float[] hidden = accumulator[perspective];
+			System.arraycopy(this.featureBias, 0, hidden, 0, this.hiddenSize);
+			int[] features = sample.features[perspective];
+			for (int i = 0; i < sample.size; i++) {
+				int offset = features[i] * this.hiddenSize;
+				for (int j = 0; j < this.hiddenSize; j++) {
+					hidden[j] += this.featureWeights[offset + j];
+				}
+			}
+		}
+
+		float[] myHidden = accumulator[sample.activeColor];
+		float[] enemyHidden = accumulator[switchColor(sample.activeColor)];
+		float output = this.outputBias[0];
+		for (int j = 0; j < this.hiddenSize; j++) {
+			output += clamp(myHidden[j]) * this.outputWeights[j];
+			output += clamp(enemyHidden[j]) * this.outputWeights[this.hiddenSize + j];
+		}
+
+		return output;
+	}
+
+	/**
+	 * Adds the gradient of the loss of the sample to the gradient. The target
+	 * mixes the score and the result with lambda.
+	 *
+	 * @param sample   the sample.
+	 * @param lambda   the weight of the score in the target.
+	 * @param gradient the gradient.
+	 */
+	void backward(Sample sample, float lambda, Gradient gradient) {
+		float output = evaluate(sample, gradient);
+
+		float prediction = sigmoid(output);
+		float target = lambda * sigmoid((float) sample.score / TrainerSupport.NETWORK_SCALE)
+				+ (1 - lambda) * sample.result / 2f;
+		float error = prediction - target;
+		gradient.loss += error * error;
+		gradient.count++;
+
+		float outputDelta = 2 * error * prediction * (1 - prediction);
+		gradient.outputBias[0] += outputDelta;
+
+		int myColor = sample.activeColor;
+		int enemyColor = switchColor(myColor);
+		float[] myHidden = gradient.accumulator[myColor];
+		float[] enemyHidden = gradient.accumulator[enemyColor];
+		float[] myDelta = gradient.delta[myColor];
+		float[] enemyDelta = gradient.delta[enemyColor];
+		for (int j = 0; j < this.hiddenSize; j++) {
+			gradient.outputWeights[j] += outputDelta * clamp(myHidden[j]);
+			gradient.outputWeights[this.hiddenSize + j] += outputDelta * clamp(enemyHidden[j]);
+
+			// Clipped ReLU passes the gradient only inside (0, 1)
+			myDelta[j] = myHidden[j] > 0 && myHidden[j] < 1 ? outputDelta * this.outputWeights[j] : 0;
+			enemyDelta[j] = enemyHidden[j] > 0 && enemyHidden[j] < 1 ? outputDelta * this.outputWeights[this.hiddenSize + j] : 0;
+			gradient.featureBias[j] += myDelta[j] + enemyDelta[j];
+		}
+
+		for (int perspective = TrainerSupport.WHITE; perspective <= TrainerSupport.BLACK; perspective++) {
+			float[] delta = gradient.delta[perspective];
+			int[] features = sample.features[perspective];
+			for (int i = 0; i < sample.size; i++) {
+				int offset = features[i] * this.hiddenSize;
+				for (int j = 0; j < this.hiddenSize; j++) {
+					gradient.featureWeights[offset + j] += delta[j];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Applies the averaged gradient with Adam.
+	 *
+	 * @param gradient     the summed gradient of the mini-batch.
+	 * @param learningRate the learning rate.
+	 */
+	void update(Gradient gradient, float learningRate) {
+		assert gradient.count > 0;
+
+		this.step++;
+		float correction1 = (float) (1 - Math.pow(BETA1, this.step));
+		float correction2 = (float) (1 - Math.pow(BETA2, this.step));
+		float scale = 1f / gradient.count;
+
+		update(0, this.featureWeights, gradient.featureWeights, scale, learningRate, correction1, correction2, FEATURE_LIMIT);
+		update(1, this.featureBias, gradient.featureBias, scale, learningRate, correction1, correction2, FEATURE_LIMIT);
+		update(2, this.outputWeights, gradient.outputWeights, scale, learningRate, correction1, correction2, OUTPUT_LIMIT);
+		update(3, this.outputBias, gradient.outputBias, scale, learningRate, correction1, correction2, Float.MAX_VALUE);
+	}
+
+	private void update(int index, float[] parameters, float[] gradients, float scale, float learningRate, float correction1, float correction2, float limit) {
+		float[] m = this.moment1[index];
+		float[] v = this.moment2[index];
+		for (int i = 0; i < parameters.length; i++) {
+			float g = gradients[i] * scale;
+			if (g == 0 && m[i] == 0) {
+				// Inactive feature, nothing to do
+				continue;
+			}
+			m[i] = BETA1 * m[i] + (1 - BETA1) * g;
+			v[i] = BETA2 * v[i] + (1 - BETA2) * g * g;
+			float value = parameters[i] - learningRate * (m[i] / correction1) / ((float) Math.sqrt(v[i] / correction2) + EPSILON);
+			parameters[i] = Math.max(-limit, Math.min(limit, value));
+		}
+	}
+
+	/**
+	 * Quantizes the weights and writes them as a network file.
+	 *
+	 * @param stream the output stream.
+	 * @throws IOException if the stream cannot be written.
+	 */
+	void write(OutputStream stream) throws IOException {
+		short[] newFeatureWeights = new short[this.featureWeights.length];
+		for (int i = 0; i < newFeatureWeights.length; i++) {
+			newFeatureWeights[i] = (short) Math.round(this.featureWeights[i] * TrainerSupport.NETWORK_QA);
+		}
+		short[] newFeatureBias = new short[this.featureBias.length];
+		for (int i = 0; i < newFeatureBias.length; i++) {
+			newFeatureBias[i] = (short) Math.round(this.featureBias[i] * TrainerSupport.NETWORK_QA);
+		}
+		short[] newOutputWeights = new short[this.outputWeights.length];
+		for (int i = 0; i < newOutputWeights.length; i++) {
+			newOutputWeights[i] = (short) Math.round(this.outputWeights[i] * TrainerSupport.NETWORK_QB);
+		}
+		int newOutputBias = Math.round(this.outputBias[0] * TrainerSupport.NETWORK_QA * TrainerSupport.NETWORK_QB);
+
+		TrainerSupport.writeNetwork(newFeatureWeights, newFeatureBias, newOutputWeights, newOutputBias, stream);
+	}
+
+	private static int switchColor(int color) {
+		return color == TrainerSupport.WHITE ? TrainerSupport.BLACK : TrainerSupport.WHITE;
+	}
+
+	private static float clamp(float value) {
+		return Math.min(Math.max(value, 0), 1);
+	}
+
+	private static float sigmoid(float value) {
+		return (float) (1 / (1 + Math.exp(-value)));
+	}
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux.trainer;
+
+import com.fluxchess.flux.TrainerSupport;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tunes the evaluation weights and the piece square tables with the Texel
+ * method. It minimizes the squared error between the game results and the
+ * sigmoid of the static evaluation by local search.
+ * <p>
+ * The engine evaluation has static state, so the positions are split
+ * into shards and each shard is evaluated by its own worker JVM. The
+ * workers get the parameters over stdin and reply with their error.
+ */
+final class Tuner implements Closeable {
+
+	private final int threads;
+	private final TunerShard shard;
+	private final List<Process> workers = new ArrayList<>();
+	private final List<BufferedReader> workerOutputs = new ArrayList<>();
+	private final List<PrintStream> workerInputs = new ArrayList<>();
+	private final long size;
+
+	private long evaluations = 0;
+
+	/**
+	 * Creates a tuner for the labeled positions of the file.
+	 *
+	 * @param path    the file.
+	 * @param threads the number of workers. With one worker the positions are
+	 *                evaluated in this JVM.
+	 */
+	Tuner(Path path, int threads) throws IOException {
+		assert threads > 0;
+
+		this.threads = threads;
+		if (threads == 1) {
+			this.shard = new TunerShard();
+			this.shard.read(path, 0, 1);
+			this.size = this.shard.size();
+		} else {
+			this.shard = null;
+			long total = 0;
+			for (int i = 0; i < threads; i++) {
+				Process process = new ProcessBuilder(
+						Paths.get(System.getProperty("java.home"), "bin", "java").toString(), "-cp", System.getProperty("java.class.path"),
+						Trainer.class.getName(), "tune-worker", path.toString(), Integer.toString(i), Integer.toString(threads))
+						.redirectError(ProcessBuilder.Redirect.INHERIT)
+						.start();
+				this.workers.add(process);
+				this.workerInputs.add(new PrintStream(process.getOutputStream(), true, StandardCharsets.UTF_8));
+				BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+				this.workerOutputs.add(output);
+				total += Long.parseLong(readLine(output));
+			}
+			this.size = total;
+		}
+		if (this.size == 0) {
+			close();
+			throw new IllegalArgumentException("No positions");
+		}
+	}
+
+	private static String readLine(BufferedReader reader) throws IOException {
+		String line = reader.readLine();
+		if (line == null) {
+			throw new IOException("Tuner worker exited");
+		}
+		return line;
+	}
+
+	/**
+	 * Runs a worker. It prints the number of positions of its shard, then
+	 * answers each line of parameters with the error sum.
+	 */
+	static void work(Path path, int index, int count) throws IOException {
+		TunerShard shard = new TunerShard();
+		shard.read(path, index, count);
+
+		PrintStream output = System.out;
+		output.println(shard.size());
+		output.flush();
+
+		BufferedReader input = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+		String line;
+		while ((line = input.readLine()) != null) {
+			String[] tokens = line.trim().split("\\s+");
+			double k = Double.parseDouble(tokens[0]);
+			int[] values = new int[tokens.length - 1];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = Integer.parseInt(tokens[i + 1]);
+			}
+			setParameters(values);
+
+			output.println(shard.getError(k));
+			output.flush();
+		}
+	}
+
+	static int[] getParameters() {
+		return TrainerSupport.getEvaluationParameters();
+	}
+
+	static void setParameters(int[] values) {
+		TrainerSupport.setEvaluationParameters(values);
+	}
+
+	long size() {
+		return this.size;
+	}
+
+	/**
+	 * Returns the mean squared error of the parameters.
+	 *
+	 * @param k      the scaling constant of the sigmoid.
+	 * @param values the parameters.
+	 * @return the mean squared error.
+	 */
+	double getError(double k, int[] values) throws IOException {
+		double error = 0;
+
+		if (this.shard != null) {
+			setParameters(values);
+			error = this.shard.getError(k);
+		} else {
+			StringBuilder line = new StringBuilder().append(k);
+			for (int value : values) {
+				line.append(' ').append(value);
+			}
+			for (PrintStream input : this.workerInputs) {
+				input.println(line);
+			}
+			for (BufferedReader output : this.workerOutputs) {
+				error += Double.parseDouble(readLine(output));
+			}
+		}
+		this.evaluations += this.size;
+
+		return error / this.size;
+	}
+
+	/**
+	 * Finds the scaling constant which fits the current parameters best.
+	 */
+	double getScale(int[] values) throws IOException {
+		double low = 0.1;
+		double high = 3.0;
+		while (high - low > 0.001) {
+			double left = low + (high - low) / 3;
+			double right = high - (high - low) / 3;
+			if (getError(left, values) < getError(right, values)) {
+				high = right;
+			} else {
+				low = left;
+			}
+		}
+
+		return (low + high) / 2;
+	}
+
+	/**
+	 * Tunes the parameters. After each pass over all parameters the current
+	 * values are printed.
+	 *
+	 * @param iterations the maximum number of passes.
+	 * @param output     the stream for the values.
+	 * @return the tuned parameters.
+	 */
+	int[] tune(int iterations, PrintStream output) throws IOException {
+		int[] values = getParameters();
+		double k = getScale(values);
+		double bestError = getError(k, values);
+		System.out.format("Tuning %d parameters on %d positions, K = %.3f, error = %.6f%n",
+				values.length, this.size, k, bestError);
+
+		for (int iteration = 1; iteration <= iterations; iteration++) {
+			long startTime = System.currentTimeMillis();
+			long startEvaluations = this.evaluations;
+			boolean improved = false;
+
+			for (int i = 0; i < values.length; i++) {
+				values[i]++;
+				double error = getError(k, values);
+				if (error < bestError) {
+					bestError = error;
+					improved = true;
+					continue;
+				}
+
+				values[i] -= 2;
+				error = getError(k, values);
+				if (error < bestError) {
+					bestError = error;
+					improved = true;
+					continue;
+				}
+
+				values[i]++;
+			}
+
+			long duration = Math.max(1, System.currentTimeMillis() - startTime);
+			System.out.format("Iteration %d: error = %.6f, %d positions/s per worker%n",
+					iteration, bestError, (this.evaluations - startEvaluations) * 1000 / duration / this.threads);
+			print(values, output);
+
+			if (!improved) {
+				break;
+			}
+		}
+
+		setParameters(values);
+		return values;
+	}
+
+	/**
+	 * Prints the parameters in source form.
+	 */
+	static void print(int[] values, PrintStream output) {
+		TrainerSupport.printEvaluationParameters(values, output);
+	}
+
+	public void close() {
+		for (PrintStream input : this.workerInputs) {
+			input.close();
+		}
+		for (Process process : this.workers) {
+			process.destroy();
+		}
+	}
+}
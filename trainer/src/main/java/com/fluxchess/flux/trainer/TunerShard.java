@@ -0,0 +1,138 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux.trainer;
+
+import com.fluxchess.flux.TrainerSupport;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A part of the labeled positions of the tuner. The positions are kept as
+ * FENs because the engine has static state, so there can be only one
+ * position per JVM. It is set up again for every FEN.
+ */
+final class TunerShard {
+
+	private final List<String> fens = new ArrayList<>();
+	private float[] results = new float[1024];
+
+
+	/**
+	 * Reads every count-th position starting at index from the file. Each line
+	 * has a FEN and the game result separated by ';'. Any fields between are
+	 * ignored, so files for the trainer can be used as well.
+	 *
+	 * @param path  the file.
+	 * @param index the shard index.
+	 * @param count the number of shards.
+	 */
+	void read(Path path, int index, int count) throws IOException {
+		try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+			String line;
+			int number = 0;
+			while ((line = reader.readLine()) != null) {
+				if (line.trim().isEmpty()) {
+					continue;
+				}
+				if (number++ % count != index) {
+					continue;
+				}
+
+				String[] tokens = line.split(";");
+				if (tokens.length < 2) {
+					throw new IOException("Invalid line: " + line);
+				}
+				try {
+					add(tokens[0].trim(), parseResult(tokens[tokens.length - 1].trim()));
+				} catch (IllegalArgumentException e) {
+					throw new IOException("Invalid FEN: " + line, e);
+				}
+			}
+		}
+	}
+
+	private static float parseResult(String result) throws IOException {
+		switch (result) {
+			case "1-0":
+				return 1;
+			case "0-1":
+				return 0;
+			case "1/2-1/2":
+				return 0.5f;
+			default:
+				try {
+					return Float.parseFloat(result);
+				} catch (NumberFormatException e) {
+					throw new IOException("Invalid result: " + result, e);
+				}
+		}
+	}
+
+	/**
+	 * Adds a position.
+	 *
+	 * @param fen    the FEN.
+	 * @param result the game result from white's point of view, 0, 0.5 or 1.
+	 * @throws IllegalArgumentException if the FEN is not valid.
+	 */
+	void add(String fen, float result) {
+		TrainerSupport.evaluate(fen);
+
+		if (this.fens.size() == this.results.length) {
+			this.results = Arrays.copyOf(this.results, 2 * this.results.length);
+		}
+		this.results[this.fens.size()] = result;
+		this.fens.add(fen);
+	}
+
+	int size() {
+		return this.fens.size();
+	}
+
+	/**
+	 * Returns the sum of the squared errors of all positions with the current
+	 * parameters.
+	 *
+	 * @param k the scaling constant of the sigmoid.
+	 * @return the sum of the squared errors.
+	 */
+	double getError(double k) {
+		double error = 0;
+
+		for (int i = 0; i < this.fens.size(); i++) {
+			int value = TrainerSupport.evaluate(this.fens.get(i));
+
+			double difference = this.results[i] - sigmoid(k, value);
+			error += difference * difference;
+		}
+
+		return error;
+	}
+
+	static double sigmoid(double k, int value) {
+		return 1 / (1 + Math.pow(10, -k * value / 400));
+	}
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux.trainer;
+
+import com.fluxchess.flux.TrainerSupport;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SampleTest {
+
+	@Test
+	void testEncodeDecode() {
+		ByteBuffer buffer = ByteBuffer.allocate(2 * Sample.SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		Sample.encode("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1", 25, Sample.DRAW, buffer, 0);
+		Sample.encode("4k3/8/8/8/8/8/4P3/4K3 b - - 0 1", -40000, Sample.LOSS, buffer, Sample.SIZE);
+
+		Sample sample = new Sample();
+		sample.decode(buffer, 0);
+		assertThat(sample.size).isEqualTo(32);
+		assertThat(sample.activeColor).isEqualTo(TrainerSupport.WHITE);
+		assertThat(sample.score).isEqualTo(25);
+		assertThat(sample.result).isEqualTo(Sample.DRAW);
+		assertThat(sample.features[TrainerSupport.WHITE][0])
+				.isEqualTo(TrainerSupport.getFeature(TrainerSupport.WHITE, 'R', "a1"));
+		assertThat(sample.features[TrainerSupport.BLACK][31])
+				.isEqualTo(TrainerSupport.getFeature(TrainerSupport.BLACK, 'r', "h8"));
+
+		sample.decode(buffer, Sample.SIZE);
+		assertThat(sample.size).isEqualTo(3);
+		assertThat(sample.activeColor).isEqualTo(TrainerSupport.BLACK);
+		assertThat(sample.score).isEqualTo(Short.MIN_VALUE);
+		assertThat(sample.result).isEqualTo(Sample.LOSS);
+		assertThat(sample.features[TrainerSupport.WHITE]).startsWith(
+				TrainerSupport.getFeature(TrainerSupport.WHITE, 'K', "e1"),
+				TrainerSupport.getFeature(TrainerSupport.WHITE, 'P', "e2"),
+				TrainerSupport.getFeature(TrainerSupport.WHITE, 'k', "e8"));
+	}
+
+	@Test
+	void testInvalidFen() {
+		ByteBuffer buffer = ByteBuffer.allocate(Sample.SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		assertThatThrownBy(() -> Sample.encode("4k3/8/8/8/8/8/4X3/4K3 w - -", 0, Sample.DRAW, buffer, 0))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> Sample.encode("4k3/8/8/8/8/8/4P3/4K3", 0, Sample.DRAW, buffer, 0))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux.trainer;
+
+import com.fluxchess.flux.TrainerSupport;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.assertj.core.api.Assertions.withinPercentage;
+
+class TrainerNetworkTest {
+
+	private static final String FEN = "r1bqk2r/pppp1ppp/2n2n2/2b1p3/2B1P3/5N2/PPPP1PPP/RNBQK2R b KQkq -";
+
+	private static Sample createSample(String fen, int score, int result) {
+		ByteBuffer buffer = ByteBuffer.allocate(Sample.SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		Sample.encode(fen, score, result, buffer, 0);
+		Sample sample = new Sample();
+		sample.decode(buffer, 0);
+		return sample;
+	}
+
+	@Test
+	void testGradient() {
+		TrainerNetwork network = new TrainerNetwork(8, new Random(0));
+		Sample sample = createSample(FEN, 150, Sample.WIN);
+		TrainerNetwork.Gradient gradient = new TrainerNetwork.Gradient(8);
+		network.backward(sample, 0.5f, gradient);
+
+		// Compare with the finite difference of the loss
+		int feature = sample.features[TrainerSupport.BLACK][0] * 8 + 3;
+		float[][] parameters = {network.outputBias, network.outputWeights, network.featureBias, network.featureWeights};
+		float[][] gradients = {gradient.outputBias, gradient.outputWeights, gradient.featureBias, gradient.featureWeights};
+		int[] indexes = {0, 2, 5, feature};
+		for (int i = 0; i < parameters.length; i++) {
+			float value = parameters[i][indexes[i]];
+			parameters[i][indexes[i]] = value + 1e-3f;
+			double upper = loss(network, sample);
+			parameters[i][indexes[i]] = value - 1e-3f;
+			double lower = loss(network, sample);
+			parameters[i][indexes[i]] = value;
+
+			assertThat((double) gradients[i][indexes[i]]).isCloseTo((upper - lower) / 2e-3, within(1e-3));
+		}
+	}
+
+	private static double loss(TrainerNetwork network, Sample sample) {
+		TrainerNetwork.Gradient gradient = new TrainerNetwork.Gradient(network.hiddenSize);
+		network.backward(sample, 0.5f, gradient);
+		return gradient.loss;
+	}
+
+	@Test
+	void testUpdate() {
+		TrainerNetwork network = new TrainerNetwork(16, new Random(1));
+		Sample sample = createSample(FEN, 300, Sample.WIN);
+		TrainerNetwork.Gradient gradient = new TrainerNetwork.Gradient(16);
+
+		double first = loss(network, sample);
+		for (int i = 0; i < 50; i++) {
+			gradient.clear();
+			network.backward(sample, 0.5f, gradient);
+			network.update(gradient, 0.01f);
+		}
+
+		assertThat(loss(network, sample)).isLessThan(first / 10);
+	}
+
+	@Test
+	void testWrite() throws IOException {
+		TrainerNetwork network = new TrainerNetwork(32, new Random(2));
+		Sample sample = createSample(FEN, 0, Sample.DRAW);
+		float expected = network.evaluate(sample, new TrainerNetwork.Gradient(32)) * TrainerSupport.NETWORK_SCALE;
+
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		network.write(stream);
+		int value = TrainerSupport.evaluateNetwork(new ByteArrayInputStream(stream.toByteArray()), FEN);
+
+		// The output weights have a resolution of 1 / QB only
+		assertThat((double) value).isCloseTo(expected, withinPercentage(10));
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2007-2020 Phokham Nonava
+ *
+ * This file is part of Flux Chess.
+ *
+ * Flux Chess is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Flux Chess is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Flux Chess.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.fluxchess.flux.trainer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TunerTest {
+
+	private int[] values;
+
+	@BeforeEach
+	void setUp() {
+		this.values = Tuner.getParameters();
+	}
+
+	@AfterEach
+	void tearDown() {
+		Tuner.setParameters(this.values);
+	}
+
+	@Test
+	void testTune(@TempDir Path directory) throws IOException {
+		Path path = directory.resolve("positions.txt");
+		Files.write(path, Arrays.asList(
+				"4k3/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQ - 0 1;1-0",
+				"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/4K3 b kq - 0 1;0-1",
+				"r3k3/pppppppp/8/8/8/8/PPPPPPPP/4K2R w - - 0 1;1/2-1/2",
+				"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1;1/2-1/2"
+		));
+
+		try (Tuner tuner = new Tuner(path, 1)) {
+			assertThat(tuner.size()).isEqualTo(4);
+
+			double k = tuner.getScale(this.values);
+			double error = tuner.getError(k, this.values);
+			int[] tuned = tuner.tune(1, new PrintStream(OutputStream.nullOutputStream()));
+
+			assertThat(tuner.getError(k, tuned)).isLessThanOrEqualTo(error);
+			assertThat(Tuner.getParameters()).isEqualTo(tuned);
+		}
+	}
+}